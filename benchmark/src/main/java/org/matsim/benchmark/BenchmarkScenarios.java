@@ -0,0 +1,93 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * BenchmarkScenarios.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2022 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.network.io.MatsimNetworkReader;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.core.utils.io.IOUtils;
+import org.matsim.examples.ExamplesUtils;
+import org.matsim.pt.transitSchedule.api.TransitScheduleReader;
+
+/**
+ * Loads the bundled example scenarios used by the benchmarks, so that all benchmarks of a release work on the same data.
+ */
+final class BenchmarkScenarios {
+
+	private BenchmarkScenarios() {
+	}
+
+	/**
+	 * @return the berlin network, about 11'600 nodes.
+	 */
+	static Network loadBerlinNetwork() {
+		Network network = NetworkUtils.createNetwork();
+		new MatsimNetworkReader(network).readURL(IOUtils.extendUrl(ExamplesUtils.getTestScenarioURL("berlin"), "network.xml.gz"));
+		return network;
+	}
+
+	/**
+	 * @return the network and the transit schedule of sioux falls, without population.
+	 */
+	static Scenario loadSiouxfallsTransitScenario() {
+		URL context = ExamplesUtils.getTestScenarioURL("siouxfalls-2014");
+		Config config = ConfigUtils.createConfig();
+		config.transit().setUseTransit(true);
+		Scenario scenario = ScenarioUtils.createScenario(config);
+		new MatsimNetworkReader(scenario.getNetwork()).readURL(IOUtils.extendUrl(context, "Siouxfalls_network_PT.xml"));
+		new TransitScheduleReader(scenario).readURL(IOUtils.extendUrl(context, "Siouxfalls_transitSchedule.xml"));
+		return scenario;
+	}
+
+	/**
+	 * @return the equil scenario with 2000 agents with car routes.
+	 */
+	static Scenario loadEquilScenario() {
+		Config config = ConfigUtils.loadConfig(IOUtils.extendUrl(ExamplesUtils.getTestScenarioURL("equil"), "config.xml"));
+		config.plans().setInputFile("plans2000.xml.gz");
+		config.controler().setCreateGraphs(false);
+		return ScenarioUtils.loadScenario(config);
+	}
+
+	/**
+	 * @return the uncompressed events of the equil scenario with 2000 agents.
+	 */
+	static byte[] loadEquilEvents() {
+		URL url = IOUtils.extendUrl(ExamplesUtils.getTestScenarioURL("equil"), "output_events.xml.gz");
+		try (InputStream in = IOUtils.getInputStream(url)) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			in.transferTo(out);
+			return out.toByteArray();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -0,0 +1,112 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * EventsIOBenchmark.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2022 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.groups.ControlerConfigGroup;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.events.MatsimEventsReader;
+import org.matsim.core.events.algorithms.EventWriterXML;
+import org.matsim.core.events.handler.BasicEventHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Writing the events of the equil scenario with {@link EventWriterXML} and reading them with {@link MatsimEventsReader},
+ * about 56'000 events each, from and to memory to exclude the disk.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventsIOBenchmark {
+
+	private byte[] eventsXml;
+	private final List<Event> events = new ArrayList<>();
+
+	@Setup
+	public void setup() {
+		this.eventsXml = BenchmarkScenarios.loadEquilEvents();
+		EventsManager eventsManager = EventsUtils.createEventsManager();
+		eventsManager.addHandler((BasicEventHandler) this.events::add);
+		eventsManager.initProcessing();
+		new MatsimEventsReader(eventsManager).readStream(new ByteArrayInputStream(this.eventsXml),
+				ControlerConfigGroup.EventsFileFormat.xml);
+		eventsManager.finishProcessing();
+	}
+
+	@Benchmark
+	public int readEvents() {
+		int[] count = new int[1];
+		EventsManager eventsManager = EventsUtils.createEventsManager();
+		eventsManager.addHandler((BasicEventHandler) event -> count[0]++);
+		eventsManager.initProcessing();
+		new MatsimEventsReader(eventsManager).readStream(new ByteArrayInputStream(this.eventsXml),
+				ControlerConfigGroup.EventsFileFormat.xml);
+		eventsManager.finishProcessing();
+		return count[0];
+	}
+
+	@Benchmark
+	public long writeEvents() {
+		CountingOutputStream out = new CountingOutputStream();
+		EventWriterXML writer = new EventWriterXML(out);
+		for (Event event : this.events) {
+			writer.handleEvent(event);
+		}
+		writer.closeFile();
+		return out.bytes;
+	}
+
+	/**
+	 * Discards the bytes, but counts them so the writing cannot be optimized away.
+	 */
+	private static class CountingOutputStream extends OutputStream {
+		private long bytes = 0;
+
+		@Override
+		public void write(int b) {
+			this.bytes++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			this.bytes += len;
+		}
+	}
+}
@@ -0,0 +1,84 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * IdMapBenchmark.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2022 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.IdMap;
+import org.matsim.api.core.v01.population.Person;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link IdMap#get(Object)} and {@link IdMap#put(Id, Object)} in random order, as done by most event handlers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdMapBenchmark {
+
+	@Param({"1000", "1000000"})
+	public int size;
+
+	private IdMap<Person, Integer> map;
+	private List<Id<Person>> ids;
+	private int next = 0;
+
+	@Setup
+	public void setup() {
+		this.map = new IdMap<>(Person.class);
+		this.ids = new ArrayList<>(this.size);
+		for (int i = 0; i < this.size; i++) {
+			Id<Person> id = Id.createPersonId("benchmark_" + i);
+			this.ids.add(id);
+			this.map.put(id, i);
+		}
+		Collections.shuffle(this.ids, new Random(4711));
+	}
+
+	@Benchmark
+	public Integer get() {
+		return this.map.get(this.ids.get(this.next++ % this.size));
+	}
+
+	@Benchmark
+	public Integer put() {
+		int i = this.next++ % this.size;
+		return this.map.put(this.ids.get(i), i);
+	}
+}
@@ -0,0 +1,82 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * QuadTreeBenchmark.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2022 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.utils.collections.QuadTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link QuadTree#getClosest(double, double)} for random coordinates within the berlin network.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuadTreeBenchmark {
+
+	private static final int NUMBER_OF_QUERIES = 4096;
+
+	private QuadTree<Node> quadTree;
+	private final double[] xs = new double[NUMBER_OF_QUERIES];
+	private final double[] ys = new double[NUMBER_OF_QUERIES];
+	private int query = 0;
+
+	@Setup
+	public void setup() {
+		Network network = BenchmarkScenarios.loadBerlinNetwork();
+		double[] bounds = NetworkUtils.getBoundingBox(network.getNodes().values());
+		this.quadTree = new QuadTree<>(bounds[0], bounds[1], bounds[2], bounds[3]);
+		for (Node node : network.getNodes().values()) {
+			Coord coord = node.getCoord();
+			this.quadTree.put(coord.getX(), coord.getY(), node);
+		}
+
+		Random random = new Random(4711);
+		for (int i = 0; i < NUMBER_OF_QUERIES; i++) {
+			this.xs[i] = bounds[0] + random.nextDouble() * (bounds[2] - bounds[0]);
+			this.ys[i] = bounds[1] + random.nextDouble() * (bounds[3] - bounds[1]);
+		}
+	}
+
+	@Benchmark
+	public Node getClosest() {
+		int i = this.query++ % NUMBER_OF_QUERIES;
+		return this.quadTree.getClosest(this.xs[i], this.ys[i]);
+	}
+}
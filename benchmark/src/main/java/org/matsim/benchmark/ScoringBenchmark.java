@@ -0,0 +1,88 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * ScoringBenchmark.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2022 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.groups.ControlerConfigGroup;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.events.MatsimEventsReader;
+import org.matsim.core.events.handler.BasicEventHandler;
+import org.matsim.core.scoring.EventsToScore;
+import org.matsim.core.scoring.functions.CharyparNagelScoringFunctionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Scoring the events of the equil scenario with 2000 agents through {@link EventsToScore}, i.e. the event handling of
+ * <code>ScoringFunctionsForPopulation</code> including the conversion of the events to activities and legs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScoringBenchmark {
+
+	private Scenario scenario;
+	private final List<Event> events = new ArrayList<>();
+
+	@Setup
+	public void setup() {
+		this.scenario = BenchmarkScenarios.loadEquilScenario();
+		EventsManager eventsManager = EventsUtils.createEventsManager();
+		eventsManager.addHandler((BasicEventHandler) this.events::add);
+		eventsManager.initProcessing();
+		new MatsimEventsReader(eventsManager).readStream(new ByteArrayInputStream(BenchmarkScenarios.loadEquilEvents()),
+				ControlerConfigGroup.EventsFileFormat.xml);
+		eventsManager.finishProcessing();
+	}
+
+	@Benchmark
+	public Double scoreEvents() {
+		EventsManager eventsManager = EventsUtils.createEventsManager();
+		EventsToScore eventsToScore = EventsToScore.createWithoutScoreUpdating(this.scenario, new CharyparNagelScoringFunctionFactory(this.scenario), eventsManager);
+		eventsToScore.beginIteration(0, false);
+		eventsManager.initProcessing();
+		for (Event event : this.events) {
+			eventsManager.processEvent(event);
+		}
+		eventsManager.finishProcessing();
+		eventsToScore.finish();
+		return eventsToScore.getAgentScore(Id.createPersonId("1"));
+	}
+}
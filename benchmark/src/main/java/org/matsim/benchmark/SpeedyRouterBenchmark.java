@@ -0,0 +1,94 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * SpeedyRouterBenchmark.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2022 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.router.costcalculators.FreespeedTravelTimeAndDisutility;
+import org.matsim.core.router.speedy.SpeedyALTFactory;
+import org.matsim.core.router.speedy.SpeedyDijkstraFactory;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.LeastCostPathCalculator.Path;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Point-to-point queries of {@link org.matsim.core.router.speedy.SpeedyDijkstra} and
+ * {@link org.matsim.core.router.speedy.SpeedyALT} on the berlin network with free speed travel times.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpeedyRouterBenchmark {
+
+	private static final int NUMBER_OF_QUERIES = 1000;
+
+	@Param({"dijkstra", "alt"})
+	public String router;
+
+	private LeastCostPathCalculator calculator;
+	private final List<Node> fromNodes = new ArrayList<>();
+	private final List<Node> toNodes = new ArrayList<>();
+	private int query = 0;
+
+	@Setup
+	public void setup() {
+		Network network = BenchmarkScenarios.loadBerlinNetwork();
+		FreespeedTravelTimeAndDisutility travelTime = new FreespeedTravelTimeAndDisutility(ConfigUtils.createConfig().planCalcScore());
+		if (this.router.equals("alt")) {
+			this.calculator = new SpeedyALTFactory().createPathCalculator(network, travelTime, travelTime);
+		} else {
+			this.calculator = new SpeedyDijkstraFactory().createPathCalculator(network, travelTime, travelTime);
+		}
+
+		// the same queries in every run
+		List<Node> nodes = new ArrayList<>(network.getNodes().values());
+		Random random = new Random(4711);
+		for (int i = 0; i < NUMBER_OF_QUERIES; i++) {
+			this.fromNodes.add(nodes.get(random.nextInt(nodes.size())));
+			this.toNodes.add(nodes.get(random.nextInt(nodes.size())));
+		}
+	}
+
+	@Benchmark
+	public Path calcLeastCostPath() {
+		int i = this.query++ % NUMBER_OF_QUERIES;
+		return this.calculator.calcLeastCostPath(this.fromNodes.get(i), this.toNodes.get(i), 8 * 3600, null, null);
+	}
+}
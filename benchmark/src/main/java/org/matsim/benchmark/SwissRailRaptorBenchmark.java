@@ -0,0 +1,99 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * SwissRailRaptorBenchmark.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2022 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.population.PlanElement;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.router.DefaultRoutingRequest;
+import org.matsim.facilities.Facility;
+import org.matsim.facilities.FacilitiesUtils;
+import org.matsim.pt.transitSchedule.api.TransitStopFacility;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.sbb.matsim.routing.pt.raptor.RaptorUtils;
+import ch.sbb.matsim.routing.pt.raptor.SwissRailRaptor;
+import ch.sbb.matsim.routing.pt.raptor.SwissRailRaptorData;
+
+/**
+ * Least cost routes of {@link SwissRailRaptor} (i.e. <code>SwissRailRaptorCore.calcLeastCostRoute</code>, including the
+ * search of access and egress stops) on the sioux falls transit schedule.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SwissRailRaptorBenchmark {
+
+	private static final int NUMBER_OF_QUERIES = 1000;
+
+	private SwissRailRaptor raptor;
+	private final List<Facility> fromFacilities = new ArrayList<>();
+	private final List<Facility> toFacilities = new ArrayList<>();
+	private final List<Double> departureTimes = new ArrayList<>();
+	private int query = 0;
+
+	@Setup
+	public void setup() {
+		Scenario scenario = BenchmarkScenarios.loadSiouxfallsTransitScenario();
+		SwissRailRaptorData data = SwissRailRaptorData.create(scenario.getTransitSchedule(), null,
+				RaptorUtils.createStaticConfig(scenario.getConfig()), scenario.getNetwork(), null);
+		this.raptor = new SwissRailRaptor.Builder(data, scenario.getConfig()).build();
+
+		// the same queries in every run: from close to one stop to close to another stop, during the day
+		List<TransitStopFacility> stops = new ArrayList<>(scenario.getTransitSchedule().getFacilities().values());
+		Random random = new Random(4711);
+		for (int i = 0; i < NUMBER_OF_QUERIES; i++) {
+			this.fromFacilities.add(createFacilityNear(stops.get(random.nextInt(stops.size())), scenario.getNetwork(), random));
+			this.toFacilities.add(createFacilityNear(stops.get(random.nextInt(stops.size())), scenario.getNetwork(), random));
+			this.departureTimes.add(6 * 3600 + random.nextDouble() * 12 * 3600);
+		}
+	}
+
+	private static Facility createFacilityNear(TransitStopFacility stop, Network network, Random random) {
+		Coord coord = new Coord(stop.getCoord().getX() + random.nextDouble() * 200 - 100, stop.getCoord().getY() + random.nextDouble() * 200 - 100);
+		return FacilitiesUtils.wrapLinkAndCoord(NetworkUtils.getNearestLink(network, coord), coord);
+	}
+
+	@Benchmark
+	public List<? extends PlanElement> calcRoute() {
+		int i = this.query++ % NUMBER_OF_QUERIES;
+		return this.raptor.calcRoute(DefaultRoutingRequest.withoutAttributes(this.fromFacilities.get(i), this.toFacilities.get(i), this.departureTimes.get(i), null));
+	}
+}
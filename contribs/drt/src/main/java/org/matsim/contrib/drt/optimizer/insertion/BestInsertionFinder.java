@@ -23,6 +23,7 @@ import static org.matsim.contrib.drt.optimizer.insertion.InsertionCostCalculator
 
 import java.util.Comparator;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Stream;
 
 import org.matsim.api.core.v01.Id;
@@ -67,4 +68,21 @@ public class BestInsertionFinder {
 				.min(INSERTION_WITH_COST_COMPARATOR)
 				.map(iWithCost -> iWithCost.insertionWithDetourData);
 	}
+
+	/**
+	 * @param feasibleVehicles collects the vehicles with at least one feasible insertion (must be thread-safe if the
+	 *                         stream is parallel)
+	 */
+	public Optional<InsertionWithDetourData> findBestInsertion(DrtRequest drtRequest,
+			Stream<InsertionWithDetourData> insertions, Set<Id<DvrpVehicle>> feasibleVehicles) {
+		return insertions.map(
+						i -> new InsertionWithCost(i, costCalculator.calculate(drtRequest, i.insertion, i.detourTimeInfo)))
+				.filter(iWithCost -> iWithCost.cost < INFEASIBLE_SOLUTION_COST)
+				.map(iWithCost -> {
+					feasibleVehicles.add(iWithCost.insertionWithDetourData.insertion.vehicleEntry.vehicle.getId());
+					return iWithCost;
+				})
+				.min(INSERTION_WITH_COST_COMPARATOR)
+				.map(iWithCost -> iWithCost.insertionWithDetourData);
+	}
 }
@@ -19,12 +19,16 @@
 
 package org.matsim.contrib.drt.optimizer.insertion;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ForkJoinPool;
 import java.util.function.DoubleSupplier;
 import java.util.stream.Collectors;
@@ -62,6 +66,7 @@ public class DefaultUnplannedRequestInserter implements UnplannedRequestInserter
 	private final DrtRequestInsertionRetryQueue insertionRetryQueue;
 	private final DrtOfferAcceptor drtOfferAcceptor;
 	private final ForkJoinPool forkJoinPool;
+	private final boolean speculativeInsertion;
 
 	public DefaultUnplannedRequestInserter(DrtConfigGroup drtCfg, Fleet fleet, MobsimTimer mobsimTimer,
 			EventsManager eventsManager, RequestInsertionScheduler insertionScheduler,
@@ -69,14 +74,14 @@ public class DefaultUnplannedRequestInserter implements UnplannedRequestInserter
 			DrtRequestInsertionRetryQueue insertionRetryQueue, DrtOfferAcceptor drtOfferAcceptor,
 			ForkJoinPool forkJoinPool) {
 		this(drtCfg.getMode(), fleet, mobsimTimer::getTimeOfDay, eventsManager, insertionScheduler, vehicleEntryFactory,
-				insertionRetryQueue, insertionSearch, drtOfferAcceptor, forkJoinPool);
+				insertionRetryQueue, insertionSearch, drtOfferAcceptor, forkJoinPool, drtCfg.isSpeculativeInsertion());
 	}
 
 	@VisibleForTesting
 	DefaultUnplannedRequestInserter(String mode, Fleet fleet, DoubleSupplier timeOfDay, EventsManager eventsManager,
 			RequestInsertionScheduler insertionScheduler, VehicleEntry.EntryFactory vehicleEntryFactory,
 			DrtRequestInsertionRetryQueue insertionRetryQueue, DrtInsertionSearch insertionSearch,
-			DrtOfferAcceptor drtOfferAcceptor, ForkJoinPool forkJoinPool) {
+			DrtOfferAcceptor drtOfferAcceptor, ForkJoinPool forkJoinPool, boolean speculativeInsertion) {
 		this.mode = mode;
 		this.fleet = fleet;
 		this.timeOfDay = timeOfDay;
@@ -87,6 +92,7 @@ public class DefaultUnplannedRequestInserter implements UnplannedRequestInserter
 		this.insertionSearch = insertionSearch;
 		this.drtOfferAcceptor = drtOfferAcceptor;
 		this.forkJoinPool = forkJoinPool;
+		this.speculativeInsertion = speculativeInsertion;
 	}
 
 	@Override
@@ -105,6 +111,11 @@ public class DefaultUnplannedRequestInserter implements UnplannedRequestInserter
 				.filter(Objects::nonNull)
 				.collect(Collectors.toMap(e -> e.vehicle.getId(), e -> e))).join();
 
+		if (speculativeInsertion) {
+			scheduleSpeculatively(requestsToRetry, unplannedRequests, vehicleEntries, now);
+			return;
+		}
+
 		//first retry scheduling old requests
 		requestsToRetry.forEach(req -> scheduleUnplannedRequest(req, vehicleEntries, now));
 
@@ -115,10 +126,78 @@ public class DefaultUnplannedRequestInserter implements UnplannedRequestInserter
 		}
 	}
 
+	/**
+	 * Searches for the best insertions of all requests concurrently against the same snapshot of vehicle entries, and
+	 * then schedules the requests sequentially, in the same order as in the default (sequential) mode.
+	 * <p>
+	 * Besides the best insertion, the speculative search collects the candidate vehicles of each request (see
+	 * {@link DrtInsertionSearch#findBestInsertion(DrtRequest, Collection, Set)}), which also covers the insertion
+	 * searches that select the candidate insertions based on the whole fleet (e.g. the k nearest insertions at end in
+	 * the extensive search). A speculative insertion is used as long as none of the candidate vehicles has been modified
+	 * by scheduling the preceding requests. Otherwise, the request is searched for again against all current vehicle
+	 * entries. Consequently, the outcome is the same as in the sequential mode.
+	 */
+	private void scheduleSpeculatively(List<DrtRequest> requestsToRetry, Collection<DrtRequest> unplannedRequests,
+			Map<Id<DvrpVehicle>, VehicleEntry> vehicleEntries, double now) {
+		List<DrtRequest> requests = new ArrayList<>(requestsToRetry.size() + unplannedRequests.size());
+		requests.addAll(requestsToRetry);
+		requests.addAll(unplannedRequests);
+
+		var snapshot = List.copyOf(vehicleEntries.values());
+		List<SpeculativeInsertion> speculativeInsertions = forkJoinPool.submit(() -> requests.parallelStream()
+				.map(req -> {
+					Set<Id<DvrpVehicle>> candidateVehicles = ConcurrentHashMap.newKeySet();
+					var best = insertionSearch.findBestInsertion(req, snapshot, candidateVehicles);
+					return new SpeculativeInsertion(best, candidateVehicles);
+				})
+				.collect(Collectors.toList())).join();
+
+		Set<Id<DvrpVehicle>> modifiedVehicles = new HashSet<>();
+		for (int i = 0; i < requests.size(); i++) {
+			DrtRequest req = requests.get(i);
+			SpeculativeInsertion speculativeInsertion = speculativeInsertions.get(i);
+			Optional<InsertionWithDetourData> best = speculativeInsertion.isValid(modifiedVehicles) ?
+					speculativeInsertion.insertion :
+					insertionSearch.findBestInsertion(req, Collections.unmodifiableCollection(vehicleEntries.values()));
+			if (scheduleUnplannedRequest(req, best, vehicleEntries, now)) {
+				modifiedVehicles.add(best.get().insertion.vehicleEntry.vehicle.getId());
+			}
+		}
+
+		unplannedRequests.clear();
+	}
+
+	private static class SpeculativeInsertion {
+		private final Optional<InsertionWithDetourData> insertion;
+		private final Set<Id<DvrpVehicle>> candidateVehicles;
+
+		private SpeculativeInsertion(Optional<InsertionWithDetourData> insertion,
+				Set<Id<DvrpVehicle>> candidateVehicles) {
+			this.insertion = insertion;
+			this.candidateVehicles = candidateVehicles;
+		}
+
+		private boolean isValid(Set<Id<DvrpVehicle>> modifiedVehicles) {
+			if (insertion.isPresent() && modifiedVehicles.contains(
+					insertion.get().insertion.vehicleEntry.vehicle.getId())) {
+				return false;
+			}
+			return candidateVehicles.stream().noneMatch(modifiedVehicles::contains);
+		}
+	}
+
 	private void scheduleUnplannedRequest(DrtRequest req, Map<Id<DvrpVehicle>, VehicleEntry> vehicleEntries,
 			double now) {
 		Optional<InsertionWithDetourData> best = insertionSearch.findBestInsertion(req,
 				Collections.unmodifiableCollection(vehicleEntries.values()));
+		scheduleUnplannedRequest(req, best, vehicleEntries, now);
+	}
+
+	/**
+	 * @return true if the request has been inserted into a vehicle schedule
+	 */
+	private boolean scheduleUnplannedRequest(DrtRequest req, Optional<InsertionWithDetourData> best,
+			Map<Id<DvrpVehicle>, VehicleEntry> vehicleEntries, double now) {
 		if (best.isEmpty()) {
 			if (!insertionRetryQueue.tryAddFailedRequest(req, now)) {
 				eventsManager.processEvent(
@@ -131,6 +210,7 @@ public class DefaultUnplannedRequestInserter implements UnplannedRequestInserter
 						+ " fromLinkId="
 						+ req.getFromLink().getId());
 			}
+			return false;
 		} else {
 			InsertionWithDetourData insertion = best.get();
 
@@ -153,6 +233,7 @@ public class DefaultUnplannedRequestInserter implements UnplannedRequestInserter
 					new PassengerRequestScheduledEvent(now, mode, req.getId(), req.getPassengerId(), vehicle.getId(),
 							pickupDropoffTaskPair.pickupTask.getEndTime(),
 							pickupDropoffTaskPair.dropoffTask.getBeginTime()));
+			return true;
 		}
 	}
 }
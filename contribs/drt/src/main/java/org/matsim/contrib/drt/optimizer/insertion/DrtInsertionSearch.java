@@ -20,13 +20,31 @@ package org.matsim.contrib.drt.optimizer.insertion;
 
 import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
 
+import org.matsim.api.core.v01.Id;
 import org.matsim.contrib.drt.optimizer.VehicleEntry;
 import org.matsim.contrib.drt.passenger.DrtRequest;
+import org.matsim.contrib.dvrp.fleet.DvrpVehicle;
 
 /**
  * @author michalm
  */
 public interface DrtInsertionSearch {
 	Optional<InsertionWithDetourData> findBestInsertion(DrtRequest drtRequest, Collection<VehicleEntry> vehicleEntries);
+
+	/**
+	 * Like {@link #findBestInsertion(DrtRequest, Collection)}, but additionally adds the candidate vehicles to
+	 * {@code candidateVehicles} (which may be accessed concurrently). These are the vehicles whose entries may
+	 * influence the result. All other vehicles have no feasible insertion, and must not get one when further requests
+	 * are inserted into their schedules. By default, all vehicles are candidates.
+	 * <p>
+	 * Used by the speculative insertion to find out if a result is still valid after other requests have been
+	 * scheduled.
+	 */
+	default Optional<InsertionWithDetourData> findBestInsertion(DrtRequest drtRequest,
+			Collection<VehicleEntry> vehicleEntries, Set<Id<DvrpVehicle>> candidateVehicles) {
+		vehicleEntries.forEach(e -> candidateVehicles.add(e.vehicle.getId()));
+		return findBestInsertion(drtRequest, vehicleEntries);
+	}
 }
@@ -24,9 +24,11 @@ import static org.matsim.contrib.drt.optimizer.insertion.InsertionCostCalculator
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
+import org.matsim.api.core.v01.Id;
 import org.matsim.contrib.drt.optimizer.VehicleEntry;
 import org.matsim.contrib.drt.optimizer.insertion.DetourTimeEstimator;
 import org.matsim.contrib.drt.optimizer.insertion.InsertionCostCalculator;
@@ -35,6 +37,7 @@ import org.matsim.contrib.drt.optimizer.insertion.InsertionGenerator.Insertion;
 import org.matsim.contrib.drt.optimizer.insertion.InsertionWithDetourData;
 import org.matsim.contrib.drt.passenger.DrtRequest;
 import org.matsim.contrib.drt.run.DrtConfigGroup;
+import org.matsim.contrib.dvrp.fleet.DvrpVehicle;
 import org.matsim.contrib.zone.skims.TravelTimeMatrix;
 import org.matsim.core.router.util.TravelTime;
 
@@ -70,8 +73,24 @@ class ExtensiveInsertionProvider {
 	}
 
 	List<Insertion> getInsertions(DrtRequest drtRequest, Collection<VehicleEntry> vehicleEntries) {
+		return filterInsertionsAtEnd(getPreFilteredInsertions(drtRequest, vehicleEntries));
+	}
+
+	/**
+	 * @param candidateVehicles collects the vehicles with at least one insertion of admissible cost (also if the
+	 *                          insertion is not among the nearest insertions at end)
+	 */
+	List<Insertion> getInsertions(DrtRequest drtRequest, Collection<VehicleEntry> vehicleEntries,
+			Set<Id<DvrpVehicle>> candidateVehicles) {
+		var preFilteredInsertions = getPreFilteredInsertions(drtRequest, vehicleEntries);
+		preFilteredInsertions.forEach(i -> candidateVehicles.add(i.insertion.vehicleEntry.vehicle.getId()));
+		return filterInsertionsAtEnd(preFilteredInsertions);
+	}
+
+	private List<InsertionWithDetourData> getPreFilteredInsertions(DrtRequest drtRequest,
+			Collection<VehicleEntry> vehicleEntries) {
 		// Parallel outer stream over vehicle entries. The inner stream (flatmap) is sequential.
-		List<InsertionWithDetourData> preFilteredInsertions = forkJoinPool.submit(() -> vehicleEntries.parallelStream()
+		return forkJoinPool.submit(() -> vehicleEntries.parallelStream()
 				//generate feasible insertions (wrt occupancy limits) with admissible detour times
 				.flatMap(e -> insertionGenerator.generateInsertions(drtRequest, e).stream())
 				//optimistic pre-filtering wrt admissible cost function
@@ -79,7 +98,9 @@ class ExtensiveInsertionProvider {
 						< INFEASIBLE_SOLUTION_COST)
 				//collect
 				.collect(Collectors.toList())).join();
+	}
 
+	private List<Insertion> filterInsertionsAtEnd(List<InsertionWithDetourData> preFilteredInsertions) {
 		if (preFilteredInsertions.isEmpty()) {
 			return List.of();
 		}
@@ -21,8 +21,11 @@
 package org.matsim.contrib.drt.optimizer.insertion.extensive;
 
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Optional;
+import java.util.Set;
 
+import org.matsim.api.core.v01.Id;
 import org.matsim.contrib.drt.optimizer.VehicleEntry;
 import org.matsim.contrib.drt.optimizer.insertion.BestInsertionFinder;
 import org.matsim.contrib.drt.optimizer.insertion.DrtInsertionSearch;
@@ -30,6 +33,7 @@ import org.matsim.contrib.drt.optimizer.insertion.InsertionCostCalculator;
 import org.matsim.contrib.drt.optimizer.insertion.InsertionDetourTimeCalculator;
 import org.matsim.contrib.drt.optimizer.insertion.InsertionWithDetourData;
 import org.matsim.contrib.drt.passenger.DrtRequest;
+import org.matsim.contrib.dvrp.fleet.DvrpVehicle;
 
 /**
  * @author michalm
@@ -52,7 +56,13 @@ final class ExtensiveInsertionSearch implements DrtInsertionSearch {
 	@Override
 	public Optional<InsertionWithDetourData> findBestInsertion(DrtRequest drtRequest,
 			Collection<VehicleEntry> vehicleEntries) {
-		var insertions = insertionProvider.getInsertions(drtRequest, vehicleEntries);
+		return findBestInsertion(drtRequest, vehicleEntries, new HashSet<>());
+	}
+
+	@Override
+	public Optional<InsertionWithDetourData> findBestInsertion(DrtRequest drtRequest,
+			Collection<VehicleEntry> vehicleEntries, Set<Id<DvrpVehicle>> candidateVehicles) {
+		var insertions = insertionProvider.getInsertions(drtRequest, vehicleEntries, candidateVehicles);
 		if (insertions.isEmpty()) {
 			return Optional.empty();
 		}
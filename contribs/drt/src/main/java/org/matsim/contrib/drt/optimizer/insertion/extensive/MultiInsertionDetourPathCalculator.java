@@ -25,10 +25,13 @@ import static org.matsim.contrib.drt.optimizer.insertion.InsertionGenerator.Inse
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 import org.matsim.api.core.v01.IdMap;
@@ -54,10 +57,27 @@ import com.google.common.annotations.VisibleForTesting;
 class MultiInsertionDetourPathCalculator implements MobsimBeforeCleanupListener {
 	public static final int MAX_THREADS = 4;
 
-	private final OneToManyPathSearch toPickupPathSearch;
-	private final OneToManyPathSearch fromPickupPathSearch;
-	private final OneToManyPathSearch toDropoffPathSearch;
-	private final OneToManyPathSearch fromDropoffPathSearch;
+	/**
+	 * Path searches are stateful, so each concurrent call to {@link #calculatePaths} borrows its own set of searches.
+	 * With sequential calls (default), only one set is ever created.
+	 */
+	private static class PathSearches {
+		private final OneToManyPathSearch toPickupPathSearch;
+		private final OneToManyPathSearch fromPickupPathSearch;
+		private final OneToManyPathSearch toDropoffPathSearch;
+		private final OneToManyPathSearch fromDropoffPathSearch;
+
+		private PathSearches(OneToManyPathSearch toPickupPathSearch, OneToManyPathSearch fromPickupPathSearch,
+				OneToManyPathSearch toDropoffPathSearch, OneToManyPathSearch fromDropoffPathSearch) {
+			this.toPickupPathSearch = toPickupPathSearch;
+			this.fromPickupPathSearch = fromPickupPathSearch;
+			this.toDropoffPathSearch = toDropoffPathSearch;
+			this.fromDropoffPathSearch = fromDropoffPathSearch;
+		}
+	}
+
+	private final Queue<PathSearches> idlePathSearches = new ConcurrentLinkedQueue<>();
+	private final Supplier<PathSearches> pathSearchesFactory;
 
 	private final ExecutorService executorService;
 
@@ -67,30 +87,54 @@ class MultiInsertionDetourPathCalculator implements MobsimBeforeCleanupListener
 		IdMap<Node, Node> nodeMap = new IdMap<>(Node.class);
 		nodeMap.putAll(network.getNodes());
 
-		toPickupPathSearch = OneToManyPathSearch.createSearch(graph, nodeMap, travelTime, travelDisutility, true);
-		fromPickupPathSearch = OneToManyPathSearch.createSearch(graph, nodeMap, travelTime, travelDisutility, true);
-		toDropoffPathSearch = OneToManyPathSearch.createSearch(graph, nodeMap, travelTime, travelDisutility, true);
-		fromDropoffPathSearch = OneToManyPathSearch.createSearch(graph, nodeMap, travelTime, travelDisutility, true);
-		executorService = Executors.newFixedThreadPool(Math.min(drtCfg.getNumberOfThreads(), MAX_THREADS));
+		pathSearchesFactory = () -> new PathSearches(
+				OneToManyPathSearch.createSearch(graph, nodeMap, travelTime, travelDisutility, true),
+				OneToManyPathSearch.createSearch(graph, nodeMap, travelTime, travelDisutility, true),
+				OneToManyPathSearch.createSearch(graph, nodeMap, travelTime, travelDisutility, true),
+				OneToManyPathSearch.createSearch(graph, nodeMap, travelTime, travelDisutility, true));
+		idlePathSearches.add(pathSearchesFactory.get());
+
+		// with speculative insertion, paths for several requests are calculated at the same time
+		int maxThreads = drtCfg.isSpeculativeInsertion() ? Integer.MAX_VALUE : MAX_THREADS;
+		executorService = Executors.newFixedThreadPool(Math.min(drtCfg.getNumberOfThreads(), maxThreads));
 	}
 
 	@VisibleForTesting
 	MultiInsertionDetourPathCalculator(OneToManyPathSearch toPickupPathSearch, OneToManyPathSearch fromPickupPathSearch,
 			OneToManyPathSearch toDropoffPathSearch, OneToManyPathSearch fromDropoffPathSearch, int numberOfThreads) {
-		this.toPickupPathSearch = toPickupPathSearch;
-		this.fromPickupPathSearch = fromPickupPathSearch;
-		this.toDropoffPathSearch = toDropoffPathSearch;
-		this.fromDropoffPathSearch = fromDropoffPathSearch;
+		pathSearchesFactory = () -> {
+			throw new IllegalStateException("Concurrent path calculation is not supported");
+		};
+		idlePathSearches.add(new PathSearches(toPickupPathSearch, fromPickupPathSearch, toDropoffPathSearch,
+				fromDropoffPathSearch));
 		executorService = Executors.newFixedThreadPool(Math.min(numberOfThreads, MAX_THREADS));
 	}
 
 	DetourPathDataCache calculatePaths(DrtRequest drtRequest, List<Insertion> filteredInsertions) {
+		PathSearches searches = idlePathSearches.poll();
+		if (searches == null) {
+			searches = pathSearchesFactory.get();
+		}
+
+		try {
+			return calculatePaths(searches, drtRequest, filteredInsertions);
+		} finally {
+			idlePathSearches.add(searches);
+		}
+	}
+
+	private DetourPathDataCache calculatePaths(PathSearches searches, DrtRequest drtRequest,
+			List<Insertion> filteredInsertions) {
 		// with vehicle insertion filtering -- pathsToPickup is the most computationally demanding task, while
 		// pathsFromDropoff is the least demanding one
-		var pathsToPickupFuture = executorService.submit(() -> calcPathsToPickup(drtRequest, filteredInsertions));
-		var pathsFromPickupFuture = executorService.submit(() -> calcPathsFromPickup(drtRequest, filteredInsertions));
-		var pathsToDropoffFuture = executorService.submit(() -> calcPathsToDropoff(drtRequest, filteredInsertions));
-		var pathsFromDropoffFuture = executorService.submit(() -> calcPathsFromDropoff(drtRequest, filteredInsertions));
+		var pathsToPickupFuture = executorService.submit(
+				() -> calcPathsToPickup(searches.toPickupPathSearch, drtRequest, filteredInsertions));
+		var pathsFromPickupFuture = executorService.submit(
+				() -> calcPathsFromPickup(searches.fromPickupPathSearch, drtRequest, filteredInsertions));
+		var pathsToDropoffFuture = executorService.submit(
+				() -> calcPathsToDropoff(searches.toDropoffPathSearch, drtRequest, filteredInsertions));
+		var pathsFromDropoffFuture = executorService.submit(
+				() -> calcPathsFromDropoff(searches.fromDropoffPathSearch, drtRequest, filteredInsertions));
 
 		try {
 			return new DetourPathDataCache(pathsToPickupFuture.get(), pathsFromPickupFuture.get(),
@@ -100,7 +144,8 @@ class MultiInsertionDetourPathCalculator implements MobsimBeforeCleanupListener
 		}
 	}
 
-	private Map<Link, PathData> calcPathsToPickup(DrtRequest drtRequest, List<Insertion> filteredInsertions) {
+	private Map<Link, PathData> calcPathsToPickup(OneToManyPathSearch toPickupPathSearch, DrtRequest drtRequest,
+			List<Insertion> filteredInsertions) {
 		// calc backward dijkstra from pickup to ends of selected stops + starts
 		double earliestPickupTime = drtRequest.getEarliestStartTime(); // optimistic
 		Collection<Link> toLinks = getDetourLinks(filteredInsertions.stream(),
@@ -108,7 +153,8 @@ class MultiInsertionDetourPathCalculator implements MobsimBeforeCleanupListener
 		return toPickupPathSearch.calcPathDataMap(drtRequest.getFromLink(), toLinks, earliestPickupTime, false);
 	}
 
-	private Map<Link, PathData> calcPathsFromPickup(DrtRequest drtRequest, List<Insertion> filteredInsertions) {
+	private Map<Link, PathData> calcPathsFromPickup(OneToManyPathSearch fromPickupPathSearch, DrtRequest drtRequest,
+			List<Insertion> filteredInsertions) {
 		// calc forward dijkstra from pickup to beginnings of selected stops + dropoff
 		double earliestPickupTime = drtRequest.getEarliestStartTime(); // optimistic
 		Collection<Link> toLinks = getDetourLinks(filteredInsertions.stream(),
@@ -116,7 +162,8 @@ class MultiInsertionDetourPathCalculator implements MobsimBeforeCleanupListener
 		return fromPickupPathSearch.calcPathDataMap(drtRequest.getFromLink(), toLinks, earliestPickupTime, true);
 	}
 
-	private Map<Link, PathData> calcPathsToDropoff(DrtRequest drtRequest, List<Insertion> filteredInsertions) {
+	private Map<Link, PathData> calcPathsToDropoff(OneToManyPathSearch toDropoffPathSearch, DrtRequest drtRequest,
+			List<Insertion> filteredInsertions) {
 		// calc backward dijkstra from dropoff to ends of selected stops
 		double latestDropoffTime = drtRequest.getLatestArrivalTime(); // pessimistic
 		Collection<Link> toLinks = getDetourLinks(filteredInsertions.stream()
@@ -125,7 +172,8 @@ class MultiInsertionDetourPathCalculator implements MobsimBeforeCleanupListener
 		return toDropoffPathSearch.calcPathDataMap(drtRequest.getToLink(), toLinks, latestDropoffTime, false);
 	}
 
-	private Map<Link, PathData> calcPathsFromDropoff(DrtRequest drtRequest, List<Insertion> filteredInsertions) {
+	private Map<Link, PathData> calcPathsFromDropoff(OneToManyPathSearch fromDropoffPathSearch, DrtRequest drtRequest,
+			List<Insertion> filteredInsertions) {
 		// calc forward dijkstra from dropoff to beginnings of selected stops
 		double latestDropoffTime = drtRequest.getLatestArrivalTime(); // pessimistic
 		Collection<Link> toLinks = getDetourLinks(filteredInsertions.stream()
@@ -22,8 +22,10 @@ package org.matsim.contrib.drt.optimizer.insertion.selective;
 
 import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ForkJoinPool;
 
+import org.matsim.api.core.v01.Id;
 import org.matsim.contrib.drt.optimizer.VehicleEntry;
 import org.matsim.contrib.drt.optimizer.insertion.BestInsertionFinder;
 import org.matsim.contrib.drt.optimizer.insertion.DetourTimeEstimator;
@@ -32,6 +34,7 @@ import org.matsim.contrib.drt.optimizer.insertion.InsertionGenerator;
 import org.matsim.contrib.drt.optimizer.insertion.InsertionWithDetourData;
 import org.matsim.contrib.drt.passenger.DrtRequest;
 import org.matsim.contrib.drt.run.DrtConfigGroup;
+import org.matsim.contrib.dvrp.fleet.DvrpVehicle;
 import org.matsim.contrib.zone.skims.TravelTimeMatrix;
 import org.matsim.core.router.util.TravelTime;
 
@@ -73,4 +76,15 @@ class SelectiveInsertionProvider {
 								//generate feasible insertions (wrt occupancy limits) with restrictive detour times
 								.flatMap(e -> insertionGenerator.generateInsertions(drtRequest, e).stream()))).join();
 	}
+
+	/**
+	 * @param candidateVehicles collects the vehicles with at least one feasible insertion (wrt the restrictive detour
+	 *                          times), must be thread-safe
+	 */
+	Optional<InsertionWithDetourData> getInsertion(DrtRequest drtRequest, Collection<VehicleEntry> vehicleEntries,
+			Set<Id<DvrpVehicle>> candidateVehicles) {
+		return forkJoinPool.submit(() -> initialInsertionFinder.findBestInsertion(drtRequest,
+				vehicleEntries.parallelStream().flatMap(e -> insertionGenerator.generateInsertions(drtRequest, e).stream()),
+				candidateVehicles)).join();
+	}
 }
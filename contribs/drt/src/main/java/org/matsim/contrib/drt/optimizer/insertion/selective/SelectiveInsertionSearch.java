@@ -29,8 +29,10 @@ import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import org.apache.commons.math.stat.descriptive.SummaryStatistics;
+import org.matsim.api.core.v01.Id;
 import org.matsim.contrib.drt.optimizer.VehicleEntry;
 import org.matsim.contrib.drt.optimizer.insertion.DrtInsertionSearch;
 import org.matsim.contrib.drt.optimizer.insertion.InsertionCostCalculator;
@@ -38,6 +40,7 @@ import org.matsim.contrib.drt.optimizer.insertion.InsertionDetourTimeCalculator;
 import org.matsim.contrib.drt.optimizer.insertion.InsertionWithDetourData;
 import org.matsim.contrib.drt.passenger.DrtRequest;
 import org.matsim.contrib.drt.run.DrtConfigGroup;
+import org.matsim.contrib.dvrp.fleet.DvrpVehicle;
 import org.matsim.core.controler.MatsimServices;
 import org.matsim.core.mobsim.framework.events.MobsimBeforeCleanupEvent;
 import org.matsim.core.mobsim.framework.listeners.MobsimBeforeCleanupListener;
@@ -70,7 +73,18 @@ final class SelectiveInsertionSearch implements DrtInsertionSearch, MobsimBefore
 	@Override
 	public Optional<InsertionWithDetourData> findBestInsertion(DrtRequest drtRequest,
 			Collection<VehicleEntry> vehicleEntries) {
-		var selectedInsertion = insertionProvider.getInsertion(drtRequest, vehicleEntries);
+		return calculateBestInsertion(drtRequest, insertionProvider.getInsertion(drtRequest, vehicleEntries));
+	}
+
+	@Override
+	public Optional<InsertionWithDetourData> findBestInsertion(DrtRequest drtRequest,
+			Collection<VehicleEntry> vehicleEntries, Set<Id<DvrpVehicle>> candidateVehicles) {
+		return calculateBestInsertion(drtRequest,
+				insertionProvider.getInsertion(drtRequest, vehicleEntries, candidateVehicles));
+	}
+
+	private Optional<InsertionWithDetourData> calculateBestInsertion(DrtRequest drtRequest,
+			Optional<InsertionWithDetourData> selectedInsertion) {
 		if (selectedInsertion.isEmpty()) {
 			return Optional.empty();
 		}
@@ -153,6 +153,14 @@ public class DrtConfigGroup extends ReflectiveConfigGroupWithConfigurableParamet
 					+ " using up to 4 threads."
 					+ " Default value is the number of cores available to JVM.";
 
+	public static final String SPECULATIVE_INSERTION = "speculativeInsertion";
+	static final String SPECULATIVE_INSERTION_EXP =
+			"If true, the best insertions for all requests submitted in the same time step are searched for"
+					+ " concurrently against the same snapshot of vehicle entries. Then the requests are scheduled"
+					+ " sequentially (in the submission order). Once a request has been scheduled, the remaining"
+					+ " requests are re-evaluated against the current vehicle entries. Requires " + ExtensiveInsertionSearchParams.SET_NAME
+					+ ". False by default.";
+
 	public static final String STORE_UNSHARED_PATH = "storeUnsharedPath";
 	static final String STORE_UNSHARED_PATH_EXP = "Store planned unshared drt route as a link sequence";
 
@@ -205,6 +213,8 @@ public class DrtConfigGroup extends ReflectiveConfigGroupWithConfigurableParamet
 	@Positive
 	private int numberOfThreads = Runtime.getRuntime().availableProcessors();
 
+	private boolean speculativeInsertion = false;
+
 	@PositiveOrZero
 	private double advanceRequestPlanningHorizon = 0; // beta-feature; planning horizon for advance (prebooked) requests
 
@@ -308,6 +318,9 @@ public class DrtConfigGroup extends ReflectiveConfigGroupWithConfigurableParamet
 					+ " in order to speed up the DRT route update during the replanning phase.");
 		}
 
+		Verify.verify(!isSpeculativeInsertion() || getDrtInsertionSearchParams() instanceof ExtensiveInsertionSearchParams,
+				SPECULATIVE_INSERTION + " requires " + ExtensiveInsertionSearchParams.SET_NAME);
+
 		Verify.verify(getParameterSets(MinCostFlowRebalancingStrategyParams.SET_NAME).size() <= 1,
 				"More than one rebalancing parameter sets is specified");
 
@@ -334,6 +347,7 @@ public class DrtConfigGroup extends ReflectiveConfigGroupWithConfigurableParamet
 		map.put(MAX_WALK_DISTANCE, MAX_WALK_DISTANCE_EXP);
 		map.put(TRANSIT_STOP_FILE, TRANSIT_STOP_FILE_EXP);
 		map.put(NUMBER_OF_THREADS, NUMBER_OF_THREADS_EXP);
+		map.put(SPECULATIVE_INSERTION, SPECULATIVE_INSERTION_EXP);
 		map.put(REJECT_REQUEST_IF_MAX_WAIT_OR_TRAVEL_TIME_VIOLATED,
 				REJECT_REQUEST_IF_MAX_WAIT_OR_TRAVEL_TIME_VIOLATED_EXP);
 		map.put(DRT_SERVICE_AREA_SHAPE_FILE, DRT_SERVICE_AREA_SHAPE_FILE_EXP);
@@ -650,6 +664,23 @@ public class DrtConfigGroup extends ReflectiveConfigGroupWithConfigurableParamet
 		return this;
 	}
 
+	/**
+	 * @return -- {@value #SPECULATIVE_INSERTION_EXP}
+	 */
+	@StringGetter(SPECULATIVE_INSERTION)
+	public boolean isSpeculativeInsertion() {
+		return speculativeInsertion;
+	}
+
+	/**
+	 * @param-- {@value #SPECULATIVE_INSERTION_EXP}
+	 */
+	@StringSetter(SPECULATIVE_INSERTION)
+	public DrtConfigGroup setSpeculativeInsertion(boolean speculativeInsertion) {
+		this.speculativeInsertion = speculativeInsertion;
+		return this;
+	}
+
 	/**
 	 * @return -- {@value #STORE_UNSHARED_PATH_EXP}
 	 */
@@ -0,0 +1,277 @@
+/*
+ * *********************************************************************** *
+ * project: org.matsim.*
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2022 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** *
+ */
+
+package org.matsim.contrib.drt.optimizer.insertion.extensive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.matsim.contrib.drt.optimizer.insertion.InsertionCostCalculator.INFEASIBLE_SOLUTION_COST;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.contrib.drt.optimizer.VehicleEntry;
+import org.matsim.contrib.drt.optimizer.Waypoint;
+import org.matsim.contrib.drt.optimizer.insertion.DefaultUnplannedRequestInserter;
+import org.matsim.contrib.drt.optimizer.insertion.DetourTimeEstimator;
+import org.matsim.contrib.drt.optimizer.insertion.DrtInsertionSearch;
+import org.matsim.contrib.drt.optimizer.insertion.DrtRequestInsertionRetryParams;
+import org.matsim.contrib.drt.optimizer.insertion.DrtRequestInsertionRetryQueue;
+import org.matsim.contrib.drt.optimizer.insertion.ForkJoinPoolTestRule;
+import org.matsim.contrib.drt.optimizer.insertion.InsertionCostCalculator;
+import org.matsim.contrib.drt.optimizer.insertion.InsertionGenerator;
+import org.matsim.contrib.drt.optimizer.insertion.InsertionWithDetourData;
+import org.matsim.contrib.drt.passenger.DrtOfferAcceptor;
+import org.matsim.contrib.drt.passenger.DrtRequest;
+import org.matsim.contrib.drt.run.DrtConfigGroup;
+import org.matsim.contrib.drt.schedule.DefaultDrtStopTask;
+import org.matsim.contrib.drt.scheduler.RequestInsertionScheduler;
+import org.matsim.contrib.drt.scheduler.RequestInsertionScheduler.PickupDropoffTaskPair;
+import org.matsim.contrib.dvrp.fleet.DvrpVehicle;
+import org.matsim.contrib.dvrp.fleet.DvrpVehicleImpl;
+import org.matsim.contrib.dvrp.fleet.Fleet;
+import org.matsim.contrib.dvrp.fleet.ImmutableDvrpVehicleSpecification;
+import org.matsim.contrib.dvrp.optimizer.Request;
+import org.matsim.contrib.dvrp.passenger.PassengerRequestScheduledEvent;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.mobsim.framework.MobsimTimer;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.router.costcalculators.OnlyTimeDependentTravelDisutility;
+import org.matsim.core.trafficmonitoring.FreeSpeedTravelTime;
+import org.mockito.ArgumentCaptor;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Speculative scheduling with the extensive insertion search must yield the same results as sequential scheduling,
+ * also when {@link KNearestInsertionsAtEndFilter} selects the candidate insertions based on the whole fleet.
+ */
+public class SpeculativeInsertionTest {
+	private static final String MODE = "drt";
+	private static final double STOP_DURATION = 60;
+
+	@Rule
+	public final ForkJoinPoolTestRule rule = new ForkJoinPoolTestRule();
+
+	// line network: 0 <-> 1 <-> 2 <-> 3 <-> 4, 1000 m between the nodes
+	private final Network network = createLineNetwork(5);
+
+	// vehicles a, b and c are 1, 2 and 3 nodes away from the pickup node (0), respectively
+	private final Map<Id<DvrpVehicle>, Link> startLinks = ImmutableMap.of(//
+			Id.create("a", DvrpVehicle.class), link("2_1"),//
+			Id.create("b", DvrpVehicle.class), link("3_2"),//
+			Id.create("c", DvrpVehicle.class), link("4_3"));
+
+	private final DrtRequest request1 = request("r1");
+	private final DrtRequest request2 = request("r2");
+	private final DrtRequest request3 = request("r3");
+
+	// r2 can be served by b and c at a much lower cost than by a (even though a is the nearest vehicle)
+	private final Map<DrtRequest, Map<String, Double>> penalties = ImmutableMap.of(//
+			request1, Map.of(),//
+			request2, Map.of("a", 10000., "b", 1000.));
+
+	private final List<MultiInsertionDetourPathCalculator> detourPathCalculators = new ArrayList<>();
+
+	// number of searches against the current vehicle entries (i.e. all searches in the sequential mode)
+	private final AtomicInteger currentEntriesSearches = new AtomicInteger();
+
+	@After
+	public void after() {
+		detourPathCalculators.forEach(calculator -> calculator.notifyMobsimBeforeCleanup(null));
+	}
+
+	@Test
+	public void speculativeInsertion_twoNearestInsertionsAtEnd() {
+		// r1 goes to a, so r2 is served by c, which was not among the two nearest vehicles for r2 before r1
+		// had been scheduled
+		assertThat(schedule(2, true)).containsExactly("r1:a", "r2:c").isEqualTo(schedule(2, false));
+	}
+
+	@Test
+	public void speculativeInsertion_conflictingRequest_searchedAgain() {
+		// r2 had a among its candidate vehicles, which has been modified by scheduling r1
+		assertThat(schedule(10, true)).containsExactly("r1:a", "r2:c");
+		assertThat(currentEntriesSearches).hasValue(1);
+	}
+
+	@Test
+	public void speculativeInsertion_noConflicts_allSpeculativeInsertionsCommitted() {
+		// each request can be served by only one vehicle, so the candidate vehicles do not overlap
+		var penalties = Map.of(//
+				request1, Map.of("b", INFEASIBLE_SOLUTION_COST, "c", INFEASIBLE_SOLUTION_COST),//
+				request2, Map.of("a", INFEASIBLE_SOLUTION_COST, "c", INFEASIBLE_SOLUTION_COST),//
+				request3, Map.of("a", INFEASIBLE_SOLUTION_COST, "b", INFEASIBLE_SOLUTION_COST));
+		var requests = List.of(request1, request2, request3);
+
+		var speculativeResult = schedule(2, true, requests, penalties);
+		assertThat(currentEntriesSearches).hasValue(0);
+		assertThat(speculativeResult).containsExactly("r1:a", "r2:b", "r3:c")
+				.isEqualTo(schedule(2, false, requests, penalties));
+	}
+
+	@Test
+	public void speculativeInsertion_allInsertionsAtEnd() {
+		assertThat(schedule(10, true)).containsExactly("r1:a", "r2:c").isEqualTo(schedule(10, false));
+	}
+
+	// each vehicle can take only one request; returns "request:vehicle" for all scheduled requests
+	private List<String> schedule(int nearestInsertionsAtEndLimit, boolean speculative) {
+		return schedule(nearestInsertionsAtEndLimit, speculative, List.of(request1, request2), penalties);
+	}
+
+	private List<String> schedule(int nearestInsertionsAtEndLimit, boolean speculative, List<DrtRequest> requests,
+			Map<DrtRequest, Map<String, Double>> penalties) {
+		var drtCfg = new DrtConfigGroup().setMode(MODE)
+				.setStopDuration(STOP_DURATION)
+				.setNumberOfThreads(1)
+				.setSpeculativeInsertion(speculative);
+
+		InsertionCostCalculator costCalculator = (request, insertion, detourTimeInfo) ->
+				detourTimeInfo.getTotalTimeLoss() + penalties.get(request)
+						.getOrDefault(insertion.vehicleEntry.vehicle.getId().toString(), 0.);
+		var insertionProvider = new ExtensiveInsertionProvider(
+				new ExtensiveInsertionSearchParams().setNearestInsertionsAtEndLimit(nearestInsertionsAtEndLimit),
+				costCalculator,
+				new InsertionGenerator(STOP_DURATION, DetourTimeEstimator.createBeelineBasedEstimator(100)),
+				rule.forkJoinPool);
+		var travelTime = new FreeSpeedTravelTime();
+		var detourPathCalculator = new MultiInsertionDetourPathCalculator(network, travelTime,
+				new OnlyTimeDependentTravelDisutility(travelTime), drtCfg);
+		detourPathCalculators.add(detourPathCalculator);
+		var extensiveInsertionSearch = new ExtensiveInsertionSearch(insertionProvider, detourPathCalculator,
+				costCalculator, STOP_DURATION);
+		var insertionSearch = new DrtInsertionSearch() {
+			@Override
+			public Optional<InsertionWithDetourData> findBestInsertion(DrtRequest drtRequest,
+					Collection<VehicleEntry> vehicleEntries) {
+				currentEntriesSearches.incrementAndGet();
+				return extensiveInsertionSearch.findBestInsertion(drtRequest, vehicleEntries);
+			}
+
+			@Override
+			public Optional<InsertionWithDetourData> findBestInsertion(DrtRequest drtRequest,
+					Collection<VehicleEntry> vehicleEntries, Set<Id<DvrpVehicle>> candidateVehicles) {
+				return extensiveInsertionSearch.findBestInsertion(drtRequest, vehicleEntries, candidateVehicles);
+			}
+		};
+
+		var fleet = fleet();
+		Set<Id<DvrpVehicle>> occupiedVehicles = ConcurrentHashMap.newKeySet();
+		VehicleEntry.EntryFactory entryFactory = (vehicle, currentTime) -> occupiedVehicles.contains(
+				vehicle.getId()) ?
+				null :
+				new VehicleEntry(vehicle, new Waypoint.Start(null, startLinks.get(vehicle.getId()), currentTime, 0),
+						ImmutableList.of(), new double[] { Double.POSITIVE_INFINITY });
+
+		RequestInsertionScheduler insertionScheduler = (request, insertion) -> {
+			assertThat(occupiedVehicles.add(insertion.insertion.vehicleEntry.vehicle.getId())).isTrue();
+			double pickupTime = insertion.detourTimeInfo.pickupDetourInfo.departureTime;
+			double dropoffTime = insertion.detourTimeInfo.dropoffDetourInfo.arrivalTime;
+			var pickupTask = new DefaultDrtStopTask(pickupTime - STOP_DURATION, pickupTime, request.getFromLink());
+			var dropoffTask = new DefaultDrtStopTask(dropoffTime, dropoffTime + STOP_DURATION, request.getToLink());
+			return new PickupDropoffTaskPair(pickupTask, dropoffTask);
+		};
+
+		var events = mock(EventsManager.class);
+		var unplannedRequests = new ArrayList<>(requests);
+		new DefaultUnplannedRequestInserter(drtCfg, fleet, new MobsimTimer(), events, insertionScheduler,
+				entryFactory, insertionSearch, new DrtRequestInsertionRetryQueue(new DrtRequestInsertionRetryParams()),
+				DrtOfferAcceptor.DEFAULT_ACCEPTOR, rule.forkJoinPool).scheduleUnplannedRequests(unplannedRequests);
+
+		assertThat(unplannedRequests).isEmpty();
+
+		ArgumentCaptor<PassengerRequestScheduledEvent> captor = ArgumentCaptor.forClass(
+				PassengerRequestScheduledEvent.class);
+		verify(events, times(requests.size())).processEvent(captor.capture());
+		return captor.getAllValues()
+				.stream()
+				.map(e -> e.getRequestId() + ":" + e.getVehicleId())
+				.collect(Collectors.toList());
+	}
+
+	private Fleet fleet() {
+		var vehicles = startLinks.entrySet()
+				.stream()
+				.collect(ImmutableMap.toImmutableMap(Map.Entry::getKey,
+						e -> (DvrpVehicle)new DvrpVehicleImpl(ImmutableDvrpVehicleSpecification.newBuilder()
+								.id(e.getKey())
+								.capacity(1)
+								.startLinkId(e.getValue().getId())
+								.serviceBeginTime(0)
+								.serviceEndTime(24 * 3600)
+								.build(), e.getValue())));
+		return () -> vehicles;
+	}
+
+	private DrtRequest request(String id) {
+		return DrtRequest.newBuilder()
+				.id(Id.create(id, Request.class))
+				.passengerId(Id.createPersonId(id))
+				.fromLink(link("0_1"))
+				.toLink(link("1_2"))
+				.earliestStartTime(0)
+				.latestStartTime(3600)
+				.latestArrivalTime(7200)
+				.mode(MODE)
+				.build();
+	}
+
+	private Link link(String id) {
+		return network.getLinks().get(Id.createLinkId(id));
+	}
+
+	private static Network createLineNetwork(int nodeCount) {
+		Network network = NetworkUtils.createNetwork();
+		for (int i = 0; i < nodeCount; i++) {
+			NetworkUtils.createAndAddNode(network, Id.createNodeId(i), new Coord(i * 1000, 0));
+		}
+		for (int i = 1; i < nodeCount; i++) {
+			addLink(network, i - 1, i);
+			addLink(network, i, i - 1);
+		}
+		return network;
+	}
+
+	private static void addLink(Network network, int from, int to) {
+		Node fromNode = network.getNodes().get(Id.createNodeId(from));
+		Node toNode = network.getNodes().get(Id.createNodeId(to));
+		NetworkUtils.createAndAddLink(network, Id.createLinkId(from + "_" + to), fromNode, toNode, 1000, 10, 1000,
+				1);
+	}
+}
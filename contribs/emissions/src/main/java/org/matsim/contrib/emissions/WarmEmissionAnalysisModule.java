@@ -34,6 +34,7 @@ import org.matsim.vehicles.Vehicle;
 import org.matsim.vehicles.VehicleType;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.matsim.contrib.emissions.HbefaTrafficSituation.*;
 import static org.matsim.contrib.emissions.utils.EmissionsConfigGroup.EmissionsComputationMethod.AverageSpeed;
@@ -56,6 +57,16 @@ public final class WarmEmissionAnalysisModule implements LinkEmissionsCalculator
 	private final EventsManager eventsManager;
 	private final EmissionsConfigGroup ecg;
 
+	private static final Pollutant[] POLLUTANTS = Pollutant.values();
+	private static final HbefaTrafficSituation[] TRAFFIC_SITUATIONS = HbefaTrafficSituation.values();
+	private static final HbefaVehicleAttributes AVERAGE_VEHICLE_ATTRIBUTES = new HbefaVehicleAttributes();
+
+	// The emission factors are resolved once per vehicle category, vehicle attributes and road category, so that the computation per event
+	// does not need to build keys and go through the fallbacks of the lookup in the hbefa tables again.  Concurrent maps since this is also
+	// called from routing threads (e.g. for emission tolls).
+	private final Map<HbefaVehicleCategory, Map<HbefaVehicleAttributes, Map<String, WarmEmissionFactors>>> warmEmissionFactors = new EnumMap<>(HbefaVehicleCategory.class);
+	private EmissionsConfigGroup.DetailedVsAverageLookupBehavior warmEmissionFactorsLookupBehavior;
+
 	private int detailedReadingInfoCnt = 0;
 	private int detailedTransformToHbefa4Cnt = 0;
 	private int detailedFallbackTechAverageWarnCnt = 0;
@@ -97,6 +108,10 @@ public final class WarmEmissionAnalysisModule implements LinkEmissionsCalculator
 		Gbl.assertNotNull( eventsManager );
 		this.eventsManager = eventsManager;
 
+		for (HbefaVehicleCategory vehicleCategory : HbefaVehicleCategory.values()) {
+			this.warmEmissionFactors.put(vehicleCategory, new ConcurrentHashMap<>());
+		}
+
 		if ( detailedHbefaWarmTable!=null ) {
 			switch (ecg.getHbefaTableConsistencyCheckingLevel()) {
 				case allCombinations:
@@ -257,18 +272,8 @@ public final class WarmEmissionAnalysisModule implements LinkEmissionsCalculator
 			return warmEmissionsOfEvent;
 		}
 
-		// translate vehicle information type into factor key.  yyyy maybe combine these two? kai, jan'20
-		HbefaWarmEmissionFactorKey efkey = new HbefaWarmEmissionFactorKey();
-		efkey.setVehicleCategory(vehicleInformationTuple.getFirst());
-		efkey.setRoadCategory(roadType);
-		if (this.detailedHbefaWarmTable != null) {
-			HbefaVehicleAttributes hbefaVehicleAttributes = new HbefaVehicleAttributes();
-			hbefaVehicleAttributes.setHbefaTechnology(vehicleInformationTuple.getSecond().getHbefaTechnology());
-			hbefaVehicleAttributes.setHbefaSizeClass(vehicleInformationTuple.getSecond().getHbefaSizeClass());
-			hbefaVehicleAttributes.setHbefaEmConcept(vehicleInformationTuple.getSecond().getHbefaEmConcept());
-			efkey.setVehicleAttributes(hbefaVehicleAttributes);
-		}
-
+		// the emission factors of this vehicle on this road category, resolved once and memorized:
+		final WarmEmissionFactors factors = getWarmEmissionFactors(vehicleInformationTuple, roadType);
 
 		double averageSpeed_kmh = (linkLength_m / 1000) / (travelTime_sec / 3600);
 
@@ -286,10 +291,10 @@ public final class WarmEmissionAnalysisModule implements LinkEmissionsCalculator
 		}
 
 		// for the average speed method, the traffic situation is already known here:
+		HbefaTrafficSituation trafficSituation = null;
 		if (ecg.getEmissionsComputationMethod() == AverageSpeed) {
-			final HbefaTrafficSituation trafficSituation = getTrafficSituation(efkey, averageSpeed_kmh, freeVelocity_ms * 3.6);
+			trafficSituation = getTrafficSituation(factors, averageSpeed_kmh);
 //			logger.warn( "trafficSituation=" + trafficSituation );
-			efkey.setTrafficSituation(trafficSituation);
 		}
 
 		double fractionStopGo = 0;
@@ -297,29 +302,22 @@ public final class WarmEmissionAnalysisModule implements LinkEmissionsCalculator
 		// for each pollutant, compute and memorize emissions:
 		for ( Pollutant warmPollutant : warmPollutants) {
 
-			efkey.setComponent(warmPollutant);
-
 			double ef_gpkm;
 			if (ecg.getEmissionsComputationMethod() == StopAndGoFraction) {
 
-				// compute faction.  This cannot be done earlier since efkey.component is needed.
-				fractionStopGo = getFractionStopAndGo(freeVelocity_ms * 3.6, averageSpeed_kmh, vehicleInformationTuple, efkey);
+				// compute faction.  This cannot be done earlier since the stop-go speed depends on the pollutant.
+				fractionStopGo = getFractionStopAndGo(freeVelocity_ms * 3.6, averageSpeed_kmh, factors, warmPollutant);
 
 				double efStopGo_gpkm = 0.;
 				if (fractionStopGo > 0) {
 					// compute emissions from stop-go fraction:
-					efkey.setTrafficSituation(STOPANDGO);
-					efStopGo_gpkm = getEf(vehicleInformationTuple, efkey).getFactor();
-					logger.debug("pollutant=" + warmPollutant + "; efStopGo=" + efStopGo_gpkm);
-
+					efStopGo_gpkm = getEf(factors, STOPANDGO, warmPollutant).getFactor();
 				}
 
 				double efFreeFlow_gpkm = 0. ;
 				if ( fractionStopGo<1.) {
 					// compute emissions for free-flow fraction:
-					efkey.setTrafficSituation(FREEFLOW);
-					efFreeFlow_gpkm = getEf(vehicleInformationTuple, efkey).getFactor();
-					logger.debug("pollutant=" + warmPollutant + "; efFreeFlow=" + efFreeFlow_gpkm);
+					efFreeFlow_gpkm = getEf(factors, FREEFLOW, warmPollutant).getFactor();
 				}
 
 				// sum them up:
@@ -327,7 +325,7 @@ public final class WarmEmissionAnalysisModule implements LinkEmissionsCalculator
 				ef_gpkm = (fractionFreeFlow * efFreeFlow_gpkm) + (fractionStopGo * efStopGo_gpkm);
 
 			} else if (ecg.getEmissionsComputationMethod() == AverageSpeed) {
-				ef_gpkm = getEf(vehicleInformationTuple, efkey).getFactor();
+				ef_gpkm = getEf(factors, trafficSituation, warmPollutant).getFactor();
 			} else {
 				throw new RuntimeException( Gbl.NOT_IMPLEMENTED );
 			}
@@ -342,7 +340,7 @@ public final class WarmEmissionAnalysisModule implements LinkEmissionsCalculator
 			incrementCountersFractional( linkLength_m / 1000, fractionStopGo );
 		}
 		else if (ecg.getEmissionsComputationMethod() == AverageSpeed) {
-			incrementCountersAverage(efkey.getTrafficSituation(), linkLength_m / 1000);
+			incrementCountersAverage(trafficSituation, linkLength_m / 1000);
 		} else {
 			throw new RuntimeException( Gbl.NOT_IMPLEMENTED );
 		}
@@ -350,12 +348,9 @@ public final class WarmEmissionAnalysisModule implements LinkEmissionsCalculator
 		return warmEmissionsOfEvent;
 	}
 
-	private double getFractionStopAndGo(double freeFlowSpeed_kmh, double averageSpeed_kmh,
-										Tuple<HbefaVehicleCategory, HbefaVehicleAttributes> vehicleInformationTuple,
-										HbefaWarmEmissionFactorKey efkey) {
+	private double getFractionStopAndGo(double freeFlowSpeed_kmh, double averageSpeed_kmh, WarmEmissionFactors factors, Pollutant pollutant) {
 
-		efkey.setTrafficSituation(STOPANDGO);
-		double stopGoSpeedFromTable_kmh = getEf(vehicleInformationTuple, efkey).getSpeed();
+		double stopGoSpeedFromTable_kmh = getEf(factors, STOPANDGO, pollutant).getSpeed();
 
 		double fractionStopGo;
 
@@ -370,6 +365,71 @@ public final class WarmEmissionAnalysisModule implements LinkEmissionsCalculator
 		return fractionStopGo;
 	}
 
+	private WarmEmissionFactors getWarmEmissionFactors(Tuple<HbefaVehicleCategory, HbefaVehicleAttributes> vehicleInformationTuple, String roadType) {
+		if (ecg.getDetailedVsAverageLookupBehavior() != this.warmEmissionFactorsLookupBehavior) {
+			// the factors resolved so far depend on the fallback behavior, so they need to be resolved again:
+			for (Map<HbefaVehicleAttributes, Map<String, WarmEmissionFactors>> factorsByAttributes : this.warmEmissionFactors.values()) {
+				factorsByAttributes.clear();
+			}
+			this.warmEmissionFactorsLookupBehavior = ecg.getDetailedVsAverageLookupBehavior();
+		}
+
+		// without detailed table, the lookup is always done with "average; average; average":
+		HbefaVehicleAttributes vehicleAttributes = this.detailedHbefaWarmTable != null ? vehicleInformationTuple.getSecond() : AVERAGE_VEHICLE_ATTRIBUTES;
+
+		if (roadType == null) {
+			// not memorized (concurrent maps cannot hold null keys); the lookup of the factors will fail anyway
+			return new WarmEmissionFactors(vehicleInformationTuple.getFirst(), copy(vehicleAttributes), null, null);
+		}
+
+		Map<HbefaVehicleAttributes, Map<String, WarmEmissionFactors>> factorsByAttributes = this.warmEmissionFactors.get(vehicleInformationTuple.getFirst());
+		Map<String, WarmEmissionFactors> factorsByRoadType = factorsByAttributes.get(vehicleAttributes);
+		if (factorsByRoadType == null) {
+			// the attributes are copied since the key must not change afterwards:
+			factorsByRoadType = factorsByAttributes.computeIfAbsent(copy(vehicleAttributes), k -> new ConcurrentHashMap<>());
+		}
+		WarmEmissionFactors factors = factorsByRoadType.get(roadType);
+		if (factors == null) {
+			factors = factorsByRoadType.computeIfAbsent(roadType, k -> {
+				HbefaVehicleAttributes attributes = copy(vehicleAttributes);
+				Map<HbefaTrafficSituation, Double> trafficSpeeds = this.hbefaRoadTrafficSpeeds == null ? null :
+						this.hbefaRoadTrafficSpeeds.get(new HbefaRoadVehicleCategoryKey(createKey(vehicleInformationTuple.getFirst(), attributes, roadType)));
+				return new WarmEmissionFactors(vehicleInformationTuple.getFirst(), attributes, roadType, trafficSpeeds);
+			});
+		}
+		return factors;
+	}
+
+	private HbefaWarmEmissionFactor getEf(WarmEmissionFactors factors, HbefaTrafficSituation trafficSituation, Pollutant pollutant) {
+		int index = trafficSituation.ordinal() * POLLUTANTS.length + pollutant.ordinal();
+		HbefaWarmEmissionFactor ef = factors.emissionFactors[index];
+		if (ef == null) {
+			HbefaWarmEmissionFactorKey efkey = createKey(factors.vehicleCategory, factors.vehicleAttributes, factors.roadCategory);
+			efkey.setTrafficSituation(trafficSituation);
+			efkey.setComponent(pollutant);
+			ef = getEf(new Tuple<>(factors.vehicleCategory, factors.vehicleAttributes), efkey);
+			// (a failed lookup throws an exception, so only found factors are memorized)
+			factors.emissionFactors[index] = ef;
+		}
+		return ef;
+	}
+
+	private static HbefaWarmEmissionFactorKey createKey(HbefaVehicleCategory vehicleCategory, HbefaVehicleAttributes vehicleAttributes, String roadCategory) {
+		HbefaWarmEmissionFactorKey efkey = new HbefaWarmEmissionFactorKey();
+		efkey.setVehicleCategory(vehicleCategory);
+		efkey.setRoadCategory(roadCategory);
+		efkey.setVehicleAttributes(vehicleAttributes);
+		return efkey;
+	}
+
+	private static HbefaVehicleAttributes copy(HbefaVehicleAttributes vehicleAttributes) {
+		HbefaVehicleAttributes copy = new HbefaVehicleAttributes();
+		copy.setHbefaTechnology(vehicleAttributes.getHbefaTechnology());
+		copy.setHbefaSizeClass(vehicleAttributes.getHbefaSizeClass());
+		copy.setHbefaEmConcept(vehicleAttributes.getHbefaEmConcept());
+		return copy;
+	}
+
 	private HbefaWarmEmissionFactor getEf(Tuple<HbefaVehicleCategory, HbefaVehicleAttributes> vehicleInformationTuple, HbefaWarmEmissionFactorKey efkey) {
 
 		switch (ecg.getDetailedVsAverageLookupBehavior()) {
@@ -554,35 +614,33 @@ public final class WarmEmissionAnalysisModule implements LinkEmissionsCalculator
 
 
 	//TODO: this is based on looking at the speeds in the HBEFA files, using an MFP, maybe from A.Loder would be nicer, jm  oct'18
-	private HbefaTrafficSituation getTrafficSituation(HbefaWarmEmissionFactorKey efkey, double averageSpeed_kmh, double freeFlowSpeed_kmh) {
-		//TODO: should this be generated only once much earlier?
-		HbefaRoadVehicleCategoryKey hbefaRoadVehicleCategoryKey = new HbefaRoadVehicleCategoryKey(efkey);
-		Map<HbefaTrafficSituation, Double> trafficSpeeds = this.hbefaRoadTrafficSpeeds.get(hbefaRoadVehicleCategoryKey);
+	private HbefaTrafficSituation getTrafficSituation(WarmEmissionFactors factors, double averageSpeed_kmh) {
+		double[] trafficSpeeds = factors.trafficSpeeds_kmh;
 
 		//TODO: Hier die Berechunung einfügen, die die trafficSpeedTabelle entsprechend aus den Werten erstellt?
 		//Frage Laufzeit: Einmal berechnen ha
 
-		if (trafficSpeeds == null || !trafficSpeeds.containsKey(FREEFLOW)) {
+		if (trafficSpeeds == null || Double.isNaN(trafficSpeeds[FREEFLOW.ordinal()])) {
 			throw new RuntimeException("At least the FREEFLOW condition must be specified for all emission factor keys. " +
-					"It was not found for " + efkey);
+					"It was not found for " + createKey(factors.vehicleCategory, factors.vehicleAttributes, factors.roadCategory));
 		}
 
 		HbefaTrafficSituation trafficSituation  = FREEFLOW;
-		if (trafficSpeeds.containsKey(HEAVY) && averageSpeed_kmh <= trafficSpeeds.get(HEAVY)) {
+		if (!Double.isNaN(trafficSpeeds[HEAVY.ordinal()]) && averageSpeed_kmh <= trafficSpeeds[HEAVY.ordinal()]) {
 			trafficSituation = HEAVY;
 		}
-		if (trafficSpeeds.containsKey(SATURATED) && averageSpeed_kmh <= trafficSpeeds.get(SATURATED)) {
+		if (!Double.isNaN(trafficSpeeds[SATURATED.ordinal()]) && averageSpeed_kmh <= trafficSpeeds[SATURATED.ordinal()]) {
 			trafficSituation = SATURATED;
 		}
-		if (trafficSpeeds.containsKey(STOPANDGO) && averageSpeed_kmh <= trafficSpeeds.get(STOPANDGO)) {
-			if (averageSpeed_kmh != trafficSpeeds.get(FREEFLOW)) { //handle case testCheckVehicleInfoAndCalculateWarmEmissions_and_throwWarmEmissionEvent6
+		if (!Double.isNaN(trafficSpeeds[STOPANDGO.ordinal()]) && averageSpeed_kmh <= trafficSpeeds[STOPANDGO.ordinal()]) {
+			if (averageSpeed_kmh != trafficSpeeds[FREEFLOW.ordinal()]) { //handle case testCheckVehicleInfoAndCalculateWarmEmissions_and_throwWarmEmissionEvent6
 				trafficSituation = STOPANDGO;
 			}
 		}
 		/*FIXME The following lines should be added to account for the HBEFA 4.1's additiona traffic situation,
 		   but it currently causes a test failure (jwj, Nov'20) */
-//		if (trafficSpeeds.containsKey(STOPANDGO_HEAVY) && averageSpeed_kmh <= trafficSpeeds.get(STOPANDGO_HEAVY)) {
-//			if (averageSpeed_kmh != trafficSpeeds.get(FREEFLOW)) { //handle case testCheckVehicleInfoAndCalculateWarmEmissions_and_throwWarmEmissionEvent6
+//		if (!Double.isNaN(trafficSpeeds[STOPANDGO_HEAVY.ordinal()]) && averageSpeed_kmh <= trafficSpeeds[STOPANDGO_HEAVY.ordinal()]) {
+//			if (averageSpeed_kmh != trafficSpeeds[FREEFLOW.ordinal()]) { //handle case testCheckVehicleInfoAndCalculateWarmEmissions_and_throwWarmEmissionEvent6
 //				trafficSituation = STOPANDGO_HEAVY;
 //			}
 //		}
@@ -673,4 +731,39 @@ public final class WarmEmissionAnalysisModule implements LinkEmissionsCalculator
 		return ecg;
 	}
 
+	/**
+	 * The warm emission factors of one combination of vehicle category, vehicle attributes and road category, in dense arrays indexed by
+	 * traffic situation and pollutant.  The factors are resolved (including the fallbacks of the lookup behavior) at their first use, so that
+	 * combinations which are never needed do not have to be in the tables.
+	 */
+	private static final class WarmEmissionFactors {
+		private final HbefaVehicleCategory vehicleCategory;
+		private final HbefaVehicleAttributes vehicleAttributes;
+		private final String roadCategory;
+		/**
+		 * speed by traffic situation; NaN if the traffic situation is not in the speeds table, null if the whole combination is not.
+		 */
+		private final double[] trafficSpeeds_kmh;
+		/**
+		 * index is trafficSituation * number of pollutants + pollutant; null if not resolved yet.
+		 */
+		private final HbefaWarmEmissionFactor[] emissionFactors = new HbefaWarmEmissionFactor[TRAFFIC_SITUATIONS.length * POLLUTANTS.length];
+
+		WarmEmissionFactors(HbefaVehicleCategory vehicleCategory, HbefaVehicleAttributes vehicleAttributes, String roadCategory,
+							Map<HbefaTrafficSituation, Double> trafficSpeeds) {
+			this.vehicleCategory = vehicleCategory;
+			this.vehicleAttributes = vehicleAttributes;
+			this.roadCategory = roadCategory;
+			if (trafficSpeeds == null) {
+				this.trafficSpeeds_kmh = null;
+			} else {
+				this.trafficSpeeds_kmh = new double[TRAFFIC_SITUATIONS.length];
+				Arrays.fill(this.trafficSpeeds_kmh, Double.NaN);
+				for (Map.Entry<HbefaTrafficSituation, Double> entry : trafficSpeeds.entrySet()) {
+					this.trafficSpeeds_kmh[entry.getKey().ordinal()] = entry.getValue();
+				}
+			}
+		}
+	}
+
 }
@@ -222,6 +222,29 @@ public class TestWarmEmissionsFallbackBehaviour {
 		Assert.assertEquals( expectedValue, warmEmissions.get(Pollutant.CO2_TOTAL ), MatsimTestUtils.EPSILON );
 	}
 
+	/**
+	 * the emission factors are resolved once per vehicle and road type, so a second lookup should give the same value, and changing
+	 * the lookup behavior afterwards should be respected.
+	 *
+	 * -> first fall back to average table, then abort
+	 */
+	@Test
+	public void testWarm_ChangedLookupBehaviorIsRespected() {
+		EmissionModule emissionModule = setUpScenario(EmissionsConfigGroup.DetailedVsAverageLookupBehavior.tryDetailedThenTechnologyAverageThenAverageTable);
+		WarmEmissionAnalysisModule warmEmissionAnalysisModule = emissionModule.getWarmEmissionAnalysisModule();
+
+		double travelTimeOnLink = 21; //sec. approx freeSpeed of link12 is : (200 m) / (9.72.. m/s) approx 20.57 s
+		double expectedValue = 31.1947174; // = 200m * 155.973587 g/km
+		for (int i = 0; i < 2; i++) {
+			Map<Pollutant, Double> warmEmissions = warmEmissionAnalysisModule.checkVehicleInfoAndCalculateWarmEmissions(vehicleFallbackToAverageTable, link, travelTimeOnLink);
+			Assert.assertEquals( expectedValue, warmEmissions.get(Pollutant.CO2_TOTAL ), MatsimTestUtils.EPSILON );
+		}
+
+		warmEmissionAnalysisModule.getEcg().setDetailedVsAverageLookupBehavior(EmissionsConfigGroup.DetailedVsAverageLookupBehavior.onlyTryDetailedElseAbort);
+		Assert.assertThrows(RuntimeException.class,
+				() -> warmEmissionAnalysisModule.checkVehicleInfoAndCalculateWarmEmissions(vehicleFallbackToAverageTable, link, travelTimeOnLink));
+	}
+
 
 
 
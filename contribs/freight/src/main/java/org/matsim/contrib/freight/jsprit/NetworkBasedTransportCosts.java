@@ -24,6 +24,8 @@ import org.matsim.api.core.v01.network.Network;
 import org.matsim.api.core.v01.population.Person;
 import org.matsim.contrib.freight.carrier.CarrierVehicle;
 import org.matsim.core.router.FastDijkstraFactory;
+import org.matsim.core.router.speedy.SpeedyGraph;
+import org.matsim.core.router.speedy.SpeedyManyToMany;
 import org.matsim.core.router.util.LeastCostPathCalculator;
 import org.matsim.core.router.util.LeastCostPathCalculator.Path;
 import org.matsim.core.router.util.LeastCostPathCalculatorFactory;
@@ -69,6 +71,14 @@ import java.util.concurrent.ConcurrentHashMap;
  * Keep in mind that if you have many locations, small time-bins and many
  * vehicleTypes, calculations get very time- and memory-consuming.
  *
+ * <p>
+ * If the locations are known in advance, they can be set with
+ * {@link Builder#setLocationsForTransportMatrices(Collection, int)}. Then, the
+ * transport data between all of these locations are computed at once for each
+ * vehicleType and time-bin, with one least-cost-path tree per location on
+ * multiple threads, and looked up from arrays afterwards. Relations between
+ * other locations are still computed one by one as described above.
+ *
  * @author stefan schröder
  *
  */
@@ -400,6 +410,10 @@ public class NetworkBasedTransportCosts implements VRPTransportCosts {
 
 		private String defaultTypeId = UUID.randomUUID().toString();
 
+		private Collection<Id<Link>> matrixLinkIds = null;
+
+		private int matrixThreads = 1;
+
 		/**
 		 * Creates the builder requiring {@link Network} and a collection of
 		 * {@link VehicleType}.
@@ -489,6 +503,31 @@ public class NetworkBasedTransportCosts implements VRPTransportCosts {
 			return this;
 		}
 
+		/**
+		 * Sets the locations (i.e. link ids) between which the transport data are
+		 * computed as full matrices. When the data of a vehicleType and time-bin is
+		 * requested the first time, the transport-costs, -times and -distances between
+		 * all of these locations are computed at once with one least-cost-path tree
+		 * per location, using the given number of threads. Note that:
+		 * <ul>
+		 * <li>each time-bin is evaluated at its start, i.e. at
+		 * <code>timeBin * timeSliceWidth</code>, and not at the departure time of the
+		 * first request.
+		 * <li>the trees do not use the leastCostPathCalculatorFactory, but the
+		 * travelTime and travelDisutility must be thread-safe.
+		 * <li>the matrices require <code>24 * locations^2</code> bytes per
+		 * vehicleType and time-bin.
+		 * <li>unreachable locations get a value of
+		 * {@link Double#POSITIVE_INFINITY}.
+		 * </ul>
+		 * By default no matrices are computed.
+		 */
+		public Builder setLocationsForTransportMatrices(Collection<Id<Link>> linkIds, int numberOfThreads) {
+			this.matrixLinkIds = linkIds;
+			this.matrixThreads = numberOfThreads;
+			return this;
+		}
+
 		/**
 		 * Builds the network-based transport costs which are the basis for solving the
 		 * {@link VehicleRoutingProblem}.
@@ -573,6 +612,20 @@ public class NetworkBasedTransportCosts implements VRPTransportCosts {
 
 	private String defaultTypeId;
 
+	/**
+	 * the locations of the transport matrices, <code>null</code> if no matrices are used
+	 */
+	private final Link[] matrixLinks;
+
+	private final Map<String, Integer> matrixIndices;
+
+	private final SpeedyManyToMany manyToMany;
+
+	/**
+	 * transport matrices according to vehicleType and time-bin
+	 */
+	private final ConcurrentHashMap<String, ConcurrentHashMap<Integer, TransportMatrices>> matrices = new ConcurrentHashMap<>();
+
 	private NetworkBasedTransportCosts(Builder builder) {
 		super();
 		this.travelDisutility = builder.finalDisutility;
@@ -584,6 +637,41 @@ public class NetworkBasedTransportCosts implements VRPTransportCosts {
 		this.defaultTypeId = builder.defaultTypeId;
 		this.ttMemorizedCounter = new Counter("#TransportCostValues cached ");
 		this.ttRequestedCounter = new Counter("numTravelCosts requested ");
+		if (builder.matrixLinkIds == null) {
+			this.matrixLinks = null;
+			this.matrixIndices = null;
+			this.manyToMany = null;
+		} else {
+			Set<Id<Link>> linkIds = new LinkedHashSet<>(builder.matrixLinkIds);
+			this.matrixLinks = new Link[linkIds.size()];
+			this.matrixIndices = new HashMap<>();
+			for (Id<Link> linkId : linkIds) {
+				Link link = network.getLinks().get(linkId);
+				if (link == null) {
+					throw new IllegalStateException("link " + linkId + " of the transport matrices is not part of the network");
+				}
+				matrixIndices.put(linkId.toString(), matrixIndices.size());
+				matrixLinks[matrixIndices.size() - 1] = link;
+			}
+			this.manyToMany = new SpeedyManyToMany(new SpeedyGraph(network), travelTime, travelDisutility,
+					builder.matrixThreads);
+		}
+	}
+
+	/**
+	 * transport-costs, -times and -distances between all locations of the
+	 * matrices, row-major with the from-location as row.
+	 */
+	private static class TransportMatrices {
+		private final double[] transportCosts;
+		private final double[] transportTimes;
+		private final double[] transportDistances;
+
+		private TransportMatrices(int size) {
+			this.transportCosts = new double[size * size];
+			this.transportTimes = new double[size * size];
+			this.transportDistances = new double[size * size];
+		}
 	}
 
 	/**
@@ -607,8 +695,12 @@ public class NetworkBasedTransportCosts implements VRPTransportCosts {
 		if (vehicle == null) {
 			vehicle = getDefaultVehicle(fromId);
 		}
-		String typeId = vehicle.getType().getTypeId();
 		int timeSlice = getTimeSlice(departureTime);
+		int matrixIndex = getMatrixIndex(fromId, toId);
+		if (matrixIndex >= 0) {
+			return getTransportMatrices(vehicle, timeSlice).transportTimes[matrixIndex];
+		}
+		String typeId = vehicle.getType().getTypeId();
 		TransportDataKey transportDataKey = makeKey(fromId.getId(), toId.getId(), timeSlice, typeId);
 		TransportData data = costCache.get(transportDataKey);
 		double transportTime;
@@ -693,6 +785,10 @@ public class NetworkBasedTransportCosts implements VRPTransportCosts {
 		if (vehicle == null) {
 			vehicle = getDefaultVehicle(fromId);
 		}
+		int matrixIndex = getMatrixIndex(fromId, toId);
+		if (matrixIndex >= 0) {
+			return getTransportMatrices(vehicle, getTimeSlice(departureTime)).transportCosts[matrixIndex];
+		}
 		Id<Link> fromLinkId = Id.create(fromId.getId(), Link.class);
 		Id<Link> toLinkId = Id.create(toId.getId(), Link.class);
 		Link fromLink = network.getLinks().get(fromLinkId);
@@ -758,8 +854,12 @@ public class NetworkBasedTransportCosts implements VRPTransportCosts {
 		if (vehicle == null) {
 			vehicle = getDefaultVehicle(fromId);
 		}
-		String typeId = vehicle.getType().getTypeId();
 		int timeSlice = getTimeSlice(departureTime);
+		int matrixIndex = getMatrixIndex(fromId, toId);
+		if (matrixIndex >= 0) {
+			return getTransportMatrices(vehicle, timeSlice).transportDistances[matrixIndex];
+		}
+		String typeId = vehicle.getType().getTypeId();
 		TransportDataKey transportDataKey = makeKey(fromId.getId(), toId.getId(), timeSlice, typeId);
 		TransportData data = costCache.get(transportDataKey);
 		double travelDistance;
@@ -849,6 +949,74 @@ public class NetworkBasedTransportCosts implements VRPTransportCosts {
 		return matsimVehicle;
 	}
 
+	/**
+	 * @return the index of the relation in the {@link TransportMatrices}, or -1 if
+	 *         the matrices do not contain both locations.
+	 */
+	private int getMatrixIndex(Location fromId, Location toId) {
+		if (matrixIndices == null) {
+			return -1;
+		}
+		Integer fromIndex = matrixIndices.get(fromId.getId());
+		Integer toIndex = matrixIndices.get(toId.getId());
+		if (fromIndex == null || toIndex == null) {
+			return -1;
+		}
+		return fromIndex * matrixLinks.length + toIndex;
+	}
+
+	private TransportMatrices getTransportMatrices(Vehicle vehicle, int timeSlice) {
+		ConcurrentHashMap<Integer, TransportMatrices> matricesPerTimeSlice = matrices
+				.computeIfAbsent(vehicle.getType().getTypeId(), typeId -> new ConcurrentHashMap<>());
+		TransportMatrices transportMatrices = matricesPerTimeSlice.get(timeSlice);
+		if (transportMatrices == null) {
+			// computed only once, other threads requesting the same matrices wait for it
+			synchronized (matricesPerTimeSlice) {
+				transportMatrices = matricesPerTimeSlice.get(timeSlice);
+				if (transportMatrices == null) {
+					transportMatrices = calculateTransportMatrices(vehicle, timeSlice);
+					matricesPerTimeSlice.put(timeSlice, transportMatrices);
+				}
+			}
+		}
+		return transportMatrices;
+	}
+
+	/**
+	 * Computes the same values as the single requests, but with one tree per
+	 * from-location instead of one path per relation.
+	 */
+	private TransportMatrices calculateTransportMatrices(Vehicle vehicle, int timeSlice) {
+		informStartCalc();
+		org.matsim.vehicles.Vehicle matsimVehicle = getMatsimVehicle(vehicle);
+		double departureTime = (double) timeSlice * timeSliceWidth;
+		int size = matrixLinks.length;
+		TransportMatrices transportMatrices = new TransportMatrices(size);
+		manyToMany.forEachOrigin(size, (row, tree) -> {
+			Link fromLink = matrixLinks[row];
+			tree.calculate(fromLink.getToNode().getId().index(), departureTime, null, matsimVehicle);
+			for (int column = 0; column < size; column++) {
+				Link toLink = matrixLinks[column];
+				int nodeIndex = toLink.getFromNode().getId().index();
+				int index = row * size + column;
+				if (!tree.isFinal(nodeIndex)) {
+					transportMatrices.transportCosts[index] = Double.POSITIVE_INFINITY;
+					transportMatrices.transportTimes[index] = Double.POSITIVE_INFINITY;
+					transportMatrices.transportDistances[index] = Double.POSITIVE_INFINITY;
+					continue;
+				}
+				double arrivalTime = tree.getTime(nodeIndex).seconds();
+				transportMatrices.transportCosts[index] = tree.getCost(nodeIndex)
+						+ travelDisutility.getLinkTravelDisutility(toLink, arrivalTime, null, matsimVehicle);
+				transportMatrices.transportTimes[index] = arrivalTime - departureTime
+						+ travelTime.getLinkTravelTime(toLink, arrivalTime, null, matsimVehicle);
+				transportMatrices.transportDistances[index] = fromLink.getLength() + tree.getDistance(nodeIndex);
+			}
+		});
+		informEndCalc();
+		return transportMatrices;
+	}
+
 	private TransportDataKey makeKey(String fromId, String toId, long time, String vehicleType) {
 		return new TransportDataKey(fromId, toId, time, vehicleType);
 	}
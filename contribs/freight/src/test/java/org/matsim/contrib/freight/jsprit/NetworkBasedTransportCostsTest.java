@@ -3,7 +3,9 @@ package org.matsim.contrib.freight.jsprit;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import com.graphhopper.jsprit.core.problem.Location;
 import com.graphhopper.jsprit.core.problem.driver.Driver;
@@ -12,6 +14,7 @@ import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
 import org.junit.Test;
 import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.network.Link;
 import org.matsim.api.core.v01.network.Network;
 import org.matsim.core.config.Config;
 import org.matsim.core.network.io.MatsimNetworkReader;
@@ -151,4 +154,48 @@ public class NetworkBasedTransportCostsTest extends MatsimTestCase{
 		assertEquals(20000.0, networkBasedTransportCosts.getDistance(Location.newInstance("6"), Location.newInstance("21"), 0.0, vehicle2), 0.01);
 	}
 
+	@Test
+	public void test_whenUsingTransportMatrices_itMustReturnTheSameValues(){
+		Config config = new Config();
+		config.addCoreModules();
+		Scenario scenario = ScenarioUtils.createScenario(config);
+		String NETWORK_FILENAME = getClassInputDirectory() + "network.xml";
+		new MatsimNetworkReader(scenario.getNetwork()).readFile(NETWORK_FILENAME);
+
+		Network network = scenario.getNetwork();
+		NetworkBasedTransportCosts.Builder builder = NetworkBasedTransportCosts.Builder.newInstance(network);
+		builder.addVehicleTypeSpecificCosts("type1", 10.0, 1.0, 2.0);
+		NetworkBasedTransportCosts c = builder.build();
+
+		List<Id<Link>> linkIds = new ArrayList<>(network.getLinks().keySet());
+		NetworkBasedTransportCosts.Builder matrixBuilder = NetworkBasedTransportCosts.Builder.newInstance(network);
+		matrixBuilder.addVehicleTypeSpecificCosts("type1", 10.0, 1.0, 2.0);
+		matrixBuilder.setLocationsForTransportMatrices(linkIds, 2);
+		NetworkBasedTransportCosts matrixCosts = matrixBuilder.build();
+
+		Vehicle vehicle1 = mock(Vehicle.class);
+		com.graphhopper.jsprit.core.problem.vehicle.VehicleType type1 = mock( com.graphhopper.jsprit.core.problem.vehicle.VehicleType.class );
+		when(type1.getMaxVelocity()).thenReturn(5.0);
+		when(type1.getTypeId()).thenReturn("type1");
+		when(vehicle1.getType()).thenReturn(type1);
+		when(vehicle1.getId()).thenReturn("vehicle1");
+
+		int compared = 0;
+		for (Id<Link> fromLinkId : linkIds) {
+			for (Id<Link> toLinkId : linkIds) {
+				Location from = Location.newInstance(fromLinkId.toString());
+				Location to = Location.newInstance(toLinkId.toString());
+				if (Double.isInfinite(matrixCosts.getTransportCost(from, to, 0.0, mock(Driver.class), vehicle1))) {
+					// not reachable, the single request would fail
+					continue;
+				}
+				assertEquals(c.getTransportCost(from, to, 0.0, mock(Driver.class), vehicle1), matrixCosts.getTransportCost(from, to, 0.0, mock(Driver.class), vehicle1), 0.01);
+				assertEquals(c.getTransportTime(from, to, 0.0, mock(Driver.class), vehicle1), matrixCosts.getTransportTime(from, to, 0.0, mock(Driver.class), vehicle1), 0.01);
+				assertEquals(c.getDistance(from, to, 0.0, vehicle1), matrixCosts.getDistance(from, to, 0.0, vehicle1), 0.01);
+				compared++;
+			}
+		}
+		assertTrue(compared > linkIds.size());
+	}
+
 }
@@ -86,6 +86,7 @@ public final class NoiseConfigGroup extends ReflectiveConfigGroup {
 	private static final String NOISE_COMPUTATION_METHOD = "noiseComputationMethod";
 	private static final String USE_DEM = "useDGM";
 	private static final String DEM_FILE = "DGMFile";
+	private static final String RECEIVER_POINT_LINK_CORRECTIONS_FILE = "receiverPointLinkCorrectionsFile";
 
 	public NoiseConfigGroup() {
 		super(GROUP_NAME);
@@ -151,6 +152,8 @@ public final class NoiseConfigGroup extends ReflectiveConfigGroup {
     }
 
     private NoiseComputationMethod noiseComputationMethod = NoiseComputationMethod.RLS90;
+
+	private String receiverPointLinkCorrectionsFile = null;
     
     // ########################################################################################################
 	
@@ -212,6 +215,10 @@ public final class NoiseConfigGroup extends ReflectiveConfigGroup {
 
         comments.put(NOISE_COMPUTATION_METHOD, "Specifies the computation method of different guidelines: " + Arrays.toString(NoiseComputationMethod.values()));
 
+		comments.put(RECEIVER_POINT_LINK_CORRECTIONS_FILE, "Optional file to store the time-independent correction terms between receiver points and links. "
+				+ "If the file exists and was computed with the same settings, the correction terms are read from it instead of being computed; otherwise they are computed and written to it. "
+				+ "Changes of the network geometry or of the receiver points are detected; the correction terms are computed again in these cases.");
+
 		return comments;
 	}
 
@@ -798,4 +805,18 @@ public final class NoiseConfigGroup extends ReflectiveConfigGroup {
 	public void setNoiseComputationMethod(NoiseComputationMethod noiseComputationMethod) {
 		this.noiseComputationMethod = noiseComputationMethod;
 	}
+
+	@StringGetter(RECEIVER_POINT_LINK_CORRECTIONS_FILE)
+	public String getReceiverPointLinkCorrectionsFile() {
+		return this.receiverPointLinkCorrectionsFile;
+	}
+
+	@StringSetter(RECEIVER_POINT_LINK_CORRECTIONS_FILE)
+	public void setReceiverPointLinkCorrectionsFile(String receiverPointLinkCorrectionsFile) {
+		this.receiverPointLinkCorrectionsFile = receiverPointLinkCorrectionsFile;
+	}
+
+	public URL getReceiverPointLinkCorrectionsFileURL(URL context) {
+		return ConfigGroup.getInputFileURL(context, this.getReceiverPointLinkCorrectionsFile());
+	}
 }
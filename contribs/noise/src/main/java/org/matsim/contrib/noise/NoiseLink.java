@@ -57,7 +57,11 @@ final class NoiseLink {
 	private final Map<NoiseVehicleType, Double> marginalDamageCosts = new HashMap<>();
 	private final Map<NoiseVehicleType, Double> averageDamageCosts = new HashMap<>();
 
+	// energetic emissions 10^(0.1 * emission), computed once per time bin instead of once per receiver point:
+	private final Map<NoiseVehicleType, Double> marginalEmissionEnergies = new HashMap<>();
+
 	private double emission = 0.;
+	private double emissionEnergy = 1.;
 	private double damageCost = 0.; 
 
 
@@ -110,6 +114,14 @@ final class NoiseLink {
 
 	public void setEmission(double emission) {
 		this.emission = emission;
+		this.emissionEnergy = Math.pow(10, 0.1 * emission);
+	}
+
+	/**
+	 * @return 10^(0.1 * emission)
+	 */
+	double getEmissionEnergy() {
+		return emissionEnergy;
 	}
 
 	double getEmissionPlusOneVehicle(NoiseVehicleType type) {
@@ -118,6 +130,14 @@ final class NoiseLink {
 
 	void setEmissionPlusOneVehicle(NoiseVehicleType type, double emissionPlusOneVehicle) {
 		this.marginalEmissionIncreases.put(type, emissionPlusOneVehicle);
+		this.marginalEmissionEnergies.put(type, Math.pow(10, 0.1 * emissionPlusOneVehicle));
+	}
+
+	/**
+	 * @return 10^(0.1 * emission plus one vehicle)
+	 */
+	double getEmissionEnergyPlusOneVehicle(NoiseVehicleType type) {
+		return marginalEmissionEnergies.getOrDefault(type, 1.);
 	}
 
 //	public double getImmissionPlusOneVehicle(Id<NoiseVehicleType> typeId) {
@@ -41,6 +41,7 @@ import org.matsim.core.utils.misc.Time;
 import org.matsim.utils.MemoryObserver;
 import org.matsim.vehicles.Vehicle;
 
+import java.net.URL;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
@@ -93,8 +94,19 @@ class NoiseTimeTracker implements VehicleEntersTrafficEventHandler, PersonEnters
 		MemoryObserver.start(60);
 		Counter cnt = new Counter("set relevant link-info # ");
 		final NoiseConfigGroup noiseParams = noiseContext.getNoiseParams();
+
+		// the correction terms only depend on the geometry, so they may be re-used from a previous run:
+		URL linkCorrectionsUrl = null;
+		if (noiseParams.getReceiverPointLinkCorrectionsFile() != null) {
+			linkCorrectionsUrl = noiseParams.getReceiverPointLinkCorrectionsFileURL(noiseContext.getScenario().getConfig().getContext());
+			ReceiverPointLinkCorrections.read(linkCorrectionsUrl, ReceiverPointLinkCorrections.describe(noiseContext),
+					noiseContext.getGrid().getReceiverPoints());
+		}
+
+		int computed = 0;
 		for(NoiseReceiverPoint nrp: noiseContext.getGrid().getReceiverPoints().values()) {
 			if(!nrp.isInitialized()) {
+				computed++;
 				// get the zone grid cell around the receiver point
 				Set<Id<Link>> potentialLinks = noiseContext.getPotentialLinks(nrp);
 				immissionModule.setCurrentRp(nrp);
@@ -119,6 +131,10 @@ class NoiseTimeTracker implements VehicleEntersTrafficEventHandler, PersonEnters
 			cnt.incCounter();
 		}
 		cnt.printCounter();
+		if (linkCorrectionsUrl != null && computed > 0) {
+			ReceiverPointLinkCorrections.write(linkCorrectionsUrl, ReceiverPointLinkCorrections.describe(noiseContext),
+					noiseContext.getGrid().getReceiverPoints().values());
+		}
 		MemoryObserver.stop();
 	}
 
@@ -200,7 +200,7 @@ public class RLS19NoiseImmission implements NoiseImmission {
 
     private double calculateLinkImmission(NoiseReceiverPoint rp, NoiseLink noiseLink) {
         if (!(noiseLink.getEmission() == 0.)) {
-            double noiseImmission = Math.pow(10, 0.1 * noiseLink.getEmission()) * rp.getLinkCorrection(noiseLink.getId());
+            double noiseImmission = noiseLink.getEmissionEnergy() * rp.getLinkCorrection(noiseLink.getId());
             if (noiseImmission < 0.) {
                 noiseImmission = 0.;
             }
@@ -212,7 +212,7 @@ public class RLS19NoiseImmission implements NoiseImmission {
 
     private double calculateIsolatedLinkImmissionPlusOneVehicle(NoiseReceiverPoint rp, NoiseLink noiseLink, NoiseVehicleType type) {
         if (!(noiseLink.getEmission() == 0.)) {
-            double noiseImmission = 10 * Math.log10(Math.pow(10, 0.1 * noiseLink.getEmissionPlusOneVehicle(type)) * rp.getLinkCorrection(noiseLink.getId()));
+            double noiseImmission = 10 * Math.log10(noiseLink.getEmissionEnergyPlusOneVehicle(type) * rp.getLinkCorrection(noiseLink.getId()));
 
             if (noiseImmission < 0.) {
                 noiseImmission = 0.;
@@ -0,0 +1,173 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2022 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.contrib.noise;
+
+import org.apache.log4j.Logger;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.core.utils.io.IOUtils;
+import org.matsim.core.utils.io.UncheckedIOException;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes the receiver point - link correction terms, i.e. the sparse matrix of the time-independent propagation
+ * corrections (distance, angle, shielding, reflections, ...) between each receiver point and its relevant links.
+ * Computing these terms is the most expensive part of the noise computation when noise barriers are considered; storing them
+ * allows to re-use them in subsequent runs of the same scenario.
+ * <p>
+ * Each line contains one receiver point and its coordinates, followed by pairs of relevant link and correction term:
+ * <pre>receiverPointId;x;y;linkId;correction;linkId;correction;...</pre>
+ * The first line describes the settings the corrections were computed with, including the receiver point grid parameters and
+ * a fingerprint of the network geometry. Files computed with different settings are ignored. Lines of receiver points whose
+ * coordinates have changed are ignored as well, so the correction terms of these receiver points are computed again.
+ */
+final class ReceiverPointLinkCorrections {
+
+	private static final Logger log = Logger.getLogger(ReceiverPointLinkCorrections.class);
+
+	private static final String SEPARATOR = ";";
+	private static final String HEADER_PREFIX = "# ";
+
+	private ReceiverPointLinkCorrections() {
+	}
+
+	/**
+	 * Sets the correction terms of all receiver points contained in the file and marks them as initialized.
+	 * Receiver points which are already initialized or whose coordinates differ from the ones in the file are left as they are.
+	 *
+	 * @return the number of receiver points read, or -1 if the file does not exist or was computed with different settings.
+	 */
+	static int read(URL url, String description, Map<Id<ReceiverPoint>, NoiseReceiverPoint> receiverPoints) {
+		BufferedReader reader;
+		try {
+			reader = IOUtils.getBufferedReader(url);
+		} catch (UncheckedIOException e) {
+			log.info("No receiver point link corrections found at " + url + ". They will be computed and written there.");
+			return -1;
+		}
+
+		int cnt = 0;
+		int moved = 0;
+		try (BufferedReader br = reader) {
+			String header = br.readLine();
+			if (header == null || !header.equals(HEADER_PREFIX + description)) {
+				log.warn("Receiver point link corrections in " + url + " were computed with different settings and are ignored: " + header
+						+ ". Current settings: " + description);
+				return -1;
+			}
+			String line;
+			while ((line = br.readLine()) != null) {
+				String[] columns = line.split(SEPARATOR);
+				NoiseReceiverPoint nrp = receiverPoints.get(Id.create(columns[0], ReceiverPoint.class));
+				if (nrp == null || nrp.isInitialized()) {
+					continue;
+				}
+				Coord coord = nrp.getCoord();
+				if (Double.parseDouble(columns[1]) != coord.getX() || Double.parseDouble(columns[2]) != coord.getY()) {
+					moved++;
+					continue;
+				}
+				for (int i = 3; i + 1 < columns.length; i += 2) {
+					nrp.setLinkId2Correction(Id.createLinkId(columns[i]), Double.parseDouble(columns[i + 1]));
+				}
+				nrp.setInitialized();
+				cnt++;
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		if (moved > 0) {
+			log.warn("Ignored link corrections of " + moved + " receiver points in " + url + " because their coordinates have changed.");
+		}
+		log.info("Read link corrections of " + cnt + " receiver points from " + url);
+		return cnt;
+	}
+
+	static void write(URL url, String description, Collection<NoiseReceiverPoint> receiverPoints) {
+		try (BufferedWriter bw = IOUtils.getBufferedWriter(url)) {
+			bw.write(HEADER_PREFIX + description);
+			bw.newLine();
+			for (NoiseReceiverPoint nrp : receiverPoints) {
+				if (!nrp.isInitialized()) {
+					continue;
+				}
+				bw.write(nrp.getId() + SEPARATOR + nrp.getCoord().getX() + SEPARATOR + nrp.getCoord().getY());
+				for (Id<Link> linkId : nrp.getRelevantLinks()) {
+					bw.write(SEPARATOR + linkId + SEPARATOR + nrp.getLinkCorrection(linkId));
+				}
+				bw.newLine();
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		log.info("Link corrections of " + receiverPoints.size() + " receiver points written to " + url);
+	}
+
+	/**
+	 * @return the settings the correction terms depend on, see {@link #read} and {@link #write}.
+	 */
+	static String describe(NoiseContext noiseContext) {
+		NoiseConfigGroup noiseParams = noiseContext.getNoiseParams();
+		return "noiseComputationMethod=" + noiseParams.getNoiseComputationMethod()
+				+ SEPARATOR + "relevantRadius=" + noiseParams.getRelevantRadius()
+				+ SEPARATOR + "considerNoiseBarriers=" + noiseParams.isConsiderNoiseBarriers()
+				+ SEPARATOR + "noiseBarriersGeojsonPath=" + noiseParams.getNoiseBarriersFilePath()
+				+ SEPARATOR + "receiverPointGap=" + noiseParams.getReceiverPointGap()
+				+ SEPARATOR + "receiverPointsGridMinX=" + noiseParams.getReceiverPointsGridMinX()
+				+ SEPARATOR + "receiverPointsGridMinY=" + noiseParams.getReceiverPointsGridMinY()
+				+ SEPARATOR + "receiverPointsGridMaxX=" + noiseParams.getReceiverPointsGridMaxX()
+				+ SEPARATOR + "receiverPointsGridMaxY=" + noiseParams.getReceiverPointsGridMaxY()
+				+ SEPARATOR + "consideredActivitiesForReceiverPointGrid="
+				+ String.join(",", noiseParams.getConsideredActivitiesForReceiverPointGridArray())
+				+ SEPARATOR + "receiverPointsCSVFile=" + noiseParams.getReceiverPointsCSVFile()
+				+ SEPARATOR + "numberOfLinks=" + noiseContext.getScenario().getNetwork().getLinks().size()
+				+ SEPARATOR + "networkGeometry=" + Long.toHexString(networkFingerprint(noiseContext.getScenario().getNetwork()));
+	}
+
+	/**
+	 * @return a hash of the ids and the from/to node coordinates of all links, independent of the order of the links in the network.
+	 */
+	static long networkFingerprint(Network network) {
+		List<Link> links = new ArrayList<>(network.getLinks().values());
+		links.sort(Comparator.comparing(link -> link.getId().toString()));
+		long hash = 1;
+		for (Link link : links) {
+			hash = 31 * hash + link.getId().toString().hashCode();
+			hash = 31 * hash + coordHash(link.getFromNode().getCoord());
+			hash = 31 * hash + coordHash(link.getToNode().getCoord());
+		}
+		return hash;
+	}
+
+	private static long coordHash(Coord coord) {
+		return 31 * Double.doubleToLongBits(coord.getX()) + Double.doubleToLongBits(coord.getY());
+	}
+}
@@ -0,0 +1,136 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2022 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.contrib.noise;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.utils.io.IOUtils;
+import org.matsim.testcases.MatsimTestUtils;
+
+import java.net.URL;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class ReceiverPointLinkCorrectionsTest {
+
+	@Rule
+	public MatsimTestUtils testUtils = new MatsimTestUtils();
+
+	@Test
+	public void testWriteAndRead() {
+		Map<Id<ReceiverPoint>, NoiseReceiverPoint> computed = createReceiverPoints();
+		NoiseReceiverPoint rp1 = computed.get(Id.create("1", ReceiverPoint.class));
+		rp1.setLinkId2Correction(Id.createLinkId("a"), 0.1 + 0.2);
+		rp1.setLinkId2Correction(Id.createLinkId("b"), -12.345678901234567);
+		rp1.setInitialized();
+		// a receiver point without relevant links:
+		computed.get(Id.create("2", ReceiverPoint.class)).setInitialized();
+
+		URL url = IOUtils.getFileUrl(testUtils.getOutputDirectory() + "linkCorrections.csv.gz");
+		ReceiverPointLinkCorrections.write(url, "settings", computed.values());
+
+		Map<Id<ReceiverPoint>, NoiseReceiverPoint> read = createReceiverPoints();
+		Assert.assertEquals(2, ReceiverPointLinkCorrections.read(url, "settings", read));
+
+		NoiseReceiverPoint readRp1 = read.get(Id.create("1", ReceiverPoint.class));
+		Assert.assertTrue(readRp1.isInitialized());
+		Assert.assertEquals(2, readRp1.getRelevantLinks().size());
+		Assert.assertEquals(0.1 + 0.2, readRp1.getLinkCorrection(Id.createLinkId("a")), 0.);
+		Assert.assertEquals(-12.345678901234567, readRp1.getLinkCorrection(Id.createLinkId("b")), 0.);
+
+		NoiseReceiverPoint readRp2 = read.get(Id.create("2", ReceiverPoint.class));
+		Assert.assertTrue(readRp2.isInitialized());
+		Assert.assertTrue(readRp2.getRelevantLinks().isEmpty());
+
+		Assert.assertFalse(read.get(Id.create("3", ReceiverPoint.class)).isInitialized());
+	}
+
+	@Test
+	public void testDifferentSettingsAreIgnored() {
+		Map<Id<ReceiverPoint>, NoiseReceiverPoint> computed = createReceiverPoints();
+		NoiseReceiverPoint rp1 = computed.get(Id.create("1", ReceiverPoint.class));
+		rp1.setLinkId2Correction(Id.createLinkId("a"), 1.);
+		rp1.setInitialized();
+
+		URL url = IOUtils.getFileUrl(testUtils.getOutputDirectory() + "linkCorrections.csv");
+		ReceiverPointLinkCorrections.write(url, "settings", computed.values());
+
+		Map<Id<ReceiverPoint>, NoiseReceiverPoint> read = createReceiverPoints();
+		Assert.assertEquals(-1, ReceiverPointLinkCorrections.read(url, "other settings", read));
+		Assert.assertFalse(read.get(Id.create("1", ReceiverPoint.class)).isInitialized());
+
+		URL missing = IOUtils.getFileUrl(testUtils.getOutputDirectory() + "missing.csv");
+		Assert.assertEquals(-1, ReceiverPointLinkCorrections.read(missing, "settings", read));
+	}
+
+	@Test
+	public void testMovedReceiverPointsAreIgnored() {
+		Map<Id<ReceiverPoint>, NoiseReceiverPoint> computed = createReceiverPoints();
+		for (NoiseReceiverPoint nrp : computed.values()) {
+			nrp.setLinkId2Correction(Id.createLinkId("a"), 1.);
+			nrp.setInitialized();
+		}
+
+		URL url = IOUtils.getFileUrl(testUtils.getOutputDirectory() + "linkCorrections.csv");
+		ReceiverPointLinkCorrections.write(url, "settings", computed.values());
+
+		Map<Id<ReceiverPoint>, NoiseReceiverPoint> read = createReceiverPoints();
+		Id<ReceiverPoint> movedId = Id.create("2", ReceiverPoint.class);
+		read.put(movedId, new NoiseReceiverPoint(movedId, new Coord(200., 0.1)));
+		Assert.assertEquals(2, ReceiverPointLinkCorrections.read(url, "settings", read));
+
+		Assert.assertTrue(read.get(Id.create("1", ReceiverPoint.class)).isInitialized());
+		Assert.assertFalse(read.get(movedId).isInitialized());
+		Assert.assertTrue(read.get(movedId).getRelevantLinks().isEmpty());
+		Assert.assertTrue(read.get(Id.create("3", ReceiverPoint.class)).isInitialized());
+	}
+
+	@Test
+	public void testNetworkFingerprint() {
+		Network network = createNetwork(100.);
+		long fingerprint = ReceiverPointLinkCorrections.networkFingerprint(network);
+		Assert.assertEquals(fingerprint, ReceiverPointLinkCorrections.networkFingerprint(createNetwork(100.)));
+		Assert.assertNotEquals(fingerprint, ReceiverPointLinkCorrections.networkFingerprint(createNetwork(100.5)));
+	}
+
+	private static Network createNetwork(double toNodeX) {
+		Network network = NetworkUtils.createNetwork();
+		Node from = NetworkUtils.createAndAddNode(network, Id.createNodeId("from"), new Coord(0., 0.));
+		Node to = NetworkUtils.createAndAddNode(network, Id.createNodeId("to"), new Coord(toNodeX, 0.));
+		NetworkUtils.createAndAddLink(network, Id.createLinkId("a"), from, to, 100., 10., 1000., 1.);
+		NetworkUtils.createAndAddLink(network, Id.createLinkId("b"), to, from, 100., 10., 1000., 1.);
+		return network;
+	}
+
+	private static Map<Id<ReceiverPoint>, NoiseReceiverPoint> createReceiverPoints() {
+		Map<Id<ReceiverPoint>, NoiseReceiverPoint> receiverPoints = new LinkedHashMap<>();
+		for (int i = 1; i <= 3; i++) {
+			Id<ReceiverPoint> id = Id.create(i, ReceiverPoint.class);
+			receiverPoints.put(id, new NoiseReceiverPoint(id, new Coord(i * 100., 0.)));
+		}
+		return receiverPoints;
+	}
+}
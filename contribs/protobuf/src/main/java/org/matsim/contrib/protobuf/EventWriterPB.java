@@ -10,6 +10,7 @@ import org.matsim.core.utils.pb.*;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -164,10 +165,15 @@ public class EventWriterPB implements EventWriter, BasicEventHandler {
                     .setNetworkMode(((VehicleLeavesTrafficEvent) event).getNetworkMode())
                     .setRelativePositionOnLink(((VehicleLeavesTrafficEvent) event).getRelativePositionOnLink());
         } else {
-            Map<String, String> attrs = event.getAttributes();
-            // Checking references is safe here because they are constant
-            attrs.keySet().removeIf(key -> key == Event.ATTRIBUTE_X || key == Event.ATTRIBUTE_Y ||
-                    key == Event.ATTRIBUTE_TIME || key == Event.ATTRIBUTE_TYPE);
+            // copy, generic events return their internal map
+            Map<String, String> attrs = new LinkedHashMap<>(event.getAttributes());
+            attrs.remove(Event.ATTRIBUTE_TIME);
+            attrs.remove(Event.ATTRIBUTE_TYPE);
+            // coordinates are only stored separately for events that are a BasicLocation
+            if (builder.hasCoords()) {
+                attrs.remove(Event.ATTRIBUTE_X);
+                attrs.remove(Event.ATTRIBUTE_Y);
+            }
 
             // covers generic and all unknown events
             builder.getGenericBuilder()
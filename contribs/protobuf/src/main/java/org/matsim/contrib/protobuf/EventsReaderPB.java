@@ -0,0 +1,277 @@
+package org.matsim.contrib.protobuf;
+
+import com.google.protobuf.CodedInputStream;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.*;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.events.MatsimEventsReader.CustomEventMapper;
+import org.matsim.core.utils.io.IOUtils;
+import org.matsim.core.utils.pb.*;
+import org.matsim.facilities.ActivityFacility;
+import org.matsim.pt.transitSchedule.api.Departure;
+import org.matsim.pt.transitSchedule.api.TransitLine;
+import org.matsim.pt.transitSchedule.api.TransitRoute;
+import org.matsim.vehicles.Vehicle;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Event reader for protobuf files written by {@link EventWriterPB}.
+ * <p>
+ * The {@link ProtoEvents.EventBatch} blocks are read from the stream on the calling thread, but decoded and converted
+ * to events on multiple threads. The events are passed to the {@link EventsManager} on the calling thread, in the
+ * same order as they were written.
+ */
+public final class EventsReaderPB {
+
+    /**
+     * How many batches per thread are decoded in advance.
+     */
+    private static final int BATCHES_PER_THREAD = 4;
+
+    private final EventsManager events;
+    private final int numberOfThreads;
+    private final Map<String, CustomEventMapper> customEventMappers = new HashMap<>();
+
+    public EventsReaderPB(EventsManager events) {
+        this(events, Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+    /**
+     * @param numberOfThreads number of threads used to decode the batches, in addition to the calling thread.
+     */
+    public EventsReaderPB(EventsManager events, int numberOfThreads) {
+        this.events = events;
+        this.numberOfThreads = Math.max(1, numberOfThreads);
+    }
+
+    /**
+     * Maps generic events of the given type to custom events. Mappers are called on the decoding threads, so they must be thread-safe.
+     */
+    public void addCustomEventMapper(String eventType, CustomEventMapper mapper) {
+        this.customEventMappers.put(eventType, mapper);
+    }
+
+    public void readFile(String filename) {
+        try (InputStream in = IOUtils.getInputStream(IOUtils.resolveFileOrResource(filename))) {
+            readStream(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads all events from the stream, which is not closed by this method.
+     */
+    public void readStream(InputStream in) {
+        ExecutorService executor = Executors.newFixedThreadPool(this.numberOfThreads, runnable -> {
+            Thread thread = new Thread(runnable, "EventsReaderPB");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            readHeader(in);
+
+            ArrayDeque<Future<List<Event>>> pending = new ArrayDeque<>();
+            int maxPending = this.numberOfThreads * BATCHES_PER_THREAD;
+            byte[] data;
+            while ((data = readDelimited(in)) != null) {
+                byte[] batch = data;
+                pending.add(executor.submit(() -> decodeBatch(batch)));
+                if (pending.size() >= maxPending) {
+                    processBatch(pending.poll());
+                }
+            }
+            while (!pending.isEmpty()) {
+                processBatch(pending.poll());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void readHeader(InputStream in) throws IOException {
+        PBFileHeader header = PBFileHeader.parseDelimitedFrom(in);
+        if (header == null) {
+            throw new IOException("Empty stream, expected a protobuf file header.");
+        }
+        if (header.getContentType() != ContentType.EVENTS) {
+            throw new IOException("Expected content type " + ContentType.EVENTS + ", but got " + header.getContentType());
+        }
+        if (header.getVersion() > PBVersion.EVENTS) {
+            throw new IOException("Unsupported events format version " + header.getVersion() + ", only versions up to " + PBVersion.EVENTS + " can be read.");
+        }
+    }
+
+    /**
+     * Reads the bytes of the next length-delimited message, without parsing it.
+     *
+     * @return null at the end of the stream
+     */
+    private static byte[] readDelimited(InputStream in) throws IOException {
+        int firstByte = in.read();
+        if (firstByte == -1) {
+            return null;
+        }
+        int size = CodedInputStream.readRawVarint32(firstByte, in);
+        byte[] data = in.readNBytes(size);
+        if (data.length != size) {
+            throw new IOException("Unexpected end of stream, the last event batch is truncated.");
+        }
+        return data;
+    }
+
+    private List<Event> decodeBatch(byte[] data) throws IOException {
+        ProtoEvents.EventBatch batch = ProtoEvents.EventBatch.parseFrom(data);
+        List<Event> result = new ArrayList<>(batch.getEventsCount());
+        for (ProtoEvents.Event event : batch.getEventsList()) {
+            result.add(convertEvent(event));
+        }
+        return result;
+    }
+
+    private void processBatch(Future<List<Event>> batch) {
+        List<Event> decoded;
+        try {
+            decoded = batch.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw new UncheckedIOException((IOException) cause);
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+        for (Event event : decoded) {
+            this.events.processEvent(event);
+        }
+    }
+
+    /**
+     * Converts a protobuf event back to the corresponding MATSim event, the inverse of {@link EventWriterPB#convertEvent(Event)}.
+     * Generic events are passed to the custom event mappers, if one is registered for their type.
+     */
+    public Event convertEvent(ProtoEvents.Event event) {
+
+        double time = event.getTime();
+        Coord coord = event.hasCoords() ? new Coord(event.getCoords().getX(), event.getCoords().getY()) : null;
+
+        switch (event.getTypeCase()) {
+            case ACTIVITYEND: {
+                ProtoEvents.ActivityEndEvent e = event.getActivityEnd();
+                return new ActivityEndEvent(time, convertId(e.getPersonId(), Person.class), convertId(e.getLinkId(), Link.class),
+                        convertId(e.getFacilityId(), ActivityFacility.class), e.getActtype(), coord);
+            }
+            case ACTIVITYSTART: {
+                ProtoEvents.ActivityStartEvent e = event.getActivityStart();
+                return new ActivityStartEvent(time, convertId(e.getPersonId(), Person.class), convertId(e.getLinkId(), Link.class),
+                        convertId(e.getFacilityId(), ActivityFacility.class), e.getActtype(), coord);
+            }
+            case LINKENTER: {
+                ProtoEvents.LinkEnterEvent e = event.getLinkEnter();
+                return new LinkEnterEvent(time, convertId(e.getVehicleId(), Vehicle.class), convertId(e.getLinkId(), Link.class));
+            }
+            case LINKLEAVE: {
+                ProtoEvents.LinkLeaveEvent e = event.getLinkLeave();
+                return new LinkLeaveEvent(time, convertId(e.getVehicleId(), Vehicle.class), convertId(e.getLinkId(), Link.class));
+            }
+            case PERSONALARRIVAL: {
+                ProtoEvents.PersonArrivalEvent e = event.getPersonalArrival();
+                return new PersonArrivalEvent(time, convertId(e.getPersonId(), Person.class), convertId(e.getLinkId(), Link.class),
+                        convertString(e.getLegMode()));
+            }
+            case PERSONDEPARTURE: {
+                // the routing mode is not part of the wireformat
+                ProtoEvents.PersonDepartureEvent e = event.getPersonDeparture();
+                return new PersonDepartureEvent(time, convertId(e.getPersonId(), Person.class), convertId(e.getLinkId(), Link.class),
+                        convertString(e.getLegMode()), null);
+            }
+            case PERSONENTERSVEHICLE: {
+                ProtoEvents.PersonEntersVehicleEvent e = event.getPersonEntersVehicle();
+                return new PersonEntersVehicleEvent(time, convertId(e.getPersonId(), Person.class), convertId(e.getVehicleId(), Vehicle.class));
+            }
+            case PERSONLEAVESVEHICLE: {
+                ProtoEvents.PersonLeavesVehicleEvent e = event.getPersonLeavesVehicle();
+                return new PersonLeavesVehicleEvent(time, convertId(e.getPersonId(), Person.class), convertId(e.getVehicleId(), Vehicle.class));
+            }
+            case PERSONMONEY: {
+                ProtoEvents.PersonMoneyEvent e = event.getPersonMoney();
+                return new PersonMoneyEvent(time, convertId(e.getPersonId(), Person.class), e.getAmount(),
+                        convertString(e.getPurpose()), convertString(e.getTransactionPartner()));
+            }
+            case PERSONSTUCK: {
+                ProtoEvents.PersonStuckEvent e = event.getPersonStuck();
+                return new PersonStuckEvent(time, convertId(e.getPersonId(), Person.class), convertId(e.getLinkId(), Link.class),
+                        convertString(e.getLegMode()));
+            }
+            case TRANSITDRIVERSTARTS: {
+                ProtoEvents.TransitDriverStartsEvent e = event.getTransitDriverStarts();
+                return new TransitDriverStartsEvent(time, convertId(e.getDriverId(), Person.class), convertId(e.getVehicleId(), Vehicle.class),
+                        convertId(e.getTransitLineId(), TransitLine.class), convertId(e.getTransitRouteId(), TransitRoute.class),
+                        convertId(e.getDepartureId(), Departure.class));
+            }
+            case VEHICLEABORTS: {
+                ProtoEvents.VehicleAbortsEvent e = event.getVehicleAborts();
+                return new VehicleAbortsEvent(time, convertId(e.getVehicleId(), Vehicle.class), convertId(e.getLinkId(), Link.class));
+            }
+            case VEHICLEENTERSTRAFFIC: {
+                ProtoEvents.VehicleEntersTrafficEvent e = event.getVehicleEntersTraffic();
+                return new VehicleEntersTrafficEvent(time, convertId(e.getDriverId(), Person.class), convertId(e.getLinkId(), Link.class),
+                        convertId(e.getVehicleId(), Vehicle.class), convertString(e.getNetworkMode()), e.getRelativePositionOnLink());
+            }
+            case VEHICLELEAVESTRAFFIC: {
+                ProtoEvents.VehicleLeavesTrafficEvent e = event.getVehicleLeavesTraffic();
+                return new VehicleLeavesTrafficEvent(time, convertId(e.getDriverId(), Person.class), convertId(e.getLinkId(), Link.class),
+                        convertId(e.getVehicleId(), Vehicle.class), convertString(e.getNetworkMode()), e.getRelativePositionOnLink());
+            }
+            case GENERIC: {
+                ProtoEvents.GenericEvent e = event.getGeneric();
+                GenericEvent generic = new GenericEvent(e.getType(), time);
+                generic.getAttributes().putAll(e.getAttrsMap());
+                if (coord != null) {
+                    generic.getAttributes().put(Event.ATTRIBUTE_X, Double.toString(coord.getX()));
+                    generic.getAttributes().put(Event.ATTRIBUTE_Y, Double.toString(coord.getY()));
+                }
+                CustomEventMapper mapper = this.customEventMappers.get(e.getType());
+                return mapper == null ? generic : mapper.apply(generic);
+            }
+            default:
+                throw new IllegalArgumentException("Unknown event type " + event.getTypeCase() + " at time " + time);
+        }
+    }
+
+    /**
+     * Convert a protobuf id back to a MATSim id. The writer stores <code>null</code> ids as empty ids, so these are converted to <code>null</code>.
+     */
+    public static <T> Id<T> convertId(ProtoId id, Class<T> type) {
+        String key = id.getId();
+        return key.isEmpty() ? null : Id.create(key, type);
+    }
+
+    private static String convertString(String value) {
+        // proto3 does not distinguish between unset and empty strings
+        return value.isEmpty() ? null : value;
+    }
+
+}
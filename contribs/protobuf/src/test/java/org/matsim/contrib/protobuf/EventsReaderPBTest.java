@@ -0,0 +1,99 @@
+package org.matsim.contrib.protobuf;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.*;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.events.handler.BasicEventHandler;
+import org.matsim.core.utils.io.IOUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EventsReaderPBTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void roundTrip() throws IOException {
+
+        List<Event> written = new ArrayList<>();
+        // more than one batch, so the batches are decoded in parallel
+        for (int i = 0; i < 2500; i++) {
+            double time = i;
+            written.add(new ActivityEndEvent(time, Id.createPersonId(i), Id.createLinkId(1), null, "home", new Coord(1, 2)));
+            written.add(new PersonDepartureEvent(time, Id.createPersonId(i), Id.createLinkId(1), "car", null));
+            written.add(new PersonEntersVehicleEvent(time, Id.createPersonId(i), Id.createVehicleId(i)));
+            written.add(new VehicleEntersTrafficEvent(time, Id.createPersonId(i), Id.createLinkId(1), Id.createVehicleId(i), "car", 1.0));
+            written.add(new LinkLeaveEvent(time + 1, Id.createVehicleId(i), Id.createLinkId(1)));
+            written.add(new LinkEnterEvent(time + 1, Id.createVehicleId(i), Id.createLinkId(2)));
+            written.add(new VehicleLeavesTrafficEvent(time + 2, Id.createPersonId(i), Id.createLinkId(2), Id.createVehicleId(i), "car", 1.0));
+            written.add(new PersonLeavesVehicleEvent(time + 2, Id.createPersonId(i), Id.createVehicleId(i)));
+            written.add(new PersonArrivalEvent(time + 2, Id.createPersonId(i), Id.createLinkId(2), "car"));
+            written.add(new PersonMoneyEvent(time + 2, Id.createPersonId(i), -1.5, "toll", "city"));
+            written.add(new ActivityStartEvent(time + 2, Id.createPersonId(i), Id.createLinkId(2), null, "work", new Coord(3, 4)));
+
+            GenericEvent generic = new GenericEvent("custom", time + 3);
+            generic.getAttributes().put("value", String.valueOf(i));
+            written.add(generic);
+        }
+
+        File file = tmp.newFile("events.pb");
+        OutputStream out = IOUtils.getOutputStream(file.toURI().toURL(), false);
+        EventWriterPB writer = new EventWriterPB(out);
+        for (Event event : written) {
+            writer.handleEvent(event);
+        }
+        writer.closeFile();
+
+        List<Event> read = new ArrayList<>();
+        EventsManager events = EventsUtils.createEventsManager();
+        events.addHandler((BasicEventHandler) read::add);
+        events.initProcessing();
+        new EventsReaderPB(events, 4).readFile(file.getAbsolutePath());
+        events.finishProcessing();
+
+        assertThat(read).hasSize(written.size());
+        for (int i = 0; i < written.size(); i++) {
+            assertThat(read.get(i).getClass()).isEqualTo(written.get(i).getClass());
+            assertThat(read.get(i).getAttributes()).isEqualTo(written.get(i).getAttributes());
+        }
+    }
+
+    @Test
+    public void customEventMapper() throws IOException {
+
+        File file = tmp.newFile("custom.pb");
+        OutputStream out = IOUtils.getOutputStream(file.toURI().toURL(), false);
+        EventWriterPB writer = new EventWriterPB(out);
+        GenericEvent generic = new GenericEvent("stuck", 10.0);
+        generic.getAttributes().put(PersonStuckEvent.ATTRIBUTE_PERSON, "1");
+        writer.handleEvent(generic);
+        writer.closeFile();
+
+        List<Event> read = new ArrayList<>();
+        EventsManager events = EventsUtils.createEventsManager();
+        events.addHandler((BasicEventHandler) read::add);
+        EventsReaderPB reader = new EventsReaderPB(events, 1);
+        reader.addCustomEventMapper("stuck", e -> new PersonStuckEvent(e.getTime(),
+                Id.createPersonId(e.getAttributes().get(PersonStuckEvent.ATTRIBUTE_PERSON)), null, null));
+        events.initProcessing();
+        reader.readFile(file.getAbsolutePath());
+        events.finishProcessing();
+
+        assertThat(read).hasSize(1);
+        assertThat(read.get(0)).isInstanceOf(PersonStuckEvent.class);
+        assertThat(((PersonStuckEvent) read.get(0)).getPersonId()).isEqualTo(Id.createPersonId(1));
+    }
+
+}
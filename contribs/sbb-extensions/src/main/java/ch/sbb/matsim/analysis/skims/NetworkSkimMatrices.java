@@ -5,11 +5,12 @@
 package ch.sbb.matsim.analysis.skims;
 
 import org.matsim.core.router.speedy.SpeedyGraph;
-import org.matsim.core.router.speedy.LeastCostPathTree;
+import org.matsim.core.router.speedy.SpeedyManyToMany;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import org.matsim.api.core.v01.Coord;
 import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.network.Network;
@@ -38,6 +39,9 @@ import org.matsim.vehicles.VehicleUtils;
  */
 public final class NetworkSkimMatrices {
 
+    private final static Vehicle VEHICLE = VehicleUtils.getFactory().createVehicle(Id.create("theVehicle", Vehicle.class), VehicleUtils.getDefaultVehicleType());
+    private final static Person PERSON = PopulationUtils.getFactory().createPerson(Id.create("thePerson", Person.class));
+
     private NetworkSkimMatrices() {
     }
 
@@ -64,24 +68,47 @@ public final class NetworkSkimMatrices {
         float avgFactor = (float) (1.0 / numberOfPointsPerZone / numberOfPointsPerZone);
 
         // do calculation
-        ConcurrentLinkedQueue<T> originZones = new ConcurrentLinkedQueue<>(coordsPerZone.keySet());
+        List<T> originZones = new ArrayList<>(coordsPerZone.keySet());
+        Set<T> destinationZones = coordsPerZone.keySet();
 
         Counter counter = new Counter("CAR-TravelTimeMatrix-" + Time.writeTime(departureTime) + " zone ", " / " + coordsPerZone.size());
-        Thread[] threads = new Thread[numberOfThreads];
-        for (int i = 0; i < numberOfThreads; i++) {
-            RowWorker<T> worker = new RowWorker<>(originZones, coordsPerZone.keySet(), routingGraph, nodesPerZone, networkIndicators, departureTime, travelTime, travelDisutility, counter);
-            threads[i] = new Thread(worker, "CAR-TravelTimeMatrix-" + Time.writeTime(departureTime) + "-" + i);
-            threads[i].start();
-        }
-
-        // wait until all threads have finished
-        for (Thread thread : threads) {
-            try {
-                thread.join();
-            } catch (InterruptedException e) {
-                e.printStackTrace();
+        SpeedyManyToMany manyToMany = new SpeedyManyToMany(routingGraph, travelTime, travelDisutility, numberOfThreads);
+        // each origin zone is handled by a single thread, so every thread writes to different rows of the matrices
+        manyToMany.forEachOrigin(originZones.size(), (originIndex, lcpTree) -> {
+            T fromZoneId = originZones.get(originIndex);
+            counter.incCounter();
+            Node[] fromNodes = nodesPerZone.get(fromZoneId);
+            if (fromNodes != null) {
+                for (Node fromNode : fromNodes) {
+                    lcpTree.calculate(fromNode.getId().index(), departureTime, PERSON, VEHICLE);
+
+                    for (T toZoneId : destinationZones) {
+                        Node[] toNodes = nodesPerZone.get(toZoneId);
+                        if (toNodes != null) {
+                            for (Node toNode : toNodes) {
+                                int nodeIndex = toNode.getId().index();
+                                OptionalTime currOptionalTime = lcpTree.getTime(nodeIndex);
+                                double currTime = currOptionalTime.orElseThrow(() -> new RuntimeException("Undefined Time"));
+                                double tt = currTime - departureTime;
+                                double dist = lcpTree.getDistance(nodeIndex);
+                                networkIndicators.travelTimeMatrix.add(fromZoneId, toZoneId, (float) tt);
+                                networkIndicators.distanceMatrix.add(fromZoneId, toZoneId, (float) dist);
+                            }
+                        } else {
+                            // this might happen if a zone has no geometry, for whatever reason...
+                            networkIndicators.travelTimeMatrix.set(fromZoneId, toZoneId, Float.POSITIVE_INFINITY);
+                            networkIndicators.distanceMatrix.set(fromZoneId, toZoneId, Float.POSITIVE_INFINITY);
+                        }
+                    }
+                }
+            } else {
+                // this might happen if a zone has no geometry, for whatever reason...
+                for (T toZoneId : destinationZones) {
+                    networkIndicators.travelTimeMatrix.set(fromZoneId, toZoneId, Float.POSITIVE_INFINITY);
+                    networkIndicators.distanceMatrix.set(fromZoneId, toZoneId, Float.POSITIVE_INFINITY);
+                }
             }
-        }
+        });
 
         networkIndicators.travelTimeMatrix.multiply(avgFactor);
         networkIndicators.distanceMatrix.multiply(avgFactor);
@@ -89,78 +116,6 @@ public final class NetworkSkimMatrices {
         return networkIndicators;
     }
 
-    private static class RowWorker<T> implements Runnable {
-
-        private final static Vehicle VEHICLE = VehicleUtils.getFactory().createVehicle(Id.create("theVehicle", Vehicle.class), VehicleUtils.getDefaultVehicleType());
-        private final static Person PERSON = PopulationUtils.getFactory().createPerson(Id.create("thePerson", Person.class));
-        private final ConcurrentLinkedQueue<T> originZones;
-        private final Set<T> destinationZones;
-        private final SpeedyGraph graph;
-        private final Map<T, Node[]> nodesPerZone;
-        private final NetworkIndicators<T> networkIndicators;
-        private final TravelTime travelTime;
-        private final TravelDisutility travelDisutility;
-        private final double departureTime;
-        private final Counter counter;
-
-        RowWorker(ConcurrentLinkedQueue<T> originZones, Set<T> destinationZones, SpeedyGraph graph, Map<T, Node[]> nodesPerZone, NetworkIndicators<T> networkIndicators, double departureTime,
-                  TravelTime travelTime, TravelDisutility travelDisutility, Counter counter) {
-            this.originZones = originZones;
-            this.destinationZones = destinationZones;
-            this.graph = graph;
-            this.nodesPerZone = nodesPerZone;
-            this.networkIndicators = networkIndicators;
-            this.departureTime = departureTime;
-            this.travelTime = travelTime;
-            this.travelDisutility = travelDisutility;
-            this.counter = counter;
-        }
-
-        @Override
-        public void run() {
-            LeastCostPathTree lcpTree = new LeastCostPathTree(this.graph, this.travelTime, this.travelDisutility);
-            while (true) {
-                T fromZoneId = this.originZones.poll();
-                if (fromZoneId == null) {
-                    return;
-                }
-
-                this.counter.incCounter();
-                Node[] fromNodes = this.nodesPerZone.get(fromZoneId);
-                if (fromNodes != null) {
-                    for (Node fromNode : fromNodes) {
-                        lcpTree.calculate(fromNode.getId().index(), this.departureTime, PERSON, VEHICLE);
-
-                        for (T toZoneId : this.destinationZones) {
-                            Node[] toNodes = this.nodesPerZone.get(toZoneId);
-                            if (toNodes != null) {
-                                for (Node toNode : toNodes) {
-                                    int nodeIndex = toNode.getId().index();
-                                    OptionalTime currOptionalTime = lcpTree.getTime(nodeIndex);
-                                    double currTime = currOptionalTime.orElseThrow(() -> new RuntimeException("Undefined Time"));
-                                    double tt = currTime - this.departureTime;
-                                    double dist = lcpTree.getDistance(nodeIndex);
-                                    this.networkIndicators.travelTimeMatrix.add(fromZoneId, toZoneId, (float) tt);
-                                    this.networkIndicators.distanceMatrix.add(fromZoneId, toZoneId, (float) dist);
-                                }
-                            } else {
-                                // this might happen if a zone has no geometry, for whatever reason...
-                                this.networkIndicators.travelTimeMatrix.set(fromZoneId, toZoneId, Float.POSITIVE_INFINITY);
-                                this.networkIndicators.distanceMatrix.set(fromZoneId, toZoneId, Float.POSITIVE_INFINITY);
-                            }
-                        }
-                    }
-                } else {
-                    // this might happen if a zone has no geometry, for whatever reason...
-                    for (T toZoneId : this.destinationZones) {
-                        this.networkIndicators.travelTimeMatrix.set(fromZoneId, toZoneId, Float.POSITIVE_INFINITY);
-                        this.networkIndicators.distanceMatrix.set(fromZoneId, toZoneId, Float.POSITIVE_INFINITY);
-                    }
-                }
-            }
-        }
-    }
-
     static class NetworkIndicators<T> {
 
         final FloatMatrix<T> travelTimeMatrix;
@@ -47,6 +47,12 @@ public class RaptorStaticConfig {
 
     private RaptorOptimization optimization = RaptorOptimization.OneToOneRouting;
 
+    /**
+     * Directory where the expensive parts of {@link SwissRailRaptorData} are cached between runs,
+     * <code>null</code> if no caching should be done.
+     */
+    private String dataCacheDirectory = null;
+
     public double getBeelineWalkConnectionDistance() {
         return this.beelineWalkConnectionDistance;
     }
@@ -118,4 +124,12 @@ public class RaptorStaticConfig {
     public void setOptimization(RaptorOptimization optimization) {
         this.optimization = optimization;
     }
+
+    public String getDataCacheDirectory() {
+        return this.dataCacheDirectory;
+    }
+
+    public void setDataCacheDirectory(String dataCacheDirectory) {
+        this.dataCacheDirectory = dataCacheDirectory;
+    }
 }
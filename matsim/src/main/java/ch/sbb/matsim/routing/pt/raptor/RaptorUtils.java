@@ -56,6 +56,7 @@ public final class RaptorUtils {
             }
         }
         staticConfig.setUseCapacityConstraints(srrConfig.isUseCapacityConstraints());
+        staticConfig.setDataCacheDirectory(srrConfig.getDataCacheDirectory());
 
         return staticConfig;
     }
@@ -183,6 +183,32 @@ public class SwissRailRaptorData {
         QuadTree<TransitStopFacility> stopsQT = TransitScheduleUtils.createQuadTreeOfTransitStopFacilities(stops);
         int countStopFacilities = stops.size();
 
+        SwissRailRaptorDataCache cache = null;
+        RTransfer[] transfers = null;
+        if (staticConfig.getDataCacheDirectory() != null) {
+            cache = SwissRailRaptorDataCache.create(staticConfig.getDataCacheDirectory(), schedule, network, staticConfig);
+            transfers = cache.load(routeStops);
+        }
+        if (transfers == null) {
+            transfers = createTransfers(schedule, stopsQT, routeStopsPerStopFacility, routeStops, staticConfig);
+            if (cache != null) {
+                cache.store(routeStops, transfers);
+            }
+        }
+
+        SwissRailRaptorData data = new SwissRailRaptorData(staticConfig, countStopFacilities, routes, departures, departureVehicles, departureIds, routeStops, transfers, stopFacilityIndices, routeStopsPerStopFacility, stopsQT, occupancyData);
+
+        long endMillis = System.currentTimeMillis();
+        log.info("SwissRailRaptor data preparation done. Took " + (endMillis - startMillis) / 1000 + " seconds.");
+        log.info("SwissRailRaptor statistics:  #routes = " + routes.length);
+        log.info("SwissRailRaptor statistics:  #departures = " + departures.length);
+        log.info("SwissRailRaptor statistics:  #routeStops = " + routeStops.length);
+        log.info("SwissRailRaptor statistics:  #stopFacilities = " + countStopFacilities);
+        log.info("SwissRailRaptor statistics:  #transfers (between routeStops) = " + transfers.length);
+        return data;
+    }
+
+    private static RTransfer[] createTransfers(TransitSchedule schedule, QuadTree<TransitStopFacility> stopsQT, Map<TransitStopFacility, int[]> routeStopsPerStopFacility, RRouteStop[] routeStops, RaptorStaticConfig staticConfig) {
         Map<Integer, RTransfer[]> allTransfers = calculateRouteStopTransfers(schedule, stopsQT, routeStopsPerStopFacility, routeStops, staticConfig);
         long countTransfers = 0;
         for (RTransfer[] transfers : allTransfers.values()) {
@@ -204,17 +230,7 @@ public class SwissRailRaptorData {
                 indexTransfer += transferCount;
             }
         }
-
-        SwissRailRaptorData data = new SwissRailRaptorData(staticConfig, countStopFacilities, routes, departures, departureVehicles, departureIds, routeStops, transfers, stopFacilityIndices, routeStopsPerStopFacility, stopsQT, occupancyData);
-
-        long endMillis = System.currentTimeMillis();
-        log.info("SwissRailRaptor data preparation done. Took " + (endMillis - startMillis) / 1000 + " seconds.");
-        log.info("SwissRailRaptor statistics:  #routes = " + routes.length);
-        log.info("SwissRailRaptor statistics:  #departures = " + departures.length);
-        log.info("SwissRailRaptor statistics:  #routeStops = " + routeStops.length);
-        log.info("SwissRailRaptor statistics:  #stopFacilities = " + countStopFacilities);
-        log.info("SwissRailRaptor statistics:  #transfers (between routeStops) = " + transfers.length);
-        return data;
+        return transfers;
     }
 
     // calculate possible transfers between TransitRouteStops
@@ -535,10 +551,14 @@ public class SwissRailRaptorData {
         final int transferDistance;
 
         RTransfer(int fromRouteStop, int toRouteStop, double transferTime, double transferDistance) {
+            this(fromRouteStop, toRouteStop, (int) Math.ceil(transferTime), (int) Math.ceil(transferDistance));
+        }
+
+        RTransfer(int fromRouteStop, int toRouteStop, int transferTime, int transferDistance) {
             this.fromRouteStop = fromRouteStop;
             this.toRouteStop = toRouteStop;
-            this.transferTime = (int) Math.ceil(transferTime);
-            this.transferDistance = (int) Math.ceil(transferDistance);
+            this.transferTime = transferTime;
+            this.transferDistance = transferDistance;
         }
     }
     
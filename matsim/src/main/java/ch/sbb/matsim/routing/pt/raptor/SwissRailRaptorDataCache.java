@@ -0,0 +1,244 @@
+/*
+ * Copyright (C) Schweizerische Bundesbahnen SBB, 2022.
+ */
+
+package ch.sbb.matsim.routing.pt.raptor;
+
+import ch.sbb.matsim.routing.pt.raptor.SwissRailRaptorData.RRouteStop;
+import ch.sbb.matsim.routing.pt.raptor.SwissRailRaptorData.RTransfer;
+import org.apache.log4j.Logger;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.core.population.routes.NetworkRoute;
+import org.matsim.pt.transitSchedule.api.Departure;
+import org.matsim.pt.transitSchedule.api.MinimalTransferTimes;
+import org.matsim.pt.transitSchedule.api.TransitLine;
+import org.matsim.pt.transitSchedule.api.TransitRoute;
+import org.matsim.pt.transitSchedule.api.TransitRouteStop;
+import org.matsim.pt.transitSchedule.api.TransitSchedule;
+import org.matsim.pt.transitSchedule.api.TransitStopFacility;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Stores the transfers between route stops of {@link SwissRailRaptorData} in a binary file, so later runs
+ * with the same transit schedule, network and {@link RaptorStaticConfig} can skip calculating them.
+ *
+ * The file is identified by a SHA-256 hash over all inputs the transfers depend on. Routes, route stops
+ * and departures reference schedule objects and are thus always rebuilt from the schedule, which is cheap
+ * compared to the transfer calculation.
+ *
+ * File layout (big endian): magic, format version, 32 bytes key, number of route stops, number of transfers,
+ * then for each route stop (index of first transfer, number of transfers) and for each transfer
+ * (from route stop, to route stop, transfer time, transfer distance), all as int.
+ */
+final class SwissRailRaptorDataCache {
+
+    private static final Logger log = Logger.getLogger(SwissRailRaptorDataCache.class);
+
+    private static final int MAGIC = 0x53525244; // "SRRD"
+    private static final int FORMAT_VERSION = 1;
+    private static final int KEY_LENGTH = 32;
+    private static final int HEADER_LENGTH = 4 + 4 + KEY_LENGTH + 4 + 4;
+
+    private final Path file;
+    private final byte[] key;
+
+    private SwissRailRaptorDataCache(Path file, byte[] key) {
+        this.file = file;
+        this.key = key;
+    }
+
+    static SwissRailRaptorDataCache create(String directory, TransitSchedule schedule, Network network, RaptorStaticConfig config) {
+        byte[] key = calculateKey(schedule, network, config);
+        StringBuilder hex = new StringBuilder();
+        for (int i = 0; i < 8; i++) {
+            hex.append(String.format("%02x", key[i]));
+        }
+        return new SwissRailRaptorDataCache(Paths.get(directory, "swissRailRaptorData-" + hex + ".bin"), key);
+    }
+
+    Path getFile() {
+        return this.file;
+    }
+
+    /**
+     * Loads the transfers from the cache file and sets the transfer indices on the route stops.
+     *
+     * @return the transfers, or <code>null</code> if there is no valid cache file for the current inputs.
+     */
+    RTransfer[] load(RRouteStop[] routeStops) {
+        if (!Files.isRegularFile(this.file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(this.file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_LENGTH) {
+                log.warn("Ignoring SwissRailRaptor data cache " + this.file + ", the file is truncated.");
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                log.warn("Ignoring SwissRailRaptor data cache " + this.file + ", unknown format.");
+                return null;
+            }
+            byte[] fileKey = new byte[KEY_LENGTH];
+            buffer.get(fileKey);
+            if (!MessageDigest.isEqual(fileKey, this.key)) {
+                log.warn("Ignoring SwissRailRaptor data cache " + this.file + ", it was built from different inputs.");
+                return null;
+            }
+            int countRouteStops = buffer.getInt();
+            int countTransfers = buffer.getInt();
+            if (countRouteStops != routeStops.length || size != HEADER_LENGTH + 8L * countRouteStops + 16L * countTransfers) {
+                log.warn("Ignoring SwissRailRaptor data cache " + this.file + ", the file is inconsistent.");
+                return null;
+            }
+            for (RRouteStop routeStop : routeStops) {
+                routeStop.indexFirstTransfer = buffer.getInt();
+                routeStop.countTransfers = buffer.getInt();
+            }
+            RTransfer[] transfers = new RTransfer[countTransfers];
+            for (int i = 0; i < countTransfers; i++) {
+                transfers[i] = new RTransfer(buffer.getInt(), buffer.getInt(), buffer.getInt(), buffer.getInt());
+            }
+            log.info("Loaded " + countTransfers + " transfers from SwissRailRaptor data cache " + this.file);
+            return transfers;
+        } catch (IOException e) {
+            log.warn("Could not read SwissRailRaptor data cache " + this.file + ", data will be rebuilt.", e);
+            return null;
+        }
+    }
+
+    /**
+     * Writes the transfers to the cache file. The file is first written to a temporary file and then moved
+     * into place, so concurrent runs never see a partially written cache.
+     */
+    void store(RRouteStop[] routeStops, RTransfer[] transfers) {
+        Path tmpFile = null;
+        try {
+            Files.createDirectories(this.file.getParent());
+            tmpFile = Files.createTempFile(this.file.getParent(), "swissRailRaptorData", ".tmp");
+            try (OutputStream os = Files.newOutputStream(tmpFile);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os, 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.write(this.key);
+                out.writeInt(routeStops.length);
+                out.writeInt(transfers.length);
+                for (RRouteStop routeStop : routeStops) {
+                    out.writeInt(routeStop.indexFirstTransfer);
+                    out.writeInt(routeStop.countTransfers);
+                }
+                for (RTransfer transfer : transfers) {
+                    out.writeInt(transfer.fromRouteStop);
+                    out.writeInt(transfer.toRouteStop);
+                    out.writeInt(transfer.transferTime);
+                    out.writeInt(transfer.transferDistance);
+                }
+            }
+            Files.move(tmpFile, this.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Stored SwissRailRaptor data cache in " + this.file);
+        } catch (IOException e) {
+            log.warn("Could not write SwissRailRaptor data cache " + this.file, e);
+            if (tmpFile != null) {
+                try {
+                    Files.deleteIfExists(tmpFile);
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    /**
+     * The key must cover everything the transfers depend on, including the iteration order of lines and routes,
+     * as this defines the indices of the route stops.
+     */
+    private static byte[] calculateKey(TransitSchedule schedule, Network network, RaptorStaticConfig config) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+
+        update(digest, buffer, FORMAT_VERSION);
+        update(digest, buffer, config.getBeelineWalkConnectionDistance());
+        update(digest, buffer, config.getBeelineWalkSpeed());
+        update(digest, buffer, config.getBeelineWalkDistanceFactor());
+        update(digest, buffer, config.getMinimalTransferTime());
+        update(digest, config.getOptimization().name());
+
+        for (TransitLine line : schedule.getTransitLines().values()) {
+            update(digest, line.getId());
+            for (TransitRoute route : line.getRoutes().values()) {
+                update(digest, route.getId());
+                update(digest, route.getTransportMode());
+                NetworkRoute networkRoute = route.getRoute();
+                if (networkRoute != null) {
+                    update(digest, buffer, networkRoute.getStartLinkId(), network);
+                    for (Id<Link> linkId : networkRoute.getLinkIds()) {
+                        update(digest, buffer, linkId, network);
+                    }
+                    update(digest, buffer, networkRoute.getEndLinkId(), network);
+                }
+                for (TransitRouteStop routeStop : route.getStops()) {
+                    TransitStopFacility stop = routeStop.getStopFacility();
+                    update(digest, stop.getId());
+                    update(digest, stop.getLinkId());
+                    update(digest, buffer, stop.getCoord().getX());
+                    update(digest, buffer, stop.getCoord().getY());
+                    update(digest, buffer, routeStop.getArrivalOffset().or(routeStop::getDepartureOffset).seconds());
+                    update(digest, buffer, routeStop.getDepartureOffset().or(routeStop::getArrivalOffset).seconds());
+                }
+                for (Departure departure : route.getDepartures().values()) {
+                    update(digest, buffer, departure.getDepartureTime());
+                }
+            }
+        }
+
+        MinimalTransferTimes.MinimalTransferTimesIterator iter = schedule.getMinimalTransferTimes().iterator();
+        while (iter.hasNext()) {
+            iter.next();
+            update(digest, iter.getFromStopId());
+            update(digest, iter.getToStopId());
+            update(digest, buffer, iter.getSeconds());
+        }
+        return digest.digest();
+    }
+
+    private static void update(MessageDigest digest, ByteBuffer buffer, Id<Link> linkId, Network network) {
+        update(digest, linkId);
+        Link link = network.getLinks().get(linkId);
+        update(digest, buffer, link == null ? Double.NaN : link.getLength());
+    }
+
+    private static void update(MessageDigest digest, Object value) {
+        byte[] bytes = String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+        digest.update(bytes);
+        digest.update((byte) 0);
+    }
+
+    private static void update(MessageDigest digest, ByteBuffer buffer, double value) {
+        buffer.clear();
+        buffer.putDouble(value);
+        digest.update(buffer.array(), 0, 8);
+    }
+
+}
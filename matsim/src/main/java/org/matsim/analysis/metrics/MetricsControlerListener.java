@@ -0,0 +1,108 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * MetricsControlerListener.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2022 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.analysis.metrics;
+
+import org.matsim.core.config.groups.ControlerConfigGroup;
+import org.matsim.core.controler.OutputDirectoryHierarchy;
+import org.matsim.core.controler.events.IterationEndsEvent;
+import org.matsim.core.controler.events.IterationStartsEvent;
+import org.matsim.core.controler.listener.IterationEndsListener;
+import org.matsim.core.controler.listener.IterationStartsListener;
+import org.matsim.core.utils.io.IOUtils;
+import org.matsim.core.utils.io.UncheckedIOException;
+
+import javax.inject.Inject;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Resets the {@link MetricsRegistry} at the start of each iteration and writes all metrics to
+ * <code>N.metrics.csv</code> at the end of every {@link ControlerConfigGroup#getWriteMetricsInterval()}th iteration.
+ * The time spent in garbage collection during the iteration is added as counters.
+ */
+final class MetricsControlerListener implements IterationStartsListener, IterationEndsListener {
+
+	private static final String SEP = ";";
+
+	private final MetricsRegistry metrics;
+	private final OutputDirectoryHierarchy controlerIO;
+	private final int writeInterval;
+	private final Map<String, long[]> gcAtIterationStart = new HashMap<>();
+
+	@Inject
+	MetricsControlerListener(MetricsRegistry metrics, OutputDirectoryHierarchy controlerIO, ControlerConfigGroup config) {
+		this.metrics = metrics;
+		this.controlerIO = controlerIO;
+		this.writeInterval = config.getWriteMetricsInterval();
+	}
+
+	@Override
+	public void notifyIterationStarts(IterationStartsEvent event) {
+		this.metrics.reset();
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			this.gcAtIterationStart.put(gc.getName(), new long[] { gc.getCollectionCount(), gc.getCollectionTime() });
+		}
+	}
+
+	@Override
+	public void notifyIterationEnds(IterationEndsEvent event) {
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			long[] start = this.gcAtIterationStart.getOrDefault(gc.getName(), new long[2]);
+			String name = "jvm.gc." + gc.getName().replace(' ', '_');
+			this.metrics.counter(name + ".count").add(Math.max(0, gc.getCollectionCount() - start[0]));
+			this.metrics.counter(name + ".timeMs").add(Math.max(0, gc.getCollectionTime() - start[1]));
+		}
+		if (event.getIteration() % this.writeInterval == 0 || event.isLastIteration()) {
+			writeMetrics(this.controlerIO.getIterationFilename(event.getIteration(), "metrics.csv"));
+		}
+	}
+
+	void writeMetrics(String filename) {
+		try (BufferedWriter writer = IOUtils.getBufferedWriter(filename)) {
+			writer.write(String.join(SEP, "name", "type", "count", "total_ms", "mean_us", "min_us", "p50_us", "p95_us", "p99_us", "max_us"));
+			writer.newLine();
+			for (Counter counter : this.metrics.getCounters()) {
+				writer.write(counter.getName() + SEP + "counter" + SEP + counter.getCount() + SEP.repeat(7));
+				writer.newLine();
+			}
+			for (Timer timer : this.metrics.getTimers()) {
+				writer.write(String.join(SEP, timer.getName(), "timer", Long.toString(timer.getCount()),
+						format(timer.getTotalNanos() / 1e6), format(timer.getMeanNanos() / 1e3), format(timer.getMinNanos() / 1e3),
+						format(timer.getPercentileNanos(0.5) / 1e3), format(timer.getPercentileNanos(0.95) / 1e3),
+						format(timer.getPercentileNanos(0.99) / 1e3), format(timer.getMaxNanos() / 1e3)));
+				writer.newLine();
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static String format(double value) {
+		return String.format(Locale.US, "%.3f", value);
+	}
+
+}
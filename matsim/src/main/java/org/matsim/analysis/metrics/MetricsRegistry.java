@@ -0,0 +1,95 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * MetricsRegistry.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2022 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.analysis.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects fine-grained performance metrics ({@link Counter}s and {@link Timer}s) during an iteration, complementing
+ * the coarse phases measured by {@link org.matsim.analysis.IterationStopWatch}.
+ *
+ * The registry is only bound if metrics are enabled (see {@link org.matsim.core.config.groups.ControlerConfigGroup#getWriteMetricsInterval()}),
+ * so instrumented code should get it by optional injection and skip measuring if it is <code>null</code>. The constructor
+ * is private, so that Guice cannot create an unbound (and never reported) registry for optional injection points;
+ * use {@link #create()} outside of injection.
+ * As looking up a metric by name requires a map lookup, instrumented code should keep the returned
+ * instances. All metrics are reset at the start of each iteration and written to <code>ITERS/it.N/N.metrics.csv</code>
+ * at its end.
+ *
+ * This class is thread-safe.
+ */
+public final class MetricsRegistry {
+
+	private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+	private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+	private MetricsRegistry() {
+	}
+
+	public static MetricsRegistry create() {
+		return new MetricsRegistry();
+	}
+
+	public Counter counter(String name) {
+		return this.counters.computeIfAbsent(name, Counter::new);
+	}
+
+	public Timer timer(String name) {
+		return this.timers.computeIfAbsent(name, Timer::new);
+	}
+
+	/**
+	 * @return all counters, sorted by name
+	 */
+	public List<Counter> getCounters() {
+		List<Counter> list = new ArrayList<>(this.counters.values());
+		list.sort(Comparator.comparing(Counter::getName));
+		return Collections.unmodifiableList(list);
+	}
+
+	/**
+	 * @return all timers, sorted by name
+	 */
+	public List<Timer> getTimers() {
+		List<Timer> list = new ArrayList<>(this.timers.values());
+		list.sort(Comparator.comparing(Timer::getName));
+		return Collections.unmodifiableList(list);
+	}
+
+	/**
+	 * Resets all values, but keeps the metrics themselves, as instrumented code may hold references to them.
+	 */
+	public void reset() {
+		for (Counter counter : this.counters.values()) {
+			counter.reset();
+		}
+		for (Timer timer : this.timers.values()) {
+			timer.reset();
+		}
+	}
+
+}
@@ -0,0 +1,140 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * Timer.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2022 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.analysis.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records durations in nanoseconds, see {@link MetricsRegistry#timer(String)}. Besides count, total, minimum and
+ * maximum, a histogram with power-of-two buckets is kept, from which percentiles can be estimated. The estimation
+ * returns the upper bound of the bucket, so it is at most a factor of 2 too high.
+ *
+ * All methods are thread-safe and do not allocate memory. Typical usage:
+ * <pre>
+ * long start = timer.start();
+ * ...
+ * timer.stop(start);
+ * </pre>
+ */
+public final class Timer {
+
+	private static final int BUCKETS = 64;
+
+	private final String name;
+	private final LongAdder count = new LongAdder();
+	private final LongAdder total = new LongAdder();
+	private final LongAccumulator min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+	private final LongAdder[] buckets = new LongAdder[BUCKETS];
+
+	Timer(String name) {
+		this.name = name;
+		for (int i = 0; i < BUCKETS; i++) {
+			this.buckets[i] = new LongAdder();
+		}
+	}
+
+	public String getName() {
+		return this.name;
+	}
+
+	public long start() {
+		return System.nanoTime();
+	}
+
+	/**
+	 * Records the time since <code>startNanos</code>, which must have been obtained from {@link #start()}.
+	 */
+	public void stop(long startNanos) {
+		record(System.nanoTime() - startNanos);
+	}
+
+	public void record(long nanos) {
+		long value = Math.max(0, nanos);
+		this.count.increment();
+		this.total.add(value);
+		this.min.accumulate(value);
+		this.max.accumulate(value);
+		// bucket i contains values < 2^i
+		this.buckets[Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(value))].increment();
+	}
+
+	public long getCount() {
+		return this.count.sum();
+	}
+
+	public long getTotalNanos() {
+		return this.total.sum();
+	}
+
+	public long getMinNanos() {
+		long value = this.min.get();
+		return value == Long.MAX_VALUE ? 0 : value;
+	}
+
+	public long getMaxNanos() {
+		return this.max.get();
+	}
+
+	public double getMeanNanos() {
+		long cnt = getCount();
+		return cnt == 0 ? 0 : ((double) getTotalNanos()) / cnt;
+	}
+
+	/**
+	 * @param percentile between 0 and 1
+	 * @return an upper bound of the given percentile, never larger than the maximum.
+	 */
+	public long getPercentileNanos(double percentile) {
+		long[] counts = new long[BUCKETS];
+		long cnt = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] = this.buckets[i].sum();
+			cnt += counts[i];
+		}
+		if (cnt == 0) {
+			return 0;
+		}
+		long rank = (long) Math.ceil(percentile * cnt);
+		long cumulated = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			cumulated += counts[i];
+			if (cumulated >= rank && counts[i] > 0) {
+				long upperBound = i >= 63 ? Long.MAX_VALUE : (1L << i) - 1;
+				return Math.min(upperBound, getMaxNanos());
+			}
+		}
+		return getMaxNanos();
+	}
+
+	void reset() {
+		this.count.reset();
+		this.total.reset();
+		this.min.reset();
+		this.max.reset();
+		for (LongAdder bucket : this.buckets) {
+			bucket.reset();
+		}
+	}
+
+}
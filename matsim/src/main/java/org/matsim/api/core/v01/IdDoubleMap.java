@@ -0,0 +1,173 @@
+package org.matsim.api.core.v01;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.ObjDoubleConsumer;
+
+/**
+ * A map from {@link Id}s to primitive <code>double</code> values, addressed by {@link Id#index()} like {@link IdMap}.
+ * Values are stored in a plain array, so counting or accumulating values in event handlers does not
+ * allocate any objects. Getting the value of a key that is not contained in the map returns <code>0</code>.
+ *
+ * This class is not thread-safe. For parallel accumulation, use one map per thread and combine them
+ * with {@link #addAll(IdDoubleMap)} at the end.
+ */
+public class IdDoubleMap<T> {
+
+	private static final int INCREMENT = 100;
+	private static final float INCREMENT_FACTOR = 1.5f;
+	private final Class<T> idClass;
+	private final BitSet keys = new BitSet();
+	private int size = 0;
+	private double[] data;
+
+	public IdDoubleMap(Class<T> idClass) {
+		this(idClass, Math.max(Id.getNumberOfIds(idClass), INCREMENT));
+	}
+
+	public IdDoubleMap(Class<T> idClass, int size) {
+		this.idClass = idClass;
+		this.data = new double[size];
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	public boolean containsKey(Id<T> key) {
+		return this.keys.get(key.index());
+	}
+
+	/**
+	 * @return the value stored for the given key, or <code>0</code> if the key is not contained in the map.
+	 */
+	public double get(Id<T> key) {
+		return get(key.index());
+	}
+
+	public double get(int index) {
+		if (index < this.data.length) {
+			return this.data[index];
+		}
+		return 0;
+	}
+
+	public double getOrDefault(Id<T> key, double defaultValue) {
+		int index = key.index();
+		return this.keys.get(index) ? this.data[index] : defaultValue;
+	}
+
+	/**
+	 * @return the previous value stored for the given key, or <code>0</code> if there was none.
+	 */
+	public double put(Id<T> key, double value) {
+		return put(key.index(), value);
+	}
+
+	double put(int index, double value) {
+		ensureCapacity(index);
+		double oldValue = this.data[index];
+		this.data[index] = value;
+		markPresent(index);
+		return oldValue;
+	}
+
+	/**
+	 * Adds the given value to the value stored for the key. If the key is not yet contained in the map,
+	 * it is added with the given value.
+	 *
+	 * @return the new value stored for the key.
+	 */
+	public double add(Id<T> key, double value) {
+		return add(key.index(), value);
+	}
+
+	double add(int index, double value) {
+		ensureCapacity(index);
+		markPresent(index);
+		return this.data[index] += value;
+	}
+
+	/**
+	 * Adds all values of the other map to the values stored in this map.
+	 */
+	public void addAll(IdDoubleMap<T> other) {
+		for (int index = other.keys.nextSetBit(0); index >= 0; index = other.keys.nextSetBit(index + 1)) {
+			add(index, other.data[index]);
+		}
+	}
+
+	/**
+	 * @return the value that was stored for the given key, or <code>0</code> if there was none.
+	 */
+	public double remove(Id<T> key) {
+		int index = key.index();
+		if (!this.keys.get(index)) {
+			return 0;
+		}
+		double oldValue = this.data[index];
+		this.data[index] = 0;
+		this.keys.clear(index);
+		this.size--;
+		return oldValue;
+	}
+
+	public void clear() {
+		this.size = 0;
+		this.keys.clear();
+		Arrays.fill(this.data, 0);
+	}
+
+	public void forEach(ObjDoubleConsumer<Id<T>> action) {
+		for (int index = this.keys.nextSetBit(0); index >= 0; index = this.keys.nextSetBit(index + 1)) {
+			action.accept(Id.get(index, this.idClass), this.data[index]);
+		}
+	}
+
+	private void markPresent(int index) {
+		if (!this.keys.get(index)) {
+			this.keys.set(index);
+			this.size++;
+		}
+	}
+
+	private void ensureCapacity(int index) {
+		if (index >= this.data.length) {
+			int newSize = Math.max(index + INCREMENT, (int) (this.data.length * INCREMENT_FACTOR));
+			this.data = Arrays.copyOf(this.data, newSize);
+		}
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (o == this) {
+			return true;
+		}
+		if (!(o instanceof IdDoubleMap)) {
+			return false;
+		}
+		IdDoubleMap<?> m = (IdDoubleMap<?>) o;
+		if (this.size != m.size || !this.keys.equals(m.keys)) {
+			return false;
+		}
+		for (int index = this.keys.nextSetBit(0); index >= 0; index = this.keys.nextSetBit(index + 1)) {
+			if (Double.compare(this.data[index], m.data[index]) != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		int h = 0;
+		for (int index = this.keys.nextSetBit(0); index >= 0; index = this.keys.nextSetBit(index + 1)) {
+			h += index ^ Double.hashCode(this.data[index]);
+		}
+		return h;
+	}
+}
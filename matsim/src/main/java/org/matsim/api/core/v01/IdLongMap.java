@@ -0,0 +1,182 @@
+package org.matsim.api.core.v01;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * A map from {@link Id}s to primitive <code>long</code> values, addressed by {@link Id#index()} like {@link IdMap}.
+ * Values are stored in a plain array, so counting or accumulating values in event handlers does not
+ * allocate any objects. Getting the value of a key that is not contained in the map returns <code>0</code>.
+ *
+ * This class is not thread-safe. For parallel accumulation, use one map per thread and combine them
+ * with {@link #addAll(IdLongMap)} at the end.
+ */
+public class IdLongMap<T> {
+
+	private static final int INCREMENT = 100;
+	private static final float INCREMENT_FACTOR = 1.5f;
+	private final Class<T> idClass;
+	private final BitSet keys = new BitSet();
+	private int size = 0;
+	private long[] data;
+
+	public IdLongMap(Class<T> idClass) {
+		this(idClass, Math.max(Id.getNumberOfIds(idClass), INCREMENT));
+	}
+
+	public IdLongMap(Class<T> idClass, int size) {
+		this.idClass = idClass;
+		this.data = new long[size];
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	public boolean containsKey(Id<T> key) {
+		return this.keys.get(key.index());
+	}
+
+	/**
+	 * @return the value stored for the given key, or <code>0</code> if the key is not contained in the map.
+	 */
+	public long get(Id<T> key) {
+		return get(key.index());
+	}
+
+	public long get(int index) {
+		if (index < this.data.length) {
+			return this.data[index];
+		}
+		return 0;
+	}
+
+	public long getOrDefault(Id<T> key, long defaultValue) {
+		int index = key.index();
+		return this.keys.get(index) ? this.data[index] : defaultValue;
+	}
+
+	/**
+	 * @return the previous value stored for the given key, or <code>0</code> if there was none.
+	 */
+	public long put(Id<T> key, long value) {
+		return put(key.index(), value);
+	}
+
+	long put(int index, long value) {
+		ensureCapacity(index);
+		long oldValue = this.data[index];
+		this.data[index] = value;
+		markPresent(index);
+		return oldValue;
+	}
+
+	/**
+	 * Adds the given value to the value stored for the key. If the key is not yet contained in the map,
+	 * it is added with the given value.
+	 *
+	 * @return the new value stored for the key.
+	 */
+	public long add(Id<T> key, long value) {
+		return add(key.index(), value);
+	}
+
+	long add(int index, long value) {
+		ensureCapacity(index);
+		markPresent(index);
+		return this.data[index] += value;
+	}
+
+	/**
+	 * Increments the value stored for the key by one.
+	 *
+	 * @return the new value stored for the key.
+	 */
+	public long increment(Id<T> key) {
+		return add(key.index(), 1);
+	}
+
+	/**
+	 * Adds all values of the other map to the values stored in this map.
+	 */
+	public void addAll(IdLongMap<T> other) {
+		for (int index = other.keys.nextSetBit(0); index >= 0; index = other.keys.nextSetBit(index + 1)) {
+			add(index, other.data[index]);
+		}
+	}
+
+	/**
+	 * @return the value that was stored for the given key, or <code>0</code> if there was none.
+	 */
+	public long remove(Id<T> key) {
+		int index = key.index();
+		if (!this.keys.get(index)) {
+			return 0;
+		}
+		long oldValue = this.data[index];
+		this.data[index] = 0;
+		this.keys.clear(index);
+		this.size--;
+		return oldValue;
+	}
+
+	public void clear() {
+		this.size = 0;
+		this.keys.clear();
+		Arrays.fill(this.data, 0);
+	}
+
+	public void forEach(ObjLongConsumer<Id<T>> action) {
+		for (int index = this.keys.nextSetBit(0); index >= 0; index = this.keys.nextSetBit(index + 1)) {
+			action.accept(Id.get(index, this.idClass), this.data[index]);
+		}
+	}
+
+	private void markPresent(int index) {
+		if (!this.keys.get(index)) {
+			this.keys.set(index);
+			this.size++;
+		}
+	}
+
+	private void ensureCapacity(int index) {
+		if (index >= this.data.length) {
+			int newSize = Math.max(index + INCREMENT, (int) (this.data.length * INCREMENT_FACTOR));
+			this.data = Arrays.copyOf(this.data, newSize);
+		}
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (o == this) {
+			return true;
+		}
+		if (!(o instanceof IdLongMap)) {
+			return false;
+		}
+		IdLongMap<?> m = (IdLongMap<?>) o;
+		if (this.size != m.size || !this.keys.equals(m.keys)) {
+			return false;
+		}
+		for (int index = this.keys.nextSetBit(0); index >= 0; index = this.keys.nextSetBit(index + 1)) {
+			if (this.data[index] != m.data[index]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		int h = 0;
+		for (int index = this.keys.nextSetBit(0); index >= 0; index = this.keys.nextSetBit(index + 1)) {
+			h += index ^ Long.hashCode(this.data[index]);
+		}
+		return h;
+	}
+}
@@ -33,7 +33,7 @@ import java.util.*;
 public final class ControlerConfigGroup extends ReflectiveConfigGroup {
 	private static final Logger log = Logger.getLogger( ControlerConfigGroup.class );
 
-	public enum RoutingAlgorithmType {Dijkstra, AStarLandmarks, FastDijkstra, FastAStarLandmarks, SpeedyALT}
+	public enum RoutingAlgorithmType {Dijkstra, AStarLandmarks, FastDijkstra, FastAStarLandmarks, SpeedyALT, SpeedyCH}
 
 	public enum EventsFileFormat {xml, pb, json}
 
@@ -61,8 +61,11 @@ public final class ControlerConfigGroup extends ReflectiveConfigGroup {
 	/*package*/ static final String EVENTS_FILE_FORMAT = "eventsFileFormat";
 	private static final String SNAPSHOT_FORMAT = "snapshotFormat";
 	private static final String WRITE_EVENTS_INTERVAL = "writeEventsInterval";
+	private static final String EVENTS_WRITER_NUMBER_OF_THREADS = "eventsWriterNumberOfThreads";
 	private static final String WRITE_PLANS_INTERVAL = "writePlansInterval";
+	private static final String MAX_PENDING_OUTPUT_WRITES = "maxPendingOutputWrites";
 	private static final String WRITE_TRIPS_INTERVAL = "writeTripsInterval";
+	private static final String WRITE_METRICS_INTERVAL = "writeMetricsInterval";
 	private static final String OVERWRITE_FILE = "overwriteFiles";
 	private static final String CREATE_GRAPHS = "createGraphs";
 	private static final String DUMP_DATA_AT_END = "dumpDataAtEnd";
@@ -86,8 +89,11 @@ public final class ControlerConfigGroup extends ReflectiveConfigGroup {
 	private Set<EventsFileFormat> eventsFileFormats = Collections.unmodifiableSet(EnumSet.of(EventsFileFormat.xml));
 
 	private int writeEventsInterval= 50;
+	private int eventsWriterNumberOfThreads = 0;
 	private int writePlansInterval= 50;
+	private int maxPendingOutputWrites = 0;
 	private int writeTripsInterval = 50;
+	private int writeMetricsInterval = 0;
 	private String mobsim = MobsimType.qsim.toString();
 	private int writeSnapshotsInterval = 1;
 	private boolean createGraphs = true;
@@ -108,10 +114,17 @@ public final class ControlerConfigGroup extends ReflectiveConfigGroup {
 				"Multiple values can be specified separated by commas (',').");
 		map.put(WRITE_EVENTS_INTERVAL, "iterationNumber % writeEventsInterval == 0 defines in which iterations events are written " +
 				"to a file. `0' disables events writing completely.");
+		map.put(EVENTS_WRITER_NUMBER_OF_THREADS, "Default=0. Number of threads used to format and compress xml events files. With 0, the events are written " +
+				"and compressed on the events handling thread.");
 		map.put(WRITE_TRIPS_INTERVAL, "iterationNumber % writeEventsInterval == 0 defines in which iterations trips CSV are written " +
                 "to a file. `0' disables trips writing completely.");
 		map.put(WRITE_PLANS_INTERVAL, "iterationNumber % writePlansInterval == 0 defines (hopefully) in which iterations plans are " +
                 "written to a file. `0' disables plans writing completely.  Some plans in early iterations are always written");
+		map.put(MAX_PENDING_OUTPUT_WRITES, "Default=0. If larger than 0, the plans of an iteration are copied and written in the background while " +
+				"the iteration continues, and the output files at the end are written in parallel. At most this many writes are pending; " +
+				"the controler waits if this limit is reached. All writes are finished before the controler shuts down.");
+		map.put(WRITE_METRICS_INTERVAL, "Default=0. iterationNumber % writeMetricsInterval == 0 defines in which iterations performance metrics " +
+				"(timers and counters of routing, events handling, mobsim and replanning) are written to a CSV file. `0' disables collecting metrics completely.");
 		map.put(LINKTOLINK_ROUTING_ENABLED, "Default=false. If enabled, the router takes travel times needed for turning moves into account."
 		        + " Cannot be used if the (Fast)AStarLandmarks routing or TravelTimeCalculator.separateModes is enabled.");
 		map.put(FIRST_ITERATION, "Default=0. First Iteration of a simulation.");
@@ -312,6 +325,36 @@ public final class ControlerConfigGroup extends ReflectiveConfigGroup {
 		this.writeEventsInterval = writeEventsInterval;
 	}
 
+	@StringGetter( EVENTS_WRITER_NUMBER_OF_THREADS )
+	public int getEventsWriterNumberOfThreads() {
+		return this.eventsWriterNumberOfThreads;
+	}
+
+	@StringSetter( EVENTS_WRITER_NUMBER_OF_THREADS )
+	public void setEventsWriterNumberOfThreads(final int eventsWriterNumberOfThreads) {
+		this.eventsWriterNumberOfThreads = eventsWriterNumberOfThreads;
+	}
+
+	@StringGetter( MAX_PENDING_OUTPUT_WRITES )
+	public int getMaxPendingOutputWrites() {
+		return this.maxPendingOutputWrites;
+	}
+
+	@StringSetter( MAX_PENDING_OUTPUT_WRITES )
+	public void setMaxPendingOutputWrites(final int maxPendingOutputWrites) {
+		this.maxPendingOutputWrites = maxPendingOutputWrites;
+	}
+
+	@StringGetter( WRITE_METRICS_INTERVAL )
+	public int getWriteMetricsInterval() {
+		return this.writeMetricsInterval;
+	}
+
+	@StringSetter( WRITE_METRICS_INTERVAL )
+	public void setWriteMetricsInterval(final int writeMetricsInterval) {
+		this.writeMetricsInterval = writeMetricsInterval;
+	}
+
 	@StringGetter( MOBSIM )
 	public String getMobsim() {
 		return this.mobsim;
@@ -38,6 +38,7 @@ public final class GlobalConfigGroup extends ReflectiveConfigGroup {
 	@Override public Map<String, String> getComments() {
 		Map<String,String> map = super.getComments();
 		map.put(NUMBER_OF_THREADS, NUMBER_OF_THREADS_CMT ) ;
+		map.put(PLAN_DISPATCHING, PLAN_DISPATCHING_CMT ) ;
 		return map ;
 	}
 
@@ -93,6 +94,28 @@ public final class GlobalConfigGroup extends ReflectiveConfigGroup {
 		this.numberOfThreads = numberOfThreads;
 	}
 	// ---
+	public enum PlanDispatching { roundRobin, dynamic }
+	private PlanDispatching planDispatching = PlanDispatching.roundRobin;
+	private static final String PLAN_DISPATCHING = "planDispatching";
+	private static final String PLAN_DISPATCHING_CMT = "How the plans are distributed among the threads of the multi-threaded replanning modules.  "
+			+ PlanDispatching.roundRobin + ": every thread gets the same number of plans in advance, which is reproducible, but the thread with the "
+			+ "slowest plans determines the duration.  " + PlanDispatching.dynamic + ": the threads fetch small chunks of plans as long as there are any, "
+			+ "which keeps all threads busy, but randomized modules (e.g. time mutation, mode choice) are no longer reproducible.";
+	/**
+	 * @return {@link #PLAN_DISPATCHING_CMT}
+	 */
+	@StringGetter( PLAN_DISPATCHING )
+	public PlanDispatching getPlanDispatching() {
+		return this.planDispatching;
+	}
+	/**
+	 * @param planDispatching -- {@link #PLAN_DISPATCHING_CMT}
+	 */
+	@StringSetter( PLAN_DISPATCHING )
+	public void setPlanDispatching(final PlanDispatching planDispatching) {
+		this.planDispatching = planDispatching;
+	}
+	// ---
 	private String coordinateSystem = "Atlantis" ;
 	// see https://matsim.atlassian.net/browse/MATSIM-898
 	private static final String COORDINATE_SYSTEM = "coordinateSystem";
@@ -40,6 +40,17 @@ public final class PlansConfigGroup extends ReflectiveConfigGroup {
 		public static final String CompressedNetworkRoute = "CompressedNetworkRoute";
 	}
 
+	/**
+	 * Defines how plans are stored in memory
+	 */
+	public enum PopulationBackend {
+		/** Default plan, activity and leg implementations */
+		standard,
+		/** Plan elements allocate their attributes lazily and keep times as primitive doubles; network routes of type
+		 * {@value NetworkRouteType#LinkNetworkRoute} are stored as arrays of link indices. */
+		compact
+	}
+
 	public enum ActivityDurationInterpretation { minOfDurationAndEndTime, tryEndTimeThenDuration, @Deprecated endTimeOnly }
 	
 	/**
@@ -56,11 +67,13 @@ public final class PlansConfigGroup extends ReflectiveConfigGroup {
 	private static final String INPUT_FILE = "inputPlansFile";
 	private static final String INPUT_PERSON_ATTRIBUTES_FILE = "inputPersonAttributesFile";
 	private static final String NETWORK_ROUTE_TYPE = "networkRouteType";
+	private static final String POPULATION_BACKEND = "populationBackend";
 //	private static final String SUBPOPULATION_ATTRIBUTE = "subpopulationAttributeName";
 	private static final String INPUT_CRS = "inputCRS";
 
 	private String inputFile = null;
 	private String networkRouteType = NetworkRouteType.LinkNetworkRoute;
+	private PopulationBackend populationBackend = PopulationBackend.standard;
 	private String inputPersonAttributeFile = null;
 //	private String subpopulationAttributeName = "subpopulation";
 	private String inputCRS = null;
@@ -87,6 +100,11 @@ public final class PlansConfigGroup extends ReflectiveConfigGroup {
 				"Defines how routes are stored in memory. Currently supported: " +
 				NetworkRouteType.LinkNetworkRoute + ", " +
 				NetworkRouteType.CompressedNetworkRoute + ".");
+		comments.put(POPULATION_BACKEND, "Defines how plans are stored in memory. Possible values: "
+				+ PopulationBackend.standard + ", " + PopulationBackend.compact + ". '" + PopulationBackend.compact
+				+ "' reduces the memory footprint of large populations: activities, legs and plans allocate their"
+				+ " attributes only when needed and store times as primitive doubles, and network routes are stored as"
+				+ " arrays of link indices (with " + NetworkRouteType.LinkNetworkRoute + ").");
 //		comments.put(
 //				INPUT_PERSON_ATTRIBUTES_FILE,
 //				"Path to a file containing person attributes (required file format: ObjectAttributes).");
@@ -182,6 +200,16 @@ public final class PlansConfigGroup extends ReflectiveConfigGroup {
 	public void setNetworkRouteType(final String routeType) {
 		this.networkRouteType = routeType;
 	}
+
+	@StringGetter( POPULATION_BACKEND )
+	public PopulationBackend getPopulationBackend() {
+		return this.populationBackend;
+	}
+
+	@StringSetter( POPULATION_BACKEND )
+	public void setPopulationBackend(final PopulationBackend populationBackend) {
+		this.populationBackend = populationBackend;
+	}
 	// ---
 //	/**
 //	 * @deprecated -- use {@link org.matsim.core.population.PopulationUtils#getSubpopulation(Person, Config)}
@@ -224,6 +224,9 @@ public final class QSimConfigGroup extends ReflectiveConfigGroup {
 		map.put(SEEP_MODE, "If link dynamics is set as " + LinkDynamics.SeepageQ + ", set a seep mode. Default is bike.");
 		map.put(IS_SEEP_MODE_STORAGE_FREE, "If link dynamics is set as " + LinkDynamics.SeepageQ + ", set to true if seep mode do not consumes any space on the link. Default is false.");
 		map.put(IS_RESTRICTING_SEEPAGE, "If link dynamics is set as " + LinkDynamics.SeepageQ + ", set to false if all seep modes should perform seepage. Default is true (better option).");
+		map.put(NODE_PARTITIONING, NODE_PARTITIONING_CMT);
+		map.put(NODE_PARTITIONING_REBALANCE_INTERVAL, NODE_PARTITIONING_REBALANCE_INTERVAL_CMT);
+		map.put(NETSIM_ENGINE_THREADING, NETSIM_ENGINE_THREADING_CMT);
 		map.put(FILTER_SNAPSHOTS, "If set to " + FilterSnapshots.withLinkAttributes + " snapshots will only be generated for links which include " + SnapshotWritersModule.GENERATE_SNAPSHOT_FOR_LINK_KEY + " as attribute key. Default is no filtering.");
 //		map.put(CREATING_VEHICLES_FOR_ALL_NETWORK_MODES, "If set to true, creates a vehicle for each person corresponding to every network mode. However, " +
 //				"this will be overridden if vehicle source is "+ VehiclesSource.fromVehiclesData+".");
@@ -249,6 +252,28 @@ public final class QSimConfigGroup extends ReflectiveConfigGroup {
 	}
 	private NodeTransition nodeTransitionLogic = NodeTransition.emptyBufferAfterBufferRandomDistribution_dontBlockNode;
 	
+	// ---
+	private static final String NODE_PARTITIONING = "nodePartitioning";
+	private static final String NODE_PARTITIONING_CMT = "Defines how the nodes (and their out-links) are distributed among the qsim threads. "
+			+ NodePartitioning.roundRobin + ": one after the other, ignoring location and work; "
+			+ NodePartitioning.hilbertCurve + ": spatially coherent chunks along a Hilbert curve, balanced by the expected work per node.";
+	public enum NodePartitioning {roundRobin, hilbertCurve}
+	private NodePartitioning nodePartitioning = NodePartitioning.roundRobin;
+
+	private static final String NODE_PARTITIONING_REBALANCE_INTERVAL = "nodePartitioningRebalanceInterval";
+	private static final String NODE_PARTITIONING_REBALANCE_INTERVAL_CMT = "Every n-th mobsim run, the nodes are partitioned again, "
+			+ "balancing the work per node observed in the previous run. Only used by partitionings that take work into account. 0 (default) never rebalances.";
+	@PositiveOrZero
+	private int nodePartitioningRebalanceInterval = 0;
+
+	private static final String NETSIM_ENGINE_THREADING = "netsimEngineThreading";
+	private static final String NETSIM_ENGINE_THREADING_CMT = "Defines how the qsim threads are synchronized in every time step. "
+			+ NetsimEngineThreading.threadpool + ": the nodes and links are submitted to a thread pool twice per time step; "
+			+ NetsimEngineThreading.barriers + ": the threads live for the whole mobsim run and wait for each other at barriers, "
+			+ "which has less overhead per time step, but keeps the threads busy-waiting for a short moment at every barrier.";
+	public enum NetsimEngineThreading {threadpool, barriers}
+	private NetsimEngineThreading netsimEngineThreading = NetsimEngineThreading.threadpool;
+
 	// ---
 	
 	public QSimConfigGroup() {
@@ -466,6 +491,36 @@ public final class QSimConfigGroup extends ReflectiveConfigGroup {
 		this.numberOfThreads = numberOfThreads;
 	}
 
+	@StringGetter(NODE_PARTITIONING)
+	public NodePartitioning getNodePartitioning() {
+		return this.nodePartitioning;
+	}
+
+	@StringSetter(NODE_PARTITIONING)
+	public void setNodePartitioning(NodePartitioning nodePartitioning) {
+		this.nodePartitioning = nodePartitioning;
+	}
+
+	@StringGetter(NODE_PARTITIONING_REBALANCE_INTERVAL)
+	public int getNodePartitioningRebalanceInterval() {
+		return this.nodePartitioningRebalanceInterval;
+	}
+
+	@StringSetter(NODE_PARTITIONING_REBALANCE_INTERVAL)
+	public void setNodePartitioningRebalanceInterval(int nodePartitioningRebalanceInterval) {
+		this.nodePartitioningRebalanceInterval = nodePartitioningRebalanceInterval;
+	}
+
+	@StringGetter(NETSIM_ENGINE_THREADING)
+	public NetsimEngineThreading getNetsimEngineThreading() {
+		return this.netsimEngineThreading;
+	}
+
+	@StringSetter(NETSIM_ENGINE_THREADING)
+	public void setNetsimEngineThreading(NetsimEngineThreading netsimEngineThreading) {
+		this.netsimEngineThreading = netsimEngineThreading;
+	}
+
 	@StringGetter(SIM_STARTTIME_INTERPRETATION)
 	public StarttimeInterpretation getSimStarttimeInterpretation() {
 		return simStarttimeInterpretation;
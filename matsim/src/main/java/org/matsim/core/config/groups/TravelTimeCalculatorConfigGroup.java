@@ -56,6 +56,7 @@ public final class TravelTimeCalculatorConfigGroup extends ReflectiveConfigGroup
 	private static final String ANALYZEDMODES = "analyzedModes";
 	private static final String FILTERMODES = "filterModes";
 	private static final String SEPARATEMODES = "separateModes";
+	private static final String USE_TRAVEL_TIME_SNAPSHOT = "useTravelTimeSnapshot";
 
 	private TravelTimeCalculatorType travelTimeCalculator = TravelTimeCalculatorType.TravelTimeCalculatorArray;
 	private String travelTimeAggregator = "optimistic";
@@ -69,6 +70,7 @@ public final class TravelTimeCalculatorConfigGroup extends ReflectiveConfigGroup
 	private Set<String> analyzedModes = new LinkedHashSet<>(  ) ;
 	private boolean filterModes = false;
 	private boolean separateModes = true;
+	private boolean useTravelTimeSnapshot = false;
 
 	public TravelTimeCalculatorConfigGroup() {
 		super(GROUPNAME);
@@ -90,6 +92,8 @@ public final class TravelTimeCalculatorConfigGroup extends ReflectiveConfigGroup
 							 "respected by the travel time collector. 'car' is default which includes also buses from the pt simulation module.");
 		map.put(FILTERMODES, "(only for backwards compatiblity; only used if " + SEPARATEMODES + "==false)  Only modes included in analyzedModes are included." ) ;
 		map.put(SEPARATEMODES, "(only for backwards compatibility) If false, link travel times are measured and aggregated over all vehicles using the link." ) ;
+		map.put(USE_TRAVEL_TIME_SNAPSHOT, "If true, the observed link travel times are copied into a flat array after the mobsim, which speeds up " +
+				"routing without changing the results. Requires 4 bytes per link and time bin.");
 		map.put( TRAVEL_TIME_CALCULATOR, "possible values: " + Arrays.stream( TravelTimeCalculatorType.values() ).map( type -> type.toString() + ' ' ).collect( Collectors.joining() ) );
 		return map;
 	}
@@ -213,5 +217,15 @@ public final class TravelTimeCalculatorConfigGroup extends ReflectiveConfigGroup
 	public void setSeparateModes(boolean separateModes) {
 		this.separateModes = separateModes;
 	}
+	// ---
+	@StringGetter(USE_TRAVEL_TIME_SNAPSHOT)
+	public boolean isUseTravelTimeSnapshot() {
+		return this.useTravelTimeSnapshot;
+	}
+
+	@StringSetter(USE_TRAVEL_TIME_SNAPSHOT)
+	public void setUseTravelTimeSnapshot(boolean useTravelTimeSnapshot) {
+		this.useTravelTimeSnapshot = useTravelTimeSnapshot;
+	}
 
 }
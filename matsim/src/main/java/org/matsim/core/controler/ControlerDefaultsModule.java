@@ -29,6 +29,7 @@ import org.matsim.analysis.LinkStatsModule;
 import org.matsim.analysis.ModeStatsModule;
 import org.matsim.analysis.ScoreStatsModule;
 import org.matsim.analysis.VolumesAnalyzerModule;
+import org.matsim.analysis.metrics.MetricsModule;
 import org.matsim.core.events.EventsManagerModule;
 import org.matsim.core.mobsim.DefaultMobsimModule;
 import org.matsim.core.population.VspPlansCleanerModule;
@@ -72,6 +73,7 @@ public final class ControlerDefaultsModule extends AbstractModule {
         install(new VspPlansCleanerModule());
         install(new SnapshotWritersModule());
         install(new DependencyGraphModule());
+        install(new MetricsModule());
 
     	/* Comment by kai (mz thinks it is not helpful): The framework eventually calls the above method, which calls the include 
         * methods , which (fairly quickly) call their own install methods, etc.  Eventually, everything is resolved down to the
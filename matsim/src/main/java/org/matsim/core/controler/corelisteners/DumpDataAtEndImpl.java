@@ -114,23 +114,27 @@ final class DumpDataAtEndImpl implements DumpDataAtEnd, ShutdownListener {
 	@Inject
 	private Map<Class<?>,AttributeConverter<?>> attributeConverters = Collections.emptyMap();
 
+	@Inject
+	private OutputWriterService outputWriter;
+
 	@Override
 	public void notifyShutdown(ShutdownEvent event) {
 		if ( event.isUnexpected() ) {
 			return ;
 		}
-		dumpPlans();
-		dumpNetwork();
+		// the scenario is not modified anymore, so the files can be written in parallel if the output writer is asynchronous
+		this.outputWriter.submit("output plans", this::dumpPlans);
+		this.outputWriter.submit("output network", this::dumpNetwork);
 		dumpConfig();
-		dumpFacilities();
-		dumpNetworkChangeEvents();
+		this.outputWriter.submit("output facilities", this::dumpFacilities);
+		this.outputWriter.submit("output network change events", this::dumpNetworkChangeEvents);
 
-		dumpTransitSchedule();
-		dumpTransitVehicles();
-		dumpVehicles();
-		dumpHouseholds();
-		dumpLanes();
-		dumpCounts();
+		this.outputWriter.submit("output transit schedule", this::dumpTransitSchedule);
+		this.outputWriter.submit("output transit vehicles", this::dumpTransitVehicles);
+		this.outputWriter.submit("output vehicles", this::dumpVehicles);
+		this.outputWriter.submit("output households", this::dumpHouseholds);
+		this.outputWriter.submit("output lanes", this::dumpLanes);
+		this.outputWriter.submit("output counts", this::dumpCounts);
 
 		if (!event.isUnexpected() && this.vspConfig.isWritingOutputEvents() && (this.controlerConfigGroup.getWriteEventsInterval()!=0)) {
 			dumpOutputEvents(event.getIteration());
@@ -139,6 +143,7 @@ final class DumpDataAtEndImpl implements DumpDataAtEnd, ShutdownListener {
         dumpOutputLegs(event.getIteration());
 		dumpExperiencedPlans(event.getIteration()) ;
 
+		this.outputWriter.awaitAll();
 	}
 
 	private void dumpOutputEvents(int iteration) {
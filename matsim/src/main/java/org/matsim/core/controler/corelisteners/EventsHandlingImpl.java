@@ -44,6 +44,7 @@ import org.matsim.core.controler.listener.ShutdownListener;
 import org.matsim.core.events.algorithms.EventWriter;
 import org.matsim.core.events.algorithms.EventWriterJson;
 import org.matsim.core.events.algorithms.EventWriterXML;
+import org.matsim.core.events.algorithms.ParallelEventWriterXML;
 
 import java.io.File;
 import org.matsim.core.utils.io.IOUtils;
@@ -65,6 +66,8 @@ final class EventsHandlingImpl implements EventsHandling, BeforeMobsimListener,
 
 	private int writeMoreUntilIteration;
 
+	private final int eventsWriterNumberOfThreads;
+
 	@Inject
 	EventsHandlingImpl(
 			final EventsManager eventsManager,
@@ -75,6 +78,7 @@ final class EventsHandlingImpl implements EventsHandling, BeforeMobsimListener,
 		this.eventsFileFormats = config.getEventsFileFormats();
 		this.controlerIO = controlerIO;
 		this.writeMoreUntilIteration = config.getWriteEventsUntilIteration() ;
+		this.eventsWriterNumberOfThreads = config.getEventsWriterNumberOfThreads();
 	}
 
 	@Override
@@ -89,8 +93,12 @@ final class EventsHandlingImpl implements EventsHandling, BeforeMobsimListener,
 			for (EventsFileFormat format : eventsFileFormats) {
 				switch (format) {
 					case xml:
-						this.eventWriters.add(new EventWriterXML(controlerIO.getIterationFilename(event.getIteration(),
-								Controler.DefaultFiles.events)));
+						String eventsFilename = controlerIO.getIterationFilename(event.getIteration(), Controler.DefaultFiles.events);
+						if (this.eventsWriterNumberOfThreads > 0) {
+							this.eventWriters.add(new ParallelEventWriterXML(eventsFilename, this.eventsWriterNumberOfThreads));
+						} else {
+							this.eventWriters.add(new EventWriterXML(eventsFilename));
+						}
 						break;
 					case pb:
 						// The pb dependency is optional at the moment so we search it first
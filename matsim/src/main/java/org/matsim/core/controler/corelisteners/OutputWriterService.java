@@ -0,0 +1,129 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * OutputWriterService.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2022 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.core.controler.corelisteners;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import org.apache.log4j.Logger;
+import org.matsim.core.config.groups.ControlerConfigGroup;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executes output writing tasks of the core listeners in the background, see
+ * {@link ControlerConfigGroup#getMaxPendingOutputWrites()}. If this is 0 (the default), all tasks
+ * are executed immediately on the calling thread.
+ *
+ * If the configured number of tasks is already pending, {@link #submit(String, Runnable)} blocks until one of them
+ * is finished, so a slow disk cannot fill up the memory with population copies. The first exception thrown by a task
+ * is re-thrown on the controler thread, at the next call to {@link #submit(String, Runnable)} or {@link #awaitAll()}.
+ *
+ * The tasks must only access data that is not modified anymore by the controler, e.g. a copy of the population.
+ */
+@Singleton
+final class OutputWriterService {
+
+	private static final Logger log = Logger.getLogger(OutputWriterService.class);
+
+	private final int maxPending;
+	private final Semaphore permits;
+	private final ExecutorService executor;
+	private volatile RuntimeException failure = null;
+
+	@Inject
+	OutputWriterService(ControlerConfigGroup config) {
+		this(config.getMaxPendingOutputWrites());
+	}
+
+	OutputWriterService(int maxPending) {
+		this.maxPending = maxPending;
+		if (maxPending > 0) {
+			this.permits = new Semaphore(maxPending);
+			ThreadPoolExecutor executor = new ThreadPoolExecutor(maxPending, maxPending, 10, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+				Thread thread = new Thread(r, "OutputWriter");
+				thread.setDaemon(true);
+				return thread;
+			});
+			// idle threads terminate, so no explicit shutdown is required
+			executor.allowCoreThreadTimeOut(true);
+			this.executor = executor;
+		} else {
+			this.permits = null;
+			this.executor = null;
+		}
+	}
+
+	boolean isAsynchronous() {
+		return this.executor != null;
+	}
+
+	void submit(String name, Runnable task) {
+		checkFailure();
+		if (this.executor == null) {
+			task.run();
+			return;
+		}
+		if (!this.permits.tryAcquire()) {
+			log.info("waiting for pending output writes to finish before writing " + name + "...");
+			this.permits.acquireUninterruptibly();
+		}
+		this.executor.execute(() -> {
+			try {
+				task.run();
+			} catch (RuntimeException | Error e) {
+				log.error("writing " + name + " failed.", e);
+				if (this.failure == null) {
+					this.failure = new RuntimeException("writing " + name + " failed.", e);
+				}
+			} finally {
+				this.permits.release();
+			}
+		});
+	}
+
+	/**
+	 * Blocks until all submitted tasks are finished.
+	 */
+	void awaitAll() {
+		if (this.executor != null) {
+			if (!this.permits.tryAcquire(this.maxPending)) {
+				log.info("waiting for pending output writes to finish...");
+				this.permits.acquireUninterruptibly(this.maxPending);
+			}
+			this.permits.release(this.maxPending);
+		}
+		checkFailure();
+	}
+
+	private void checkFailure() {
+		RuntimeException e = this.failure;
+		if (e != null) {
+			this.failure = null;
+			throw e;
+		}
+	}
+
+}
@@ -23,14 +23,22 @@ package org.matsim.core.controler.corelisteners;
 import org.apache.log4j.Logger;
 import org.matsim.analysis.IterationStopWatch;
 import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Plan;
 import org.matsim.api.core.v01.population.Population;
+import org.matsim.api.core.v01.population.PopulationFactory;
 import org.matsim.api.core.v01.population.PopulationWriter;
 import org.matsim.core.config.Config;
 import org.matsim.core.config.groups.ControlerConfigGroup;
+import org.matsim.core.config.groups.PlansConfigGroup;
 import org.matsim.core.controler.Controler;
 import org.matsim.core.controler.OutputDirectoryHierarchy;
 import org.matsim.core.controler.events.BeforeMobsimEvent;
+import org.matsim.core.controler.events.ShutdownEvent;
 import org.matsim.core.controler.listener.BeforeMobsimListener;
+import org.matsim.core.controler.listener.ShutdownListener;
+import org.matsim.core.population.PopulationUtils;
+import org.matsim.utils.objectattributes.attributable.AttributesUtils;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
@@ -44,10 +52,13 @@ import org.matsim.core.utils.geometry.transformations.TransformationFactory;
  * iteration, just in case someone might check that the replanning worked
  * correctly in the first iteration.
  *
+ * If {@link ControlerConfigGroup#getMaxPendingOutputWrites()} is larger than 0, a copy of the population
+ * is written in the background while the iteration continues.
+ *
  * @author mrieser
  */
 @Singleton
-final class PlansDumpingImpl implements PlansDumping, BeforeMobsimListener {
+final class PlansDumpingImpl implements PlansDumping, BeforeMobsimListener, ShutdownListener {
 
 	static final private Logger log = Logger.getLogger(PlansDumpingImpl.class);
 
@@ -56,6 +67,7 @@ final class PlansDumpingImpl implements PlansDumping, BeforeMobsimListener {
 	@Inject private Population population;
 	@Inject private IterationStopWatch stopwatch;
 	@Inject private OutputDirectoryHierarchy controlerIO;
+	@Inject private OutputWriterService outputWriter;
 	private int writePlansInterval ;
 
 	private int writeMoreUntilIteration;
@@ -76,23 +88,57 @@ final class PlansDumpingImpl implements PlansDumping, BeforeMobsimListener {
 			log.info("dumping plans...");
 			final String inputCRS = config.plans().getInputCRS();
 			final String internalCRS = config.global().getCoordinateSystem();
+			final String filename = controlerIO.getIterationFilename(event.getIteration(), Controler.DefaultFiles.population);
+			final Population populationToWrite = outputWriter.isAsynchronous() ? copyPopulation(population) : population;
 
-			if ( inputCRS == null ) {
-				new PopulationWriter(population, network).write(controlerIO.getIterationFilename(event.getIteration(), Controler.DefaultFiles.population));
-			}
-			else {
-				log.info( "re-projecting population from "+internalCRS+" back to "+inputCRS+" for export" );
+			outputWriter.submit("plans of iteration " + event.getIteration(), () -> {
+				if ( inputCRS == null ) {
+					new PopulationWriter(populationToWrite, network).write(filename);
+				}
+				else {
+					log.info( "re-projecting population from "+internalCRS+" back to "+inputCRS+" for export" );
 
-				final CoordinateTransformation transformation =
-						TransformationFactory.getCoordinateTransformation(
-								internalCRS,
-								inputCRS );
+					final CoordinateTransformation transformation =
+							TransformationFactory.getCoordinateTransformation(
+									internalCRS,
+									inputCRS );
 
-				new PopulationWriter(transformation, population, network).write(controlerIO.getIterationFilename(event.getIteration(), Controler.DefaultFiles.population));
-			}
-			log.info("finished plans dump.");
+					new PopulationWriter(transformation, populationToWrite, network).write(filename);
+				}
+				log.info("finished plans dump.");
+			});
 			stopwatch.endOperation("dump all plans");
 		}
 	}
 
+	@Override
+	public void notifyShutdown(ShutdownEvent event) {
+		outputWriter.awaitAll();
+	}
+
+	/**
+	 * Copies all persons with their plans, so the copy can be written while the original population
+	 * is modified by the mobsim, scoring and replanning.
+	 */
+	static Population copyPopulation(Population population) {
+		Population copy = PopulationUtils.createPopulation(new PlansConfigGroup(), null);
+		copy.setName(population.getName());
+		AttributesUtils.copyAttributesFromTo(population, copy);
+		PopulationFactory factory = copy.getFactory();
+		for (Person person : population.getPersons().values()) {
+			Person personCopy = factory.createPerson(person.getId());
+			AttributesUtils.copyAttributesFromTo(person, personCopy);
+			for (Plan plan : person.getPlans()) {
+				Plan planCopy = factory.createPlan();
+				PopulationUtils.copyFromTo(plan, planCopy);
+				personCopy.addPlan(planCopy);
+				if (plan == person.getSelectedPlan()) {
+					personCopy.setSelectedPlan(planCopy);
+				}
+			}
+			copy.addPerson(personCopy);
+		}
+		return copy;
+	}
+
 }
@@ -30,6 +30,8 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.log4j.Logger;
+import org.matsim.analysis.metrics.MetricsRegistry;
+import org.matsim.analysis.metrics.Timer;
 import org.matsim.api.core.v01.events.ActivityEndEvent;
 import org.matsim.api.core.v01.events.ActivityStartEvent;
 import org.matsim.api.core.v01.events.Event;
@@ -104,12 +106,14 @@ public final class EventsManagerImpl implements EventsManager {
 		protected final Class<? extends Event> eventClass;
 		protected final EventHandler eventHandler;
 		protected final Method method;
+		protected final Timer timer; // null if metrics are disabled
 
 		protected HandlerInfo(final Class<? extends Event> eventClass, final EventHandler eventHandler,
-				final Method method) {
+				final Method method, final Timer timer) {
 			this.eventClass = eventClass;
 			this.eventHandler = eventHandler;
 			this.method = method;
+			this.timer = timer;
 		}
 	}
 
@@ -120,6 +124,17 @@ public final class EventsManagerImpl implements EventsManager {
 	private long counter = 0;
 	private long nextCounterMsg = 1;
 
+	private MetricsRegistry metrics = null;
+
+	/**
+	 * If set, the time spent in each event handler is measured. This adds some overhead to every handler call.
+	 */
+	@com.google.inject.Inject(optional = true)
+	public void setMetricsRegistry(final MetricsRegistry metrics) {
+		this.metrics = metrics;
+		this.cacheHandlers.clear();
+	}
+
 	private HandlerData findHandler(final Class<? extends Event> evklass) {
 		for (HandlerData handler : this.handlerData) {
 			if (handler.eventClass == evklass) {
@@ -138,20 +153,30 @@ public final class EventsManagerImpl implements EventsManager {
 		}
 		for (HandlerInfo info : getHandlersForClass( event.getClass() )) {
 			synchronized(info.eventHandler) {
-				if (callHandlerFast(info.eventClass, event, info.eventHandler )) {
-					continue;
-				}
-				try {
-					info.method.invoke(info.eventHandler, event );
-				} catch (IllegalArgumentException | IllegalAccessException e) {
-					throw new RuntimeException("problem invoking EventHandler " + info.eventHandler.getClass().getCanonicalName() + " for event-class " + info.eventClass.getCanonicalName(), e);
-				} catch (InvocationTargetException e) {
-					throw new RuntimeException("problem invoking EventHandler " + info.eventHandler.getClass().getCanonicalName() + " for event-class " + info.eventClass.getCanonicalName(), e.getCause());
+				if (info.timer == null) {
+					callHandler(info, event);
+				} else {
+					long start = info.timer.start();
+					callHandler(info, event);
+					info.timer.stop(start);
 				}
 			}
 		}
 	}
 
+	private static void callHandler(final HandlerInfo info, final Event event) {
+		if (callHandlerFast(info.eventClass, event, info.eventHandler )) {
+			return;
+		}
+		try {
+			info.method.invoke(info.eventHandler, event );
+		} catch (IllegalArgumentException | IllegalAccessException e) {
+			throw new RuntimeException("problem invoking EventHandler " + info.eventHandler.getClass().getCanonicalName() + " for event-class " + info.eventClass.getCanonicalName(), e);
+		} catch (InvocationTargetException e) {
+			throw new RuntimeException("problem invoking EventHandler " + info.eventHandler.getClass().getCanonicalName() + " for event-class " + info.eventClass.getCanonicalName(), e.getCause());
+		}
+	}
+
 
 	@Override
 	public void addHandler (final EventHandler handler) {
@@ -250,7 +275,8 @@ public final class EventsManagerImpl implements EventsManager {
 			HandlerData dat = findHandler(eventKlass);
 			if (dat != null) {
 				for (EventHandler handler : dat.handlerList) {
-					info.add(new HandlerInfo(eventKlass, handler, dat.method));
+					Timer timer = this.metrics == null ? null : this.metrics.timer("events.handler." + handler.getClass().getName());
+					info.add(new HandlerInfo(eventKlass, handler, dat.method, timer));
 				}
 			}
 			klass = klass.getSuperclass();
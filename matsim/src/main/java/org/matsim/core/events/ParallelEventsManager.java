@@ -29,6 +29,7 @@ import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import javax.inject.Inject;
 import org.apache.log4j.Logger;
+import org.matsim.analysis.metrics.MetricsRegistry;
 import org.matsim.api.core.v01.events.Event;
 import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.config.Config;
@@ -55,6 +56,7 @@ public final class ParallelEventsManager implements EventsManager {
 	private final int eventsQueueSize;
 	//private final int eventsQueueSize = 1048576 * 32;
 	private final int eventsArraySize;
+	private MetricsRegistry metrics = null;
 
 	@Inject
 	ParallelEventsManager(Config config) {
@@ -86,6 +88,14 @@ public final class ParallelEventsManager implements EventsManager {
 		this.uncaughtExceptionHandler = new ExceptionHandler();
 	}
 
+	/**
+	 * If set, the time spent in each event handler is measured, see {@link EventsManagerImpl#setMetricsRegistry(MetricsRegistry)}.
+	 */
+	@com.google.inject.Inject(optional = true)
+	public void setMetricsRegistry(final MetricsRegistry metrics) {
+		this.metrics = metrics;
+	}
+
 	private void initialize() {
 		int numHandlers = oneThreadPerHandler ? this.eventsHandlers.size() : Math.min(this.numOfThreads, this.eventsHandlers.size());
 		this.distributor = new Distributor(new ArrayList<ProcessEventsRunnable>(), eventQueue);
@@ -99,7 +109,9 @@ public final class ParallelEventsManager implements EventsManager {
 		} else {
 			// TODO - check if this slow path is correct
 			for (int i = 0; i < this.numOfThreads; i++) {
-				this.eventsManagers.add(new EventsManagerImpl());
+				EventsManagerImpl eventsManager = new EventsManagerImpl();
+				eventsManager.setMetricsRegistry(this.metrics);
+				this.eventsManagers.add(eventsManager);
 			}
 			for (int i = 0; i < this.eventsHandlers.size(); i++) {
 				this.eventsManagers.get(i % numOfThreads).addHandler(this.eventsHandlers.get(i));
@@ -24,6 +24,7 @@ import java.util.concurrent.atomic.AtomicReference;
 import javax.inject.Inject;
 
 import org.apache.log4j.Logger;
+import org.matsim.analysis.metrics.MetricsRegistry;
 import org.matsim.api.core.v01.events.Event;
 import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.config.Config;
@@ -156,6 +157,16 @@ public final class ParallelEventsManagerImpl implements EventsManager {
 		}
 	}
 
+	/**
+	 * If set, the time spent in each event handler is measured, see {@link EventsManagerImpl#setMetricsRegistry(MetricsRegistry)}.
+	 */
+	@com.google.inject.Inject(optional = true)
+	public void setMetricsRegistry(final MetricsRegistry metrics) {
+		for (EventsManagerImpl eventsManager : this.events) {
+			eventsManager.setMetricsRegistry(metrics);
+		}
+	}
+
 	private void init(int numberOfThreads) {
 		this.numberOfThreads = numberOfThreads;
 		this.events = new EventsManagerImpl[numberOfThreads];
@@ -0,0 +1,373 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * RingBufferEventsManager.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2022 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.events;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.inject.Inject;
+
+import org.apache.commons.lang3.BooleanUtils;
+import org.apache.log4j.Logger;
+import org.matsim.analysis.metrics.MetricsRegistry;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
+import org.matsim.core.events.handler.EventHandler;
+
+/**
+ * Parallel events manager in the style of a disruptor: the threads that create events claim slots in a preallocated
+ * ring and publish the events there, without any lock. Every handler group (one handler per group if
+ * <code>oneThreadPerHandler</code>, otherwise the handlers distributed among <code>numberOfThreads</code> groups)
+ * has its own thread that reads the ring with its own cursor. So all groups see all events in the same order,
+ * without a distributor copying the events to the groups.
+ * <p></p>
+ * Producers wait if the ring is full, i.e. until the slowest group has processed the oldest event.
+ * If <code>syncOnTimeSteps</code> is set, {@link #afterSimStep(double)} waits until all groups have processed all
+ * events of the time step.
+ */
+public final class RingBufferEventsManager implements EventsManager {
+
+	private final static Logger log = Logger.getLogger(RingBufferEventsManager.class);
+
+	private final boolean syncOnTimeSteps;
+	private final boolean oneThreadPerHandler;
+	private final int numOfThreads;
+	private final List<EventHandler> eventsHandlers = new ArrayList<>();
+	private List<EventsManager> eventsManagers = new ArrayList<>();
+	private List<Consumer> consumers = new ArrayList<>();
+	private int iteration = 0;
+	private volatile boolean init = false;
+
+	private final Event[] ring;
+	private final int mask;
+	private final int indexShift;
+	// the round (sequence / ring size) of the event that was last published in each slot
+	private final AtomicIntegerArray published;
+	// the next sequence to be claimed by a producer
+	private final AtomicLong claimed = new AtomicLong(0);
+	// the lowest number of events processed by any consumer, as last seen by a producer; may be outdated, but never too high
+	private volatile long gatingSequence = 0;
+
+	private volatile Throwable exception = null;
+	private MetricsRegistry metrics = null;
+
+	@Inject
+	RingBufferEventsManager(Config config) {
+		this(config.parallelEventHandling().getSynchronizeOnSimSteps() != null ? config.parallelEventHandling().getSynchronizeOnSimSteps() : true,
+				BooleanUtils.isTrue(config.parallelEventHandling().getOneThreadPerHandler()) || config.parallelEventHandling().getNumberOfThreads() == null,
+				config.parallelEventHandling().getNumberOfThreads() != null ? config.parallelEventHandling().getNumberOfThreads() : -1,
+				config.parallelEventHandling().getEventsQueueSize());
+	}
+
+	/**
+	 * Creates a manager with one thread per handler.
+	 */
+	public RingBufferEventsManager(final boolean syncOnTimeSteps, final int ringSize) {
+		this(syncOnTimeSteps, true, -1, ringSize);
+	}
+
+	/**
+	 * Creates a manager that distributes the handlers among <code>numOfThreads</code> threads.
+	 */
+	public RingBufferEventsManager(final boolean syncOnTimeSteps, final int numOfThreads, final int ringSize) {
+		this(syncOnTimeSteps, false, numOfThreads, ringSize);
+	}
+
+	private RingBufferEventsManager(final boolean syncOnTimeSteps, final boolean oneThreadPerHandler, final int numOfThreads, final int ringSize) {
+		if (!oneThreadPerHandler && numOfThreads < 1) {
+			throw new IllegalArgumentException("Number of threads must be strictly positive, got " + numOfThreads);
+		}
+		this.syncOnTimeSteps = syncOnTimeSteps;
+		this.oneThreadPerHandler = oneThreadPerHandler;
+		this.numOfThreads = numOfThreads;
+		// the ring size must be a power of two, so that the slot of a sequence is a simple mask
+		int size = Integer.highestOneBit(Math.max(2, ringSize - 1)) << 1;
+		this.ring = new Event[size];
+		this.mask = size - 1;
+		this.indexShift = Integer.numberOfTrailingZeros(size);
+		this.published = new AtomicIntegerArray(size);
+		for (int i = 0; i < size; i++) {
+			this.published.set(i, -1);
+		}
+	}
+
+	@Override
+	public void processEvent(final Event event) {
+		if (!init) throw new IllegalStateException(".initProcessing() has to be called before processing events!");
+
+		long sequence = claim(1);
+		this.ring[(int) sequence & this.mask] = event;
+		publish(sequence);
+	}
+
+	@Override
+	public void processEvents(final EventArray events) {
+		if (!init) throw new IllegalStateException(".initProcessing() has to be called before processing events!");
+
+		int offset = 0;
+		while (offset < events.size()) {
+			// a batch larger than the ring has to be published in pieces
+			int n = Math.min(events.size() - offset, this.ring.length);
+			long first = claim(n);
+			for (int i = 0; i < n; i++) {
+				this.ring[(int) (first + i) & this.mask] = events.get(offset + i);
+			}
+			for (int i = 0; i < n; i++) {
+				publish(first + i);
+			}
+			offset += n;
+		}
+	}
+
+	/**
+	 * Claims <code>n</code> consecutive slots and waits until the consumers have released them.
+	 *
+	 * @return the sequence of the first slot.
+	 */
+	private long claim(int n) {
+		long first = this.claimed.getAndAdd(n);
+		long wrapPoint = first + n - this.ring.length;
+		if (wrapPoint > this.gatingSequence) {
+			int idleCount = 0;
+			long minProcessed;
+			while (wrapPoint > (minProcessed = minProcessed())) {
+				checkException();
+				idleCount = idle(idleCount);
+			}
+			this.gatingSequence = minProcessed;
+		}
+		return first;
+	}
+
+	private void publish(long sequence) {
+		this.published.lazySet((int) sequence & this.mask, (int) (sequence >>> this.indexShift));
+	}
+
+	private boolean isPublished(long sequence) {
+		return this.published.get((int) sequence & this.mask) == (int) (sequence >>> this.indexShift);
+	}
+
+	private long minProcessed() {
+		long min = Long.MAX_VALUE;
+		for (Consumer consumer : this.consumers) {
+			min = Math.min(min, consumer.processed.get());
+		}
+		// without handlers, nobody needs to see the events
+		return min == Long.MAX_VALUE ? this.claimed.get() : min;
+	}
+
+	/**
+	 * Spins first, then yields, and finally parks the thread for a short moment.
+	 */
+	private static int idle(int idleCount) {
+		if (idleCount < 100) {
+			Thread.onSpinWait();
+		} else if (idleCount < 200) {
+			Thread.yield();
+		} else {
+			LockSupport.parkNanos(50000);
+		}
+		return idleCount + 1;
+	}
+
+	@Override
+	public void addHandler(final EventHandler handler) {
+		if (init)
+			throw new IllegalStateException("Handlers can not be added after .initProcessing() was called!");
+
+		// this will be used the next time we start an iteration
+		this.eventsHandlers.add(handler);
+	}
+
+	@Override
+	public void removeHandler(final EventHandler handler) {
+		// this will be used the next time we start an iteration
+		this.eventsHandlers.remove(handler);
+	}
+
+	@Override
+	public void resetHandlers(int iteration) {
+		for (EventsManager eventsManager : this.eventsManagers) {
+			eventsManager.resetHandlers(iteration);
+		}
+	}
+
+	/**
+	 * If set, the time spent in each event handler is measured, see {@link EventsManagerImpl#setMetricsRegistry(MetricsRegistry)}.
+	 */
+	@com.google.inject.Inject(optional = true)
+	public void setMetricsRegistry(final MetricsRegistry metrics) {
+		this.metrics = metrics;
+	}
+
+	@Override
+	public void initProcessing() {
+		this.eventsManagers = new ArrayList<>();
+		if (this.oneThreadPerHandler) {
+			for (EventHandler handler : this.eventsHandlers) {
+				this.eventsManagers.add(new SingleHandlerEventsManager(handler));
+			}
+		} else {
+			int numOfManagers = Math.min(this.numOfThreads, this.eventsHandlers.size());
+			for (int i = 0; i < numOfManagers; i++) {
+				EventsManagerImpl eventsManager = new EventsManagerImpl();
+				eventsManager.setMetricsRegistry(this.metrics);
+				this.eventsManagers.add(eventsManager);
+			}
+			for (int i = 0; i < this.eventsHandlers.size(); i++) {
+				this.eventsManagers.get(i % numOfManagers).addHandler(this.eventsHandlers.get(i));
+			}
+		}
+
+		for (EventsManager eventsManager : this.eventsManagers) {
+			eventsManager.initProcessing();
+		}
+		resetHandlers(this.iteration);
+
+		// start where the last iteration stopped, the slots remember their round
+		long start = this.claimed.get();
+		this.gatingSequence = start;
+		this.consumers = new ArrayList<>();
+		for (int i = 0; i < this.eventsManagers.size(); i++) {
+			EventsManager eventsManager = this.eventsManagers.get(i);
+			Consumer consumer = new Consumer(eventsManager, start);
+			consumer.setDaemon(true);
+			if (this.oneThreadPerHandler) {
+				consumer.setName("RingBufferEventsManager: " + ((SingleHandlerEventsManager) eventsManager).getEventHandlerClassName());
+			} else {
+				consumer.setName("RingBufferEventsManager: " + i);
+			}
+			this.consumers.add(consumer);
+		}
+		for (Consumer consumer : this.consumers) {
+			consumer.start();
+		}
+		this.init = true;
+	}
+
+	@Override
+	public void afterSimStep(double time) {
+		if (this.syncOnTimeSteps) {
+			flush();
+		}
+		checkException();
+	}
+
+	@Override
+	public synchronized void finishProcessing() {
+		try {
+			flush();
+		} finally {
+			this.init = false;
+			stopConsumers();
+		}
+
+		for (EventsManager eventsManager : this.eventsManagers) {
+			eventsManager.finishProcessing();
+		}
+		checkException();
+
+		this.iteration++;
+	}
+
+	private void stopConsumers() {
+		for (Consumer consumer : this.consumers) {
+			consumer.running = false;
+			LockSupport.unpark(consumer);
+		}
+		try {
+			for (Consumer consumer : this.consumers) {
+				consumer.join();
+			}
+		} catch (InterruptedException e) {
+			throw new RuntimeException("Exception while waiting on join...", e);
+		}
+	}
+
+	/**
+	 * Waits until all events published so far have been processed by all handler groups.
+	 */
+	public void flush() {
+		long target = this.claimed.get();
+		int idleCount = 0;
+		while (minProcessed() < target) {
+			checkException();
+			idleCount = idle(idleCount);
+		}
+	}
+
+	private void checkException() {
+		if (this.exception != null) {
+			throw new RuntimeException("Exception while processing events. Cannot guarantee that all events have been fully processed.", this.exception);
+		}
+	}
+
+	private final class Consumer extends Thread {
+
+		private final EventsManager eventsManager;
+		private final int batchSize = Math.max(1, ring.length / 4);
+		// number of events processed, i.e. the sequence of the next event to process
+		private final AtomicLong processed;
+		private volatile boolean running = true;
+
+		Consumer(EventsManager eventsManager, long start) {
+			this.eventsManager = eventsManager;
+			this.processed = new AtomicLong(start);
+		}
+
+		@Override
+		public void run() {
+			long next = this.processed.get();
+			int idleCount = 0;
+			boolean failed = false;
+			while (this.running) {
+				// limit the batch, so that the producers do not wait for the whole batch to be processed
+				long limit = next + batchSize;
+				long available = next;
+				while (available < limit && isPublished(available)) {
+					available++;
+				}
+				if (available == next) {
+					idleCount = idle(idleCount);
+					continue;
+				}
+				idleCount = 0;
+				for (; next < available; next++) {
+					if (!failed) {
+						try {
+							this.eventsManager.processEvent(ring[(int) next & mask]);
+						} catch (Throwable t) {
+							// keep on consuming, otherwise the producers would wait forever
+							failed = true;
+							exception = t;
+							log.error("Thread " + getName() + " died with exception while handling events.", t);
+						}
+					}
+				}
+				this.processed.lazySet(next);
+			}
+		}
+	}
+}
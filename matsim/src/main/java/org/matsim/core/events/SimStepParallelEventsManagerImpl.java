@@ -33,6 +33,7 @@ import java.util.concurrent.atomic.AtomicReference;
 import javax.inject.Inject;
 
 import org.apache.log4j.Logger;
+import org.matsim.analysis.metrics.MetricsRegistry;
 import org.matsim.api.core.v01.events.Event;
 import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.config.groups.ParallelEventHandlingConfigGroup;
@@ -92,6 +93,17 @@ class SimStepParallelEventsManagerImpl implements EventsManager {
 		for (int i = 0; i < numOfThreads; i++) this.eventsManagers[i] = new EventsManagerImpl();
 	}
 
+	/**
+	 * If set, the time spent in each event handler is measured, see {@link EventsManagerImpl#setMetricsRegistry(MetricsRegistry)}.
+	 */
+	@com.google.inject.Inject(optional = true)
+	public void setMetricsRegistry(final MetricsRegistry metrics) {
+		this.delegate.setMetricsRegistry(metrics);
+		for (EventsManagerImpl eventsManager : this.eventsManagers) {
+			eventsManager.setMetricsRegistry(metrics);
+		}
+	}
+
 	@Override
 	public void processEvent(final Event event) {
 		this.counter.incrementAndGet();
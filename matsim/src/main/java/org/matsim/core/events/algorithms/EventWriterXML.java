@@ -103,7 +103,7 @@ public class EventWriterXML implements EventWriter, BasicEventHandler {
 	 * @param attributeValue
 	 * @return String with some characters replaced by their xml-encoding.
 	 */
-	private String encodeAttributeValue(final String attributeValue) {
+	/*package*/ static String encodeAttributeValue(final String attributeValue) {
 		if (attributeValue == null) {
 			return null;
 		}
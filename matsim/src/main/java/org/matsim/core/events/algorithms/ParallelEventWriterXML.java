@@ -0,0 +1,200 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * ParallelEventWriterXML.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2022 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.core.events.algorithms;
+
+import com.github.luben.zstd.Zstd;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.core.events.handler.BasicEventHandler;
+import org.matsim.core.utils.io.IOUtils;
+import org.matsim.core.utils.io.UncheckedIOException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes the same xml events files as {@link EventWriterXML}, but formats and compresses the events
+ * in blocks on separate threads, so the events handling thread only has to collect the attributes
+ * of each event.
+ *
+ * Gzip and zstd files are written as a sequence of independently compressed blocks (multiple gzip
+ * members or zstd frames), which is part of both formats and can be read by the usual tools as well
+ * as by {@link org.matsim.core.events.MatsimEventsReader}. For other compression types, only the
+ * formatting is done in parallel, while the compression is done on the writing thread.
+ */
+public final class ParallelEventWriterXML implements EventWriter, BasicEventHandler {
+
+	private static final int EVENTS_PER_BLOCK = 10000;
+	private static final int ZSTD_LEVEL = 6;
+	private static final String HEADER = "<?xml version=\"1.0\" encoding=\"utf-8\"?>\n<events version=\"1.0\">\n";
+	private static final String FOOTER = "</events>";
+
+	private enum BlockCompression { none, gzip, zstd }
+
+	private final OutputStream out;
+	private final BlockCompression compression;
+	private final ExecutorService executor;
+	private final int maxPendingBlocks;
+	private final Deque<Future<byte[]>> pendingBlocks = new ArrayDeque<>();
+
+	private List<Map<String, String>> currentBlock = new ArrayList<>(EVENTS_PER_BLOCK);
+	private String currentPrefix = HEADER;
+	private boolean closed = false;
+
+	public ParallelEventWriterXML(final String outfilename, final int numberOfThreads) {
+		String lowerCaseFilename = outfilename.toLowerCase();
+		try {
+			if (lowerCaseFilename.endsWith(".gz")) {
+				this.compression = BlockCompression.gzip;
+				this.out = new FileOutputStream(outfilename);
+			} else if (lowerCaseFilename.endsWith(".zst")) {
+				this.compression = BlockCompression.zstd;
+				this.out = new FileOutputStream(outfilename);
+			} else {
+				this.compression = BlockCompression.none;
+				this.out = IOUtils.getOutputStream(IOUtils.getFileUrl(outfilename), false);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		int threads = Math.max(1, numberOfThreads);
+		this.maxPendingBlocks = 2 * threads;
+		AtomicInteger threadCounter = new AtomicInteger();
+		this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "ParallelEventWriterXML-" + threadCounter.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	@Override
+	public void handleEvent(final Event event) {
+		// the attributes are collected here, as events may be modified by later handlers
+		this.currentBlock.add(event.getAttributes());
+		if (this.currentBlock.size() == EVENTS_PER_BLOCK) {
+			submitBlock(null);
+		}
+	}
+
+	@Override
+	public void reset(final int iter) {
+	}
+
+	@Override
+	public void closeFile() {
+		if (this.closed) {
+			return;
+		}
+		this.closed = true;
+		try {
+			submitBlock(FOOTER);
+			while (!this.pendingBlocks.isEmpty()) {
+				writeFirstPendingBlock();
+			}
+			this.out.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			this.executor.shutdownNow();
+		}
+	}
+
+	private void submitBlock(String suffix) {
+		final List<Map<String, String>> events = this.currentBlock;
+		final String prefix = this.currentPrefix;
+		this.currentBlock = new ArrayList<>(EVENTS_PER_BLOCK);
+		this.currentPrefix = null;
+		this.pendingBlocks.add(this.executor.submit(() -> compress(format(prefix, events, suffix))));
+
+		// write finished blocks in their original order, and wait if too many blocks are pending
+		try {
+			while (!this.pendingBlocks.isEmpty() && (this.pendingBlocks.peekFirst().isDone() || this.pendingBlocks.size() > this.maxPendingBlocks)) {
+				writeFirstPendingBlock();
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void writeFirstPendingBlock() throws IOException {
+		Future<byte[]> block = this.pendingBlocks.removeFirst();
+		try {
+			this.out.write(block.get());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException("Error while preparing events for writing.", e.getCause());
+		}
+	}
+
+	private static byte[] format(String prefix, List<Map<String, String>> events, String suffix) {
+		StringBuilder sb = new StringBuilder(events.size() * 120 + 100);
+		if (prefix != null) {
+			sb.append(prefix);
+		}
+		for (Map<String, String> attributes : events) {
+			sb.append("\t<event ");
+			for (Map.Entry<String, String> entry : attributes.entrySet()) {
+				sb.append(entry.getKey());
+				sb.append("=\"");
+				sb.append(EventWriterXML.encodeAttributeValue(entry.getValue()));
+				sb.append("\" ");
+			}
+			sb.append(" />\n");
+		}
+		if (suffix != null) {
+			sb.append(suffix);
+		}
+		return sb.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	private byte[] compress(byte[] data) throws IOException {
+		switch (this.compression) {
+			case gzip:
+				ByteArrayOutputStream bytes = new ByteArrayOutputStream(data.length / 8 + 64);
+				try (GZIPOutputStream gzip = new GZIPOutputStream(bytes, 1 << 16)) {
+					gzip.write(data);
+				}
+				return bytes.toByteArray();
+			case zstd:
+				return Zstd.compress(data, ZSTD_LEVEL);
+			case none:
+			default:
+				return data;
+		}
+	}
+
+}
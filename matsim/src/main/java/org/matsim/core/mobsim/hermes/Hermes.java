@@ -31,6 +31,7 @@ final class Hermes implements Mobsim {
 
 	final private static Logger log = Logger.getLogger(Hermes.class);
 	private Realm realm;
+	private PartitionedRealm partitionedRealm;
 	private Agent[] agents;
 	private ScenarioImporter si;
 	private final Scenario scenario;
@@ -45,11 +46,12 @@ final class Hermes implements Mobsim {
 		si = ScenarioImporter.instance(scenario, eventsManager);
 		si.generate();
 		this.realm = si.realm;
+		this.partitionedRealm = si.partitionedRealm;
 		this.agents = si.hermes_agents;
 	}
 
 	private void processEvents() {
-        eventsManager.processEvents(realm.getSortedEvents());
+        eventsManager.processEvents(partitionedRealm != null ? partitionedRealm.getSortedEvents() : realm.getSortedEvents());
 
 		for (Agent agent : agents) {
 			if (agent != null && !agent.finished() && !agent.isTransitVehicle()) {
@@ -72,7 +74,11 @@ final class Hermes implements Mobsim {
 			eventsManager.initProcessing();
 
 			time = System.currentTimeMillis();
-			realm.run();
+			if (partitionedRealm != null) {
+				partitionedRealm.run();
+			} else {
+				realm.run();
+			}
 			log.info(String.format(
 					"Hermes took %d ms", System.currentTimeMillis() - time));
 
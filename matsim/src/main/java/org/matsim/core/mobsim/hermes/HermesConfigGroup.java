@@ -19,6 +19,7 @@
 package org.matsim.core.mobsim.hermes;
 
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import org.apache.log4j.Logger;
 import org.matsim.api.core.v01.TransportMode;
 import org.matsim.core.config.Config;
@@ -43,6 +44,8 @@ public final class HermesConfigGroup extends ReflectiveConfigGroup {
     public static final int MAX_VEHICLE_PCETYPES = 15;
     // Maximum number of events per agent (limited to 16 bits in the plan)
     public static final int MAX_EVENTS_AGENT = 65536;
+    // Maximum number of agents one realm can hand over to another realm per time step
+    public static final int MAX_REALM_MAILBOX_SIZE = 65536;
 
     private static final String DETPT = "useDeterministicPt";
 
@@ -61,6 +64,15 @@ public final class HermesConfigGroup extends ReflectiveConfigGroup {
     private static final String MAINMODESPARAMDESC = "[comma-separated list] Modes that are handled in the mobsim along links. By default: car";
     private Set<String> mainModes = Set.of(TransportMode.car);
 
+    private static final String REALMS = "realms";
+    private static final String REALMSDESC = "Number of realms (threads) the network is partitioned into. Agents crossing region boundaries are handed over once per time step."
+            + " 1 runs the single realm. Scenarios with transit are always run with a single realm.";
+
+    private static final String EVENTS_FLUSH_INTERVAL = "eventsFlushInterval";
+    private static final String EVENTS_FLUSH_INTERVAL_DESC = "Interval in simulated seconds after which the events generated so far are passed to the events manager."
+            + " Small values (e.g. 1) keep less events in memory and let event handling overlap with the simulation; the events are the same for any value."
+            + " 0 passes all events at the end of the simulation.";
+
     private static final String DETPTDESC = "treats PT as deterministic. PT vehicles will run with a steady speed. Should be used with separate network layers for PT and other network modes.";
     private boolean deterministicPt = false;
     public static final boolean DEBUG_REALMS = false;
@@ -76,6 +88,12 @@ public final class HermesConfigGroup extends ReflectiveConfigGroup {
     @Positive
     private int stuckTime = 10;
 
+    @Positive
+    private int realms = 1;
+
+    @PositiveOrZero
+    private int eventsFlushInterval = 3600;
+
     public Set<String> getMainModes() {
         return mainModes;
     }
@@ -122,6 +140,26 @@ public final class HermesConfigGroup extends ReflectiveConfigGroup {
         this.stuckTime = stuckTime;
     }
 
+    @StringGetter(REALMS)
+    public int getRealms() {
+        return realms;
+    }
+
+    @StringSetter(REALMS)
+    public void setRealms(int realms) {
+        this.realms = realms;
+    }
+
+    @StringGetter(EVENTS_FLUSH_INTERVAL)
+    public int getEventsFlushInterval() {
+        return eventsFlushInterval;
+    }
+
+    @StringSetter(EVENTS_FLUSH_INTERVAL)
+    public void setEventsFlushInterval(int eventsFlushInterval) {
+        this.eventsFlushInterval = eventsFlushInterval;
+    }
+
     @StringSetter(FLOW_CAPACITY_FACTOR)
     public void setFlowCapacityFactor(double flowCapacityFactor) {
         this.flowCapacityFactor = flowCapacityFactor;
@@ -158,6 +196,8 @@ public final class HermesConfigGroup extends ReflectiveConfigGroup {
         comments.put(END_TIME, "Simulation End Time");
         comments.put(STUCKTIMEPARAM, STUCKTIMEPARAMDESC);
         comments.put(DETPT, DETPTDESC);
+        comments.put(REALMS, REALMSDESC);
+        comments.put(EVENTS_FLUSH_INTERVAL, EVENTS_FLUSH_INTERVAL_DESC);
         return comments;
     }
 
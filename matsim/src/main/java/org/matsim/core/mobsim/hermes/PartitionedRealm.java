@@ -0,0 +1,172 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2014 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.mobsim.hermes;
+
+import org.apache.log4j.Logger;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.events.EventArray;
+
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+
+/**
+ * Runs one {@link Realm} per region of a partitioned network, each on its own thread.
+ *
+ * Each time step is simulated in three phases:
+ * <ol>
+ *     <li>every realm processes its own agents and links. Agents that want to enter a link owned by another
+ *     realm are put into the mailbox towards that realm and stay where they are;</li>
+ *     <li>after a barrier, every realm tries to move the agents it received into its links;</li>
+ *     <li>after a second barrier, and at the beginning of the next time step, every realm removes the accepted
+ *     agents from its links and retries the rejected ones.</li>
+ * </ol>
+ * An agent crossing a region boundary can therefore block its link for one time step longer than with a
+ * single realm. Results only depend on the partitioning, not on thread scheduling.
+ *
+ * Events of all realms are merged by time (ties broken by region) before being passed to the events manager.
+ */
+final class PartitionedRealm {
+
+	final private static Logger log = Logger.getLogger(PartitionedRealm.class);
+
+	private final Realm[] realms;
+	private final int[] linkRegions;
+	// mailboxes[source][destination]
+	private final RealmMailbox[][] mailboxes;
+	// inboxes[destination][source]
+	private final RealmMailbox[][] inboxes;
+	private final EventsManager eventsManager;
+	private final ScenarioImporter si;
+	private volatile Throwable failure;
+
+	PartitionedRealm(ScenarioImporter si, EventsManager eventsManager, int[] linkRegions, int regions) throws Exception {
+		this.eventsManager = eventsManager;
+		this.si = si;
+		this.linkRegions = linkRegions;
+		this.realms = new Realm[regions];
+		this.mailboxes = new RealmMailbox[regions][regions];
+		this.inboxes = new RealmMailbox[regions][regions];
+		for (int src = 0; src < regions; src++) {
+			for (int dst = 0; dst < regions; dst++) {
+				if (src != dst) {
+					mailboxes[src][dst] = new RealmMailbox(HermesConfigGroup.MAX_REALM_MAILBOX_SIZE);
+					inboxes[dst][src] = mailboxes[src][dst];
+				}
+			}
+		}
+		for (int region = 0; region < regions; region++) {
+			realms[region] = new Realm(si, eventsManager, region, linkRegions, mailboxes[region]);
+		}
+	}
+
+	Realm realm(int region) {
+		return realms[region];
+	}
+
+	Realm realmOfLink(int linkid) {
+		return realms[linkRegions[linkid]];
+	}
+
+	int regions() {
+		return realms.length;
+	}
+
+	public void run() throws Exception {
+		CyclicBarrier handOverBarrier = new CyclicBarrier(realms.length);
+		CyclicBarrier stepBarrier = new CyclicBarrier(realms.length, this::finishTimestep);
+		Thread[] threads = new Thread[realms.length];
+
+		for (int region = 0; region < realms.length; region++) {
+			Realm realm = realms[region];
+			RealmMailbox[] inbox = inboxes[region];
+			threads[region] = new Thread(() -> {
+				try {
+					while (realm.secs() != HermesConfigGroup.SIM_STEPS) {
+						realm.completeHandOvers();
+						realm.processTimestep();
+						handOverBarrier.await();
+						realm.acceptHandOvers(inbox);
+						stepBarrier.await();
+						realm.advanceTime();
+					}
+				} catch (InterruptedException | BrokenBarrierException e) {
+					// another realm failed, its exception is reported
+				} catch (Throwable t) {
+					if (failure == null) {
+						failure = t;
+					}
+					for (Thread thread : threads) {
+						thread.interrupt();
+					}
+				}
+			}, "Hermes-Realm-" + region);
+			threads[region].setDaemon(true);
+		}
+
+		log.info(String.format("Hermes running %d realms", realms.length));
+		for (Thread thread : threads) {
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		if (failure != null) {
+			throw new RuntimeException("Hermes realm failed", failure);
+		}
+	}
+
+	private void finishTimestep() {
+		if (si.isEventsFlushTime(realms[0].secs())) {
+			EventArray events = getSortedEvents();
+			if (events.size() > 0) {
+				eventsManager.processEvents(events);
+			}
+		}
+	}
+
+	/**
+	 * Removes the events generated so far from all realms and merges them by time.
+	 */
+	EventArray getSortedEvents() {
+		EventArray[] events = new EventArray[realms.length];
+		int[] positions = new int[realms.length];
+		int total = 0;
+		for (int region = 0; region < realms.length; region++) {
+			events[region] = realms[region].takeSortedEvents();
+			total += events[region].size();
+		}
+
+		EventArray merged = new EventArray(Math.max(total, 1));
+		while (merged.size() < total) {
+			double time = Double.POSITIVE_INFINITY;
+			for (int region = 0; region < realms.length; region++) {
+				if (positions[region] < events[region].size()) {
+					time = Math.min(time, events[region].get(positions[region]).getTime());
+				}
+			}
+			for (int region = 0; region < realms.length; region++) {
+				EventArray regionEvents = events[region];
+				while (positions[region] < regionEvents.size() && regionEvents.get(positions[region]).getTime() <= time) {
+					merged.add(regionEvents.get(positions[region]++));
+				}
+			}
+		}
+		return merged;
+	}
+}
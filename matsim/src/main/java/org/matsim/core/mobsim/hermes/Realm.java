@@ -61,10 +61,25 @@ class Realm {
     private final EventsManager eventsManager;
     // Current timestamp
     private int secs;
+    // Region simulated by this realm and region of each link. Regions are only used if the
+    // network is partitioned among several realms, see PartitionedRealm.
+    private final int region;
+    private final int[] linkRegions;
+    // Agents that want to enter a link of another region, indexed by destination region.
+    private final RealmMailbox[] outbox;
+    // Set if the last processed agent was handed over to another region.
+    private boolean handedOver;
     Logger log = Logger.getLogger(Realm.class);
 
     public Realm(ScenarioImporter scenario, EventsManager eventsManager) throws Exception {
+        this(scenario, eventsManager, 0, null, null);
+    }
+
+    Realm(ScenarioImporter scenario, EventsManager eventsManager, int region, int[] linkRegions, RealmMailbox[] outbox) throws Exception {
     	this.si = scenario;
+        this.region = region;
+        this.linkRegions = linkRegions;
+        this.outbox = outbox;
         this.links = scenario.hermes_links;
         // The plus one is necessary because we peek into the next slot on each tick.
         this.delayedLinksByWakeupTime = new ArrayList<>();
@@ -76,10 +91,20 @@ class Realm {
         this.eventsManager = eventsManager;
 
 	// the last position is to store events that will not happen...
+	// Queues are only allocated once something is scheduled for that second.
         for (int i = 0; i <= HermesConfigGroup.SIM_STEPS + 1; i++) {
-            delayedLinksByWakeupTime.add(new ArrayDeque<>());
-            delayedAgentsByWakeupTime.add(new ArrayDeque<>());
+            delayedLinksByWakeupTime.add(null);
+            delayedAgentsByWakeupTime.add(null);
+        }
+    }
+
+    private static <T> ArrayDeque<T> wakeupQueue(ArrayList<ArrayDeque<T>> queues, int time) {
+        ArrayDeque<T> queue = queues.get(time);
+        if (queue == null) {
+            queue = new ArrayDeque<>();
+            queues.set(time, queue);
         }
+        return queue;
     }
 
     public void log(int time, String s) {
@@ -90,13 +115,13 @@ class Realm {
 
     private void add_delayed_agent(Agent agent, int until) {
         if (HermesConfigGroup.DEBUG_REALMS) log(secs, String.format("agent %d delayed until %d", agent.id, until));
-        delayedAgentsByWakeupTime.get(Math.min(until, HermesConfigGroup.SIM_STEPS + 1)).add(agent);
+        wakeupQueue(delayedAgentsByWakeupTime, Math.min(until, HermesConfigGroup.SIM_STEPS + 1)).add(agent);
     }
 
     private void add_delayed_link(HLink link, int until) {
         if (HermesConfigGroup.DEBUG_REALMS)
             log(secs, String.format("link %d delayed until %d size %d peek agent %d", link.id(), until, link.queue().size(), link.queue().peek().id));
-        delayedLinksByWakeupTime.get(Math.min(until, HermesConfigGroup.SIM_STEPS + 1)).add(link);
+        wakeupQueue(delayedLinksByWakeupTime, Math.min(until, HermesConfigGroup.SIM_STEPS + 1)).add(link);
     }
 
     private void advanceAgentandSetEventTime(Agent agent) {
@@ -120,6 +145,9 @@ class Realm {
     protected boolean processAgentLink(Agent agent, long planentry, int currLinkId) {
         int linkid = Agent.getLinkPlanEntry(planentry);
         int velocity = Agent.getVelocityPlanEntry(planentry);
+        if (linkRegions != null && linkRegions[linkid] != region) {
+            return handOver(agent, currLinkId, linkRegions[linkid]);
+        }
         HLink next = links[linkid];
         int prev_finishtime = agent.linkFinishTime;
         // this ensures that if no velocity is provided for the vehicle, we use the link
@@ -141,6 +169,14 @@ class Realm {
         }
     }
 
+    private boolean handOver(Agent agent, int currLinkId, int destination) {
+        // If the mailbox is full, the agent is treated as if the next link was full.
+        handedOver = outbox[destination].offer(agent, currLinkId);
+        if (HermesConfigGroup.DEBUG_REALMS && handedOver)
+            log(secs, String.format("agent %d handed over from realm %d to realm %d", agent.id, region, destination));
+        return false;
+    }
+
     protected boolean processAgentSleepFor(Agent agent, long planentry) {
         int sleep = Agent.getSleepPlanEntry(planentry);
         return processAgentSleepUntil(agent, secs + Math.max(1, sleep));
@@ -281,7 +317,11 @@ class Realm {
         }
         // -1 is used in the processAgent because the agent is not in a link currently.
         if (!finished && !processAgent(agent, -1)) {
-            add_delayed_agent(agent, secs + 1);
+            if (handedOver) {
+                handedOver = false;
+            } else {
+                add_delayed_agent(agent, secs + 1);
+            }
             return 0;
         }
         return 1;
@@ -309,56 +349,122 @@ class Realm {
         }
         // If there is at least one agent in the link that could not be processed
         // In addition we check if this agent was not added in this tick.
+        // A link whose head was handed over is re-scheduled once the hand-over is resolved.
         if (agent != null) {
-            add_delayed_link(link, Math.max(agent.linkFinishTime, secs + 1));
+            if (handedOver) {
+                handedOver = false;
+            } else {
+                add_delayed_link(link, Math.max(agent.linkFinishTime, secs + 1));
+            }
         }
         return routed;
     }
 
     public void run() throws Exception {
+        while (secs != HermesConfigGroup.SIM_STEPS) {
+            processTimestep();
+            if (si.isEventsFlushTime(secs) && sorted_events.size() > 0) {
+                eventsManager.processEvents(takeSortedEvents());
+            }
+            secs += 1;
+        }
+    }
+
+    void processTimestep() {
     	int routed = 0;
         Agent agent = null;
         HLink link = null;
 
-        while (secs != HermesConfigGroup.SIM_STEPS) {
-            if (secs % 3600 == 0) {
-                log.info("Hermes running at " + Time.writeTime(secs));
+        if (secs % 3600 == 0 && region == 0) {
+            log.info("Hermes running at " + Time.writeTime(secs));
+        }
+        ArrayDeque<Agent> wakingAgents = delayedAgentsByWakeupTime.get(secs);
+        while (wakingAgents != null && (agent = wakingAgents.poll()) != null) {
+            if (HermesConfigGroup.DEBUG_REALMS) {
+                log(secs, String.format("Processing agent %d", agent.id));
             }
-            while ((agent = delayedAgentsByWakeupTime.get(secs).poll()) != null) {
-                if (HermesConfigGroup.DEBUG_REALMS) {
-                    log(secs, String.format("Processing agent %d", agent.id));
-                }
-                routed += processAgentActivities(agent);
+            routed += processAgentActivities(agent);
 
+        }
+        delayedAgentsByWakeupTime.set(secs, null);
+        if (si.isDeterministicPt()) {
+            for (Event e : si.getDeterministicPtEvents().get(secs)) {
+                sorted_events.add(e);
             }
-            delayedAgentsByWakeupTime.set(secs, null);
-            if (si.isDeterministicPt()) {
-                for (Event e : si.getDeterministicPtEvents().get(secs)) {
-                    sorted_events.add(e);
-                }
-                si.getDeterministicPtEvents().get(secs).clear();
-            }
+            si.getDeterministicPtEvents().get(secs).clear();
+        }
 
-            while ((link = delayedLinksByWakeupTime.get(secs).poll()) != null) {
-                if (HermesConfigGroup.DEBUG_REALMS) {
-                    log(secs, String.format("Processing link %d", link.id()));
-                }
-                routed += processLinks(link);
+        ArrayDeque<HLink> wakingLinks = delayedLinksByWakeupTime.get(secs);
+        while (wakingLinks != null && (link = wakingLinks.poll()) != null) {
+            if (HermesConfigGroup.DEBUG_REALMS) {
+                log(secs, String.format("Processing link %d", link.id()));
             }
-            delayedLinksByWakeupTime.set(secs, null);
-            if (HermesConfigGroup.DEBUG_REALMS && routed > 0) {
-                log(secs, String.format("Processed %d agents", routed));
+            routed += processLinks(link);
+        }
+        delayedLinksByWakeupTime.set(secs, null);
+        if (HermesConfigGroup.DEBUG_REALMS && routed > 0) {
+            log(secs, String.format("Processed %d agents", routed));
+        }
+    }
+
+    /**
+     * Tries to move the agents handed over by other realms during the current time step into
+     * the links of this realm. Mailboxes are processed in region order to keep results deterministic.
+     */
+    void acceptHandOvers(RealmMailbox[] inbox) {
+        for (RealmMailbox mailbox : inbox) {
+            if (mailbox == null) {
+                continue;
             }
-            if (HermesConfigGroup.CONCURRENT_EVENT_PROCESSING && secs % 3600 == 0 && sorted_events.size() > 0) {
-                eventsManager.processEvents(sorted_events);
-                sorted_events = new EventArray();
+            for (int i = 0; i < mailbox.size(); i++) {
+                Agent agent = mailbox.agent(i);
+                long planentry = agent.plan.get(agent.planIndex + 1);
+                mailbox.setAccepted(i, processAgentLink(agent, planentry, mailbox.sourceLink(i)));
             }
+        }
+    }
 
-            routed = 0;
-            secs += 1;
+    /**
+     * Completes the hand-overs of the previous time step: accepted agents leave their link,
+     * rejected ones are retried in the current time step.
+     */
+    void completeHandOvers() {
+        for (RealmMailbox mailbox : outbox) {
+            if (mailbox == null) {
+                continue;
+            }
+            for (int i = 0; i < mailbox.size(); i++) {
+                Agent agent = mailbox.agent(i);
+                int linkid = mailbox.sourceLink(i);
+                if (linkid < 0) {
+                    if (!mailbox.isAccepted(i)) {
+                        add_delayed_agent(agent, secs);
+                    }
+                } else {
+                    HLink link = links[linkid];
+                    if (mailbox.isAccepted(i)) {
+                        link.pop(agent.getStorageCapacityPCUE());
+                    }
+                    Agent head = link.queue().peek();
+                    if (head != null) {
+                        add_delayed_link(link, Math.max(head.linkFinishTime, secs));
+                    }
+                }
+            }
+            mailbox.clear();
         }
     }
 
+    int secs() { return this.secs; }
+    void advanceTime() { this.secs += 1; }
+
+    // The events manager might still be processing the returned events, so they are never reused.
+    EventArray takeSortedEvents() {
+        EventArray events = this.sorted_events;
+        this.sorted_events = new EventArray(Math.max(32, events.size()));
+        return events;
+    }
+
     public void setEventTime(Agent agent, int eventid, int time, boolean lastevent) {
         if (eventid != 0) {
         	EventArray agentevents = agent.events();
@@ -403,7 +509,7 @@ class Realm {
         }
     }
 
-    ArrayList<ArrayDeque<HLink>> delayedLinks() { return this.delayedLinksByWakeupTime; }
-    ArrayList<ArrayDeque<Agent>> delayedAgents() { return this.delayedAgentsByWakeupTime; }
+    ArrayDeque<HLink> delayedLinks(int time) { return wakeupQueue(this.delayedLinksByWakeupTime, time); }
+    ArrayDeque<Agent> delayedAgents(int time) { return wakeupQueue(this.delayedAgentsByWakeupTime, time); }
     EventArray getSortedEvents() { return this.sorted_events; }
 }
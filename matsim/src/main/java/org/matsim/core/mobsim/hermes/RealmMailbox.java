@@ -0,0 +1,89 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2014 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.mobsim.hermes;
+
+import java.util.Arrays;
+
+/**
+ * Bounded mailbox used to hand agents from one realm over to another one. Each mailbox has exactly one
+ * writer (the source realm, while processing a time step) and one reader (the destination realm, after
+ * all realms finished the time step), so no synchronization is needed besides the time step barrier.
+ */
+final class RealmMailbox {
+
+	private final int maxCapacity;
+	private Agent[] agents;
+	// Link the agent is currently in, -1 if the agent is not in a link.
+	private int[] sourceLinks;
+	private boolean[] accepted;
+	private int size;
+
+	RealmMailbox(int maxCapacity) {
+		this.maxCapacity = maxCapacity;
+		int initialCapacity = Math.min(maxCapacity, 64);
+		this.agents = new Agent[initialCapacity];
+		this.sourceLinks = new int[initialCapacity];
+		this.accepted = new boolean[initialCapacity];
+	}
+
+	/**
+	 * @return false if the mailbox is full, in which case the agent has to retry in the next time step.
+	 */
+	boolean offer(Agent agent, int sourceLink) {
+		if (size == agents.length) {
+			if (size == maxCapacity) {
+				return false;
+			}
+			int capacity = Math.min(maxCapacity, size * 2);
+			agents = Arrays.copyOf(agents, capacity);
+			sourceLinks = Arrays.copyOf(sourceLinks, capacity);
+			accepted = Arrays.copyOf(accepted, capacity);
+		}
+		agents[size] = agent;
+		sourceLinks[size] = sourceLink;
+		accepted[size] = false;
+		size++;
+		return true;
+	}
+
+	int size() {
+		return size;
+	}
+
+	Agent agent(int index) {
+		return agents[index];
+	}
+
+	int sourceLink(int index) {
+		return sourceLinks[index];
+	}
+
+	boolean isAccepted(int index) {
+		return accepted[index];
+	}
+
+	void setAccepted(int index, boolean accepted) {
+		this.accepted[index] = accepted;
+	}
+
+	void clear() {
+		Arrays.fill(agents, 0, size, null);
+		size = 0;
+	}
+}
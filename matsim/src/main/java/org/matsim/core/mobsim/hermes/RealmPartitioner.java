@@ -0,0 +1,100 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2014 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.mobsim.hermes;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Splits the network into spatially coherent regions using recursive coordinate bisection over the
+ * nodes. Every link belongs to the region of its to-node, so all links competing for the same
+ * downstream links are simulated by the same realm. Nodes are weighted by their number of in-links
+ * so that all regions simulate about the same number of links.
+ * The partitioning only depends on the network, which makes partitioned runs reproducible.
+ */
+final class RealmPartitioner {
+
+	private RealmPartitioner() {
+	}
+
+	/**
+	 * @return the region of each link, indexed by <code>Id&lt;Link&gt;.index()</code>.
+	 */
+	static int[] partition(Network network, int regions) {
+		Node[] nodes = network.getNodes().values().toArray(new Node[0]);
+		Arrays.sort(nodes, Comparator.comparingInt(n -> n.getId().index()));
+		int[] nodeRegions = new int[Id.getNumberOfIds(Node.class)];
+		bisect(nodes, 0, nodes.length, 0, regions, nodeRegions);
+
+		int[] linkRegions = new int[Id.getNumberOfIds(Link.class)];
+		for (Link link : network.getLinks().values()) {
+			linkRegions[link.getId().index()] = nodeRegions[link.getToNode().getId().index()];
+		}
+		return linkRegions;
+	}
+
+	private static void bisect(Node[] nodes, int from, int to, int firstRegion, int regions, int[] nodeRegions) {
+		if (regions == 1 || to - from <= 1) {
+			for (int i = from; i < to; i++) {
+				nodeRegions[nodes[i].getId().index()] = firstRegion;
+			}
+			return;
+		}
+
+		double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+		long totalWeight = 0;
+		for (int i = from; i < to; i++) {
+			Node node = nodes[i];
+			minX = Math.min(minX, node.getCoord().getX());
+			maxX = Math.max(maxX, node.getCoord().getX());
+			minY = Math.min(minY, node.getCoord().getY());
+			maxY = Math.max(maxY, node.getCoord().getY());
+			totalWeight += weight(node);
+		}
+
+		// split along the longer side of the bounding box, ties are broken by node index
+		Comparator<Node> byCoord = (maxX - minX) >= (maxY - minY)
+				? Comparator.comparingDouble(n -> n.getCoord().getX())
+				: Comparator.comparingDouble(n -> n.getCoord().getY());
+		Arrays.sort(nodes, from, to, byCoord.thenComparingInt(n -> n.getId().index()));
+
+		int leftRegions = regions / 2;
+		long leftWeight = totalWeight * leftRegions / regions;
+		long weight = 0;
+		int split = from;
+		while (split < to - 1 && weight < leftWeight) {
+			weight += weight(nodes[split]);
+			split++;
+		}
+		split = Math.max(split, from + 1);
+
+		bisect(nodes, from, split, firstRegion, leftRegions, nodeRegions);
+		bisect(nodes, split, to, firstRegion + leftRegions, regions - leftRegions, nodeRegions);
+	}
+
+	private static int weight(Node node) {
+		return node.getInLinks().size();
+	}
+}
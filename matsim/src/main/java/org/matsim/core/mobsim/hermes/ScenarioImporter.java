@@ -116,7 +116,10 @@ class ScenarioImporter {
 	protected Agent[] hermes_agents;
 
 	protected Realm realm;
+	// Only set if the network is partitioned among several realms, realm is null in that case.
+	protected PartitionedRealm partitionedRealm;
 	private final boolean deterministicPt;
+	private final int eventsFlushInterval;
 	// Agents waiting in pt stations. Should be used as follows:
 	// agent_stops.get(curr station id).get(line id) -> queue of agents
 	protected IdMap<TransitStopFacility, IntArrayMap<ArrayDeque<Agent>>> agent_stops;
@@ -131,6 +134,7 @@ class ScenarioImporter {
 	private ScenarioImporter(Scenario scenario, EventsManager eventsManager) {
 		numberOfThreads = Math.min(scenario.getConfig().global().getNumberOfThreads(), Runtime.getRuntime().availableProcessors());
 		this.deterministicPt = scenario.getConfig().hermes().isDeterministicPt();
+		this.eventsFlushInterval = scenario.getConfig().hermes().getEventsFlushInterval();
 		if (deterministicPt) {
 			deterministicPtEvents = new ArrayList<>(scenario.getConfig().hermes().getEndTime());
 			for (int i = 0; i < scenario.getConfig().hermes().getEndTime(); i++) {
@@ -309,7 +313,20 @@ class ScenarioImporter {
 	}
 
 	private void generateRealms() throws Exception {
-		realm = new Realm(this, eventsManager);
+		int regions = scenario.getConfig().hermes().getRealms();
+		if (regions > 1 && !scenario.getTransitSchedule().getTransitLines().isEmpty()) {
+			// agents waiting at stops are shared among the realms
+			log.warn("Hermes cannot partition scenarios with transit, using a single realm.");
+			regions = 1;
+		}
+		if (regions > 1) {
+			int[] linkRegions = RealmPartitioner.partition(scenario.getNetwork(), regions);
+			realm = null;
+			partitionedRealm = new PartitionedRealm(this, eventsManager, linkRegions, regions);
+		} else {
+			realm = new Realm(this, eventsManager);
+			partitionedRealm = null;
+		}
 
 		// Put agents in their initial location (link or activity center)
 		for (Agent agent : hermes_agents) {
@@ -331,7 +348,7 @@ class ScenarioImporter {
 				case Agent.SleepForType:
 				case Agent.SleepUntilType:
 					int sleep = Agent.getSleepPlanEntry(planentry);
-					realm.delayedAgents().get(Math.min(sleep, scenario.getConfig().hermes().getEndTime() + 1)).add(agent);
+					realmOfAgent(agent).delayedAgents(Math.min(sleep, scenario.getConfig().hermes().getEndTime() + 1)).add(agent);
 					break;
 				default:
 					Logger.getLogger(getClass()).error(String.format("ERROR -> unknown plan element type %d", type));
@@ -342,12 +359,30 @@ class ScenarioImporter {
 			if (link != null) {
 				int nextwakeup = link.nexttime();
 				if (nextwakeup > 0) {
-					realm.delayedLinks().get(nextwakeup).add(link);
+					realmOfLink(link.id()).delayedLinks(nextwakeup).add(link);
 				}
 			}
 		}
 	}
 
+	private Realm realmOfLink(int linkid) {
+		return partitionedRealm == null ? realm : partitionedRealm.realmOfLink(linkid);
+	}
+
+	// Agents start in the realm of the first link they will enter.
+	private Realm realmOfAgent(Agent agent) {
+		if (partitionedRealm == null) {
+			return realm;
+		}
+		for (int i = 0; i < agent.plan().size(); i++) {
+			long planentry = agent.plan().get(i);
+			if (Agent.getPlanHeader(planentry) == Agent.LinkType) {
+				return realmOfLink(Agent.getLinkPlanEntry(planentry));
+			}
+		}
+		return partitionedRealm.realm(0);
+	}
+
 	private void processPlanActivity(
 			Id<Person> id,
 			PlanArray flatplan,
@@ -957,4 +992,11 @@ class ScenarioImporter {
 	public boolean isDeterministicPt() {
 		return deterministicPt;
 	}
+
+	/**
+	 * @return true if the events of the given time step should be passed to the events manager before simulating the next one.
+	 */
+	public boolean isEventsFlushTime(int secs) {
+		return HermesConfigGroup.CONCURRENT_EVENT_PROCESSING && eventsFlushInterval > 0 && secs % eventsFlushInterval == 0;
+	}
 }
@@ -22,6 +22,8 @@ package org.matsim.core.mobsim.qsim;
 
 import com.google.inject.Injector;
 import org.apache.log4j.Logger;
+import org.matsim.analysis.metrics.MetricsRegistry;
+import org.matsim.analysis.metrics.Timer;
 import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.IdMap;
 import org.matsim.api.core.v01.Scenario;
@@ -136,6 +138,11 @@ public final class QSim implements VisMobsim, Netsim, ActivityEndRescheduler {
 	private final Map<MobsimEngine, AtomicLong> mobsimEngineRunTimes;
 	private ActivityEngine activityEngine;
 
+	// only set if metrics are enabled
+	private MetricsRegistry metrics = null;
+	private Timer simStepTimer = null;
+	private final Map<MobsimEngine, Timer> mobsimEngineTimers = new IdentityHashMap<>();
+
 	{
 		if (analyzeRunTimes) this.mobsimEngineRunTimes = new HashMap<>();
 		else this.mobsimEngineRunTimes = null;
@@ -225,6 +232,15 @@ public final class QSim implements VisMobsim, Netsim, ActivityEndRescheduler {
 //		this.qVehicleFactory = qVehicleFactory;
 	}
 
+	@com.google.inject.Inject(optional = true)
+	void setMetricsRegistry(MetricsRegistry metrics) {
+		this.metrics = metrics;
+		this.simStepTimer = metrics.timer("qsim.simStep");
+		for (MobsimEngine mobsimEngine : this.mobsimEngines) {
+			this.mobsimEngineTimers.put(mobsimEngine, metrics.timer("qsim.engine." + mobsimEngine.getClass().getSimpleName()));
+		}
+	}
+
 	// ============================================================================================================================
 	// "run" method:
 
@@ -383,6 +399,7 @@ public final class QSim implements VisMobsim, Netsim, ActivityEndRescheduler {
 	 */
 	/*package*/ boolean doSimStep() {
 		if (analyzeRunTimes) this.startClockTime = System.nanoTime();
+		long simStepStart = this.simStepTimer == null ? 0 : this.simStepTimer.start();
 
 		final double now = this.getSimTimer().getTimeOfDay();
 
@@ -407,7 +424,10 @@ public final class QSim implements VisMobsim, Netsim, ActivityEndRescheduler {
 			// withindayEngine.doSimStep(time) has already been called
 			if (mobsimEngine == this.withindayEngine) continue;
 
+			Timer engineTimer = this.mobsimEngineTimers.get(mobsimEngine);
+			long engineStart = engineTimer == null ? 0 : engineTimer.start();
 			mobsimEngine.doSimStep(now);
+			if (engineTimer != null) engineTimer.stop(engineStart);
 
 			if (analyzeRunTimes)
 				this.mobsimEngineRunTimes.get(mobsimEngine).addAndGet(System.nanoTime() - this.startClockTime);
@@ -436,6 +456,7 @@ public final class QSim implements VisMobsim, Netsim, ActivityEndRescheduler {
 		}
 
 		if (analyzeRunTimes) this.qSimInternalTime += System.nanoTime() - this.startClockTime;
+		if (this.simStepTimer != null) this.simStepTimer.stop(simStepStart);
 
 		return doContinue;
 	}
@@ -636,6 +657,7 @@ public final class QSim implements VisMobsim, Netsim, ActivityEndRescheduler {
 		this.mobsimEngines.add(mobsimEngine);
 		
 		if (analyzeRunTimes) this.mobsimEngineRunTimes.put(mobsimEngine, new AtomicLong());
+		if (this.metrics != null) this.mobsimEngineTimers.put(mobsimEngine, this.metrics.timer("qsim.engine." + mobsimEngine.getClass().getSimpleName()));
 	}
 
 	@Override
@@ -0,0 +1,359 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * TimerWheel.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2022 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.core.mobsim.qsim;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Schedules items (agents) at a point in time and releases them in the order of their time, ties being broken
+ * by a comparator. This results in exactly the same order as a priority queue with the same comparison, but adding
+ * and removing items takes constant time, independent of the number of scheduled items.
+ * <p>
+ * Items are kept in a hierarchical timing wheel: the first level has one bucket per second for the current block of
+ * {@value #WHEEL_SIZE} seconds, the second level has one bucket per block, and items even further in the future are kept
+ * in an overflow list. When the time advances into a new block, the corresponding bucket of the next level is
+ * distributed to the lower level. Only the items that are due are sorted, in a small priority queue.
+ * <p>
+ * Items scheduled before the first call to {@link #pollDue(double)} are collected and only sorted into the wheel
+ * at that time, so they can be scheduled in any order and at any time.
+ * <p>
+ * All methods are thread-safe.
+ *
+ * @param <T> the type of the scheduled items, typically a {@link org.matsim.core.mobsim.framework.MobsimAgent}
+ */
+final class TimerWheel<T> {
+
+	private static final int BITS = 12;
+	static final int WHEEL_SIZE = 1 << BITS;
+	private static final int MASK = WHEEL_SIZE - 1;
+
+	/**
+	 * A scheduled item. Its location in the wheel is stored in the entry itself, so it can be removed in constant time.
+	 */
+	static final class Entry<T> {
+		private final T item;
+		private final double time;
+		private Entry<T> prev = null;
+		private Entry<T> next = null;
+		private Bucket<T> bucket = null;
+		private boolean cancelled = false;
+
+		private Entry(T item, double time) {
+			this.item = item;
+			this.time = time;
+		}
+
+		T getItem() {
+			return this.item;
+		}
+
+		double getTime() {
+			return this.time;
+		}
+	}
+
+	/**
+	 * Doubly-linked list of entries.
+	 */
+	private static final class Bucket<T> {
+		private final boolean level0;
+		private Entry<T> head = null;
+
+		Bucket(boolean level0) {
+			this.level0 = level0;
+		}
+
+		void add(Entry<T> e) {
+			e.bucket = this;
+			e.prev = null;
+			e.next = this.head;
+			if (this.head != null) {
+				this.head.prev = e;
+			}
+			this.head = e;
+		}
+
+		void unlink(Entry<T> e) {
+			if (e.prev == null) {
+				this.head = e.next;
+			} else {
+				e.prev.next = e.next;
+			}
+			if (e.next != null) {
+				e.next.prev = e.prev;
+			}
+			e.prev = null;
+			e.next = null;
+			e.bucket = null;
+		}
+
+		Entry<T> removeAll() {
+			Entry<T> first = this.head;
+			for (Entry<T> e = first; e != null; e = e.next) {
+				e.bucket = null;
+			}
+			this.head = null;
+			return first;
+		}
+	}
+
+	private final Comparator<Entry<T>> order;
+	private final Bucket<T>[] level0;
+	private final Bucket<T>[] level1;
+	private final Bucket<T> overflow = new Bucket<>(false);
+	private final Bucket<T> staging = new Bucket<>(false);
+	private final PriorityQueue<Entry<T>> due;
+	private final Map<T, Entry<T>> entriesByItem = new IdentityHashMap<>();
+
+	private boolean started = false;
+	/** the current slot (second), all earlier slots are empty */
+	private long cursor = 0;
+	/** all entries with a time up to this one are in {@link #due} */
+	private double collectedUntil = Double.NEGATIVE_INFINITY;
+	private int level0Count = 0;
+	private int wheelCount = 0;
+	private int size = 0;
+
+	/**
+	 * @param tieBreaker defines the order of items that are scheduled at the same time
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	TimerWheel(Comparator<? super T> tieBreaker) {
+		this.order = (e0, e1) -> {
+			int cmp = Double.compare(e0.time, e1.time);
+			return cmp != 0 ? cmp : tieBreaker.compare(e0.item, e1.item);
+		};
+		this.due = new PriorityQueue<>(64, this.order);
+		this.level0 = new Bucket[WHEEL_SIZE];
+		this.level1 = new Bucket[WHEEL_SIZE];
+		for (int i = 0; i < WHEEL_SIZE; i++) {
+			this.level0[i] = new Bucket<>(true);
+			this.level1[i] = new Bucket<>(false);
+		}
+	}
+
+	/**
+	 * Schedules the item at the given time. If the item is already scheduled, it is scheduled a second time and
+	 * {@link #remove(Object)} only removes the latest entry.
+	 */
+	synchronized Entry<T> add(T item, double time) {
+		Entry<T> e = new Entry<>(item, time);
+		this.entriesByItem.put(item, e);
+		this.size++;
+		if (time <= this.collectedUntil) {
+			this.due.add(e);
+		} else if (!this.started) {
+			this.staging.add(e);
+			this.wheelCount++;
+		} else {
+			place(e);
+			this.wheelCount++;
+		}
+		return e;
+	}
+
+	/**
+	 * Removes the latest scheduled entry of the item.
+	 *
+	 * @return the removed entry, or <code>null</code> if the item was not scheduled
+	 */
+	synchronized Entry<T> remove(T item) {
+		Entry<T> e = this.entriesByItem.remove(item);
+		if (e == null) {
+			return null;
+		}
+		if (e.bucket != null) {
+			if (e.bucket.level0) {
+				this.level0Count--;
+			}
+			e.bucket.unlink(e);
+			this.wheelCount--;
+		} else {
+			// lazily removed from the priority queue
+			e.cancelled = true;
+		}
+		this.size--;
+		return e;
+	}
+
+	/**
+	 * Removes and returns the next item with a time not after <code>now</code>. Repeated calls return the items in the
+	 * order of their time, ties broken by the comparator; this includes items that are added while the due items are polled.
+	 *
+	 * @return the next due item, or <code>null</code> if there is none
+	 */
+	synchronized T pollDue(double now) {
+		if (now > this.collectedUntil) {
+			collect(now);
+		}
+		Entry<T> e;
+		while ((e = this.due.poll()) != null) {
+			if (!e.cancelled) {
+				if (this.entriesByItem.get(e.item) == e) {
+					this.entriesByItem.remove(e.item);
+				}
+				this.size--;
+				return e.item;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Removes all entries.
+	 *
+	 * @return the removed entries, sorted by time and the tie breaker
+	 */
+	synchronized List<Entry<T>> removeAll() {
+		List<Entry<T>> all = new ArrayList<>(this.size);
+		for (Entry<T> e : this.due) {
+			if (!e.cancelled) {
+				all.add(e);
+			}
+		}
+		this.due.clear();
+		addAll(all, this.staging);
+		addAll(all, this.overflow);
+		for (int i = 0; i < WHEEL_SIZE; i++) {
+			addAll(all, this.level0[i]);
+			addAll(all, this.level1[i]);
+		}
+		all.sort(this.order);
+		this.entriesByItem.clear();
+		this.level0Count = 0;
+		this.wheelCount = 0;
+		this.size = 0;
+		return all;
+	}
+
+	synchronized int size() {
+		return this.size;
+	}
+
+	private static <T> void addAll(List<Entry<T>> list, Bucket<T> bucket) {
+		for (Entry<T> e = bucket.removeAll(); e != null; ) {
+			Entry<T> next = e.next;
+			e.prev = null;
+			e.next = null;
+			list.add(e);
+			e = next;
+		}
+	}
+
+	private static long slotOf(double time) {
+		// casting saturates, infinite times end up in the overflow list
+		return (long) Math.floor(time);
+	}
+
+	/**
+	 * Puts the entry into the bucket of its slot, relative to the cursor. Entries before the cursor are put into the current slot.
+	 */
+	private void place(Entry<T> e) {
+		long slot = Math.max(slotOf(e.time), this.cursor);
+		if ((slot >> BITS) == (this.cursor >> BITS)) {
+			this.level0[(int) (slot & MASK)].add(e);
+			this.level0Count++;
+		} else if ((slot >> (2 * BITS)) == (this.cursor >> (2 * BITS))) {
+			this.level1[(int) ((slot >> BITS) & MASK)].add(e);
+		} else {
+			this.overflow.add(e);
+		}
+	}
+
+	/**
+	 * Moves all entries with a time up to <code>now</code> into the priority queue of due entries.
+	 */
+	private void collect(double now) {
+		long target = slotOf(now);
+		if (!this.started) {
+			this.started = true;
+			this.cursor = target;
+			for (Entry<T> e = this.staging.removeAll(); e != null; ) {
+				Entry<T> next = e.next;
+				place(e);
+				e = next;
+			}
+		}
+		this.collectedUntil = now;
+		long slot = this.cursor;
+		while (true) {
+			drainSlot(slot, now);
+			if (slot >= target) {
+				break;
+			}
+			if (this.wheelCount == 0) {
+				// nothing left, jump directly to the target
+				slot = target;
+				this.cursor = target;
+				continue;
+			}
+			if (this.level0Count == 0) {
+				// nothing left in the current block, continue at the start of the next one
+				slot = Math.min(((slot >> BITS) + 1) << BITS, target);
+			} else {
+				slot++;
+			}
+			advanceTo(slot);
+		}
+	}
+
+	private void advanceTo(long slot) {
+		long previous = this.cursor;
+		this.cursor = slot;
+		if ((slot >> BITS) == (previous >> BITS)) {
+			return;
+		}
+		// entered a new block: distribute the next level
+		if ((slot >> (2 * BITS)) != (previous >> (2 * BITS))) {
+			redistribute(this.overflow);
+		}
+		redistribute(this.level1[(int) ((slot >> BITS) & MASK)]);
+	}
+
+	private void redistribute(Bucket<T> bucket) {
+		for (Entry<T> e = bucket.removeAll(); e != null; ) {
+			Entry<T> next = e.next;
+			place(e);
+			e = next;
+		}
+	}
+
+	private void drainSlot(long slot, double now) {
+		Bucket<T> bucket = this.level0[(int) (slot & MASK)];
+		for (Entry<T> e = bucket.head; e != null; ) {
+			Entry<T> next = e.next;
+			if (e.time <= now) {
+				bucket.unlink(e);
+				this.level0Count--;
+				this.wheelCount--;
+				this.due.add(e);
+			}
+			e = next;
+		}
+	}
+
+}
@@ -20,16 +20,19 @@
 
 package org.matsim.core.mobsim.qsim.qnetsimengine;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.apache.log4j.Logger;
+import org.matsim.analysis.metrics.MetricsRegistry;
 import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.Scenario;
 import org.matsim.api.core.v01.events.PersonLeavesVehicleEvent;
 import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Node;
 import org.matsim.api.core.v01.population.Person;
 import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.config.Config;
@@ -50,6 +53,8 @@ import org.matsim.core.utils.misc.Time;
 import org.matsim.vehicles.Vehicle;
 import org.matsim.vis.snapshotwriters.SnapshotLinkWidthCalculator;
 
+import com.google.inject.Inject;
+
 /**
  * Coordinates the movement of vehicles on the links and the nodes.
  *
@@ -90,12 +95,22 @@ abstract class AbstractQNetsimEngine<A extends AbstractQNetsimEngineRunner> impl
 	private double infoTime = 0;
 	private List<A> engines;
 	private InternalInterface internalInterface = null;
+
+	private final QSimConfigGroup qsimConfig;
+	// replaces the partitioning from the config if bound
+	@Inject(optional = true) private QNodePartitioner nodePartitioner = null;
+	// only available if the engine is created by injection
+	@Inject(optional = true) private QNetsimEngineLoadStatistics loadStatistics = null;
+	// only available if metrics are enabled
+	@Inject(optional = true) private MetricsRegistry metrics = null;
+	private long[] nodeWork = null;
 	
 	AbstractQNetsimEngine(final QSim sim, QNetworkFactory netsimNetworkFactory) {
 		this.qsim = sim;
 
 		final Config config = sim.getScenario().getConfig();
 		final QSimConfigGroup qSimConfigGroup = config.qsim();
+		this.qsimConfig = qSimConfigGroup;
 
 		// configuring the car departure hander (including the vehicle behavior)
 		VehicleBehavior vehicleBehavior = qSimConfigGroup.getVehicleBehavior();
@@ -186,6 +201,8 @@ abstract class AbstractQNetsimEngine<A extends AbstractQNetsimEngineRunner> impl
 
 		finishMultiThreading();
 
+		finishLoadStatistics();
+
 		/* Reset vehicles on ALL links. We cannot iterate only over the active links
 		 * (this.simLinksArray), because there may be links that have vehicles only
 		 * in the buffer (such links are *not* active, as the buffer gets emptied
@@ -378,6 +395,55 @@ abstract class AbstractQNetsimEngine<A extends AbstractQNetsimEngineRunner> impl
 		this.internalInterface.arrangeNextAgentState(driver);
 	}
 
+	/**
+	 * To be called after all runners finished a phase (moving nodes or links) of a time step.
+	 */
+	protected final void accountRunnerPhase() {
+		long slowest = 0;
+		for (AbstractQNetsimEngineRunner runner : this.engines) {
+			slowest = Math.max(slowest, runner.phaseNanos);
+		}
+		for (AbstractQNetsimEngineRunner runner : this.engines) {
+			runner.busyNanos += runner.phaseNanos;
+			runner.idleNanos += slowest - runner.phaseNanos;
+			runner.phaseNanos = 0;
+		}
+	}
+
+	private void finishLoadStatistics() {
+		long[] busy = new long[this.engines.size()];
+		long[] idle = new long[this.engines.size()];
+		for (int i = 0; i < this.engines.size(); i++) {
+			busy[i] = this.engines.get(i).busyNanos;
+			idle[i] = this.engines.get(i).idleNanos;
+			log.info(String.format("QNetsimEngineRunner #%d: busy %d ms, idle %d ms", i, busy[i] / 1000000, idle[i] / 1000000));
+		}
+		if (this.metrics != null) {
+			// one value per runner, so the spread between min and max shows the load imbalance
+			for (int i = 0; i < busy.length; i++) {
+				this.metrics.timer("qsim.netsimEngine.runnerBusy").record(busy[i]);
+				this.metrics.timer("qsim.netsimEngine.runnerIdle").record(idle[i]);
+			}
+		}
+		if (this.loadStatistics != null) {
+			this.loadStatistics.finishMobsimRun(this.nodeWork, busy, idle);
+		}
+	}
+
+	private QNodePartitioner createNodePartitioner() {
+		if (this.nodePartitioner != null) {
+			return this.nodePartitioner;
+		}
+		switch (this.qsimConfig.getNodePartitioning()) {
+			case roundRobin:
+				return new RoundRobinQNodePartitioner();
+			case hilbertCurve:
+				return new HilbertCurveQNodePartitioner();
+			default:
+				throw new RuntimeException("Unknown node partitioning: " + this.qsimConfig.getNodePartitioning());
+		}
+	}
+
 	 /*
 	 * Within the MoveThreads Links are only activated when a Vehicle is moved
 	 * over a Node which is processed by that Thread. So we can assign each QLink
@@ -389,9 +455,34 @@ abstract class AbstractQNetsimEngine<A extends AbstractQNetsimEngineRunner> impl
 		int nodes[] = new int[this.engines.size()];
 		int links[] = new int[this.engines.size()];
 
-		int roundRobin = 0;
-		for (QNodeI node : network.getNetsimNodes().values()) {
-			int i = roundRobin % this.engines.size();
+		List<QNodeI> qNodes = new ArrayList<>(network.getNetsimNodes().values());
+		double[] observedWeights = this.loadStatistics == null ? null :
+				this.loadStatistics.getPartitionWeights(this.qsimConfig.getNodePartitioningRebalanceInterval());
+		List<Node> nodesToPartition = new ArrayList<>(qNodes.size());
+		double[] weights = new double[qNodes.size()];
+		for (int j = 0; j < weights.length; j++) {
+			Node node = qNodes.get(j).getNode();
+			nodesToPartition.add(node);
+			int index = node.getId().index();
+			if (observedWeights != null && index < observedWeights.length) {
+				weights[j] = observedWeights[index];
+			} else {
+				// without observations, assume that the work grows with the number of links to handle
+				weights[j] = 1 + node.getInLinks().size() + node.getOutLinks().size();
+			}
+		}
+		int[] runners = createNodePartitioner().partition(nodesToPartition, weights, this.engines.size());
+
+		if (this.loadStatistics != null) {
+			this.nodeWork = new long[Id.getNumberOfIds(Node.class)];
+			for (A engine : this.engines) {
+				engine.setNodeWork(this.nodeWork);
+			}
+		}
+
+		for (int j = 0; j < qNodes.size(); j++) {
+			QNodeI node = qNodes.get(j);
+			int i = runners[j];
 			if( node instanceof AbstractQNode){
 				((AbstractQNode) node).setNetElementActivationRegistry(this.engines.get(i));
 			}
@@ -418,8 +509,6 @@ abstract class AbstractQNetsimEngine<A extends AbstractQNetsimEngineRunner> impl
 				links[i]++;
 
 			}
-
-			roundRobin++;
 		}
 
 		// print some statistics
@@ -72,6 +72,13 @@ abstract class AbstractQNetsimEngineRunner extends NetElementActivationRegistry
 
 	/*package*/ long[] runTimes;
 	private long startTime = 0;
+
+	// work per node, indexed by Id<Node>.index(); shared by all runners, each only writes the entries of its own nodes
+	private long[] nodeWork = null;
+	// time spent in the last phase (moving nodes or links), and in total
+	/*package*/ long phaseNanos = 0;
+	/*package*/ long busyNanos = 0;
+	/*package*/ long idleNanos = 0;
 	{	
 		if (QSim.analyzeRunTimes) runTimes = new long[QNetsimEngineWithThreadpool.numObservedTimeSteps];
 		else runTimes = null;
@@ -90,6 +97,7 @@ abstract class AbstractQNetsimEngineRunner extends NetElementActivationRegistry
 		Iterator<QNodeI> simNodes = this.nodesQueue.iterator();
 		while (simNodes.hasNext()) {
 			node = simNodes.next();
+			if (nodeWork != null) nodeWork[node.getNode().getId().index()]++;
 			remainsActive = node.doSimStep(time);
 			if (!remainsActive) simNodes.remove();
 		}
@@ -103,6 +111,8 @@ abstract class AbstractQNetsimEngineRunner extends NetElementActivationRegistry
 		ListIterator<QLinkI> simLinks = this.linksList.listIterator();
 		while (simLinks.hasNext()) {
 			link = simLinks.next();
+			// links are handled by the runner of their from-node
+			if (nodeWork != null) nodeWork[link.getLink().getFromNode().getId().index()]++;
 
 			remainsActive = link.doSimStep();
 
@@ -149,6 +159,10 @@ abstract class AbstractQNetsimEngineRunner extends NetElementActivationRegistry
 		return this.nodesQueue.size();
 	}
 
+	/*package*/ final void setNodeWork(long[] nodeWork) {
+		this.nodeWork = nodeWork;
+	}
+
 	protected final void startMeasure() {
 		if (QSim.analyzeRunTimes) this.startTime = System.nanoTime();		
 	}
@@ -0,0 +1,107 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * HilbertCurveQNodePartitioner.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2022 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.qsim.qnetsimengine;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.network.Node;
+
+/**
+ * Sorts the nodes along a Hilbert curve over the bounding box of the network and cuts the curve into one
+ * contiguous piece per runner, such that every piece has about the same weight. Nodes that are close to each
+ * other mostly end up at the same runner, which reduces the number of links whose ends are handled by different
+ * runners and keeps the data of a runner close together in memory.
+ */
+public final class HilbertCurveQNodePartitioner implements QNodePartitioner {
+
+	// the curve has 2^ORDER x 2^ORDER cells
+	private static final int ORDER = 16;
+
+	@Override
+	public int[] partition(List<? extends Node> nodes, double[] weights, int numberOfRunners) {
+		int n = nodes.size();
+		double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+		for (Node node : nodes) {
+			Coord coord = node.getCoord();
+			minX = Math.min(minX, coord.getX());
+			maxX = Math.max(maxX, coord.getX());
+			minY = Math.min(minY, coord.getY());
+			maxY = Math.max(maxY, coord.getY());
+		}
+		double cells = (1 << ORDER) - 1;
+		double scaleX = maxX > minX ? cells / (maxX - minX) : 0;
+		double scaleY = maxY > minY ? cells / (maxY - minY) : 0;
+
+		long[] curvePositions = new long[n];
+		Integer[] order = new Integer[n];
+		double totalWeight = 0;
+		for (int i = 0; i < n; i++) {
+			Coord coord = nodes.get(i).getCoord();
+			int x = (int) ((coord.getX() - minX) * scaleX);
+			int y = (int) ((coord.getY() - minY) * scaleY);
+			curvePositions[i] = curvePosition(x, y);
+			order[i] = i;
+			totalWeight += weights[i];
+		}
+		// ties are broken by the original order to get the same partition in every run
+		Arrays.sort(order, Comparator.<Integer>comparingLong(i -> curvePositions[i]).thenComparingInt(i -> i));
+
+		int[] runners = new int[n];
+		double cumulatedWeight = 0;
+		int runner = 0;
+		for (int i : order) {
+			// move on to the next runner once the previous nodes have the share of all runners so far
+			while (runner < numberOfRunners - 1 && cumulatedWeight >= totalWeight * (runner + 1) / numberOfRunners) {
+				runner++;
+			}
+			runners[i] = runner;
+			cumulatedWeight += weights[i];
+		}
+		return runners;
+	}
+
+	/**
+	 * @return the position of cell (x, y) along the Hilbert curve.
+	 */
+	static long curvePosition(int x, int y) {
+		long d = 0;
+		for (int s = 1 << (ORDER - 1); s > 0; s >>= 1) {
+			int rx = (x & s) > 0 ? 1 : 0;
+			int ry = (y & s) > 0 ? 1 : 0;
+			d += (long) s * s * ((3 * rx) ^ ry);
+			// rotate the quadrant
+			if (ry == 0) {
+				if (rx == 1) {
+					x = s - 1 - x;
+					y = s - 1 - y;
+				}
+				int t = x;
+				x = y;
+				y = t;
+			}
+		}
+		return d;
+	}
+}
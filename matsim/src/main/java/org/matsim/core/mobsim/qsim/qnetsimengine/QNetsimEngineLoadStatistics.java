@@ -0,0 +1,85 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * QNetsimEngineLoadStatistics.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2022 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.qsim.qnetsimengine;
+
+import javax.inject.Singleton;
+
+/**
+ * Keeps the load of the {@link QNetsimEngineI} runners across mobsim runs (i.e. iterations), so that the nodes can be
+ * partitioned according to the work observed in the previous run, see
+ * {@link org.matsim.core.config.groups.QSimConfigGroup#getNodePartitioningRebalanceInterval()}.
+ * <p></p>
+ * The work of a node is the number of time steps in which the node or one of its out-links was active.
+ * Busy time is the time a runner spent moving its nodes and links, idle time the time it waited for the slowest runner.
+ */
+@Singleton
+public final class QNetsimEngineLoadStatistics {
+
+	private int mobsimRuns = 0;
+	// indexed by Id<Node>.index()
+	private double[] partitionWeights = null;
+	private long[] observedNodeWork = null;
+	private long[] runnerBusyNanos = new long[0];
+	private long[] runnerIdleNanos = new long[0];
+
+	/**
+	 * @return the weights to partition the nodes with in the upcoming mobsim run, indexed by <code>Id&lt;Node&gt;.index()</code>,
+	 * or <code>null</code> if the static weights should be used.
+	 */
+	/*package*/ double[] getPartitionWeights(int rebalanceInterval) {
+		if (rebalanceInterval > 0 && this.observedNodeWork != null && this.mobsimRuns % rebalanceInterval == 0) {
+			// nodes that were not active still get a small weight, they might be in the upcoming run
+			this.partitionWeights = new double[this.observedNodeWork.length];
+			for (int i = 0; i < this.observedNodeWork.length; i++) {
+				this.partitionWeights[i] = 1 + this.observedNodeWork[i];
+			}
+		}
+		return this.partitionWeights;
+	}
+
+	/*package*/ void finishMobsimRun(long[] nodeWork, long[] runnerBusyNanos, long[] runnerIdleNanos) {
+		this.observedNodeWork = nodeWork;
+		this.runnerBusyNanos = runnerBusyNanos;
+		this.runnerIdleNanos = runnerIdleNanos;
+		this.mobsimRuns++;
+	}
+
+	/**
+	 * @return the work per node observed in the last mobsim run, indexed by <code>Id&lt;Node&gt;.index()</code>.
+	 */
+	public long[] getObservedNodeWork() {
+		return this.observedNodeWork;
+	}
+
+	/**
+	 * @return the time each runner spent moving nodes and links in the last mobsim run, in nanoseconds.
+	 */
+	public long[] getRunnerBusyNanos() {
+		return this.runnerBusyNanos;
+	}
+
+	/**
+	 * @return the time each runner waited for the other runners in the last mobsim run, in nanoseconds.
+	 */
+	public long[] getRunnerIdleNanos() {
+		return this.runnerIdleNanos;
+	}
+}
@@ -28,7 +28,16 @@ public class QNetsimEngineModule extends AbstractQSimModule {
 	
 	@Override
 	protected void configureQSim() {
-		bind(QNetsimEngineI.class).to(QNetsimEngineWithThreadpool.class).asEagerSingleton();
+		switch (this.getConfig().qsim().getNetsimEngineThreading()) {
+			case threadpool:
+				bind(QNetsimEngineI.class).to(QNetsimEngineWithThreadpool.class).asEagerSingleton();
+				break;
+			case barriers:
+				bind(QNetsimEngineI.class).to(QNetsimEngineWithBarriers.class).asEagerSingleton();
+				break;
+			default:
+				throw new RuntimeException("Unknown netsim engine threading: " + this.getConfig().qsim().getNetsimEngineThreading());
+		}
 
 		bind(VehicularDepartureHandler.class).toProvider(QNetsimEngineDepartureHandlerProvider.class).asEagerSingleton();
 
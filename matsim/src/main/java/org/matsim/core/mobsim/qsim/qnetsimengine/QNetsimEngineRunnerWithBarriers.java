@@ -0,0 +1,94 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * QNetsimEngineRunnerWithBarriers.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2022 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.qsim.qnetsimengine;
+
+import java.util.concurrent.Phaser;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Runner of the {@link QNetsimEngineWithBarriers}. Its thread lives for the whole mobsim run and performs,
+ * for every time step, the same sequence as all other runners:
+ * <ol>
+ * <li>wait for the start of the time step,</li>
+ * <li>move the nodes, then wait for the others,</li>
+ * <li>move the links, then wait for the others.</li>
+ * </ol>
+ * The first runner is executed by the mobsim thread itself, see {@link #simStep()}.
+ */
+final class QNetsimEngineRunnerWithBarriers extends AbstractQNetsimEngineRunner implements Runnable {
+
+	private static final Logger log = Logger.getLogger(QNetsimEngineRunnerWithBarriers.class);
+
+	private volatile boolean simulationRunning = true;
+	private Phaser phaser;
+	private volatile Throwable failure = null;
+
+	/*package*/ void setPhaser(Phaser phaser) {
+		this.phaser = phaser;
+	}
+
+	@Override
+	public void run() {
+		try {
+			while (true) {
+				// wait for the start of the time step
+				if (this.phaser.arriveAndAwaitAdvance() < 0 || !this.simulationRunning) {
+					return;
+				}
+				simStep();
+			}
+		} catch (Throwable t) {
+			log.error("QNetsimEngineRunner failed", t);
+			this.failure = t;
+			// release all the others, they check for termination
+			this.phaser.forceTermination();
+		}
+	}
+
+	/**
+	 * Moves the nodes and the links, each followed by waiting for all the other runners.
+	 *
+	 * @return <code>false</code> if the barriers were terminated because some runner failed.
+	 */
+	/*package*/ boolean simStep() {
+		long start = System.nanoTime();
+		moveNodes();
+		this.phaseNanos = System.nanoTime() - start;
+		if (this.phaser.arriveAndAwaitAdvance() < 0) {
+			return false;
+		}
+
+		start = System.nanoTime();
+		moveLinks();
+		this.phaseNanos = System.nanoTime() - start;
+		return this.phaser.arriveAndAwaitAdvance() >= 0;
+	}
+
+	/*package*/ Throwable getFailure() {
+		return this.failure;
+	}
+
+	@Override
+	public void afterSim() {
+		this.simulationRunning = false;
+	}
+}
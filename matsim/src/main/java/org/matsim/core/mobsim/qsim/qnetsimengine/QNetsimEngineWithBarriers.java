@@ -0,0 +1,127 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * QNetsimEngineWithBarriers.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2022 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.qsim.qnetsimengine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Phaser;
+
+import javax.inject.Inject;
+
+import org.matsim.core.mobsim.qsim.QSim;
+
+/**
+ * Coordinates the movement of vehicles on the links and the nodes, like the {@link QNetsimEngineWithThreadpool}, but
+ * with threads that live for the whole mobsim run instead of submitting the runners to a thread pool twice per time step.
+ * The threads wait for each other at a {@link Phaser}, which spins for a short moment before parking a thread, so that
+ * the short waits of a time step do not go through the operating system. The mobsim thread executes the first runner
+ * itself.
+ * <p></p>
+ * This mostly pays off on small and mid-size networks, where the synchronization takes a considerable part of a time step.
+ */
+final class QNetsimEngineWithBarriers extends AbstractQNetsimEngine<QNetsimEngineRunnerWithBarriers> {
+
+	private final int numOfRunners;
+	private Phaser phaser;
+	private Thread[] threads;
+
+	public QNetsimEngineWithBarriers(final QSim sim) {
+		this(sim, null);
+	}
+
+	@Inject
+	public QNetsimEngineWithBarriers(final QSim sim, QNetworkFactory netsimNetworkFactory) {
+		super(sim, netsimNetworkFactory);
+		this.numOfRunners = this.numOfThreads;
+	}
+
+	@Override
+	protected List<QNetsimEngineRunnerWithBarriers> initQSimEngineRunners() {
+		List<QNetsimEngineRunnerWithBarriers> engines = new ArrayList<>();
+		for (int i = 0; i < numOfRunners; i++) {
+			engines.add(new QNetsimEngineRunnerWithBarriers());
+		}
+		return engines;
+	}
+
+	@Override
+	protected void initMultiThreading() {
+		List<QNetsimEngineRunnerWithBarriers> engines = this.getQnetsimEngineRunner();
+		// every time step has three phases: start, nodes moved, links moved
+		this.phaser = new Phaser(engines.size()) {
+			@Override
+			protected boolean onAdvance(int phase, int registeredParties) {
+				if (phase % 3 != 0) {
+					// executed by the last runner to arrive, before any runner continues
+					accountRunnerPhase();
+				}
+				return registeredParties == 0;
+			}
+		};
+		this.threads = new Thread[engines.size() - 1];
+		for (int i = 0; i < engines.size(); i++) {
+			engines.get(i).setPhaser(this.phaser);
+			if (i > 0) {
+				Thread thread = new Thread(engines.get(i), "QNetsimEngine_BarrierThread_" + i);
+				thread.setDaemon(true);
+				this.threads[i - 1] = thread;
+				thread.start();
+			}
+		}
+	}
+
+	@Override
+	protected void run(double time) {
+		for (AbstractQNetsimEngineRunner engine : this.getQnetsimEngineRunner()) {
+			engine.setTime(time);
+		}
+
+		QNetsimEngineRunnerWithBarriers ownRunner = this.getQnetsimEngineRunner().get(0);
+		boolean completed;
+		try {
+			completed = this.phaser.arriveAndAwaitAdvance() >= 0 && ownRunner.simStep();
+		} catch (RuntimeException | Error e) {
+			this.phaser.forceTermination();
+			throw e;
+		}
+		if (!completed) {
+			for (QNetsimEngineRunnerWithBarriers engine : this.getQnetsimEngineRunner()) {
+				if (engine.getFailure() != null) {
+					throw new RuntimeException(engine.getFailure());
+				}
+			}
+			throw new RuntimeException("QNetsimEngine barriers were terminated unexpectedly.");
+		}
+	}
+
+	@Override
+	protected void finishMultiThreading() {
+		// the runners were told to stop in afterSim(); release them from the start barrier
+		this.phaser.arrive();
+		try {
+			for (Thread thread : this.threads) {
+				thread.join();
+			}
+		} catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		}
+	}
+}
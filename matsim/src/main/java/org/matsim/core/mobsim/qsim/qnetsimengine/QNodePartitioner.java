@@ -0,0 +1,43 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * QNodePartitioner.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2022 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.qsim.qnetsimengine;
+
+import java.util.List;
+
+import org.matsim.api.core.v01.network.Node;
+
+/**
+ * Distributes the nodes of the {@link QNetwork} among the runners of the {@link QNetsimEngineI}. Each runner moves its
+ * nodes and the out-links of its nodes, so the runner with the most work determines the duration of a time step.
+ * <p></p>
+ * Bind an implementation in a QSim module to replace the partitioning selected in the config.
+ */
+public interface QNodePartitioner {
+
+	/**
+	 * @param nodes the nodes to distribute; the order is the same in every mobsim run.
+	 * @param weights the expected work of each node, in the same order as <code>nodes</code>.
+	 * @param numberOfRunners the number of runners.
+	 * @return the runner (from <code>0</code> to <code>numberOfRunners - 1</code>) of each node, in the same order as <code>nodes</code>.
+	 */
+	int[] partition(List<? extends Node> nodes, double[] weights, int numberOfRunners);
+
+}
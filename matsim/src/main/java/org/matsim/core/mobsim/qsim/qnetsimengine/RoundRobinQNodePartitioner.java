@@ -0,0 +1,40 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * RoundRobinQNodePartitioner.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2022 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.qsim.qnetsimengine;
+
+import java.util.List;
+
+import org.matsim.api.core.v01.network.Node;
+
+/**
+ * Assigns the nodes to the runners one after the other, ignoring their location and work.
+ */
+public final class RoundRobinQNodePartitioner implements QNodePartitioner {
+
+	@Override
+	public int[] partition(List<? extends Node> nodes, double[] weights, int numberOfRunners) {
+		int[] runners = new int[nodes.size()];
+		for (int i = 0; i < runners.length; i++) {
+			runners[i] = i % numberOfRunners;
+		}
+		return runners;
+	}
+}
@@ -0,0 +1,190 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * CompactActivityImpl.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2022 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.core.population;
+
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.population.Activity;
+import org.matsim.core.utils.misc.OptionalTime;
+import org.matsim.core.utils.misc.Time;
+import org.matsim.facilities.ActivityFacility;
+import org.matsim.utils.objectattributes.attributable.Attributes;
+
+/**
+ * Memory-saving variant of {@link ActivityImpl}, used by the compact population backend (see
+ * {@link org.matsim.core.config.groups.PlansConfigGroup.PopulationBackend#compact}). Times are stored as primitive
+ * doubles and the attributes are only created when first accessed
+ * through {@link #getAttributes()}; {@link PopulationUtils#hasAttributes} checks for attributes without creating them.
+ */
+/* deliberately package */ final class CompactActivityImpl implements Activity {
+
+	private double endTime = CompactTimes.UNDEFINED;
+
+	/**
+	 * Used for reporting outcomes in the scoring. Not interpreted for the demand.
+	 */
+	private double startTime = CompactTimes.UNDEFINED;
+
+	private double dur = CompactTimes.UNDEFINED;
+
+	private String type;
+	private Coord coord = null;
+	private Id<Link> linkId = null;
+	private Id<ActivityFacility> facilityId = null;
+
+	private Attributes attributes = null;
+
+	/*package*/ CompactActivityImpl(final String type) {
+		this.type = type.intern();
+	}
+
+	@Override
+	public OptionalTime getEndTime() {
+		return CompactTimes.toOptionalTime(this.endTime);
+	}
+
+	@Override
+	public void setEndTime(final double endTime) {
+		this.endTime = CompactTimes.checkDefined(endTime);
+	}
+
+	@Override
+	public void setEndTimeUndefined() {
+		this.endTime = CompactTimes.UNDEFINED;
+	}
+
+	/**
+	 * Used for reporting outcomes in the scoring. Not interpreted for the demand.
+	 */
+	@Override
+	public OptionalTime getStartTime() {
+		return CompactTimes.toOptionalTime(this.startTime);
+	}
+
+	/**
+	 * Used for reporting outcomes in the scoring. Not interpreted for the demand.
+	 */
+	@Override
+	public void setStartTime(final double startTime) {
+		this.startTime = CompactTimes.checkDefined(startTime);
+	}
+
+	@Override
+	public void setStartTimeUndefined() {
+		this.startTime = CompactTimes.UNDEFINED;
+	}
+
+	@Override
+	public OptionalTime getMaximumDuration() {
+		return CompactTimes.toOptionalTime(this.dur);
+	}
+
+	@Override
+	public void setMaximumDuration(final double dur) {
+		this.dur = CompactTimes.checkDefined(dur);
+	}
+
+	@Override
+	public void setMaximumDurationUndefined() {
+		this.dur = CompactTimes.UNDEFINED;
+	}
+
+	@Override
+	public String getType() {
+		return this.type;
+	}
+
+	@Override
+	public void setType(final String type) {
+		this.type = type.intern();
+	}
+
+	@Override
+	public Coord getCoord() {
+		return this.coord;
+	}
+
+	@Override
+	public void setCoord(final Coord coord) {
+		this.coord = coord;
+	}
+
+	@Override
+	public Id<Link> getLinkId() {
+		return this.linkId;
+	}
+
+	@Override
+	public void setLinkId(final Id<Link> linkId) {
+		this.linkId = linkId;
+	}
+
+	@Override
+	public Id<ActivityFacility> getFacilityId() {
+		return this.facilityId;
+	}
+
+	@Override
+	public void setFacilityId(final Id<ActivityFacility> facilityId) {
+		this.facilityId = facilityId;
+	}
+
+	@Override
+	public Attributes getAttributes() {
+		if (this.attributes == null) {
+			this.attributes = new Attributes();
+		}
+		return this.attributes;
+	}
+
+	/**
+	 * @return the attributes, or null if they have not been created yet
+	 */
+	/* package */ Attributes getAttributesIfCreated() {
+		return this.attributes;
+	}
+
+	@Override
+	public String toString() {
+		return "act [type="
+				+ this.getType()
+				+ "]"
+				+ "[coord="
+				+ this.getCoord()
+				+ "]"
+				+ "[linkId="
+				+ this.linkId
+				+ "]"
+				+ "[startTime="
+				+ Time.writeTime(getStartTime())
+				+ "]"
+				+ "[endTime="
+				+ Time.writeTime(getEndTime())
+				+ "]"
+				+ "[duration="
+				+ Time.writeTime(getMaximumDuration())
+				+ "]"
+				+ "[facilityId="
+				+ this.facilityId + "]" ;
+	}
+}
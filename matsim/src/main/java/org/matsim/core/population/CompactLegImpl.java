@@ -0,0 +1,140 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * CompactLegImpl.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2022 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.core.population;
+
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.api.core.v01.population.Route;
+import org.matsim.core.router.TripStructureUtils;
+import org.matsim.core.utils.misc.OptionalTime;
+import org.matsim.core.utils.misc.Time;
+import org.matsim.utils.objectattributes.attributable.Attributes;
+
+/**
+ * Memory-saving variant of {@link LegImpl}, used by the compact population backend (see
+ * {@link org.matsim.core.config.groups.PlansConfigGroup.PopulationBackend#compact}). Times are stored as primitive
+ * doubles and the attributes are only created when first accessed
+ * through {@link #getAttributes()}; {@link PopulationUtils#hasAttributes} checks for attributes without creating them.
+ */
+/* deliberately package */ final class CompactLegImpl implements Leg {
+
+	private Route route = null;
+
+	private double depTime = CompactTimes.UNDEFINED;
+	private double travTime = CompactTimes.UNDEFINED;
+	private String mode;
+
+	private Attributes attributes = null;
+
+	/* deliberately package */ CompactLegImpl(final String transportMode) {
+		this.mode = transportMode;
+	}
+
+	@Override
+	public String getMode() {
+		return this.mode;
+	}
+
+	@Override
+	public void setMode(String transportMode) {
+		this.mode = transportMode;
+		if (this.attributes != null) {
+			// same as in LegImpl; without attributes, there is no routing mode to reset
+			TripStructureUtils.setRoutingMode(this, null);
+		}
+	}
+
+	@Override
+	public OptionalTime getDepartureTime() {
+		return CompactTimes.toOptionalTime(this.depTime);
+	}
+
+	@Override
+	public void setDepartureTime(final double depTime) {
+		this.depTime = CompactTimes.checkDefined(depTime);
+	}
+
+	@Override
+	public void setDepartureTimeUndefined() {
+		this.depTime = CompactTimes.UNDEFINED;
+	}
+
+	@Override
+	public OptionalTime getTravelTime() {
+		return CompactTimes.toOptionalTime(this.travTime);
+	}
+
+	@Override
+	public void setTravelTime(final double travTime) {
+		this.travTime = CompactTimes.checkDefined(travTime);
+	}
+
+	@Override
+	public void setTravelTimeUndefined() {
+		this.travTime = CompactTimes.UNDEFINED;
+	}
+
+	@Override
+	public Route getRoute() {
+		return this.route;
+	}
+
+	@Override
+	public void setRoute(Route route) {
+		this.route = route;
+	}
+
+	@Override
+	public Attributes getAttributes() {
+		if (this.attributes == null) {
+			this.attributes = new Attributes();
+		}
+		return this.attributes;
+	}
+
+	/**
+	 * @return the attributes, or null if they have not been created yet
+	 */
+	/* package */ Attributes getAttributesIfCreated() {
+		return this.attributes;
+	}
+
+	@Override
+	public String toString() {
+		return "leg [mode="
+				+ this.getMode()
+				+ "]"
+				+ "[depTime="
+				+ Time.writeTime(this.getDepartureTime())
+				+ "]"
+				+ "[travTime="
+				+ Time.writeTime(this.getTravelTime())
+				+ "]"
+				+ "[arrTime="
+				+ (depTime != CompactTimes.UNDEFINED && travTime != CompactTimes.UNDEFINED ?
+				Time.writeTime(depTime + travTime) :
+				Time.writeTime(OptionalTime.undefined()))
+				+ "]"
+				+ "[route="
+				+ this.route
+				+ "]";
+	}
+}
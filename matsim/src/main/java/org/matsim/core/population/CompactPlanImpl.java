@@ -0,0 +1,142 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * CompactPlanImpl.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2022 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.core.population;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.matsim.api.core.v01.population.Activity;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Plan;
+import org.matsim.api.core.v01.population.PlanElement;
+import org.matsim.utils.objectattributes.attributable.Attributes;
+
+/**
+ * Memory-saving variant of {@link PlanImpl}, used by the compact population backend (see
+ * {@link org.matsim.core.config.groups.PlansConfigGroup.PopulationBackend#compact}). The attributes are only created
+ * when first accessed through {@link #getAttributes()}; {@link PopulationUtils#hasAttributes} checks for attributes
+ * without creating them.
+ */
+/* deliberately package */ final class CompactPlanImpl implements Plan {
+
+	private final ArrayList<PlanElement> actsLegs = new ArrayList<>();
+
+	private Double score = null;
+	private Person person = null;
+
+	private String type = null;
+
+	private Map<String, Object> customAttributes = null;
+
+	private Attributes attributes = null;
+
+	/* package */ CompactPlanImpl() {
+	}
+
+	@Override
+	public Attributes getAttributes() {
+		if (this.attributes == null) {
+			this.attributes = new Attributes();
+		}
+		return this.attributes;
+	}
+
+	/**
+	 * @return the attributes, or null if they have not been created yet
+	 */
+	/* package */ Attributes getAttributesIfCreated() {
+		return this.attributes;
+	}
+
+	@Override
+	public Person getPerson() {
+		return this.person;
+	}
+
+	@Override
+	public void setPerson(final Person person) {
+		this.person = person;
+	}
+
+	@Override
+	public Double getScore() {
+		return this.score;
+	}
+
+	@Override
+	public void setScore(final Double score) {
+		this.score = score;
+	}
+
+	@Override
+	public String getType() {
+		return this.type;
+	}
+
+	@Override
+	public void setType(final String type) {
+		this.type = type;
+	}
+
+	@Override
+	public List<PlanElement> getPlanElements() {
+		return this.actsLegs;
+	}
+
+	@Override
+	public void addLeg(final Leg leg) {
+		this.actsLegs.add(leg);
+	}
+
+	@Override
+	public void addActivity(final Activity act) {
+		this.actsLegs.add(act);
+	}
+
+	@Override
+	public String toString() {
+		String scoreString = "undefined";
+		if (this.getScore() != null) {
+			scoreString = this.getScore().toString();
+		}
+		String personIdString = "undefined";
+		if (this.getPerson() != null) {
+			personIdString = this.getPerson().getId().toString();
+		}
+
+		return "[score=" + scoreString + "]" +
+				"[nof_acts_legs=" + getPlanElements().size() + "]" +
+				"[type=" + this.type + "]" +
+				"[personId=" + personIdString + "]";
+	}
+
+	@Override
+	public Map<String, Object> getCustomAttributes() {
+		if (this.customAttributes == null) {
+			this.customAttributes = new HashMap<>();
+		}
+		return this.customAttributes;
+	}
+}
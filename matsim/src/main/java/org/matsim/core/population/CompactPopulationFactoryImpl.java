@@ -0,0 +1,74 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * CompactPopulationFactoryImpl.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2022 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.core.population;
+
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.population.Activity;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.api.core.v01.population.Plan;
+import org.matsim.core.population.routes.RouteFactories;
+import org.matsim.facilities.ActivityFacility;
+
+/**
+ * Population factory of the compact population backend (see
+ * {@link org.matsim.core.config.groups.PlansConfigGroup.PopulationBackend#compact}). Creates memory-saving plans,
+ * activities and legs; persons and routes are created as with {@link PopulationFactoryImpl}.
+ */
+/* deliberately package */ final class CompactPopulationFactoryImpl extends PopulationFactoryImpl {
+
+	CompactPopulationFactoryImpl(RouteFactories routeFactory) {
+		super(routeFactory);
+	}
+
+	@Override
+	public Plan createPlan() {
+		return new CompactPlanImpl();
+	}
+
+	@Override
+	public Activity createActivityFromCoord(final String actType, final Coord coord) {
+		Activity act = new CompactActivityImpl(actType);
+		act.setCoord(coord);
+		return act;
+	}
+
+	@Override
+	public Activity createActivityFromLinkId(final String actType, final Id<Link> linkId) {
+		Activity act = new CompactActivityImpl(actType);
+		act.setLinkId(linkId);
+		return act;
+	}
+
+	@Override
+	public Activity createActivityFromActivityFacilityId(String actType, Id<ActivityFacility> activityFacilityId) {
+		Activity act = new CompactActivityImpl(actType);
+		act.setFacilityId(activityFacilityId);
+		return act;
+	}
+
+	@Override
+	public Leg createLeg(final String legMode) {
+		return new CompactLegImpl(legMode);
+	}
+}
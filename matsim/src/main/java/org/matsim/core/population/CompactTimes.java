@@ -0,0 +1,52 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * CompactTimes.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2022 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.core.population;
+
+import org.matsim.core.utils.misc.OptionalTime;
+
+/**
+ * Helpers for the compact plan elements, which store times as primitive doubles (with {@link #UNDEFINED} as the
+ * sentinel for undefined times) instead of {@link OptionalTime} instances.
+ */
+/* deliberately package */ final class CompactTimes {
+
+	static final double UNDEFINED = Double.NEGATIVE_INFINITY;
+
+	private CompactTimes() {
+	}
+
+	/**
+	 * Same checks as in {@link OptionalTime#defined(double)}, but without creating an instance.
+	 */
+	static double checkDefined(double seconds) {
+		if (seconds == UNDEFINED) {
+			throw new IllegalArgumentException("Undefined time is not allowed");
+		} else if (Double.isNaN(seconds)) {
+			throw new IllegalArgumentException("NaN time is not allowed");
+		}
+		return seconds;
+	}
+
+	static OptionalTime toOptionalTime(double seconds) {
+		return seconds == UNDEFINED ? OptionalTime.undefined() : OptionalTime.defined(seconds);
+	}
+}
@@ -80,7 +80,9 @@ import org.matsim.utils.objectattributes.attributable.Attributes;
 		if (oldPlan == null) {
 			return null;
 		}
-		Plan newPlan = PopulationUtils.createPlan(oldPlan.getPerson());
+		// create the copy with the same kind of plan, e.g. of the compact population backend
+		Plan newPlan = PopulationUtils.getFactory(oldPlan).createPlan();
+		newPlan.setPerson(oldPlan.getPerson());
 		PopulationUtils.copyFromTo(oldPlan, newPlan);
 		this.getPlans().add(newPlan);
 		this.setSelectedPlan(newPlan);
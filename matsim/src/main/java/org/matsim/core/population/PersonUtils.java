@@ -27,6 +27,7 @@ import java.util.TreeSet;
 import org.apache.log4j.Logger;
 import org.matsim.api.core.v01.population.Person;
 import org.matsim.api.core.v01.population.Plan;
+import org.matsim.api.core.v01.population.PopulationFactory;
 
 public final class PersonUtils {
     private PersonUtils() {
@@ -43,7 +44,16 @@ public final class PersonUtils {
 
     @Deprecated // use methods of interface Person
     public static Plan createAndAddPlan(Person person, final boolean selected) {
-        Plan p = PopulationUtils.createPlan(person);
+        return createAndAddPlan(PopulationUtils.getFactory(), person, selected);
+    }
+
+    /**
+     * Same as {@link #createAndAddPlan(Person, boolean)}, but the plan is created by the given factory (e.g. the one
+     * of the population the person belongs to).
+     */
+    public static Plan createAndAddPlan(PopulationFactory factory, Person person, final boolean selected) {
+        Plan p = factory.createPlan();
+        p.setPerson(person);
         person.addPlan(p);
         if (selected) {
             person.setSelectedPlan(p);
@@ -59,6 +59,7 @@ import org.matsim.core.population.io.PopulationReader;
 import org.matsim.core.population.io.PopulationWriter;
 import org.matsim.core.population.io.StreamingPopulationReader;
 import org.matsim.core.population.routes.CompressedNetworkRouteFactory;
+import org.matsim.core.population.routes.IndexedNetworkRouteFactory;
 import org.matsim.core.population.routes.LinkNetworkRouteFactory;
 import org.matsim.core.population.routes.NetworkRoute;
 import org.matsim.core.population.routes.RouteFactories;
@@ -84,6 +85,7 @@ public final class PopulationUtils {
 	private static final Logger log = Logger.getLogger( PopulationUtils.class );
 //	private static final PopulationFactory populationFactory = ScenarioUtils.createScenario( ConfigUtils.createConfig() ).getPopulation().getFactory() ;
 	private static final PopulationFactory populationFactory = createPopulation( new PlansConfigGroup(), null  ).getFactory() ;
+	private static final PopulationFactory compactPopulationFactory = new CompactPopulationFactoryImpl( new RouteFactories() ) ;
 	// try to avoid misleading comment about config context.  kai, dec'18
 
 	/**
@@ -128,16 +130,19 @@ public final class PopulationUtils {
 		// yyyy my intuition would be to rather get this out of a standard scenario. kai, jun'16
 		RouteFactories routeFactory = new RouteFactories();
 		String networkRouteType = plansConfigGroup.getNetworkRouteType();
+		boolean compact = plansConfigGroup.getPopulationBackend() == PlansConfigGroup.PopulationBackend.compact;
 		RouteFactory factory;
 		if (PlansConfigGroup.NetworkRouteType.LinkNetworkRoute.equals(networkRouteType)) {
-			factory = new LinkNetworkRouteFactory();
+			factory = compact ? new IndexedNetworkRouteFactory() : new LinkNetworkRouteFactory();
 		} else if (PlansConfigGroup.NetworkRouteType.CompressedNetworkRoute.equals(networkRouteType) && network != null) {
 			factory = new CompressedNetworkRouteFactory(network);
 		} else {
 			throw new IllegalArgumentException("The type \"" + networkRouteType + "\" is not a supported type for network routes.");
 		}
 		routeFactory.setRouteFactory(NetworkRoute.class, factory);
-		return new PopulationImpl(new PopulationFactoryImpl(routeFactory));
+		return new PopulationImpl(compact ?
+				new CompactPopulationFactoryImpl(routeFactory) :
+				new PopulationFactoryImpl(routeFactory));
 	}
 
 	//	public static Population createStreamingPopulation(PlansConfigGroup plansConfigGroup, Network network) {
@@ -748,6 +753,36 @@ public final class PopulationUtils {
 		return populationFactory ;
 	}
 
+	/**
+	 * Plan elements added to a plan of the compact population backend, and copies of such plans, should be compact as well.
+	 */
+	/* package */ static PopulationFactory getFactory( Plan plan ) {
+		return plan instanceof CompactPlanImpl ? compactPopulationFactory : populationFactory ;
+	}
+
+	private static PopulationFactory getFactory( PlanElement planElement ) {
+		return planElement instanceof CompactActivityImpl || planElement instanceof CompactLegImpl ? compactPopulationFactory : populationFactory ;
+	}
+
+	/**
+	 * Checks whether there are any attributes without creating them. Plans and plan elements of the compact population
+	 * backend only create their attributes when {@link Attributable#getAttributes()} is first called, so code that only
+	 * reads attributes of all elements (e.g. writers) should check this first.
+	 */
+	public static boolean hasAttributes( Attributable attributable ) {
+		Attributes attributes;
+		if ( attributable instanceof CompactActivityImpl ) {
+			attributes = ((CompactActivityImpl) attributable).getAttributesIfCreated() ;
+		} else if ( attributable instanceof CompactLegImpl ) {
+			attributes = ((CompactLegImpl) attributable).getAttributesIfCreated() ;
+		} else if ( attributable instanceof CompactPlanImpl ) {
+			attributes = ((CompactPlanImpl) attributable).getAttributesIfCreated() ;
+		} else {
+			attributes = attributable.getAttributes() ;
+		}
+		return attributes != null && !attributes.isEmpty() ;
+	}
+
 	// --- plain factories: 
 
 	public static Plan createPlan(Person person) {
@@ -781,18 +816,18 @@ public final class PopulationUtils {
 	// createAndAdd methods:
 
 	public static Activity createAndAddActivityFromFacilityId(Plan plan, String type, Id<ActivityFacility> facilityId) {
-		Activity act = getFactory().createActivityFromActivityFacilityId(type, facilityId);
+		Activity act = getFactory(plan).createActivityFromActivityFacilityId(type, facilityId);
 		plan.addActivity(act);
 		return act;
 	}
 	public static Activity createAndAddActivityFromCoord( Plan plan, String type, Coord coord ) {
-		Activity act = getFactory().createActivityFromCoord(type, coord) ;
+		Activity act = getFactory(plan).createActivityFromCoord(type, coord) ;
 		plan.addActivity(act);
 		act.setCoord(coord);
 		return act ;
 	}
 	public static Activity createAndAddActivityFromLinkId( Plan plan, String type, Id<Link> linkId ) {
-		Activity act = getFactory().createActivityFromLinkId(type, linkId) ;
+		Activity act = getFactory(plan).createActivityFromLinkId(type, linkId) ;
 		plan.addActivity(act);
 		act.setLinkId(linkId);
 		return act ;
@@ -800,7 +835,7 @@ public final class PopulationUtils {
 
 	public static Leg createAndAddLeg(Plan plan, String mode) {
 		verifyCreateLeg( plan ) ;
-		Leg leg = getFactory().createLeg(mode) ;
+		Leg leg = getFactory(plan).createLeg(mode) ;
 		plan.addLeg( leg );
 		return leg ;
 	}
@@ -811,7 +846,7 @@ public final class PopulationUtils {
 	}
 
 	public static Activity createAndAddActivity(Plan plan, String type) {
-		Activity act = new ActivityImpl( type ) ;
+		Activity act = plan instanceof CompactPlanImpl ? new CompactActivityImpl( type ) : new ActivityImpl( type ) ;
 		// (can't do this from the factory since factory method only exists with coord or with linkId. kai, jun'16)
 		plan.addActivity(act);
 		return act ;
@@ -835,11 +870,12 @@ public final class PopulationUtils {
 		out.getPlanElements().clear();
 		out.setScore(in.getScore());
 		out.setType(in.getType());
+		PopulationFactory factory = getFactory( out ) ;
 		for (PlanElement pe : in.getPlanElements()) {
 			if (pe instanceof Activity) {
-				out.getPlanElements().add(createActivity((Activity) pe));
+				out.getPlanElements().add( createActivity( factory, (Activity) pe ) ) ;
 			} else if (pe instanceof Leg) {
-				out.getPlanElements().add( createLeg( (Leg) pe ) ) ;
+				out.getPlanElements().add( createLeg( factory, (Leg) pe ) ) ;
 			} else {
 				throw new IllegalArgumentException("unrecognized plan element type discovered");
 			}
@@ -875,7 +911,11 @@ public final class PopulationUtils {
 	// --- copy factories:
 
 	public static Activity createActivity(Activity act) {
-		Activity newAct = getFactory().createActivityFromLinkId(act.getType(), act.getLinkId()) ;
+		return createActivity( getFactory( act ), act ) ;
+	}
+
+	private static Activity createActivity(PopulationFactory factory, Activity act) {
+		Activity newAct = factory.createActivityFromLinkId(act.getType(), act.getLinkId()) ;
 
 		copyFromTo(act, newAct);
 		// (this ends up setting type and linkId again)
@@ -894,7 +934,11 @@ public final class PopulationUtils {
 	 * @param leg
 	 */
 	public static Leg createLeg(Leg leg) {
-		Leg newLeg = createLeg( leg.getMode() ) ;
+		return createLeg( getFactory( leg ), leg ) ;
+	}
+
+	private static Leg createLeg(PopulationFactory factory, Leg leg) {
+		Leg newLeg = factory.createLeg( leg.getMode() ) ;
 
 		copyFromTo( leg, newLeg ) ;
 		// (this ends up setting mode again)
@@ -0,0 +1,229 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * ParallelPopulationReaderMatsimV6.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2022 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.core.population.io;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Stack;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.apache.log4j.Logger;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.population.PopulationUtils;
+import org.matsim.utils.objectattributes.AttributeConverter;
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.AttributesImpl;
+
+/**
+ * Parallel implementation of the PopulationReaderMatsimV6. The main thread only decompresses and
+ * tokenizes the file, creates empty person objects and adds them to the population to ensure that
+ * their order is not changed. The xml data of the persons is collected in chunks which are handed
+ * over to worker threads through a bounded queue, so only a limited number of persons is kept in
+ * memory as raw xml data at any time. The workers build the plans, routes and attributes of the
+ * persons exactly as the sequential reader does.
+ *
+ * Note that this approach is not compatible with population streaming, use the non-parallel reader
+ * in that case.
+ */
+/* deliberately package */ class ParallelPopulationReaderMatsimV6 extends PopulationReaderMatsimV6 {
+
+	private static final Logger log = Logger.getLogger(ParallelPopulationReaderMatsimV6.class);
+
+	/* package */ static final int PERSONS_PER_CHUNK = 100;
+	private static final int CHUNKS_PER_THREAD = 4;
+
+	/* package */ static final List<Tag> END_OF_DATA = new ArrayList<>();
+
+	private final Scenario scenario;
+	private final int numThreads;
+	private final BlockingQueue<List<Tag>> queue;
+	private final Map<Class<?>, AttributeConverter<?>> attributeConverters = new HashMap<>();
+
+	private ParallelPopulationReaderMatsimV6Runner[] runners = null;
+	private Thread[] threads = null;
+	private List<Tag> currentChunk = null;
+	private int personsInCurrentChunk = 0;
+	private boolean inPerson = false;
+
+	ParallelPopulationReaderMatsimV6(
+			final String inputCRS,
+			final String targetCRS,
+			final Scenario scenario,
+			final int numThreads) {
+		super(inputCRS, targetCRS, scenario);
+		this.scenario = scenario;
+		this.numThreads = Math.max(1, numThreads);
+		this.queue = new ArrayBlockingQueue<>(this.numThreads * CHUNKS_PER_THREAD);
+	}
+
+	@Override
+	public void putAttributeConverter(final Class<?> clazz, AttributeConverter<?> converter) {
+		super.putAttributeConverter(clazz, converter);
+		this.attributeConverters.put(clazz, converter);
+	}
+
+	@Override
+	public void putAttributeConverters(final Map<Class<?>, AttributeConverter<?>> converters) {
+		super.putAttributeConverters(converters);
+		this.attributeConverters.putAll(converters);
+	}
+
+	/*
+	 * The threads are only started with the first person, as the population attributes
+	 * may still change the coordinate transformation to be used.
+	 */
+	private void initThreads() {
+		log.info("Start parallel population reading with " + this.numThreads + " threads...");
+		this.runners = new ParallelPopulationReaderMatsimV6Runner[this.numThreads];
+		this.threads = new Thread[this.numThreads];
+		for (int i = 0; i < this.numThreads; i++) {
+			ParallelPopulationReaderMatsimV6Runner runner =
+					new ParallelPopulationReaderMatsimV6Runner(
+							this.coordinateTransformation,
+							this.scenario,
+							this.queue);
+			runner.putAttributeConverters(this.attributeConverters);
+			Thread thread = new Thread(runner);
+			thread.setDaemon(true);
+			thread.setName(ParallelPopulationReaderMatsimV6Runner.class.getSimpleName() + i);
+			this.runners[i] = runner;
+			this.threads[i] = thread;
+			thread.start();
+		}
+	}
+
+	@Override
+	public void startTag(final String name, final Attributes atts, final Stack<String> context) {
+		if (PERSON.equals(name)) {
+			if (this.threads == null) {
+				initThreads();
+			}
+			if (this.currentChunk == null) {
+				this.currentChunk = new ArrayList<>();
+			}
+			Person person = PopulationUtils.getFactory().createPerson(Id.create(atts.getValue("id"), Person.class));
+			this.scenario.getPopulation().addPerson(person);
+			this.currentChunk.add(new PersonTag(person));
+			this.inPerson = true;
+		}
+		if (this.inPerson) {
+			// We have to create copies of the attributes because the object is re-used by the parser!
+			this.currentChunk.add(new StartTag(name, new AttributesImpl(atts)));
+		} else {
+			super.startTag(name, atts, context);
+		}
+	}
+
+	@Override
+	public void endTag(final String name, final String content, final Stack<String> context) {
+		if (this.inPerson) {
+			this.currentChunk.add(new EndTag(name, content));
+			if (PERSON.equals(name)) {
+				this.inPerson = false;
+				this.personsInCurrentChunk++;
+				if (this.personsInCurrentChunk == PERSONS_PER_CHUNK) {
+					put(this.currentChunk);
+					this.currentChunk = null;
+					this.personsInCurrentChunk = 0;
+				}
+			}
+		} else {
+			if (POPULATION.equals(name) && this.threads != null) {
+				finishThreads();
+			}
+			super.endTag(name, content, context);
+		}
+	}
+
+	private void finishThreads() {
+		if (this.currentChunk != null) {
+			put(this.currentChunk);
+			this.currentChunk = null;
+		}
+		// signal the threads that they should end parsing
+		for (int i = 0; i < this.numThreads; i++) {
+			put(END_OF_DATA);
+		}
+		// wait for the threads to finish
+		try {
+			for (Thread thread : this.threads) {
+				thread.join();
+			}
+		} catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		}
+		for (ParallelPopulationReaderMatsimV6Runner runner : this.runners) {
+			if (runner.getException() != null) {
+				throw new RuntimeException("Error while reading population in parallel.", runner.getException());
+			}
+		}
+		log.info("Finished parallel population reading...");
+	}
+
+	private void put(List<Tag> chunk) {
+		try {
+			this.queue.put(chunk);
+		} catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/* package */ abstract static class Tag {
+		final String name;
+
+		Tag(String name) {
+			this.name = name;
+		}
+	}
+
+	/* package */ static final class StartTag extends Tag {
+		final Attributes atts;
+
+		StartTag(String name, Attributes atts) {
+			super(name);
+			this.atts = atts;
+		}
+	}
+
+	/* package */ static final class EndTag extends Tag {
+		final String content;
+
+		EndTag(String name, String content) {
+			super(name);
+			this.content = content;
+		}
+	}
+
+	/* package */ static final class PersonTag extends Tag {
+		final Person person;
+
+		PersonTag(Person person) {
+			super(PERSON);
+			this.person = person;
+		}
+	}
+}
@@ -0,0 +1,112 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * ParallelPopulationReaderMatsimV6Runner.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2022 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.core.population.io;
+
+import java.util.List;
+import java.util.Stack;
+import java.util.concurrent.BlockingQueue;
+
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.core.population.io.ParallelPopulationReaderMatsimV6.EndTag;
+import org.matsim.core.population.io.ParallelPopulationReaderMatsimV6.PersonTag;
+import org.matsim.core.population.io.ParallelPopulationReaderMatsimV6.StartTag;
+import org.matsim.core.population.io.ParallelPopulationReaderMatsimV6.Tag;
+import org.matsim.core.utils.geometry.CoordinateTransformation;
+
+/**
+ * Runnable used by ParallelPopulationReaderMatsimV6.
+ * Processes chunks of xml data taken from a BlockingQueue which is filled
+ * in the main class.
+ */
+/* deliberately package */ class ParallelPopulationReaderMatsimV6Runner extends PopulationReaderMatsimV6 implements Runnable {
+
+	private final BlockingQueue<List<Tag>> queue;
+	private final Stack<String> context = new Stack<>();
+	private volatile RuntimeException exception = null;
+
+	ParallelPopulationReaderMatsimV6Runner(
+			final CoordinateTransformation coordinateTransformation,
+			final Scenario scenario,
+			final BlockingQueue<List<Tag>> queue) {
+		super(null, null, scenario);
+		this.coordinateTransformation = coordinateTransformation;
+		this.queue = queue;
+		this.context.push(POPULATION);
+	}
+
+	/**
+	 * @return the exception that stopped this runner, or <code>null</code> if everything went fine.
+	 */
+	RuntimeException getException() {
+		return this.exception;
+	}
+
+	@Override
+	public void run() {
+		/*
+		 * The thread will go on with the parsing until the end of data marker is found.
+		 * After an exception, the remaining data is only consumed, so the main thread is
+		 * never blocked by a full queue.
+		 */
+		while (true) {
+			List<Tag> tags;
+			try {
+				tags = this.queue.take();
+			} catch (InterruptedException e) {
+				this.exception = new RuntimeException(e);
+				return;
+			}
+			if (tags == ParallelPopulationReaderMatsimV6.END_OF_DATA) {
+				return;
+			}
+			if (this.exception != null) {
+				continue;
+			}
+			try {
+				for (Tag tag : tags) {
+					process(tag);
+				}
+			} catch (RuntimeException e) {
+				this.exception = e;
+			}
+		}
+	}
+
+	private void process(Tag tag) {
+		if (tag instanceof PersonTag) {
+			this.currperson = ((PersonTag) tag).person;
+		} else if (tag instanceof StartTag) {
+			// the person was already created and added to the population by the main thread
+			if (!PERSON.equals(tag.name)) {
+				this.startTag(tag.name, ((StartTag) tag).atts, this.context);
+			}
+			this.context.push(tag.name);
+		} else if (tag instanceof EndTag) {
+			this.context.pop();
+			if (PERSON.equals(tag.name)) {
+				this.currperson = null;
+			} else {
+				this.endTag(tag.name, ((EndTag) tag).content, this.context);
+			}
+		}
+	}
+}
@@ -38,6 +38,7 @@ import org.matsim.api.core.v01.population.PlanElement;
 import org.matsim.api.core.v01.population.Population;
 import org.matsim.api.core.v01.population.Route;
 import org.matsim.core.population.PersonUtils;
+import org.matsim.core.population.PopulationUtils;
 import org.matsim.core.population.routes.NetworkRoute;
 import org.matsim.core.utils.geometry.CoordinateTransformation;
 import org.matsim.core.utils.io.MatsimXmlWriter;
@@ -152,7 +153,9 @@ import org.matsim.vehicles.Vehicle;
 		}
 		out.write(">\n");
 		
-		this.attributesWriter.writeAttributes( "\t\t\t\t" , out , plan.getAttributes() );
+		if ( PopulationUtils.hasAttributes( plan ) ) {
+			this.attributesWriter.writeAttributes( "\t\t\t\t" , out , plan.getAttributes() );
+		}
 
 	}
 
@@ -205,7 +208,9 @@ import org.matsim.vehicles.Vehicle;
 		}
 		out.write(" >\n");
 
-		this.attributesWriter.writeAttributes("\t\t\t\t", out, act.getAttributes());
+		if (PopulationUtils.hasAttributes(act)) {
+			this.attributesWriter.writeAttributes("\t\t\t\t", out, act.getAttributes());
+		}
 
 		out.write("\t\t\t</activity>\n");
 	}
@@ -236,7 +241,9 @@ import org.matsim.vehicles.Vehicle;
 
 		out.write(">\n");
 
-		this.attributesWriter.writeAttributes( "\t\t\t\t" , out , leg.getAttributes() );
+		if ( PopulationUtils.hasAttributes( leg ) ) {
+			this.attributesWriter.writeAttributes( "\t\t\t\t" , out , leg.getAttributes() );
+		}
 	}
 
 	private static void endLeg(final BufferedWriter out) throws IOException {
@@ -0,0 +1,210 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * IndexedNetworkRouteImpl.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2022 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.core.population.routes;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.vehicles.Vehicle;
+
+/**
+ * Implementation of {@link NetworkRoute} which internally stores the route as an array of link indices (see
+ * {@link Id#index()}). Compared to {@link LinkNetworkRouteImpl}, it needs 4 bytes per link instead of a reference
+ * plus the ArrayList overhead. The link ids are obtained via {@link Id#get(int, Class)}, so no network is required.
+ *
+ * The route is written and read exactly like {@link LinkNetworkRouteImpl} (same route type).
+ */
+final class IndexedNetworkRouteImpl extends AbstractRoute implements NetworkRoute {
+
+	private static final int[] EMPTY_ROUTE = new int[0];
+
+	// never modified in place, so it can be shared between clones
+	private int[] route = EMPTY_ROUTE;
+	private List<Id<Link>> linkIdsView = new LinkIdsView();
+	private double travelCost = Double.NaN;
+	private Id<Vehicle> vehicleId = null;
+
+	IndexedNetworkRouteImpl(final Id<Link> startLinkId, final Id<Link> endLinkId) {
+		super(startLinkId, endLinkId);
+	}
+
+	@Override
+	public IndexedNetworkRouteImpl clone() {
+		IndexedNetworkRouteImpl cloned = (IndexedNetworkRouteImpl) super.clone();
+		cloned.linkIdsView = cloned.new LinkIdsView(); // the view must refer to the cloned route
+		return cloned;
+	}
+
+	@Override
+	public List<Id<Link>> getLinkIds() {
+		return this.linkIdsView;
+	}
+
+	@Override
+	public NetworkRoute getSubRoute(Id<Link> fromLinkId, Id<Link> toLinkId) {
+		// same logic as in LinkNetworkRouteImpl
+		int fromIndex = -1;
+		int toIndex = -1;
+
+		if (fromLinkId.equals(this.getStartLinkId())) {
+			fromIndex = 0;
+		} else {
+			for (int i = 0, n = this.route.length; (i < n) && (fromIndex < 0); i++) {
+				if (fromLinkId.index() == this.route[i]) {
+					fromIndex = i + 1;
+				}
+			}
+			if (fromIndex < 0 && fromLinkId.equals(this.getEndLinkId())) {
+				fromIndex = this.route.length;
+			}
+			if (fromIndex < 0) {
+				throw new IllegalArgumentException("Cannot create subroute because fromLinkId is not part of the route.");
+			}
+		}
+
+		if (fromLinkId.equals(toLinkId)) {
+			toIndex = fromIndex - 1;
+		} else {
+			for (int i = fromIndex, n = this.route.length; (i < n) && (toIndex < 0); i++) {
+				if (fromLinkId.index() == this.route[i]) {
+					fromIndex = i + 1; // in case of a loop, cut it short
+				}
+				if (toLinkId.index() == this.route[i]) {
+					toIndex = i;
+				}
+			}
+			if (toIndex < 0 && toLinkId.equals(this.getEndLinkId())) {
+				toIndex = this.route.length;
+			}
+			if (toIndex < 0) {
+				throw new IllegalArgumentException("Cannot create subroute because toLinkId is not part of the route.");
+			}
+		}
+		NetworkRoute ret = new IndexedNetworkRouteImpl(fromLinkId, toLinkId);
+		if (toIndex > fromIndex) {
+			ret.setLinkIds(fromLinkId, this.linkIdsView.subList(fromIndex, toIndex), toLinkId);
+		} else {
+			ret.setLinkIds(fromLinkId, null, toLinkId);
+		}
+		return ret;
+	}
+
+	@Override
+	public double getTravelCost() {
+		return this.travelCost;
+	}
+
+	@Override
+	public void setTravelCost(final double travelCost) {
+		this.travelCost = travelCost;
+	}
+
+	@Override
+	public void setLinkIds(final Id<Link> startLinkId, final List<Id<Link>> srcRoute, final Id<Link> endLinkId) {
+		setStartLinkId(startLinkId);
+		setEndLinkId(endLinkId);
+		if (srcRoute == null || srcRoute.isEmpty()) {
+			this.route = EMPTY_ROUTE;
+		} else {
+			int[] newRoute = new int[srcRoute.size()];
+			int i = 0;
+			for (Id<Link> linkId : srcRoute) {
+				newRoute[i++] = linkId.index();
+			}
+			this.route = newRoute;
+		}
+	}
+
+	@Override
+	public Id<Vehicle> getVehicleId() {
+		return this.vehicleId;
+	}
+
+	@Override
+	public void setVehicleId(final Id<Vehicle> vehicleId) {
+		this.vehicleId = vehicleId;
+	}
+
+	@Override
+	public String getRouteDescription() {
+		StringBuilder desc = new StringBuilder(100);
+		desc.append(this.getStartLinkId().toString());
+		for (int linkIndex : this.route) {
+			desc.append(" ");
+			desc.append(Id.get(linkIndex, Link.class).toString());
+		}
+		// If the start links equals the end link additionally check if its is a round trip.
+		if (!this.getEndLinkId().equals(this.getStartLinkId()) || this.route.length > 0) {
+			desc.append(" ");
+			desc.append(this.getEndLinkId().toString());
+		}
+		return desc.toString();
+	}
+
+	@Override
+	public void setRouteDescription(String routeDescription) {
+		List<Id<Link>> linkIds = NetworkUtils.getLinkIds(routeDescription);
+		Id<Link> startLinkId = getStartLinkId();
+		Id<Link> endLinkId = getEndLinkId();
+		if (linkIds.size() > 0) {
+			startLinkId = linkIds.remove(0);
+			setStartLinkId(startLinkId);
+		}
+		if (linkIds.size() > 0) {
+			endLinkId = linkIds.remove(linkIds.size() - 1);
+			setEndLinkId(endLinkId);
+		}
+		this.setLinkIds(startLinkId, linkIds, endLinkId);
+	}
+
+	@Override
+	public String getRouteType() {
+		return LinkNetworkRouteImpl.ROUTE_TYPE;
+	}
+
+	@Override
+	public String toString() {
+		String str = super.toString();
+		str += " linkIds=" + this.getLinkIds();
+		str += " travelCost=" + this.getTravelCost();
+		return str;
+	}
+
+	/**
+	 * Unmodifiable view of the link indices as link ids.
+	 */
+	private final class LinkIdsView extends AbstractList<Id<Link>> implements RandomAccess {
+		@Override
+		public Id<Link> get(int index) {
+			return Id.get(route[index], Link.class);
+		}
+
+		@Override
+		public int size() {
+			return route.length;
+		}
+	}
+}
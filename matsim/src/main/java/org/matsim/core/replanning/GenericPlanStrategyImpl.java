@@ -19,6 +19,8 @@
 package org.matsim.core.replanning;
 
 import org.apache.log4j.Logger;
+import org.matsim.analysis.metrics.MetricsRegistry;
+import org.matsim.analysis.metrics.Timer;
 import org.matsim.api.core.v01.population.BasicPlan;
 import org.matsim.api.core.v01.population.HasPlansAndId;
 import org.matsim.core.replanning.modules.GenericPlanStrategyModule;
@@ -39,6 +41,8 @@ public class GenericPlanStrategyImpl<T extends BasicPlan, I> implements GenericP
 	private final ArrayList<T> plans = new ArrayList<>();
 	private long counter = 0;
 	private ReplanningContext replanningContext;
+	private Timer runTimer = null; // only set if metrics are enabled
+	private Timer finishTimer = null;
 	private final static Logger log = Logger.getLogger(PlanStrategyImpl.class);
 
 	/**
@@ -67,6 +71,7 @@ public class GenericPlanStrategyImpl<T extends BasicPlan, I> implements GenericP
 	@Override
 	public void run(final HasPlansAndId<T, I> person) {
 		this.counter++;
+		long start = this.runTimer == null ? 0 : this.runTimer.start();
 		
 		// if there is at least one unscored plan, find that one:
 		T plan = new RandomUnscoredPlanSelector<T, I>().selectPlan(person) ;
@@ -97,11 +102,19 @@ public class GenericPlanStrategyImpl<T extends BasicPlan, I> implements GenericP
 			this.firstModule.handlePlan(plan);
 		}
 
+		if (this.runTimer != null) {
+			this.runTimer.stop(start);
+		}
 	}
 
 	@Override
 	public void init(ReplanningContext replanningContext0) {
 		this.replanningContext = replanningContext0;
+		MetricsRegistry metrics = replanningContext0 == null ? null : replanningContext0.getMetricsRegistry();
+		if (metrics != null) {
+			this.runTimer = metrics.timer("replanning." + this.toString() + ".run");
+			this.finishTimer = metrics.timer("replanning." + this.toString() + ".finish");
+		}
 		if (this.firstModule != null) {
 			this.firstModule.prepareReplanning(replanningContext0);
 		}
@@ -109,6 +122,7 @@ public class GenericPlanStrategyImpl<T extends BasicPlan, I> implements GenericP
 
 	@Override
 	public void finish() {
+		long start = this.finishTimer == null ? 0 : this.finishTimer.start();
 		if (this.firstModule != null) {
 			// finish the first module
 				this.firstModule.finishReplanning();
@@ -122,6 +136,9 @@ public class GenericPlanStrategyImpl<T extends BasicPlan, I> implements GenericP
 			}
 		}
 		this.plans.clear();
+		if (this.finishTimer != null) {
+			this.finishTimer.stop(start);
+		}
 		log.info("Plan-Strategy finished, " + this.counter + " plans handled. Strategy: " + this.toString());
 		this.counter = 0;
 	}
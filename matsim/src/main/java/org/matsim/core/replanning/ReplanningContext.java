@@ -19,6 +19,8 @@
 
 package org.matsim.core.replanning;
 
+import org.matsim.analysis.metrics.MetricsRegistry;
+
 /**
  * A partial, inside view of the Controler which is available during replanning.
  * @author michaz
@@ -31,4 +33,11 @@ public interface ReplanningContext {
 	 */
 	int getIteration();
 
+	/**
+	 * The registry for performance metrics, or <code>null</code> if metrics are disabled.
+	 */
+	default MetricsRegistry getMetricsRegistry() {
+		return null;
+	}
+
 }
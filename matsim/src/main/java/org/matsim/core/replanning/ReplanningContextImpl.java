@@ -22,6 +22,7 @@
 
 package org.matsim.core.replanning;
 
+import org.matsim.analysis.metrics.MetricsRegistry;
 import org.matsim.core.controler.ControlerListenerManager;
 import org.matsim.core.controler.events.IterationStartsEvent;
 import org.matsim.core.controler.listener.IterationStartsListener;
@@ -34,6 +35,9 @@ class ReplanningContextImpl implements ReplanningContext, IterationStartsListene
 
     private int iteration;
 
+    @com.google.inject.Inject(optional = true)
+    private MetricsRegistry metrics = null;
+
     @Inject
     ReplanningContextImpl(ControlerListenerManager controlerListenerManager) {
         controlerListenerManager.addControlerListener(this);
@@ -44,6 +48,11 @@ class ReplanningContextImpl implements ReplanningContext, IterationStartsListene
         return iteration;
     }
 
+    @Override
+    public MetricsRegistry getMetricsRegistry() {
+        return metrics;
+    }
+
     @Override
     public void notifyIterationStarts(IterationStartsEvent event) {
         this.iteration = event.getIteration();
@@ -24,14 +24,20 @@ import org.apache.log4j.Logger;
 import org.matsim.api.core.v01.population.Plan;
 import org.matsim.api.core.v01.replanning.PlanStrategyModule;
 import org.matsim.core.config.groups.GlobalConfigGroup;
+import org.matsim.core.config.groups.GlobalConfigGroup.PlanDispatching;
 import org.matsim.core.population.algorithms.PlanAlgorithm;
 import org.matsim.core.replanning.ReplanningContext;
 import org.matsim.core.utils.misc.Counter;
 
-import java.lang.Thread.UncaughtExceptionHandler;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * An abstract strategy module for running multiple plan algorithms in parallel.
@@ -40,15 +46,19 @@ import java.util.concurrent.atomic.AtomicReference;
  * Just overwrite getPlanAlgoInstance() to return an instance of your plan
  * algorithm.
  * <p></p>
- * <code>initThreads()</code> creates the threads, but does not yet start them.
+ * <code>prepareReplanning()</code> creates one plan algorithm per thread.
  * <p></p>
- * <code>handlePlan(Plan)</code> distributes the plans equally to all threads.
+ * <code>handlePlan(Plan)</code> collects the plans. With {@link PlanDispatching#roundRobin}, they are distributed equally to all threads.
  * <p></p>
- * <code>finishReplanning()</code> finally starts the threads and waits for all threads to be finished.
+ * <code>finishReplanning()</code> finally runs the threads and waits for all threads to be finished. With {@link PlanDispatching#dynamic},
+ * the threads fetch small chunks of plans until all plans are handled.
  * <p></p>
- * While this approach does not lead to optimal performance gains ("slow threads" vs.
- * "fast threads"), it helps building reproducible runs.  Additionally, as the threads are only
- * started after all to-be-handled plans are added, we can use unsynchronized data structures.
+ * The threads are kept in a pool for the following iterations; they end after a minute without work.
+ * <p></p>
+ * The round robin distribution does not lead to optimal performance gains ("slow threads" vs.
+ * "fast threads"), but it helps building reproducible runs.  The dynamic distribution keeps all threads busy, but which
+ * plan algorithm instance handles a plan depends on the timing of the threads.  In both cases, the threads are only
+ * started after all to-be-handled plans are added, so we can use unsynchronized data structures.
  * <p></p>
  * Design comments/questions:<ul>
  * <li> As a consequence of the design, the instances that getPlanAlgoInstance() returns, need to be thread-safe.  kai, dec'12
@@ -59,17 +69,16 @@ import java.util.concurrent.atomic.AtomicReference;
  */
 abstract public class AbstractMultithreadedModule implements PlanStrategyModule {
 	private final int numOfThreads;
+	private final PlanDispatching planDispatching;
 
 	private PlanAlgoThread[] algothreads = null;
-	private Thread[] threads = null;
+	private List<Plan> plans = null;
+	private ThreadPoolExecutor pool = null;
 	private PlanAlgorithm directAlgo = null;
 	private String name = null;
 
 	private int count = 0;
 
-	private final AtomicReference<Throwable> hadException = new AtomicReference<>(null);
-	private final ExceptionHandler exceptionHandler = new ExceptionHandler(this.hadException);
-
 	private ReplanningContext replanningContext;
 
 	static final private Logger log = Logger.getLogger(AbstractMultithreadedModule.class);
@@ -83,11 +92,16 @@ abstract public class AbstractMultithreadedModule implements PlanStrategyModule
 	abstract public PlanAlgorithm getPlanAlgoInstance();
 
 	public AbstractMultithreadedModule(GlobalConfigGroup globalConfigGroup) {
-		this.numOfThreads = globalConfigGroup.getNumberOfThreads();
+		this(globalConfigGroup.getNumberOfThreads(), globalConfigGroup.getPlanDispatching());
 	}
 
 	public AbstractMultithreadedModule(final int numOfThreads) {
+		this(numOfThreads, PlanDispatching.roundRobin);
+	}
+
+	public AbstractMultithreadedModule(final int numOfThreads, final PlanDispatching planDispatching) {
 		this.numOfThreads = numOfThreads;
+		this.planDispatching = planDispatching;
 	}
 	
 	protected void beforePrepareReplanningHook(@SuppressWarnings("unused") ReplanningContext replanningContextTmp) {
@@ -118,7 +132,11 @@ abstract public class AbstractMultithreadedModule implements PlanStrategyModule
 	@Override
 	public final void handlePlan(final Plan plan) {
 		if (this.directAlgo == null) {
-			this.algothreads[this.count % this.numOfThreads].addPlanToThread(plan);
+			if (this.planDispatching == PlanDispatching.roundRobin) {
+				this.algothreads[this.count % this.numOfThreads].addPlanToThread(plan);
+			} else {
+				this.plans.add(plan);
+			}
 			this.count++;
 		} else {
 			this.directAlgo.run(plan);
@@ -138,30 +156,49 @@ abstract public class AbstractMultithreadedModule implements PlanStrategyModule
 		
 		if (this.directAlgo == null) {
 			// only try to start threads if we did not directly work on all the plans
-			log.info("[" + this.name + "] starting " + this.threads.length + " threads, handling " + this.count + " plans");
+			log.info("[" + this.name + "] starting " + this.algothreads.length + " threads, handling " + this.count + " plans");
+
+			if (this.planDispatching == PlanDispatching.dynamic) {
+				// small chunks balance the threads, but every chunk costs a synchronization
+				int chunkSize = Math.max(1, Math.min(100, this.plans.size() / (16 * this.numOfThreads)));
+				PlanChunks chunks = new PlanChunks(this.plans, chunkSize);
+				for (PlanAlgoThread algothread : this.algothreads) {
+					algothread.setPlans(chunks);
+				}
+			}
 
 			// start threads
-			for (Thread thread : this.threads) {
-				thread.start();
+			List<Future<?>> futures = new ArrayList<>();
+			for (PlanAlgoThread algothread : this.algothreads) {
+				futures.add(this.pool.submit(algothread));
 			}
 
 			// wait until each thread is finished
+			Throwable throwable = null;
 			try {
-				for (Thread thread : this.threads) {
-					thread.join();
+				for (int i = 0; i < futures.size(); i++) {
+					try {
+						futures.get(i).get();
+					} catch (ExecutionException e) {
+						log.error("Thread " + this.name + "." + i + " died with exception. Will stop after all threads finished.", e.getCause());
+						throwable = e.getCause();
+					}
 				}
 			} catch (InterruptedException e) {
 				throw new RuntimeException(e);
 			}
-			log.info("[" + this.name + "] all " + this.threads.length + " threads finished.");
-			Throwable throwable = this.hadException.get();
+			log.info("[" + this.name + "] all " + this.algothreads.length + " threads finished.");
+			for (int i = 0; i < this.algothreads.length; i++) {
+				log.info("[" + this.name + "] thread " + i + " handled " + this.algothreads[i].handledPlans + " plans in "
+						+ this.algothreads[i].nanos / 1000000 + " ms");
+			}
 			if (throwable != null) {
 				throw new RuntimeException("Some threads crashed, thus not all plans may have been handled.", throwable);
 			}
 		}
 		// reset
 		this.algothreads = null;
-		this.threads = null;
+		this.plans = null;
 		this.replanningContext = null;
 		this.count = 0;
 		
@@ -169,13 +206,14 @@ abstract public class AbstractMultithreadedModule implements PlanStrategyModule
 	}
 
 	private void initThreads() {
-		if (this.threads != null) {
+		if (this.algothreads != null) {
 			throw new RuntimeException("threads are already initialized");
 		}
 
-		this.hadException.set(null);
-		this.threads = new Thread[this.numOfThreads];
 		this.algothreads = new PlanAlgoThread[this.numOfThreads];
+		if (this.planDispatching == PlanDispatching.dynamic) {
+			this.plans = new ArrayList<>();
+		}
 
 		Counter counter = null;
 		// setup threads
@@ -185,11 +223,14 @@ abstract public class AbstractMultithreadedModule implements PlanStrategyModule
 				this.name = algo.getClass().getSimpleName();
 				counter = new Counter("[" + this.name + "] handled plan # ");
 			}
-			PlanAlgoThread algothread = new PlanAlgoThread(algo, counter);
-			Thread thread = new Thread(algothread, this.name + "." + i);
-			thread.setUncaughtExceptionHandler(this.exceptionHandler);
-			this.threads[i] = thread;
-			this.algothreads[i] = algothread;
+			this.algothreads[i] = new PlanAlgoThread(algo, counter);
+		}
+
+		if (this.pool == null) {
+			// the threads stay alive for the next iteration, but should not keep an idle module (or the jvm) alive
+			this.pool = new ThreadPoolExecutor(this.numOfThreads, this.numOfThreads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+					new NamedThreadFactory(this.name));
+			this.pool.allowCoreThreadTimeOut(true);
 		}
 	}
 
@@ -197,42 +238,83 @@ abstract public class AbstractMultithreadedModule implements PlanStrategyModule
 		return numOfThreads;
 	}
 
-	private final static class ExceptionHandler implements UncaughtExceptionHandler {
+	private final static class NamedThreadFactory implements ThreadFactory {
 
-		private final AtomicReference<Throwable> hadException;
+		private final String name;
+		private final AtomicInteger count = new AtomicInteger(0);
 
-		public ExceptionHandler(final AtomicReference<Throwable> hadException) {
-			this.hadException = hadException;
+		public NamedThreadFactory(final String name) {
+			this.name = name;
 		}
 
 		@Override
-		public void uncaughtException(Thread t, Throwable e) {
-			log.error("Thread " + t.getName() + " died with exception. Will stop after all threads finished.", e);
-			this.hadException.set(e);
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, this.name + "." + this.count.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
 		}
+	}
 
+	/**
+	 * The plans to be handled by one or more threads, handed out in chunks of consecutive plans.
+	 */
+	private final static class PlanChunks {
+
+		private final List<Plan> plans;
+		private final int chunkSize;
+		private final AtomicInteger next = new AtomicInteger(0);
+
+		public PlanChunks(final List<Plan> plans, final int chunkSize) {
+			this.plans = plans;
+			this.chunkSize = chunkSize;
+		}
+
+		/**
+		 * @return the index of the first plan of the next chunk, or a value >= the number of plans if there are no plans left.
+		 */
+		public int nextChunk() {
+			return this.next.getAndAdd(this.chunkSize);
+		}
 	}
 
 	private final static class PlanAlgoThread implements Runnable {
 
 		private final PlanAlgorithm planAlgo;
-		private final List<Plan> plans = new LinkedList<>();
+		private final List<Plan> ownPlans = new ArrayList<>();
+		private PlanChunks plans;
 		private final Counter counter;
+		private int handledPlans = 0;
+		private long nanos = 0;
 
 		public PlanAlgoThread(final PlanAlgorithm algo, final Counter counter) {
 			this.planAlgo = algo;
 			this.counter = counter;
+			this.plans = new PlanChunks(this.ownPlans, Integer.MAX_VALUE);
 		}
 
 		public void addPlanToThread(final Plan plan) {
-			this.plans.add(plan);
+			this.ownPlans.add(plan);
+		}
+
+		public void setPlans(final PlanChunks plans) {
+			this.plans = plans;
 		}
 
 		@Override
 		public void run() {
-			for (Plan plan : this.plans) {
-				this.planAlgo.run(plan);
-				this.counter.incCounter();
+			long start = System.nanoTime();
+			try {
+				int size = this.plans.plans.size();
+				for (int from = this.plans.nextChunk(); from < size; from = this.plans.nextChunk()) {
+					int to = (int) Math.min(size, (long) from + this.plans.chunkSize);
+					for (int i = from; i < to; i++) {
+						this.planAlgo.run(this.plans.plans.get(i));
+						this.handledPlans++;
+						this.counter.incCounter();
+					}
+				}
+			} finally {
+				this.nanos = System.nanoTime() - start;
 			}
 		}
 	}
@@ -124,7 +124,8 @@ public class NetworkRoutingProvider implements Provider<RoutingModule> {
 				leastCostPathCalculatorFactory.createPathCalculator(
 						filteredNetwork,
 						travelDisutilityFactory.createTravelDisutility(travelTime),
-						travelTime);
+						travelTime,
+						routingMode);
 
 		// the following again refers to the (transport)mode, since it will determine the mode of the leg on the network:
 		if ( !plansCalcRouteConfigGroup.getAccessEgressType().equals(PlansCalcRouteConfigGroup.AccessEgressType.none) ) {
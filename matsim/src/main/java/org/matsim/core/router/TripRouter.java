@@ -31,6 +31,8 @@ import javax.inject.Inject;
 import javax.inject.Provider;
 
 import org.apache.log4j.Logger;
+import org.matsim.analysis.metrics.MetricsRegistry;
+import org.matsim.analysis.metrics.Timer;
 import org.matsim.api.core.v01.population.Activity;
 import org.matsim.api.core.v01.population.Leg;
 import org.matsim.api.core.v01.population.Person;
@@ -66,6 +68,9 @@ public final class TripRouter implements MatsimExtensionPoint {
 	private final FallbackRoutingModule fallbackRoutingModule;
 
 	private Config config;
+
+	private MetricsRegistry metrics = null;
+	private final Map<String, Timer> routingTimers = new HashMap<>();
 	// (I need the config in the PlanRouter to figure out activity end times. And since the PlanRouter is not
 	// injected, I cannot get it there directly.  kai, oct'17)
 
@@ -110,6 +115,14 @@ public final class TripRouter implements MatsimExtensionPoint {
 		this.config = config ;
 	}
 
+	/**
+	 * If set, the time needed to route each trip is measured per main mode.
+	 */
+	@com.google.inject.Inject(optional = true)
+	void setMetricsRegistry(MetricsRegistry metrics) {
+		this.metrics = metrics;
+	}
+
 	// /////////////////////////////////////////////////////////////////////////
 	// constructors
 	// /////////////////////////////////////////////////////////////////////////
@@ -179,11 +192,17 @@ public final class TripRouter implements MatsimExtensionPoint {
 					person,
 					routingAttributes);
 					
+			Timer timer = this.metrics == null ? null : this.routingTimers.computeIfAbsent(mainMode, mode -> this.metrics.timer("router." + mode));
+			long start = timer == null ? 0 : timer.start();
+
 			List<? extends PlanElement> trip = module.calcRoute(request);
 
 			if ( trip == null ) {
 				trip = fallbackRoutingModule.calcRoute(request) ;
 			}
+			if (timer != null) {
+				timer.stop(start);
+			}
 			for (Leg leg: TripStructureUtils.getLegs(trip)) {
 				TripStructureUtils.setRoutingMode(leg, mainMode);
 			}
@@ -33,6 +33,7 @@ import org.matsim.api.core.v01.population.Plan;
 import org.matsim.api.core.v01.population.PlanElement;
 import org.matsim.core.config.groups.PlanCalcScoreConfigGroup;
 import org.matsim.core.gbl.Gbl;
+import org.matsim.core.population.PopulationUtils;
 import org.matsim.core.utils.misc.OptionalTime;
 import org.matsim.utils.objectattributes.attributable.Attributes;
 
@@ -552,6 +553,10 @@ public final class TripStructureUtils {
 	}
 
 	public static String getRoutingMode(Leg leg) {
+		if (!PopulationUtils.hasAttributes(leg)) {
+			// do not create the attributes of compact legs just for reading
+			return null;
+		}
 		return (String) leg.getAttributes().getAttribute("routingMode");
 	}
 
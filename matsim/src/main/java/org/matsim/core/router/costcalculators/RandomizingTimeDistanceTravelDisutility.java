@@ -98,6 +98,17 @@ final class RandomizingTimeDistanceTravelDisutility implements TravelDisutility
 		return this.marginalCostOfTime * travelTime + logNormalRnd * this.marginalCostOfDistance * link.getLength();
 	}
 
+	/**
+	 * @return a travel disutility with the same parameters, but without randomization. Its disutility is the expected
+	 * value of the randomized disutilities, as the random factor is normalized to an expected value of one.
+	 */
+	RandomizingTimeDistanceTravelDisutility withoutRandomness() {
+		if ( sigma == 0. ) {
+			return this;
+		}
+		return new RandomizingTimeDistanceTravelDisutility(this.timeCalculator, this.marginalCostOfTime, this.marginalCostOfDistance, 1., 0.);
+	}
+
 	@Override
 	public double getLinkMinimumTravelDisutility(final Link link) {
 		return (link.getLength() / link.getFreespeed()) * this.marginalCostOfTime + this.marginalCostOfDistance * link.getLength();
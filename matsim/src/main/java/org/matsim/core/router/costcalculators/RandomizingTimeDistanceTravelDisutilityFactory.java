@@ -94,6 +94,18 @@ public class RandomizingTimeDistanceTravelDisutilityFactory implements TravelDis
 				sigma);
 	}
 
+	/**
+	 * Returns the given travel disutility without randomization, if it was created by this factory. Other travel disutilities are
+	 * returned as they are. This is needed by routers which compute the travel disutilities independently of the person, e.g.
+	 * {@link org.matsim.core.router.speedy.SpeedyCH}; they find the routes with the expected travel disutility instead.
+	 */
+	public static TravelDisutility withoutRandomness( final TravelDisutility travelDisutility ) {
+		if ( travelDisutility instanceof RandomizingTimeDistanceTravelDisutility ) {
+			return ((RandomizingTimeDistanceTravelDisutility) travelDisutility).withoutRandomness();
+		}
+		return travelDisutility;
+	}
+
 	private void logWarningsIfNecessary(final PlanCalcScoreConfigGroup cnScoringGroup) {
 		if ( wrnCnt.getAndIncrement() < 1 ) {
 			if ( cnScoringGroup.getModes().get( mode ).getMonetaryDistanceRate() > 0. ) {
@@ -32,6 +32,7 @@ public class LeastCostPathTree {
     private final SpeedyGraph.LinkIterator outLI;
     private final SpeedyGraph.LinkIterator inLI;
     private final NodeMinHeap pq;
+    private double stopCost = Double.POSITIVE_INFINITY; // the cost at which the last search was stopped
 
     public LeastCostPathTree(SpeedyGraph graph, TravelTime tt, TravelDisutility td) {
         this.graph = graph;
@@ -51,6 +52,7 @@ public class LeastCostPathTree {
     public void calculate(int startNode, double startTime, Person person, Vehicle vehicle, StopCriterion stopCriterion) {
         Arrays.fill(this.data, Double.POSITIVE_INFINITY);
         Arrays.fill(this.comingFrom, -1);
+        this.stopCost = Double.POSITIVE_INFINITY;
 
         setData(startNode, 0, startTime, 0);
 
@@ -65,6 +67,7 @@ public class LeastCostPathTree {
             double currDistance = getDistance(nodeIdx);
 
             if (stopCriterion.stop(nodeIdx, currTime, currCost, currDistance, startTime)) {
+                this.stopCost = currCost;
                 break;
             }
 
@@ -101,6 +104,7 @@ public class LeastCostPathTree {
     public void calculateBackwards(int arrivalNode, double arrivalTime, Person person, Vehicle vehicle, StopCriterion stopCriterion) {
         Arrays.fill(this.data, Double.POSITIVE_INFINITY);
         Arrays.fill(this.comingFrom, -1);
+        this.stopCost = Double.POSITIVE_INFINITY;
 
         setData(arrivalNode, 0, arrivalTime, 0);
 
@@ -115,6 +119,7 @@ public class LeastCostPathTree {
             double currDistance = getDistance(nodeIdx);
 
             if (stopCriterion.stop(nodeIdx, arrivalTime, currCost, currDistance, currTime)) {
+                this.stopCost = currCost;
                 break;
             }
 
@@ -144,6 +149,16 @@ public class LeastCostPathTree {
         }
     }
 
+    /**
+     * Returns <code>true</code> if the node was reached by the last search and its values are final. If the search
+     * was stopped by a {@link StopCriterion}, nodes with a higher cost than the node at which the search was stopped
+     * might have been reached already, but their values are not necessarily the least-cost ones.
+     */
+    public boolean isFinal(int nodeIndex) {
+        double cost = getCost(nodeIndex);
+        return cost != Double.POSITIVE_INFINITY && cost <= this.stopCost;
+    }
+
     public double getCost(int nodeIndex) {
         return this.data[nodeIndex * 3];
     }
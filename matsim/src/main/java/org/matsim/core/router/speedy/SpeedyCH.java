@@ -0,0 +1,227 @@
+package org.matsim.core.router.speedy;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.vehicles.Vehicle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.DoubleFunction;
+
+/**
+ * A least cost path calculator based on customizable contraction hierarchies.
+ *
+ * Based on "Customizable Contraction Hierarchies" by Julian Dibbelt, Ben Strasser and Dorothea Wagner, 2016.
+ *
+ * The hierarchy itself ({@link SpeedyCHData}) only depends on the network's topology. The travel disutilities
+ * are applied in a separate customization step ({@link SpeedyCHCustomization}), which is much faster than
+ * building the hierarchy and thus can be repeated whenever the travel times change. A query then runs
+ * an upward search from the start node and a backward upward search from the end node, both along the
+ * start's and end's ancestors in the elimination tree, and unpacks the shortcuts of the best meeting node.
+ *
+ * The travel disutility is evaluated for the time bin of the departure time only, and always without
+ * person and vehicle. The returned path's travel time and cost are calculated time-dependently
+ * for the actual person and vehicle, but the path itself might differ from the one found by a time-dependent
+ * search like {@link SpeedyALT} in congested networks.
+ *
+ * This implementation is not thread-safe. In the case of multi-threading, every thread should use
+ * a separate instance. (But the used {@link SpeedyCHData} and customizations are thread-safe and can be
+ * shared by multiple instances).
+ *
+ * @author mrieser / Simunto
+ */
+public class SpeedyCH implements LeastCostPathCalculator {
+
+	private final static Logger LOG = LogManager.getLogger(SpeedyCH.class);
+
+	private final SpeedyGraph graph;
+	private final SpeedyCHData chData;
+	private final TravelTime tt;
+	private final TravelDisutility td;
+	private final DoubleFunction<SpeedyCHCustomization> customizations;
+	private int currentIteration = Integer.MIN_VALUE;
+	private final int[] forwardIterationIds;
+	private final int[] backwardIterationIds;
+	private final double[] forwardCost;
+	private final double[] backwardCost;
+	private final int[] forwardArc;
+	private final int[] backwardArc;
+	private int[] unpackStack = new int[64];
+
+	/**
+	 * Creates a router using a single customization, with the travel disutilities evaluated at time 0.
+	 * Use {@link SpeedyCHFactory} to get customizations per time bin that are shared between routers.
+	 */
+	public SpeedyCH(SpeedyCHData chData, TravelTime tt, TravelDisutility td) {
+		this(chData, tt, td, constant(new SpeedyCHCustomization(chData, td, 0, MoreExecutors.newDirectExecutorService())));
+	}
+
+	private static DoubleFunction<SpeedyCHCustomization> constant(SpeedyCHCustomization customization) {
+		return time -> customization;
+	}
+
+	/**
+	 * @param customizations provides the customization to use for a given departure time, is usually cached
+	 */
+	SpeedyCH(SpeedyCHData chData, TravelTime tt, TravelDisutility td, DoubleFunction<SpeedyCHCustomization> customizations) {
+		this.graph = chData.graph;
+		this.chData = chData;
+		this.tt = tt;
+		this.td = td;
+		this.customizations = customizations;
+		int nodeCount = this.graph.nodeCount;
+		this.forwardIterationIds = new int[nodeCount];
+		this.backwardIterationIds = new int[nodeCount];
+		this.forwardCost = new double[nodeCount];
+		this.backwardCost = new double[nodeCount];
+		this.forwardArc = new int[nodeCount];
+		this.backwardArc = new int[nodeCount];
+		Arrays.fill(this.forwardIterationIds, this.currentIteration);
+		Arrays.fill(this.backwardIterationIds, this.currentIteration);
+	}
+
+	@Override
+	public Path calcLeastCostPath(Node startNode, Node endNode, double startTime, Person person, Vehicle vehicle) {
+		this.currentIteration++;
+		if (this.currentIteration == Integer.MAX_VALUE) {
+			// reset iteration as we overflow
+			Arrays.fill(this.forwardIterationIds, this.currentIteration);
+			Arrays.fill(this.backwardIterationIds, this.currentIteration);
+			this.currentIteration = Integer.MIN_VALUE;
+		}
+		int startNodeIndex = startNode.getId().index();
+		int endNodeIndex = endNode.getId().index();
+		SpeedyCHCustomization metric = this.customizations.apply(startTime);
+
+		// forward search along the ancestors of the start node
+		this.forwardCost[startNodeIndex] = 0;
+		this.forwardArc[startNodeIndex] = -1;
+		this.forwardIterationIds[startNodeIndex] = this.currentIteration;
+		upwardSearch(startNodeIndex, metric.weightUp, this.forwardIterationIds, this.forwardCost, this.forwardArc);
+
+		// backward search along the ancestors of the end node
+		this.backwardCost[endNodeIndex] = 0;
+		this.backwardArc[endNodeIndex] = -1;
+		this.backwardIterationIds[endNodeIndex] = this.currentIteration;
+		upwardSearch(endNodeIndex, metric.weightDown, this.backwardIterationIds, this.backwardCost, this.backwardArc);
+
+		// find the best meeting node, it must be a common ancestor
+		int meetingNode = -1;
+		double bestCost = Double.POSITIVE_INFINITY;
+		for (int node = endNodeIndex; node >= 0; node = this.chData.eliminationTreeParent[node]) {
+			if (this.forwardIterationIds[node] == this.currentIteration && this.backwardIterationIds[node] == this.currentIteration) {
+				double cost = this.forwardCost[node] + this.backwardCost[node];
+				if (cost < bestCost) {
+					bestCost = cost;
+					meetingNode = node;
+				}
+			}
+		}
+
+		if (meetingNode >= 0) {
+			return constructPath(startNodeIndex, meetingNode, metric, startTime, person, vehicle);
+		}
+		LOG.warn("No route was found from node " + startNode.getId() + " to node " + endNode.getId() + ". Some possible reasons:");
+		LOG.warn("  * Network is not connected.  Run NetworkCleaner().") ;
+		LOG.warn("  * Network for considered mode does not even exist.  Modes need to be entered for each link in network.xml.");
+		LOG.warn("  * Network for considered mode is not connected to starting or ending point of route.  Setting insertingAccessEgressWalk to true may help.");
+		LOG.warn("This will now return null, but it may fail later with a NullPointerException.");
+		return null;
+	}
+
+	/**
+	 * All upward arcs of a node lead to ancestors of the node in the elimination tree. Processing
+	 * the ancestors in order thus guarantees that each node is final before its arcs are relaxed.
+	 */
+	private void upwardSearch(int startNodeIndex, double[] weights, int[] iterationIds, double[] costs, int[] arcs) {
+		for (int node = startNodeIndex; node >= 0; node = this.chData.eliminationTreeParent[node]) {
+			if (iterationIds[node] != this.currentIteration) {
+				continue; // not reachable
+			}
+			double nodeCost = costs[node];
+			for (int arc = this.chData.upArcStart[node], end = this.chData.upArcStart[node + 1]; arc < end; arc++) {
+				double cost = nodeCost + weights[arc];
+				if (cost == Double.POSITIVE_INFINITY) {
+					continue;
+				}
+				int toNode = this.chData.arcHead[arc];
+				if (iterationIds[toNode] != this.currentIteration || cost < costs[toNode]) {
+					iterationIds[toNode] = this.currentIteration;
+					costs[toNode] = cost;
+					arcs[toNode] = arc;
+				}
+			}
+		}
+	}
+
+	private Path constructPath(int startNodeIndex, int meetingNode, SpeedyCHCustomization metric, double startTime, Person person, Vehicle vehicle) {
+		List<Link> links = new ArrayList<>();
+
+		// arcs from the start node up to the meeting node
+		List<Integer> upArcs = new ArrayList<>();
+		for (int node = meetingNode; node != startNodeIndex; node = this.chData.arcTail[this.forwardArc[node]]) {
+			upArcs.add(this.forwardArc[node]);
+		}
+		for (int i = upArcs.size() - 1; i >= 0; i--) {
+			unpack(upArcs.get(i), true, metric, links);
+		}
+		// arcs from the meeting node down to the end node
+		for (int node = meetingNode; this.backwardArc[node] >= 0; node = this.chData.arcTail[this.backwardArc[node]]) {
+			unpack(this.backwardArc[node], false, metric, links);
+		}
+
+		List<Node> nodes = new ArrayList<>(links.size() + 1);
+		nodes.add(this.graph.getNode(startNodeIndex));
+		double time = startTime;
+		double travelCost = 0;
+		for (Link link : links) {
+			nodes.add(link.getToNode());
+			travelCost += this.td.getLinkTravelDisutility(link, time, person, vehicle);
+			time += this.tt.getLinkTravelTime(link, time, person, vehicle);
+		}
+		return new Path(nodes, links, time - startTime, travelCost);
+	}
+
+	/**
+	 * Adds the original links of an arc to the list. Shortcuts are unpacked using an explicit stack,
+	 * each entry encoding the arc and the direction (upwards from tail to head, or downwards from head to tail).
+	 */
+	private void unpack(int arc, boolean upwards, SpeedyCHCustomization metric, List<Link> links) {
+		int size = 0;
+		this.unpackStack[size++] = arc * 2 + (upwards ? 1 : 0);
+		while (size > 0) {
+			int entry = this.unpackStack[--size];
+			int a = entry >> 1;
+			boolean up = (entry & 1) == 1;
+			int via = up ? metric.viaUp[a] : metric.viaDown[a];
+			if (via < 0) {
+				links.add(this.graph.getLink(up ? metric.linkUp[a] : metric.linkDown[a]));
+				continue;
+			}
+			if (size + 2 > this.unpackStack.length) {
+				this.unpackStack = Arrays.copyOf(this.unpackStack, this.unpackStack.length * 2);
+			}
+			int tail = this.chData.arcTail[a];
+			int head = this.chData.arcHead[a];
+			// both parts of a shortcut are arcs from the middle node upwards, push the second part first
+			if (up) {
+				// tail -> via -> head
+				this.unpackStack[size++] = this.chData.getArc(via, head) * 2 + 1;
+				this.unpackStack[size++] = this.chData.getArc(via, tail) * 2;
+			} else {
+				// head -> via -> tail
+				this.unpackStack[size++] = this.chData.getArc(via, tail) * 2 + 1;
+				this.unpackStack[size++] = this.chData.getArc(via, head) * 2;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,146 @@
+package org.matsim.core.router.speedy;
+
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.core.router.speedy.SpeedyGraph.LinkIterator;
+import org.matsim.core.router.util.TravelDisutility;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Applies a metric, given by a {@link TravelDisutility} at a specific time, to the arcs of a
+ * {@link SpeedyCHData} contraction hierarchy.
+ *
+ * First, the weight of each arc is set to the cost of the cheapest link between its two nodes.
+ * Then, all arcs are relaxed in the order of their lower node via all lower triangles (a node
+ * being adjacent to both end nodes of the arc and having a lower rank than both of them).
+ * The nodes of one level do not depend on each other and are processed in parallel.
+ *
+ * For each arc and direction, either the index of the original link or of the middle node
+ * of the shortcut is stored, so that paths can be unpacked afterwards.
+ *
+ * This class is thread-safe and can safely be used by multiple threads once it is created.
+ *
+ * @author mrieser / Simunto
+ */
+class SpeedyCHCustomization {
+
+	final SpeedyCHData chData;
+	final double time;
+	final double[] weightUp;
+	final double[] weightDown;
+	final int[] viaUp; // the middle node of the shortcut, or -1 if the arc is an original link
+	final int[] viaDown;
+	final int[] linkUp; // the original link, if via is -1
+	final int[] linkDown;
+
+	/**
+	 * @param executor used to relax the nodes of a level in parallel, is not shut down
+	 */
+	SpeedyCHCustomization(SpeedyCHData chData, TravelDisutility td, double time, ExecutorService executor) {
+		this.chData = chData;
+		this.time = time;
+		int arcCount = chData.arcCount;
+		this.weightUp = new double[arcCount];
+		this.weightDown = new double[arcCount];
+		this.viaUp = new int[arcCount];
+		this.viaDown = new int[arcCount];
+		this.linkUp = new int[arcCount];
+		this.linkDown = new int[arcCount];
+		Arrays.fill(this.weightUp, Double.POSITIVE_INFINITY);
+		Arrays.fill(this.weightDown, Double.POSITIVE_INFINITY);
+		Arrays.fill(this.viaUp, -1);
+		Arrays.fill(this.viaDown, -1);
+		Arrays.fill(this.linkUp, -1);
+		Arrays.fill(this.linkDown, -1);
+
+		applyLinkCosts(td);
+
+		for (int l = 0; l < chData.levelStart.length - 1; l++) {
+			final int from = chData.levelStart[l];
+			final int to = chData.levelStart[l + 1];
+			SpeedyCHData.parallelFor(executor, to - from, i -> relaxLowerTriangles(chData.nodesByLevel[from + i]));
+		}
+	}
+
+	private void applyLinkCosts(TravelDisutility td) {
+		SpeedyGraph graph = this.chData.graph;
+		LinkIterator outLI = graph.getOutLinkIterator();
+		for (int node = 0; node < graph.nodeCount; node++) {
+			outLI.reset(node);
+			while (outLI.next()) {
+				int toNode = outLI.getToNodeIndex();
+				if (toNode == node) {
+					continue; // loops are never part of a least cost path
+				}
+				int linkIdx = outLI.getLinkIndex();
+				Link link = graph.getLink(linkIdx);
+				double cost = td.getLinkTravelDisutility(link, this.time, null, null);
+				int arc = this.chData.getArc(node, toNode);
+				if (this.chData.rank[node] < this.chData.rank[toNode]) {
+					if (cost < this.weightUp[arc]) {
+						this.weightUp[arc] = cost;
+						this.linkUp[arc] = linkIdx;
+					}
+				} else {
+					if (cost < this.weightDown[arc]) {
+						this.weightDown[arc] = cost;
+						this.linkDown[arc] = linkIdx;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Relaxes all upward arcs of the given node. The lower triangles of an arc (v, u) are found
+	 * by intersecting the lists of lower neighbours of v and u, which are both sorted by rank.
+	 */
+	private void relaxLowerTriangles(int v) {
+		SpeedyCHData ch = this.chData;
+		int vFrom = ch.downArcStart[v];
+		int vTo = ch.downArcStart[v + 1];
+		if (vFrom == vTo) {
+			return;
+		}
+		for (int arc = ch.upArcStart[v]; arc < ch.upArcStart[v + 1]; arc++) {
+			int u = ch.arcHead[arc];
+			int i = vFrom;
+			int j = ch.downArcStart[u];
+			int uTo = ch.downArcStart[u + 1];
+			double bestUp = this.weightUp[arc];
+			double bestDown = this.weightDown[arc];
+			int bestViaUp = this.viaUp[arc];
+			int bestViaDown = this.viaDown[arc];
+			while (i < vTo && j < uTo) {
+				int arcWV = ch.downArcs[i];
+				int arcWU = ch.downArcs[j];
+				int rankV = ch.rank[ch.arcTail[arcWV]];
+				int rankU = ch.rank[ch.arcTail[arcWU]];
+				if (rankV < rankU) {
+					i++;
+				} else if (rankV > rankU) {
+					j++;
+				} else {
+					int w = ch.arcTail[arcWV];
+					double up = this.weightDown[arcWV] + this.weightUp[arcWU]; // v -> w -> u
+					if (up < bestUp) {
+						bestUp = up;
+						bestViaUp = w;
+					}
+					double down = this.weightDown[arcWU] + this.weightUp[arcWV]; // u -> w -> v
+					if (down < bestDown) {
+						bestDown = down;
+						bestViaDown = w;
+					}
+					i++;
+					j++;
+				}
+			}
+			this.weightUp[arc] = bestUp;
+			this.weightDown[arc] = bestDown;
+			this.viaUp[arc] = bestViaUp;
+			this.viaDown[arc] = bestViaDown;
+		}
+	}
+}
@@ -0,0 +1,328 @@
+package org.matsim.core.router.speedy;
+
+import gnu.trove.iterator.TIntIterator;
+import gnu.trove.set.hash.TIntHashSet;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.core.router.speedy.SpeedyGraph.LinkIterator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
+
+/**
+ * Metric-independent preprocessing data for the contraction hierarchies router, see {@link SpeedyCH}.
+ *
+ * The nodes of the graph are contracted in order of their degree, multiple independent nodes
+ * (not adjacent to each other) being contracted in the same round. Contracting a node connects all its
+ * not-yet-contracted neighbours with each other, independent of any travel costs. The resulting
+ * hierarchy is thus only based on the topology of the network and can be re-used for any travel
+ * disutility, which then only has to be applied in a fast customization step (see {@link SpeedyCHCustomization}).
+ *
+ * Each undirected arc is stored once at its lower-ranked node, together with its weight in the upward
+ * and in the downward direction. The arcs of each node are sorted by the rank of the higher node,
+ * so the first arc of each node points to its parent in the elimination tree.
+ *
+ * This class is thread-safe and can safely be used by multiple threads.
+ *
+ * @author mrieser / Simunto
+ */
+class SpeedyCHData {
+
+	private final static Logger LOG = LogManager.getLogger(SpeedyCHData.class);
+
+	final SpeedyGraph graph;
+	final int[] rank;
+	final int[] nodesByRank;
+	final int[] eliminationTreeParent;
+	final int[] level;
+	final int[] levelStart; // index into nodesByLevel, one additional entry at the end
+	final int[] nodesByLevel;
+
+	// upward arcs, stored at the lower node
+	final int arcCount;
+	final int[] upArcStart; // one additional entry at the end
+	final int[] arcTail;
+	final int[] arcHead;
+
+	// for each node all arcs coming from lower nodes, sorted by the rank of the lower node
+	final int[] downArcStart; // one additional entry at the end
+	final int[] downArcs;
+
+	public SpeedyCHData(SpeedyGraph graph, int numberOfThreads) {
+		this(graph, Executors.newFixedThreadPool(Math.max(1, numberOfThreads)), true);
+	}
+
+	/**
+	 * @param executor used for the parallel parts of the contraction, is not shut down
+	 */
+	SpeedyCHData(SpeedyGraph graph, ExecutorService executor) {
+		this(graph, executor, false);
+	}
+
+	private SpeedyCHData(SpeedyGraph graph, ExecutorService executor, boolean shutdownExecutor) {
+		this.graph = graph;
+		int nodeCount = graph.nodeCount;
+		this.rank = new int[nodeCount];
+		this.nodesByRank = new int[nodeCount];
+		this.eliminationTreeParent = new int[nodeCount];
+		this.level = new int[nodeCount];
+		this.upArcStart = new int[nodeCount + 1];
+		this.downArcStart = new int[nodeCount + 1];
+
+		try {
+			TIntHashSet[] neighbours = buildUndirectedGraph();
+			contract(neighbours, executor);
+
+			int arcs = 0;
+			for (int node = 0; node < nodeCount; node++) {
+				this.upArcStart[node] = arcs;
+				if (neighbours[node] != null) {
+					arcs += neighbours[node].size();
+				}
+			}
+			this.upArcStart[nodeCount] = arcs;
+			this.arcCount = arcs;
+			this.arcTail = new int[arcs];
+			this.arcHead = new int[arcs];
+			this.downArcs = new int[arcs];
+			buildArcs(neighbours, executor);
+		} finally {
+			if (shutdownExecutor) {
+				executor.shutdown();
+			}
+		}
+
+		int maxLevel = calcLevels();
+		this.levelStart = new int[maxLevel + 2];
+		this.nodesByLevel = new int[nodeCount];
+		for (int node = 0; node < nodeCount; node++) {
+			this.levelStart[this.level[node] + 1]++;
+		}
+		for (int l = 0; l <= maxLevel; l++) {
+			this.levelStart[l + 1] += this.levelStart[l];
+		}
+		int[] pos = Arrays.copyOf(this.levelStart, maxLevel + 1);
+		for (int r = 0; r < nodeCount; r++) {
+			int node = this.nodesByRank[r];
+			this.nodesByLevel[pos[this.level[node]]++] = node;
+		}
+		LOG.info("contraction hierarchy built with " + this.arcCount + " arcs and " + (maxLevel + 1) + " levels for " + graph.linkCount + " links.");
+	}
+
+	private TIntHashSet[] buildUndirectedGraph() {
+		TIntHashSet[] neighbours = new TIntHashSet[this.graph.nodeCount];
+		LinkIterator outLI = this.graph.getOutLinkIterator();
+		for (int node = 0; node < this.graph.nodeCount; node++) {
+			neighbours[node] = new TIntHashSet(8);
+		}
+		for (int node = 0; node < this.graph.nodeCount; node++) {
+			outLI.reset(node);
+			while (outLI.next()) {
+				int toNode = outLI.getToNodeIndex();
+				if (toNode != node) {
+					neighbours[node].add(toNode);
+					neighbours[toNode].add(node);
+				}
+			}
+		}
+		return neighbours;
+	}
+
+	/**
+	 * Contracts all nodes. After this method, <code>neighbours[node]</code> only contains the
+	 * higher-ranked neighbours of each node, including the shortcuts.
+	 */
+	private void contract(TIntHashSet[] neighbours, ExecutorService executor) {
+		LOG.info("contract nodes...");
+		int nodeCount = this.graph.nodeCount;
+		int[] remaining = new int[nodeCount];
+		for (int i = 0; i < nodeCount; i++) {
+			remaining[i] = i;
+		}
+		int remainingCount = nodeCount;
+		boolean[] contracted = new boolean[nodeCount];
+		boolean[] selected = new boolean[nodeCount];
+		int nextRank = 0;
+		int rounds = 0;
+
+		while (remainingCount > 0) {
+			rounds++;
+			final int[] candidates = remaining;
+			final int candidatesCount = remainingCount;
+
+			// select an independent set: all nodes whose priority is lower than the one of all their remaining neighbours
+			parallelFor(executor, candidatesCount, i -> {
+				int node = candidates[i];
+				long priority = priority(node, neighbours[node].size());
+				boolean isMinimum = true;
+				TIntIterator iter = neighbours[node].iterator();
+				while (iter.hasNext()) {
+					int neighbour = iter.next();
+					if (priority(neighbour, neighbours[neighbour].size()) < priority) {
+						isMinimum = false;
+						break;
+					}
+				}
+				selected[node] = isMinimum;
+			});
+
+			int newRemainingCount = 0;
+			int[] newRemaining = new int[candidatesCount];
+			List<Integer> selectedNodes = new ArrayList<>();
+			for (int i = 0; i < candidatesCount; i++) {
+				int node = candidates[i];
+				if (selected[node]) {
+					selectedNodes.add(node);
+				} else {
+					newRemaining[newRemainingCount++] = node;
+				}
+			}
+			selectedNodes.sort((n1, n2) -> Long.compare(priority(n1, neighbours[n1].size()), priority(n2, neighbours[n2].size())));
+			for (int node : selectedNodes) {
+				this.rank[node] = nextRank;
+				this.nodesByRank[nextRank] = node;
+				nextRank++;
+				contracted[node] = true;
+			}
+
+			// connect the neighbours of each selected node with each other
+			parallelFor(executor, selectedNodes.size(), i -> {
+				int node = selectedNodes.get(i);
+				int[] nodeNeighbours = neighbours[node].toArray();
+				for (int neighbour : nodeNeighbours) {
+					TIntHashSet set = neighbours[neighbour];
+					synchronized (set) {
+						set.remove(node);
+						for (int other : nodeNeighbours) {
+							if (other != neighbour) {
+								set.add(other);
+							}
+						}
+					}
+				}
+			});
+			for (int node : selectedNodes) {
+				selected[node] = false;
+			}
+
+			remaining = newRemaining;
+			remainingCount = newRemainingCount;
+		}
+		LOG.info("contracted " + nodeCount + " nodes in " + rounds + " rounds.");
+	}
+
+	private static long priority(int node, int degree) {
+		// prefer low degrees, break ties with a hash of the index to avoid long chains of equal priority
+		int hash = node * 0x9E3779B1;
+		hash ^= hash >>> 16;
+		return ((long) degree << 32) | (hash & 0xFFFFFFFFL);
+	}
+
+	private void buildArcs(TIntHashSet[] neighbours, ExecutorService executor) {
+		int nodeCount = this.graph.nodeCount;
+		parallelFor(executor, nodeCount, node -> {
+			int[] upNodes = neighbours[node].toArray();
+			int[] upRanks = new int[upNodes.length];
+			for (int i = 0; i < upNodes.length; i++) {
+				upRanks[i] = this.rank[upNodes[i]];
+			}
+			Arrays.sort(upRanks);
+			int arc = this.upArcStart[node];
+			for (int upRank : upRanks) {
+				this.arcTail[arc] = node;
+				this.arcHead[arc] = this.nodesByRank[upRank];
+				arc++;
+			}
+			this.eliminationTreeParent[node] = upRanks.length == 0 ? -1 : this.nodesByRank[upRanks[0]];
+		});
+
+		// build the downward arcs, iterating over the nodes by rank keeps them sorted by the rank of the lower node
+		for (int arc = 0; arc < this.arcCount; arc++) {
+			this.downArcStart[this.arcHead[arc] + 1]++;
+		}
+		for (int node = 0; node < nodeCount; node++) {
+			this.downArcStart[node + 1] += this.downArcStart[node];
+		}
+		int[] pos = Arrays.copyOf(this.downArcStart, nodeCount);
+		for (int r = 0; r < nodeCount; r++) {
+			int node = this.nodesByRank[r];
+			for (int arc = this.upArcStart[node]; arc < this.upArcStart[node + 1]; arc++) {
+				this.downArcs[pos[this.arcHead[arc]]++] = arc;
+			}
+		}
+	}
+
+	/**
+	 * Assigns a level to each node, such that all lower neighbours of a node have a lower level.
+	 * All nodes of the same level can then be customized in parallel.
+	 */
+	private int calcLevels() {
+		int maxLevel = 0;
+		for (int r = 0; r < this.graph.nodeCount; r++) {
+			int node = this.nodesByRank[r];
+			int l = 0;
+			for (int i = this.downArcStart[node]; i < this.downArcStart[node + 1]; i++) {
+				l = Math.max(l, this.level[this.arcTail[this.downArcs[i]]] + 1);
+			}
+			this.level[node] = l;
+			maxLevel = Math.max(maxLevel, l);
+		}
+		return maxLevel;
+	}
+
+	/**
+	 * @return the index of the arc between the two nodes, or -1 if the nodes are not adjacent in the hierarchy.
+	 */
+	int getArc(int node1, int node2) {
+		int low = this.rank[node1] < this.rank[node2] ? node1 : node2;
+		int high = low == node1 ? node2 : node1;
+		int highRank = this.rank[high];
+		int from = this.upArcStart[low];
+		int to = this.upArcStart[low + 1] - 1;
+		while (from <= to) {
+			int mid = (from + to) >>> 1;
+			int midRank = this.rank[this.arcHead[mid]];
+			if (midRank < highRank) {
+				from = mid + 1;
+			} else if (midRank > highRank) {
+				to = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -1;
+	}
+
+	static void parallelFor(ExecutorService executor, int count, IntConsumer consumer) {
+		final int chunkSize = 1024;
+		if (count <= chunkSize) {
+			for (int i = 0; i < count; i++) {
+				consumer.accept(i);
+			}
+			return;
+		}
+		List<Future<?>> futures = new ArrayList<>();
+		for (int start = 0; start < count; start += chunkSize) {
+			final int from = start;
+			final int to = Math.min(count, start + chunkSize);
+			futures.add(executor.submit(() -> {
+				for (int i = from; i < to; i++) {
+					consumer.accept(i);
+				}
+			}));
+		}
+		for (Future<?> future : futures) {
+			try {
+				future.get();
+			} catch (InterruptedException | ExecutionException e) {
+				throw new RuntimeException(e);
+			}
+		}
+	}
+}
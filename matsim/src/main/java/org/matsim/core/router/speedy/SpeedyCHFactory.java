@@ -0,0 +1,183 @@
+package org.matsim.core.router.speedy;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.core.config.groups.GlobalConfigGroup;
+import org.matsim.core.controler.events.IterationStartsEvent;
+import org.matsim.core.controler.events.ShutdownEvent;
+import org.matsim.core.controler.listener.IterationStartsListener;
+import org.matsim.core.controler.listener.ShutdownListener;
+import org.matsim.core.router.costcalculators.RandomizingTimeDistanceTravelDisutilityFactory;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.LeastCostPathCalculatorFactory;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates {@link SpeedyCH} instances. The contraction hierarchy is built once per network, and the
+ * customizations are cached per time bin. Routers created for a routing mode (see
+ * {@link #createPathCalculator(Network, TravelDisutility, TravelTime, String)}) share the customizations of
+ * that mode, even though each router has its own travel disutility instance. Routers created without a routing
+ * mode share the customizations only if they use the same travel time and travel disutility instances. As the
+ * travel times usually change between iterations, the cached customizations are discarded at the start of
+ * each iteration, or when {@link #resetCustomizations()} is called.
+ *
+ * All contractions and customizations run on one executor, which is shut down at the end of the run,
+ * or when {@link #shutdown()} is called.
+ *
+ * The customizations do not depend on the person. Randomized travel disutilities (see
+ * {@link RandomizingTimeDistanceTravelDisutilityFactory}) are thus applied without randomization, so all persons
+ * get the route with the least expected travel disutility.
+ *
+ * @author mrieser / Simunto
+ */
+@Singleton
+public class SpeedyCHFactory implements LeastCostPathCalculatorFactory, IterationStartsListener, ShutdownListener {
+
+	private final static Logger LOG = LogManager.getLogger(SpeedyCHFactory.class);
+	private final static double DEFAULT_TIME_BIN_SIZE = 3600;
+
+	private final int numberOfThreads;
+	private final double timeBinSize;
+	private final Map<Network, SpeedyGraph> graphs = new ConcurrentHashMap<>();
+	private final Map<SpeedyGraph, SpeedyCHData> chData = new ConcurrentHashMap<>();
+	private final Map<CustomizationKey, SpeedyCHCustomization> customizations = new ConcurrentHashMap<>();
+	private final AtomicBoolean randomnessWarned = new AtomicBoolean(false);
+	private ExecutorService executor = null;
+
+	@Inject
+	public SpeedyCHFactory(GlobalConfigGroup globalConfig) {
+		this(globalConfig.getNumberOfThreads(), DEFAULT_TIME_BIN_SIZE);
+	}
+
+	public SpeedyCHFactory(int numberOfThreads, double timeBinSize) {
+		this.numberOfThreads = Math.max(1, numberOfThreads);
+		this.timeBinSize = timeBinSize;
+	}
+
+	@Override
+	public LeastCostPathCalculator createPathCalculator(Network network, TravelDisutility travelCosts, TravelTime travelTimes) {
+		// the travel disutility is compared by identity, as instances of the same class may use different parameters (e.g. per mode)
+		return createPathCalculator(network, travelCosts, travelTimes, new IdentityKey(travelTimes, travelCosts));
+	}
+
+	@Override
+	public LeastCostPathCalculator createPathCalculator(Network network, TravelDisutility travelCosts, TravelTime travelTimes, String routingMode) {
+		return createPathCalculator(network, travelCosts, travelTimes, (Object) routingMode);
+	}
+
+	private LeastCostPathCalculator createPathCalculator(Network network, TravelDisutility travelCosts, TravelTime travelTimes, Object costKey) {
+		SpeedyGraph graph = this.graphs.computeIfAbsent(network, SpeedyGraph::new);
+		SpeedyCHData ch = this.chData.computeIfAbsent(graph, g -> new SpeedyCHData(g, getExecutor()));
+		return new SpeedyCH(ch, travelTimes, travelCosts, time -> {
+			int timeBin = (int) Math.max(0, time / this.timeBinSize);
+			CustomizationKey key = new CustomizationKey(ch, costKey, timeBin);
+			return this.customizations.computeIfAbsent(key, k -> new SpeedyCHCustomization(ch, getCustomizationDisutility(travelCosts), timeBin * this.timeBinSize, getExecutor()));
+		});
+	}
+
+	private synchronized ExecutorService getExecutor() {
+		if (this.executor == null) {
+			AtomicInteger threadCount = new AtomicInteger(0);
+			this.executor = Executors.newFixedThreadPool(this.numberOfThreads, r -> {
+				Thread thread = new Thread(r, "SpeedyCH-" + threadCount.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return this.executor;
+	}
+
+	private TravelDisutility getCustomizationDisutility(TravelDisutility travelCosts) {
+		TravelDisutility td = RandomizingTimeDistanceTravelDisutilityFactory.withoutRandomness(travelCosts);
+		if (td != travelCosts && !this.randomnessWarned.getAndSet(true)) {
+			LOG.warn("SpeedyCH does not support routing randomness, routes are calculated with the expected travel disutility.");
+		}
+		return td;
+	}
+
+	public void resetCustomizations() {
+		this.customizations.clear();
+	}
+
+	@Override
+	public void notifyIterationStarts(IterationStartsEvent event) {
+		resetCustomizations();
+	}
+
+	/**
+	 * Shuts down the threads used for the contractions and customizations. They are started again if needed.
+	 */
+	public synchronized void shutdown() {
+		if (this.executor != null) {
+			this.executor.shutdown();
+			this.executor = null;
+		}
+	}
+
+	@Override
+	public void notifyShutdown(ShutdownEvent event) {
+		shutdown();
+	}
+
+	private static final class CustomizationKey {
+		private final SpeedyCHData chData;
+		private final Object costKey;
+		private final int timeBin;
+
+		CustomizationKey(SpeedyCHData chData, Object costKey, int timeBin) {
+			this.chData = chData;
+			this.costKey = costKey;
+			this.timeBin = timeBin;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof CustomizationKey)) {
+				return false;
+			}
+			CustomizationKey other = (CustomizationKey) o;
+			return this.chData == other.chData && this.costKey.equals(other.costKey) && this.timeBin == other.timeBin;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(System.identityHashCode(this.chData), this.costKey, this.timeBin);
+		}
+	}
+
+	private static final class IdentityKey {
+		private final TravelTime travelTime;
+		private final TravelDisutility travelDisutility;
+
+		IdentityKey(TravelTime travelTime, TravelDisutility travelDisutility) {
+			this.travelTime = travelTime;
+			this.travelDisutility = travelDisutility;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof IdentityKey)) {
+				return false;
+			}
+			IdentityKey other = (IdentityKey) o;
+			return this.travelTime == other.travelTime && this.travelDisutility == other.travelDisutility;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(System.identityHashCode(this.travelTime), System.identityHashCode(this.travelDisutility));
+		}
+	}
+}
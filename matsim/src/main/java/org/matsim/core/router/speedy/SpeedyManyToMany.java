@@ -0,0 +1,202 @@
+package org.matsim.core.router.speedy;
+
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.router.speedy.LeastCostPathTree.StopCriterion;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.vehicles.Vehicle;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Calculates least-cost-path trees from many origins in parallel, e.g. to build zone-to-zone skim matrices.
+ *
+ * The origins are split recursively into ranges which are processed by a {@link ForkJoinPool}, so threads
+ * that finish early steal work from the others. Each thread uses its own {@link LeastCostPathTree}; the trees
+ * are kept and re-used by later calls, so computing matrices for several times of day does not allocate
+ * new trees.
+ *
+ * Use {@link #calculateMatrices(int[], int[], double, Person, Vehicle, StopCriterion)} to get dense node-to-node
+ * matrices, or {@link #forEachOrigin(int, OriginTask)} to evaluate the trees directly, e.g. to aggregate multiple
+ * nodes per zone without storing a node-to-node matrix.
+ *
+ * The travel time and travel disutility must be thread-safe. Instances of this class are thread-safe,
+ * but concurrent calls compete for the same number of threads.
+ *
+ * @author mrieser / Simunto
+ */
+public final class SpeedyManyToMany {
+
+	private final SpeedyGraph graph;
+	private final TravelTime tt;
+	private final TravelDisutility td;
+	private final int numberOfThreads;
+	private final ConcurrentLinkedQueue<LeastCostPathTree> trees = new ConcurrentLinkedQueue<>();
+
+	public SpeedyManyToMany(SpeedyGraph graph, TravelTime tt, TravelDisutility td, int numberOfThreads) {
+		this.graph = graph;
+		this.tt = tt;
+		this.td = td;
+		this.numberOfThreads = Math.max(1, numberOfThreads);
+	}
+
+	public interface OriginTask {
+		/**
+		 * Called once for each origin, concurrently from multiple threads. The task must calculate the tree itself,
+		 * which is only valid until the method returns.
+		 */
+		void run(int originIndex, LeastCostPathTree tree);
+	}
+
+	/**
+	 * Calls the task for each origin index in <code>[0, originCount)</code> and returns once all are done.
+	 * If a task throws an exception, it is re-thrown by this method.
+	 */
+	public void forEachOrigin(int originCount, OriginTask task) {
+		if (originCount == 0) {
+			return;
+		}
+		int grainSize = Math.max(1, originCount / (this.numberOfThreads * 16));
+		ForkJoinPool pool = new ForkJoinPool(this.numberOfThreads);
+		try {
+			pool.invoke(new OriginRange(0, originCount, grainSize, task));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Calculates the travel time, distance and cost from each of the <code>fromNodes</code> to each of the <code>toNodes</code>.
+	 * Nodes that cannot be reached, or that are not reached before the stop criterion is met, get a value of
+	 * {@link Float#POSITIVE_INFINITY}.
+	 *
+	 * @param fromNodes the indices of the origin nodes, become the rows of the matrices
+	 * @param toNodes the indices of the destination nodes, become the columns of the matrices
+	 * @param stopCriterion can be used to limit the search, e.g. by {@link LeastCostPathTree.TravelTimeStopCriterion}, or <code>null</code>
+	 */
+	public Matrices calculateMatrices(int[] fromNodes, int[] toNodes, double departureTime, Person person, Vehicle vehicle, StopCriterion stopCriterion) {
+		Matrices matrices = new Matrices(fromNodes.length, toNodes.length);
+		forEachOrigin(fromNodes.length, (row, tree) -> {
+			if (stopCriterion == null) {
+				tree.calculate(fromNodes[row], departureTime, person, vehicle);
+			} else {
+				tree.calculate(fromNodes[row], departureTime, person, vehicle, stopCriterion);
+			}
+			int offset = row * matrices.columns;
+			for (int col = 0; col < toNodes.length; col++) {
+				int node = toNodes[col];
+				if (tree.isFinal(node)) {
+					matrices.travelTimes[offset + col] = (float) (tree.getTime(node).seconds() - departureTime);
+					matrices.distances[offset + col] = (float) tree.getDistance(node);
+					matrices.costs[offset + col] = (float) tree.getCost(node);
+				}
+			}
+		});
+		return matrices;
+	}
+
+	private LeastCostPathTree borrowTree() {
+		LeastCostPathTree tree = this.trees.poll();
+		return tree != null ? tree : new LeastCostPathTree(this.graph, this.tt, this.td);
+	}
+
+	private final class OriginRange extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final int from;
+		private final int to;
+		private final int grainSize;
+		private final OriginTask task;
+
+		OriginRange(int from, int to, int grainSize, OriginTask task) {
+			this.from = from;
+			this.to = to;
+			this.grainSize = grainSize;
+			this.task = task;
+		}
+
+		@Override
+		protected void compute() {
+			if (this.to - this.from <= this.grainSize) {
+				LeastCostPathTree tree = borrowTree();
+				try {
+					for (int i = this.from; i < this.to; i++) {
+						this.task.run(i, tree);
+					}
+				} finally {
+					SpeedyManyToMany.this.trees.add(tree);
+				}
+				return;
+			}
+			int mid = (this.from + this.to) >>> 1;
+			invokeAll(new OriginRange(this.from, mid, this.grainSize, this.task), new OriginRange(mid, this.to, this.grainSize, this.task));
+		}
+	}
+
+	/**
+	 * Dense row-major matrices with one row per origin and one column per destination. With 4 bytes per
+	 * cell and matrix, a 10'000 x 10'000 matrix requires 400 MB.
+	 */
+	public static final class Matrices {
+		private final int rows;
+		private final int columns;
+		private final float[] travelTimes;
+		private final float[] distances;
+		private final float[] costs;
+
+		Matrices(int rows, int columns) {
+			this.rows = rows;
+			this.columns = columns;
+			int size = Math.multiplyExact(rows, columns);
+			this.travelTimes = new float[size];
+			this.distances = new float[size];
+			this.costs = new float[size];
+			Arrays.fill(this.travelTimes, Float.POSITIVE_INFINITY);
+			Arrays.fill(this.distances, Float.POSITIVE_INFINITY);
+			Arrays.fill(this.costs, Float.POSITIVE_INFINITY);
+		}
+
+		public int getRowCount() {
+			return this.rows;
+		}
+
+		public int getColumnCount() {
+			return this.columns;
+		}
+
+		public float getTravelTime(int row, int column) {
+			return this.travelTimes[row * this.columns + column];
+		}
+
+		public float getDistance(int row, int column) {
+			return this.distances[row * this.columns + column];
+		}
+
+		public float getCost(int row, int column) {
+			return this.costs[row * this.columns + column];
+		}
+
+		/**
+		 * @return the travel times of all cells in row-major order, not a copy
+		 */
+		public float[] getTravelTimes() {
+			return this.travelTimes;
+		}
+
+		/**
+		 * @return the distances of all cells in row-major order, not a copy
+		 */
+		public float[] getDistances() {
+			return this.distances;
+		}
+
+		/**
+		 * @return the costs of all cells in row-major order, not a copy
+		 */
+		public float[] getCosts() {
+			return this.costs;
+		}
+	}
+}
@@ -38,4 +38,13 @@ public interface LeastCostPathCalculatorFactory extends MatsimFactory, MatsimExt
 	
 	public LeastCostPathCalculator createPathCalculator(final Network network, final TravelDisutility travelCosts, final TravelTime travelTimes);
 
+	/**
+	 * Creates a path calculator for the given routing mode. All path calculators created for the same network and
+	 * routing mode use the same travel times and the same kind of travel disutility, so factories may share data
+	 * between them. By default, the routing mode is ignored.
+	 */
+	public default LeastCostPathCalculator createPathCalculator(final Network network, final TravelDisutility travelCosts, final TravelTime travelTimes, final String routingMode) {
+		return createPathCalculator(network, travelCosts, travelTimes);
+	}
+
 }
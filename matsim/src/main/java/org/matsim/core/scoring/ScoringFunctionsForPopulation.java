@@ -48,6 +48,7 @@ import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.api.experimental.events.TeleportationArrivalEvent;
 import org.matsim.core.api.experimental.events.VehicleArrivesAtFacilityEvent;
 import org.matsim.core.api.internal.HasPersonId;
+import org.matsim.core.config.groups.PlanCalcScoreConfigGroup;
 import org.matsim.core.controler.ControlerListenerManager;
 import org.matsim.core.controler.listener.IterationStartsListener;
 import org.matsim.core.events.EventsUtils;
@@ -61,8 +62,12 @@ import org.matsim.vehicles.Vehicle;
 
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.matsim.core.router.TripStructureUtils.Trip;
@@ -71,6 +76,12 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
  * This class helps EventsToScore by keeping ScoringFunctions for the entire Population - one per Person -, and dispatching Activities
  * and Legs to the ScoringFunctions. It also gives out the ScoringFunctions, so they can be given other events by EventsToScore.
  * It is not independently useful. Please do not make public.
+ * <p>
+ * If {@link PlanCalcScoreConfigGroup#getNumberOfScoringThreads()} is larger than 1, the persons are partitioned by
+ * {@link Id#index()} and the calls to their scoring functions are collected in batches per partition, which are
+ * processed by one thread per partition. Events are still converted to legs and activities on the events handling
+ * thread, so every scoring function sees exactly the same calls in the same order as without partitioning, and the
+ * scores do not change. The scoring functions are only guaranteed to be complete after {@link #finishScoringFunctions()}.
  * 
  * @author michaz
  *
@@ -90,14 +101,28 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 	
 	private final Vehicle2DriverEventHandler vehicles2Drivers = new Vehicle2DriverEventHandler();
 
-	@Inject
+	private final int numberOfThreads;
+	private ScoringPartition[] partitions = null;
+
 	ScoringFunctionsForPopulation(ControlerListenerManager controlerListenerManager, EventsManager eventsManager, EventsToActivities eventsToActivities, EventsToLegs eventsToLegs,
 						 Population population, ScoringFunctionFactory scoringFunctionFactory) {
+		this(controlerListenerManager, eventsManager, eventsToActivities, eventsToLegs, population, scoringFunctionFactory, 1);
+	}
+
+	@Inject
+	ScoringFunctionsForPopulation(ControlerListenerManager controlerListenerManager, EventsManager eventsManager, EventsToActivities eventsToActivities, EventsToLegs eventsToLegs,
+						 Population population, ScoringFunctionFactory scoringFunctionFactory, PlanCalcScoreConfigGroup planCalcScoreConfigGroup) {
+		this(controlerListenerManager, eventsManager, eventsToActivities, eventsToLegs, population, scoringFunctionFactory, planCalcScoreConfigGroup.getNumberOfScoringThreads());
+	}
+
+	ScoringFunctionsForPopulation(ControlerListenerManager controlerListenerManager, EventsManager eventsManager, EventsToActivities eventsToActivities, EventsToLegs eventsToLegs,
+						 Population population, ScoringFunctionFactory scoringFunctionFactory, int numberOfThreads) {
 		controlerListenerManager.addControlerListener((IterationStartsListener) event -> init());
 		this.population = population;
 		this.legsDelegate = eventsToLegs;
 		this.actsDelegate = eventsToActivities;
 		this.scoringFunctionFactory = scoringFunctionFactory;
+		this.numberOfThreads = numberOfThreads;
 
 		eventsManager.addHandler(this);
 		eventsToActivities.addActivityHandler(this::handleActivity);
@@ -111,6 +136,23 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 			this.partialScores.put(person.getId(), new TDoubleArrayList());
 			this.tripRecords.put(person.getId(), PopulationUtils.createPlan());
 		}
+		if (this.numberOfThreads > 1 && this.partitions == null) {
+			this.partitions = new ScoringPartition[this.numberOfThreads];
+			for (int i = 0; i < this.numberOfThreads; i++) {
+				this.partitions[i] = new ScoringPartition(i);
+			}
+		}
+	}
+
+	/**
+	 * Runs the task directly, or, if the persons are partitioned, appends it to the batch of the person's partition.
+	 */
+	private void runForPerson(Id<Person> personId, Runnable task) {
+		if (this.partitions == null) {
+			task.run();
+		} else {
+			this.partitions[personId.index() % this.partitions.length].add(task);
+		}
 	}
 
 	@Override
@@ -121,19 +163,14 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 		// link enter/leave events are NOT passed on, for performance reasons.
 		// kai/dominik, dec'12
 		if (o instanceof HasPersonId) {
-			ScoringFunction scoringFunction = getScoringFunctionForAgent(((HasPersonId) o).getPersonId());
+			Id<Person> personId = ((HasPersonId) o).getPersonId();
+			ScoringFunction scoringFunction = getScoringFunctionForAgent(personId);
 			if (scoringFunction != null) {
-				if (o instanceof PersonStuckEvent) {
-					scoringFunction.agentStuck(o.getTime());
-				} else if (o instanceof PersonMoneyEvent) {
-					scoringFunction.addMoney(((PersonMoneyEvent) o).getAmount());
-					// yy looking at this, I am a bit skeptic if it truly makes sense to not pass this additionally into the general events handling function below.
-					// A use case might be different utilities of money by money transaction type (e.g. toll, fare, reimbursement, ...).  kai, mar'17
-				} else if (o instanceof PersonScoreEvent) {
-					scoringFunction.addScore(((PersonScoreEvent) o).getAmount());
+				if (this.partitions == null) {
+					handlePersonEvent(scoringFunction, o);
+				} else {
+					runForPerson(personId, () -> handlePersonEvent(scoringFunction, o));
 				}
-				scoringFunction.handleEvent(o);
-				// passing this on in any case, see comment above.  kai, mar'17
 			}
 		}
 
@@ -158,7 +195,12 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 			ScoringFunction scoringFunction = getScoringFunctionForAgent( driverId );
 			// (this will NOT do the scoring function lookup twice since LinkEnterEvent is not an instance of HasPersonId.  kai, mar'17)
 			if (scoringFunction != null) {
-				scoringFunction.handleEvent(o);
+				if (this.partitions == null) {
+					scoringFunction.handleEvent(o);
+				} else {
+					// (the driver is looked up here and not in the partition, as the vehicles are not partitioned)
+					runForPerson(driverId, () -> scoringFunction.handleEvent(o));
+				}
 			}
 		}
 
@@ -183,10 +225,28 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 		if (o instanceof VehicleLeavesTrafficEvent) this.legsDelegate.handleEvent((VehicleLeavesTrafficEvent) o);
 	}
 
+	private static void handlePersonEvent(ScoringFunction scoringFunction, Event o) {
+		if (o instanceof PersonStuckEvent) {
+			scoringFunction.agentStuck(o.getTime());
+		} else if (o instanceof PersonMoneyEvent) {
+			scoringFunction.addMoney(((PersonMoneyEvent) o).getAmount());
+			// yy looking at this, I am a bit skeptic if it truly makes sense to not pass this additionally into the general events handling function below.
+			// A use case might be different utilities of money by money transaction type (e.g. toll, fare, reimbursement, ...).  kai, mar'17
+		} else if (o instanceof PersonScoreEvent) {
+			scoringFunction.addScore(((PersonScoreEvent) o).getAmount());
+		}
+		scoringFunction.handleEvent(o);
+		// passing this on in any case, see comment above.  kai, mar'17
+	}
+
 	private void handleActivityStart(ActivityStartEvent event) {
 		this.actsDelegate.handleEvent(event);
 		if (!StageActivityTypeIdentifier.isStageActivity( event.getActType() ) ) {
-			this.callTripScoring(event);
+			if (this.partitions == null) {
+				this.callTripScoring(event);
+			} else {
+				runForPerson(event.getPersonId(), () -> this.callTripScoring(event));
+			}
 		}
 	}
 
@@ -219,6 +279,14 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 	}
 
 	void handleLeg(PersonExperiencedLeg o) {
+		if (this.partitions == null) {
+			scoreLeg(o);
+		} else {
+			runForPerson(o.getAgentId(), () -> scoreLeg(o));
+		}
+	}
+
+	private void scoreLeg(PersonExperiencedLeg o) {
 		Id<Person> agentId = o.getAgentId();
 		Leg leg = o.getLeg();
 		ScoringFunction scoringFunction = ScoringFunctionsForPopulation.this.getScoringFunctionForAgent(agentId);
@@ -234,6 +302,14 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 	}
 
 	void handleActivity(PersonExperiencedActivity o) {
+		if (this.partitions == null) {
+			scoreActivity(o);
+		} else {
+			runForPerson(o.getAgentId(), () -> scoreActivity(o));
+		}
+	}
+
+	private void scoreActivity(PersonExperiencedActivity o) {
 		Id<Person> agentId = o.getAgentId();
 		Activity activity = o.getActivity();
 		ScoringFunction scoringFunction = ScoringFunctionsForPopulation.this.getScoringFunctionForAgent(agentId);
@@ -264,6 +340,19 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 	}
 
 	public void finishScoringFunctions() {
+		boolean partitioned = this.partitions != null;
+		if (partitioned) {
+			for (Entry<Id<Person>, ScoringFunction> entry : this.agentScorers.entrySet()) {
+				ScoringFunction sf = entry.getValue();
+				runForPerson(entry.getKey(), sf::finish);
+			}
+			for (Entry<Id<Person>, TDoubleCollection> entry : this.partialScores.entrySet()) {
+				TDoubleCollection partialScoresForAgent = entry.getValue();
+				ScoringFunction sf = this.getScoringFunctionForAgent(entry.getKey());
+				runForPerson(entry.getKey(), () -> partialScoresForAgent.add(sf.getScore()));
+			}
+			shutdownPartitions();
+		}
 		// Rethrow an exception in a scoring function (user code) if there was one.
 		Throwable throwable = this.exception.get();
 		if (throwable != null) {
@@ -273,6 +362,10 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 				throw new RuntimeException(throwable);
 			}
 		}
+		if (partitioned) {
+			// already done by the partitions
+			return;
+		}
 		for (ScoringFunction sf : this.agentScorers.values()) {
 			sf.finish();
 		}
@@ -281,6 +374,24 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 		}
 	}
 
+	private void shutdownPartitions() {
+		ScoringPartition[] partitions = this.partitions;
+		this.partitions = null;
+		for (ScoringPartition partition : partitions) {
+			partition.flush();
+			partition.executor.shutdown();
+		}
+		try {
+			for (ScoringPartition partition : partitions) {
+				while (!partition.executor.awaitTermination(1, TimeUnit.MINUTES)) {
+					// wait until all scoring functions are finished
+				}
+			}
+		} catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
 	public void writePartialScores(String iterationFilename) {
 		try ( BufferedWriter out = IOUtils.getBufferedWriter(iterationFilename) ) {
 			for (Entry<Id<Person>, TDoubleCollection> entry : this.partialScores.entrySet()) {
@@ -297,6 +408,51 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 		}
 	}
 
+	/**
+	 * Collects the tasks of one partition in batches, which are processed in order by a single thread.
+	 */
+	private final class ScoringPartition {
+		private static final int BATCH_SIZE = 1024;
+
+		private final ExecutorService executor;
+		private List<Runnable> batch = new ArrayList<>(BATCH_SIZE);
+
+		ScoringPartition(int index) {
+			this.executor = Executors.newSingleThreadExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "ScoringFunctionsForPopulation." + index);
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+
+		void add(Runnable task) {
+			this.batch.add(task);
+			if (this.batch.size() >= BATCH_SIZE) {
+				flush();
+			}
+		}
+
+		void flush() {
+			if (this.batch.isEmpty()) {
+				return;
+			}
+			List<Runnable> tasks = this.batch;
+			this.batch = new ArrayList<>(BATCH_SIZE);
+			this.executor.execute(() -> {
+				if (exception.get() != null) {
+					return;
+				}
+				try {
+					for (Runnable task : tasks) {
+						task.run();
+					}
+				} catch (Throwable t) {
+					exception.compareAndSet(null, t);
+				}
+			});
+		}
+	}
+
 	@Override
 	public void reset(int iteration) {
 		this.legsDelegate.reset(iteration);
@@ -104,6 +104,8 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 	@Inject private QSimConfigGroup qsimConfig ;
 	TravelTimeGetter travelTimeGetter ;
 
+	private volatile TravelTimeSnapshot snapshot = null;
+
 	@Deprecated // user builder instead.  kai, feb'19
 	public static TravelTimeCalculator create(Network network, TravelTimeCalculatorConfigGroup group) {
 		TravelTimeCalculator calculator = new TravelTimeCalculator(network, group);
@@ -294,6 +296,7 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 				final int timeSlot = this.aggregator.getTimeSlotIndex(enterTime );
 				data.addTravelTime(timeSlot, e.getTime() - enterTime );
 				data.setNeedsConsolidation( true );
+				invalidateSnapshot();
 			}
 		}
 	}
@@ -333,6 +336,7 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 		if (e != null) {
 			TravelTimeData data = this.dataContainerProvider.getTravelTimeData(e.getLinkId(), true);
 			data.setNeedsConsolidation( true );
+			invalidateSnapshot();
 
 			//			this.aggregator.addStuckEventTravelTime(data, e.getTime(), event.getTime());
 			// this functionality is no longer there.
@@ -368,6 +372,14 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 	private double getLinkTravelTime(final Link link, final double time) {
 		if (this.calculateLinkTravelTimes) {
 
+			TravelTimeSnapshot snapshot = this.snapshot;
+			if (snapshot != null) {
+				double travelTime = snapshot.getTravelTime(link, time);
+				if (!Double.isNaN(travelTime)) {
+					return travelTime;
+				}
+			}
+
 			TravelTimeData data = this.dataContainerProvider.getTravelTimeData(link, true);
 			if ( data.isNeedingConsolidation() ) {
 				consolidateData(data);
@@ -434,6 +446,37 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 		}
 		this.linkEnterEvents.clear();
 		this.vehiclesToIgnore.clear();
+		this.snapshot = null;
+	}
+
+	/**
+	 * Consolidates the observed link travel times and copies them into a flat array, which is then used
+	 * to answer the travel time requests of the routers until the travel times change again (e.g. by new
+	 * events or by a call to {@link #reset(int)}). This avoids the lookup of the data container and the
+	 * time slot computation for each request, but does not change the returned travel times.
+	 * <p></p>
+	 * Typically called after the mobsim, see {@link TravelTimeCalculatorConfigGroup#isUseTravelTimeSnapshot()}.
+	 */
+	public void createTravelTimeSnapshot() {
+		if (!this.calculateLinkTravelTimes) {
+			return;
+		}
+		for (TravelTimeData data : this.linkData.values()) {
+			if (data.isNeedingConsolidation()) {
+				consolidateData(data);
+			}
+		}
+		TravelTimeSnapshot snapshot = TravelTimeSnapshot.create(this.linkData, this.numSlots, this.timeSlice, this.travelTimeGetter);
+		if (snapshot == null) {
+			log.warn("Travel time snapshots are only supported with the array based travel time data and the default travel time getters, ignoring.");
+		}
+		this.snapshot = snapshot;
+	}
+
+	private void invalidateSnapshot() {
+		if (this.snapshot != null) {
+			this.snapshot = null;
+		}
 	}
 
 	/**
@@ -29,8 +29,11 @@ import com.google.inject.name.Names;
 
 import org.matsim.api.core.v01.network.Network;
 import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
 import org.matsim.core.config.groups.TravelTimeCalculatorConfigGroup;
 import org.matsim.core.controler.AbstractModule;
+import org.matsim.core.controler.events.AfterMobsimEvent;
+import org.matsim.core.controler.listener.AfterMobsimListener;
 import org.matsim.core.router.util.LinkToLinkTravelTime;
 import org.matsim.core.router.util.TravelTime;
 import org.matsim.core.utils.collections.CollectionUtils;
@@ -98,6 +101,10 @@ public class TravelTimeCalculatorModule extends AbstractModule {
 			}
 		}
 
+		if (getConfig().travelTimeCalculator().isUseTravelTimeSnapshot()) {
+			addControlerListenerBinding().to(TravelTimeSnapshotCreator.class);
+		}
+
 	}
 
 	private static class SingleModeTravelTimeCalculatorProvider implements Provider<TravelTimeCalculator> {
@@ -132,6 +139,24 @@ public class TravelTimeCalculatorModule extends AbstractModule {
 		}
 	}
 
+	private static class TravelTimeSnapshotCreator implements AfterMobsimListener {
+
+		@Inject Injector injector;
+		@Inject Config config;
+
+		@Override
+		public void notifyAfterMobsim(AfterMobsimEvent event) {
+			if (this.config.travelTimeCalculator().getSeparateModes()) {
+				for (String mode : this.config.plansCalcRoute().getNetworkModes()) {
+					this.injector.getInstance(Key.get(TravelTimeCalculator.class, Names.named(mode))).createTravelTimeSnapshot();
+				}
+			} else {
+				this.injector.getInstance(TravelTimeCalculator.class).createTravelTimeSnapshot();
+			}
+		}
+
+	}
+
 	private static class ObservedLinkTravelTimes implements Provider<TravelTime> {
 
 		@Inject
@@ -117,6 +117,15 @@ class TravelTimeDataArray extends TravelTimeData {
 		return freespeed;
 	}
 
+	/**
+	 * @return the travel time in milliseconds, or -1 if no travel time was observed in this time slot.
+	 */
+	int getObservedTravelTimeMillis(final int timeSlot) {
+		long val = this.data[timeSlot];
+		int tt = (int) val;
+		return (count(val) > 0 && tt >= 0) ? tt : -1;
+	}
+
 	/* package-private for debugging */ String cntToString(){
 		StringBuilder strb = new StringBuilder().append( "cnt=[ " );
 		for( int ii = 0 ; ii < this.data.length ; ii++ ){
@@ -0,0 +1,131 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * TravelTimeSnapshot.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2022 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.core.trafficmonitoring;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.IdMap;
+import org.matsim.api.core.v01.network.Link;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * A read-only copy of the observed link travel times, stored in one flat array with
+ * <code>numSlots</code> entries per link, indexed by the link's {@link Id#index()}.
+ * Router threads can look up the travel times without going through the data container provider,
+ * the {@link TravelTimeGetter} and the {@link TravelTimeData} objects.
+ *
+ * The travel times are stored in the same millisecond resolution as in {@link TravelTimeDataArray},
+ * so the results are exactly the same as without snapshot. Time bins without any observed travel time
+ * are not part of the snapshot, as their travel time depends on the (possibly time-variant) free speed.
+ * For these, {@link #getTravelTime(Link, double)} returns {@link Double#NaN} and the caller has
+ * to fall back to the regular calculation.
+ */
+final class TravelTimeSnapshot {
+
+	private static final int MISSING = -1;
+
+	private final int numSlots;
+	private final int timeSlice;
+	private final double halfBinSize;
+	private final boolean interpolate;
+	private final int linkCount;
+	private final int[] travelTimesMillis;
+
+	private TravelTimeSnapshot(int numSlots, int timeSlice, boolean interpolate, int linkCount) {
+		this.numSlots = numSlots;
+		this.timeSlice = timeSlice;
+		this.halfBinSize = ((double) timeSlice) / 2;
+		this.interpolate = interpolate;
+		this.linkCount = linkCount;
+		this.travelTimesMillis = new int[linkCount * numSlots];
+		Arrays.fill(this.travelTimesMillis, MISSING);
+	}
+
+	/**
+	 * @return the snapshot, or <code>null</code> if the travel time data or the getter are not supported.
+	 */
+	static TravelTimeSnapshot create(IdMap<Link, TravelTimeData> linkData, int numSlots, int timeSlice, TravelTimeGetter travelTimeGetter) {
+		boolean interpolate;
+		if (travelTimeGetter instanceof AveragingTravelTimeGetter) {
+			interpolate = false;
+		} else if (travelTimeGetter instanceof LinearInterpolatingTravelTimeGetter) {
+			interpolate = true;
+		} else {
+			return null;
+		}
+		int linkCount = 0;
+		for (Map.Entry<Id<Link>, TravelTimeData> e : linkData.entrySet()) {
+			if (!(e.getValue() instanceof TravelTimeDataArray)) {
+				return null;
+			}
+			linkCount = Math.max(linkCount, e.getKey().index() + 1);
+		}
+		TravelTimeSnapshot snapshot = new TravelTimeSnapshot(numSlots, timeSlice, interpolate, linkCount);
+		for (Map.Entry<Id<Link>, TravelTimeData> e : linkData.entrySet()) {
+			TravelTimeDataArray data = (TravelTimeDataArray) e.getValue();
+			int offset = e.getKey().index() * numSlots;
+			for (int slot = 0; slot < numSlots; slot++) {
+				snapshot.travelTimesMillis[offset + slot] = data.getObservedTravelTimeMillis(slot);
+			}
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Replicates {@link AveragingTravelTimeGetter} and {@link LinearInterpolatingTravelTimeGetter}.
+	 *
+	 * @return the travel time, or {@link Double#NaN} if it must be calculated from the {@link TravelTimeData}.
+	 */
+	double getTravelTime(Link link, double time) {
+		int linkIndex = link.getId().index();
+		if (linkIndex >= this.linkCount) {
+			return Double.NaN;
+		}
+		int offset = linkIndex * this.numSlots;
+		int timeSlot = TimeBinUtils.getTimeBinIndex(time, this.timeSlice, this.numSlots);
+		if (!this.interpolate || time <= this.halfBinSize || time >= this.numSlots * this.timeSlice - this.halfBinSize) {
+			return getSlotTravelTime(offset, timeSlot);
+		}
+
+		int firstSlot;
+		int secondSlot;
+		if (timeSlot * this.timeSlice + this.halfBinSize > time) {
+			firstSlot = timeSlot - 1;
+			secondSlot = timeSlot;
+		} else {
+			firstSlot = timeSlot;
+			secondSlot = timeSlot + 1;
+		}
+		double firstTravelTime = getSlotTravelTime(offset, firstSlot);
+		double secondTravelTime = getSlotTravelTime(offset, secondSlot);
+		double dx = time - (firstSlot * this.timeSlice + this.halfBinSize);
+		double dy = (secondTravelTime - firstTravelTime) * dx / this.timeSlice;
+		return firstTravelTime + dy; // NaN if one of the slots is missing
+	}
+
+	private double getSlotTravelTime(int offset, int slot) {
+		int millis = this.travelTimesMillis[offset + slot];
+		return millis == MISSING ? Double.NaN : millis / 1000.0;
+	}
+
+}
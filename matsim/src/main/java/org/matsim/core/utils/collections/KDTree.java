@@ -0,0 +1,464 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * KDTree.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2022 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.core.utils.collections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.matsim.core.utils.collections.QuadTree.Executor;
+import org.matsim.core.utils.collections.QuadTree.Rect;
+
+/**
+ * An immutable alternative to {@link QuadTree} for data that does not change after it is loaded, offering
+ * the same queries. All points are bulk-loaded into a balanced KD-tree which is stored in plain arrays
+ * (coordinates, values and the split of each inner node), without any node or leaf objects.
+ * The tree is implicit: the range [lo, hi) of the arrays is split at its middle element, the first half
+ * containing all points with a smaller or equal coordinate in the split dimension, the second half all
+ * points with a larger or equal coordinate. Ranges of at most {@value #LEAF_SIZE} points are scanned linearly.
+ *
+ * Compared to the QuadTree, this uses much less memory, the points of a region are stored next to each other,
+ * and the queries do not create any objects besides the returned collections. {@link #getClosest(double, double)}
+ * and {@link #getDisk(double, double, double, Executor)} are completely allocation-free.
+ *
+ * If multiple points have the same distance to the query location, {@link #getClosest(double, double)} returns
+ * the one added first, so results do not depend on the structure of the tree. Unlike the QuadTree, the same object
+ * can be added multiple times at the same location, and will then be returned multiple times.
+ *
+ * As instances cannot be modified, they are thread-safe and can be queried concurrently by multiple threads.
+ *
+ * @param <T> The type of data to be stored in the tree.
+ */
+public final class KDTree<T> {
+
+	private static final int LEAF_SIZE = 8;
+
+	private final double[] xs;
+	private final double[] ys;
+	private final int[] order; // the position in which each point was added
+	private final T[] values;
+	// the split of each inner node, indexed by the middle element of its range. The split value must be stored separately,
+	// as the middle element itself might be moved when the second half is built.
+	private final byte[] splitDimension; // 0 for x, 1 for y
+	private final double[] splitValue;
+	private final Rect bounds;
+
+	public static final class Builder<T> {
+		private double[] xs = new double[16];
+		private double[] ys = new double[16];
+		private List<T> values = new ArrayList<>();
+
+		public Builder<T> put(final double x, final double y, final T value) {
+			int size = this.values.size();
+			if (size == this.xs.length) {
+				this.xs = Arrays.copyOf(this.xs, size * 2);
+				this.ys = Arrays.copyOf(this.ys, size * 2);
+			}
+			this.xs[size] = x;
+			this.ys[size] = y;
+			this.values.add(value);
+			return this;
+		}
+
+		public KDTree<T> build() {
+			int size = this.values.size();
+			return new KDTree<>(Arrays.copyOf(this.xs, size), Arrays.copyOf(this.ys, size), this.values);
+		}
+	}
+
+	/**
+	 * Creates a tree containing all entries of the given QuadTree.
+	 */
+	public static <T> KDTree<T> of(final QuadTree<T> quadTree) {
+		Builder<T> builder = new Builder<>();
+		quadTree.execute(new Rect(quadTree.getMinEasting(), quadTree.getMinNorthing(), Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY), builder::put);
+		return builder.build();
+	}
+
+	@SuppressWarnings("unchecked")
+	private KDTree(final double[] xs, final double[] ys, final List<T> values) {
+		int size = values.size();
+		this.xs = xs;
+		this.ys = ys;
+		this.values = (T[]) values.toArray();
+		this.order = new int[size];
+		for (int i = 0; i < size; i++) {
+			this.order[i] = i;
+		}
+		this.splitDimension = new byte[size];
+		this.splitValue = new double[size];
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < size; i++) {
+			minX = Math.min(minX, xs[i]);
+			minY = Math.min(minY, ys[i]);
+			maxX = Math.max(maxX, xs[i]);
+			maxY = Math.max(maxY, ys[i]);
+		}
+		this.bounds = size == 0 ? new Rect(0, 0, 0, 0) : new Rect(minX, minY, maxX, maxY);
+		build(0, size);
+	}
+
+	private void build(final int lo, final int hi) {
+		if (hi - lo <= LEAF_SIZE) {
+			return;
+		}
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		for (int i = lo; i < hi; i++) {
+			minX = Math.min(minX, this.xs[i]);
+			minY = Math.min(minY, this.ys[i]);
+			maxX = Math.max(maxX, this.xs[i]);
+			maxY = Math.max(maxY, this.ys[i]);
+		}
+		int dim = (maxX - minX) >= (maxY - minY) ? 0 : 1;
+		int mid = (lo + hi) >>> 1;
+		select(lo, hi, mid, dim == 0 ? this.xs : this.ys);
+		this.splitDimension[mid] = (byte) dim;
+		this.splitValue[mid] = dim == 0 ? this.xs[mid] : this.ys[mid];
+		build(lo, mid);
+		build(mid, hi);
+	}
+
+	/**
+	 * Partially sorts the range [lo, hi) such that the element at position k is in its final place,
+	 * with all elements before being smaller or equal and all elements after being larger or equal.
+	 */
+	private void select(final int lo, final int hi, final int k, final double[] coords) {
+		int left = lo;
+		int right = hi - 1;
+		while (right > left) {
+			double a = coords[left];
+			double b = coords[(left + right) >>> 1];
+			double c = coords[right];
+			double pivot = Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+			int i = left;
+			int j = right;
+			while (i <= j) {
+				while (coords[i] < pivot) {
+					i++;
+				}
+				while (coords[j] > pivot) {
+					j--;
+				}
+				if (i <= j) {
+					swap(i, j);
+					i++;
+					j--;
+				}
+			}
+			if (k <= j) {
+				right = j;
+			} else if (k >= i) {
+				left = i;
+			} else {
+				return;
+			}
+		}
+	}
+
+	private void swap(final int i, final int j) {
+		double x = this.xs[i];
+		this.xs[i] = this.xs[j];
+		this.xs[j] = x;
+		double y = this.ys[i];
+		this.ys[i] = this.ys[j];
+		this.ys[j] = y;
+		int o = this.order[i];
+		this.order[i] = this.order[j];
+		this.order[j] = o;
+		T v = this.values[i];
+		this.values[i] = this.values[j];
+		this.values[j] = v;
+	}
+
+	private double distanceSquared(final int i, final double x, final double y) {
+		if (i < 0) {
+			return Double.POSITIVE_INFINITY;
+		}
+		double dx = this.xs[i] - x;
+		double dy = this.ys[i] - y;
+		return dx * dx + dy * dy;
+	}
+
+	/**
+	 * @return the signed distance of x/y to the split plane of the inner node with the given middle element.
+	 */
+	private double splitDistance(final int mid, final double x, final double y) {
+		return (this.splitDimension[mid] == 0 ? x : y) - this.splitValue[mid];
+	}
+
+	/**
+	 * Gets the object closest to x/y
+	 *
+	 * @param x easting, left-right location, longitude
+	 * @param y northing, up-down location, latitude
+	 * @return the object found closest to x/y, or <code>null</code> if the tree is empty
+	 */
+	public T getClosest(final double x, final double y) {
+		int best = closest(0, this.values.length, x, y, -1);
+		return best < 0 ? null : this.values[best];
+	}
+
+	private int closest(final int lo, final int hi, final double x, final double y, int best) {
+		if (hi - lo <= LEAF_SIZE) {
+			double bestDistance = distanceSquared(best, x, y);
+			for (int i = lo; i < hi; i++) {
+				double distance = distanceSquared(i, x, y);
+				if (distance < bestDistance || (distance == bestDistance && this.order[i] < this.order[best])) {
+					bestDistance = distance;
+					best = i;
+				}
+			}
+			return best;
+		}
+		int mid = (lo + hi) >>> 1;
+		double diff = splitDistance(mid, x, y);
+		if (diff < 0) {
+			best = closest(lo, mid, x, y, best);
+			if (diff * diff <= distanceSquared(best, x, y)) {
+				best = closest(mid, hi, x, y, best);
+			}
+		} else {
+			best = closest(mid, hi, x, y, best);
+			if (diff * diff <= distanceSquared(best, x, y)) {
+				best = closest(lo, mid, x, y, best);
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Gets all objects within a certain distance around x/y
+	 *
+	 * @param x left-right location, longitude
+	 * @param y up-down location, latitude
+	 * @param distance the maximal distance returned objects can be away from x/y
+	 * @return the objects found within distance to x/y
+	 */
+	public Collection<T> getDisk(final double x, final double y, final double distance) {
+		List<T> result = new ArrayList<>();
+		getDisk(x, y, distance, (px, py, value) -> result.add(value));
+		return result;
+	}
+
+	/**
+	 * Executes executor on all objects within a certain distance around x/y, without creating any objects.
+	 *
+	 * @return the count of objects found within distance to x/y.
+	 */
+	public int getDisk(final double x, final double y, final double distance, final Executor<T> executor) {
+		return disk(0, this.values.length, x, y, 0, distance, executor);
+	}
+
+	/**
+	 * Gets all objects within a linear ring (including borders).
+	 *
+	 * @param x left-right location, longitude
+	 * @param y up-down location, latitude
+	 * @param r_min inner ring radius
+	 * @param r_max outer rind radius
+	 * @return objects within the ring
+	 */
+	public Collection<T> getRing(final double x, final double y, final double r_min, final double r_max) {
+		List<T> result = new ArrayList<>();
+		disk(0, this.values.length, x, y, r_min, r_max, (px, py, value) -> result.add(value));
+		return result;
+	}
+
+	private int disk(final int lo, final int hi, final double x, final double y, final double minDistance, final double maxDistance, final Executor<T> executor) {
+		if (hi - lo <= LEAF_SIZE) {
+			int count = 0;
+			for (int i = lo; i < hi; i++) {
+				double distance = Math.sqrt(distanceSquared(i, x, y));
+				if (distance <= maxDistance && distance >= minDistance) {
+					count++;
+					executor.execute(this.xs[i], this.ys[i], this.values[i]);
+				}
+			}
+			return count;
+		}
+		int mid = (lo + hi) >>> 1;
+		double diff = splitDistance(mid, x, y);
+		int count = 0;
+		if (diff <= maxDistance) {
+			count += disk(lo, mid, x, y, minDistance, maxDistance, executor);
+		}
+		if (-diff <= maxDistance) {
+			count += disk(mid, hi, x, y, minDistance, maxDistance, executor);
+		}
+		return count;
+	}
+
+	/**
+	 * Gets all objects within an elliptical region.
+	 *
+	 * @param x1 first focus, longitude
+	 * @param y1 first focus, latitude
+	 * @param x2 second focus, longitude
+	 * @param y2 second focus, latitude
+	 * @param distance the maximal sum of the distances between an object and the two foci
+	 * @return the objects found in the elliptical region
+	 * @throws IllegalArgumentException if the distance is shorter than the distance between the foci
+	 */
+	public Collection<T> getElliptical(final double x1, final double y1, final double x2, final double y2, final double distance) {
+		if (distance * distance < (x1 - x2) * (x1 - x2) + (y1 - y2) * (y1 - y2)) {
+			throw new IllegalArgumentException("wrong ellipse specification: distance must be greater than distance between foci."
+					+ " x1=" + x1 + " y1=" + y1 + " x2=" + x2 + " y2=" + y2 + " distance=" + distance);
+		}
+		List<T> result = new ArrayList<>();
+		elliptical(0, this.values.length, x1, y1, x2, y2, distance, result);
+		return result;
+	}
+
+	private void elliptical(final int lo, final int hi, final double x1, final double y1, final double x2, final double y2, final double maxDistance, final List<T> result) {
+		if (hi - lo <= LEAF_SIZE) {
+			for (int i = lo; i < hi; i++) {
+				double distance1 = Math.sqrt(distanceSquared(i, x1, y1));
+				if (distance1 <= maxDistance && distance1 + Math.sqrt(distanceSquared(i, x2, y2)) <= maxDistance) {
+					result.add(this.values[i]);
+				}
+			}
+			return;
+		}
+		int mid = (lo + hi) >>> 1;
+		double diff1 = splitDistance(mid, x1, y1);
+		double diff2 = splitDistance(mid, x2, y2);
+		// every point on the other side of the split plane is at least as far away from a focus as the plane
+		if (Math.max(0, diff1) + Math.max(0, diff2) <= maxDistance) {
+			elliptical(lo, mid, x1, y1, x2, y2, maxDistance, result);
+		}
+		if (Math.max(0, -diff1) + Math.max(0, -diff2) <= maxDistance) {
+			elliptical(mid, hi, x1, y1, x2, y2, maxDistance, result);
+		}
+	}
+
+	/**
+	 * Gets all objects inside the specified boundary, including the border.
+	 *
+	 * @param bounds The bounds of the area of interest.
+	 * @param values1 A collection to store the found objects in.
+	 * @return The objects found within the area.
+	 */
+	public Collection<T> getRectangle(final Rect bounds, final Collection<T> values1) {
+		rectangle(0, this.values.length, bounds, true, (x, y, value) -> values1.add(value));
+		return values1;
+	}
+
+	/**
+	 * Gets all objects inside the specified area, including the border.
+	 *
+	 * @param minX The minimum left-right location, longitude
+	 * @param minY The minimum up-down location, latitude
+	 * @param maxX The maximum left-right location, longitude
+	 * @param maxY The maximum up-down location, latitude
+	 * @param values1 A collection to store the found objects in.
+	 * @return The objects found within the area.
+	 */
+	public Collection<T> getRectangle(final double minX, final double minY, final double maxX, final double maxY, final Collection<T> values1) {
+		return getRectangle(new Rect(minX, minY, maxX, maxY), values1);
+	}
+
+	/**
+	 * Executes executor on all objects inside a certain boundary. As in {@link QuadTree#execute(Rect, Executor)},
+	 * objects on the maximum x or y border are not included.
+	 *
+	 * @param bounds The boundary in which the executor will be applied, or <code>null</code> for all objects.
+	 * @param executor is executed on the fitting objects
+	 * @return the count of objects found within the bounds.
+	 */
+	public int execute(final Rect bounds, final Executor<T> executor) {
+		if (bounds == null) {
+			for (int i = 0; i < this.values.length; i++) {
+				executor.execute(this.xs[i], this.ys[i], this.values[i]);
+			}
+			return this.values.length;
+		}
+		return rectangle(0, this.values.length, bounds, false, executor);
+	}
+
+	private int rectangle(final int lo, final int hi, final Rect bounds, final boolean includeMaxBorder, final Executor<T> executor) {
+		if (hi - lo <= LEAF_SIZE) {
+			int count = 0;
+			for (int i = lo; i < hi; i++) {
+				if (includeMaxBorder ? bounds.containsOrEquals(this.xs[i], this.ys[i]) : bounds.contains(this.xs[i], this.ys[i])) {
+					count++;
+					executor.execute(this.xs[i], this.ys[i], this.values[i]);
+				}
+			}
+			return count;
+		}
+		int mid = (lo + hi) >>> 1;
+		double split = this.splitValue[mid];
+		double min = this.splitDimension[mid] == 0 ? bounds.minX : bounds.minY;
+		double max = this.splitDimension[mid] == 0 ? bounds.maxX : bounds.maxY;
+		int count = 0;
+		if (min <= split) {
+			count += rectangle(lo, mid, bounds, includeMaxBorder, executor);
+		}
+		if (max >= split) {
+			count += rectangle(mid, hi, bounds, includeMaxBorder, executor);
+		}
+		return count;
+	}
+
+	/**
+	 * @return the number of entries in this tree.
+	 */
+	public int size() {
+		return this.values.length;
+	}
+
+	/** @return the smallest x coordinate of all entries. */
+	public double getMinEasting() {
+		return this.bounds.minX;
+	}
+
+	/** @return the largest x coordinate of all entries. */
+	public double getMaxEasting() {
+		return this.bounds.maxX;
+	}
+
+	/** @return the smallest y coordinate of all entries. */
+	public double getMinNorthing() {
+		return this.bounds.minY;
+	}
+
+	/** @return the largest y coordinate of all entries. */
+	public double getMaxNorthing() {
+		return this.bounds.maxY;
+	}
+
+	/**
+	 * @return an unmodifiable view of all values, in no specific order.
+	 */
+	public Collection<T> values() {
+		return Collections.unmodifiableList(Arrays.asList(this.values));
+	}
+
+}
@@ -68,4 +68,17 @@ public class QuadTrees {
 		}
 		return quadTree;
 	}
+
+	public static <E extends BasicLocation> KDTree<E> createKDTree(Collection<E> elements) {
+		return createKDTree(elements, BasicLocation::getCoord);
+	}
+
+	public static <E> KDTree<E> createKDTree(Collection<E> elements, Function<E, Coord> coordFunction) {
+		KDTree.Builder<E> builder = new KDTree.Builder<>();
+		for (E e : elements) {
+			Coord c = coordFunction.apply(e);
+			builder.put(c.getX(), c.getY(), e);
+		}
+		return builder.build();
+	}
 }
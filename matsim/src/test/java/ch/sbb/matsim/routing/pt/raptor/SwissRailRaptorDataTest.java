@@ -5,15 +5,24 @@
 package ch.sbb.matsim.routing.pt.raptor;
 
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
 import org.matsim.api.core.v01.Id;
 import org.matsim.pt.transitSchedule.api.TransitStopFacility;
+import org.matsim.testcases.MatsimTestUtils;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 /**
  * @author mrieser / SBB
  */
 public class SwissRailRaptorDataTest {
 
+    @Rule
+    public MatsimTestUtils utils = new MatsimTestUtils();
+
     @Test
     public void testTransfersFromSchedule() {
         Fixture f = new Fixture();
@@ -82,4 +91,58 @@ public class SwissRailRaptorDataTest {
         Assert.assertEquals("number of transfers should have stayed the same.", data2.transfers.length, data4.transfers.length);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testDataCache() throws Exception {
+        Fixture f = new Fixture();
+        f.init();
+
+        RaptorStaticConfig raptorConfig = RaptorUtils.createStaticConfig(f.config);
+        SwissRailRaptorData expected = SwissRailRaptorData.create(f.schedule, null, raptorConfig, f.network, null);
+
+        String cacheDir = this.utils.getOutputDirectory() + "raptorCache";
+        raptorConfig.setDataCacheDirectory(cacheDir);
+        Path cacheFile = SwissRailRaptorDataCache.create(cacheDir, f.schedule, f.network, raptorConfig).getFile();
+        Assert.assertFalse(Files.exists(cacheFile));
+
+        SwissRailRaptorData built = SwissRailRaptorData.create(f.schedule, null, raptorConfig, f.network, null);
+        Assert.assertTrue("cache file should have been written.", Files.exists(cacheFile));
+        assertSameTransfers(expected, built);
+
+        SwissRailRaptorData loaded = SwissRailRaptorData.create(f.schedule, null, raptorConfig, f.network, null);
+        assertSameTransfers(expected, loaded);
+
+        // a corrupt cache file must be ignored
+        Files.write(cacheFile, new byte[] { 1, 2, 3 });
+        SwissRailRaptorData rebuilt = SwissRailRaptorData.create(f.schedule, null, raptorConfig, f.network, null);
+        assertSameTransfers(expected, rebuilt);
+
+        // changed inputs must result in a different cache file
+        f.schedule.getMinimalTransferTimes().set(Id.create(19, TransitStopFacility.class), Id.create(9, TransitStopFacility.class), 345);
+        Path changedCacheFile = SwissRailRaptorDataCache.create(cacheDir, f.schedule, f.network, raptorConfig).getFile();
+        Assert.assertNotEquals(cacheFile, changedCacheFile);
+        SwissRailRaptorData changed = SwissRailRaptorData.create(f.schedule, null, raptorConfig, f.network, null);
+        Assert.assertEquals(expected.transfers.length + 1, changed.transfers.length);
+        Assert.assertTrue(Files.exists(changedCacheFile));
+
+        raptorConfig.setBeelineWalkConnectionDistance(raptorConfig.getBeelineWalkConnectionDistance() + 1);
+        Assert.assertNotEquals(changedCacheFile, SwissRailRaptorDataCache.create(cacheDir, f.schedule, f.network, raptorConfig).getFile());
+        Assert.assertEquals("no temporary files should remain.", 2, new File(cacheDir).list().length);
+    }
+
+    private static void assertSameTransfers(SwissRailRaptorData expected, SwissRailRaptorData actual) {
+        Assert.assertEquals(expected.transfers.length, actual.transfers.length);
+        for (int i = 0; i < expected.transfers.length; i++) {
+            SwissRailRaptorData.RTransfer e = expected.transfers[i];
+            SwissRailRaptorData.RTransfer a = actual.transfers[i];
+            Assert.assertEquals(e.fromRouteStop, a.fromRouteStop);
+            Assert.assertEquals(e.toRouteStop, a.toRouteStop);
+            Assert.assertEquals(e.transferTime, a.transferTime);
+            Assert.assertEquals(e.transferDistance, a.transferDistance);
+        }
+        for (int i = 0; i < expected.routeStops.length; i++) {
+            Assert.assertEquals(expected.routeStops[i].indexFirstTransfer, actual.routeStops[i].indexFirstTransfer);
+            Assert.assertEquals(expected.routeStops[i].countTransfers, actual.routeStops[i].countTransfers);
+        }
+    }
+
+}
@@ -0,0 +1,146 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * MetricsRegistryTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2022 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.analysis.metrics;
+
+import com.google.inject.ConfigurationException;
+import com.google.inject.Guice;
+import com.google.inject.Inject;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.matsim.core.config.Config;
+import org.matsim.core.controler.Controler;
+import org.matsim.core.replanning.ReplanningContext;
+import org.matsim.core.utils.io.IOUtils;
+import org.matsim.testcases.MatsimTestUtils;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+public class MetricsRegistryTest {
+
+	@Rule public MatsimTestUtils util = new MatsimTestUtils();
+
+	@Test
+	public void testCounterAndTimer() {
+		MetricsRegistry metrics = MetricsRegistry.create();
+		Counter counter = metrics.counter("c");
+		Assert.assertSame(counter, metrics.counter("c"));
+		counter.increment();
+		counter.add(4);
+		Assert.assertEquals(5, counter.getCount());
+
+		Timer timer = metrics.timer("t");
+		for (int i = 1; i <= 100; i++) {
+			timer.record(i * 1000L);
+		}
+		Assert.assertEquals(100, timer.getCount());
+		Assert.assertEquals(5050000L, timer.getTotalNanos());
+		Assert.assertEquals(1000L, timer.getMinNanos());
+		Assert.assertEquals(100000L, timer.getMaxNanos());
+		Assert.assertEquals(50500.0, timer.getMeanNanos(), 1e-9);
+		// percentiles are estimated by the upper bound of power-of-two buckets
+		long p50 = timer.getPercentileNanos(0.5);
+		Assert.assertTrue(p50 >= 50000 && p50 < 2 * 50000);
+		Assert.assertEquals(100000L, timer.getPercentileNanos(1.0));
+
+		metrics.reset();
+		Assert.assertSame(counter, metrics.counter("c"));
+		Assert.assertEquals(0, counter.getCount());
+		Assert.assertEquals(0, timer.getCount());
+		Assert.assertEquals(0, timer.getMinNanos());
+		Assert.assertEquals(0, timer.getPercentileNanos(0.5));
+	}
+
+	@Test
+	public void testMetricsAreWritten() throws IOException {
+		Config config = this.util.loadConfig("test/scenarios/equil/config.xml");
+		config.controler().setLastIteration(2);
+		config.controler().setWriteMetricsInterval(2);
+		config.controler().setWriteEventsInterval(0);
+		config.controler().setCreateGraphs(false);
+		Controler controler = new Controler(config);
+		controler.run();
+
+		Assert.assertTrue(new File(controler.getControlerIO().getIterationFilename(0, "metrics.csv")).exists());
+		Assert.assertFalse(new File(controler.getControlerIO().getIterationFilename(1, "metrics.csv")).exists());
+
+		Map<String, String[]> rows = new HashMap<>();
+		try (BufferedReader reader = IOUtils.getBufferedReader(controler.getControlerIO().getIterationFilename(2, "metrics.csv"))) {
+			Assert.assertTrue(reader.readLine().startsWith("name;type;count"));
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String[] parts = line.split(";", -1);
+				Assert.assertEquals(10, parts.length);
+				rows.put(parts[0], parts);
+			}
+		}
+		Assert.assertTrue(Long.parseLong(rows.get("router.car")[2]) > 0);
+		Assert.assertTrue(Long.parseLong(rows.get("qsim.simStep")[2]) > 0);
+		Assert.assertTrue(rows.keySet().stream().anyMatch(name -> name.startsWith("qsim.engine.")));
+		Assert.assertTrue(rows.keySet().stream().anyMatch(name -> name.startsWith("events.handler.")));
+		Assert.assertTrue(rows.keySet().stream().anyMatch(name -> name.startsWith("replanning.")));
+
+		// all injection points share one registry
+		Assert.assertSame(controler.getInjector().getInstance(MetricsRegistry.class),
+				controler.getInjector().getInstance(ReplanningContext.class).getMetricsRegistry());
+	}
+
+	@Test
+	public void testNotBoundByDefault() {
+		Config config = this.util.loadConfig("test/scenarios/equil/config_plans1.xml");
+		config.controler().setLastIteration(0);
+		config.controler().setWriteEventsInterval(0);
+		config.controler().setCreateGraphs(false);
+		Controler controler = new Controler(config);
+		controler.run();
+
+		Assert.assertFalse(new File(controler.getControlerIO().getIterationFilename(0, "metrics.csv")).exists());
+
+		// Guice must not create a registry for the optional injection points, otherwise everything would be timed
+		Injector injector = controler.getInjector();
+		Assert.assertNull(injector.getExistingBinding(Key.get(MetricsRegistry.class)));
+		Assert.assertThrows(ConfigurationException.class, () -> injector.getInstance(MetricsRegistry.class));
+		Assert.assertNull(injector.getInstance(ReplanningContext.class).getMetricsRegistry());
+		OptionalMetricsUser user = new OptionalMetricsUser();
+		injector.injectMembers(user);
+		Assert.assertNull(user.metrics);
+	}
+
+	@Test
+	public void testNotCreatedByJustInTimeBinding() {
+		OptionalMetricsUser user = new OptionalMetricsUser();
+		Guice.createInjector().injectMembers(user);
+		Assert.assertNull(user.metrics);
+	}
+
+	static class OptionalMetricsUser {
+		@Inject(optional = true)
+		MetricsRegistry metrics = null;
+	}
+
+}
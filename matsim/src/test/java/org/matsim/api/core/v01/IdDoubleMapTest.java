@@ -0,0 +1,36 @@
+package org.matsim.api.core.v01;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.matsim.api.core.v01.network.Link;
+
+public class IdDoubleMapTest {
+
+	@Test
+	public void testAccumulate() {
+		IdDoubleMap<Link> map = new IdDoubleMap<>(Link.class, 1);
+		Id<Link> id1 = Id.create(1, Link.class);
+		Id<Link> id2 = Id.create(2, Link.class);
+
+		Assert.assertEquals(1.5, map.add(id1, 1.5), 0.0);
+		Assert.assertEquals(4.0, map.add(id1, 2.5), 0.0);
+		Assert.assertEquals(0.0, map.put(id2, Double.NaN), 0.0);
+		Assert.assertEquals(2, map.size());
+		Assert.assertTrue(Double.isNaN(map.get(id2)));
+		Assert.assertEquals(0.0, map.get(Id.create(3, Link.class)), 0.0);
+
+		IdDoubleMap<Link> other = new IdDoubleMap<>(Link.class);
+		other.put(id1, 1.0);
+		other.put(id2, Double.NaN);
+		map.addAll(other);
+		Assert.assertEquals(5.0, map.get(id1), 0.0);
+
+		IdDoubleMap<Link> copy = new IdDoubleMap<>(Link.class);
+		copy.put(id1, 5.0);
+		copy.put(id2, Double.NaN);
+		Assert.assertEquals(copy, map);
+
+		Assert.assertEquals(5.0, map.remove(id1), 0.0);
+		Assert.assertEquals(1, map.size());
+	}
+}
@@ -0,0 +1,101 @@
+package org.matsim.api.core.v01;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.matsim.api.core.v01.population.Person;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class IdIntMapTest {
+
+	@Test
+	public void testPutGetRemoveSize() {
+		IdIntMap<Person> map = new IdIntMap<>(Person.class, 2);
+		Id<Person> id1 = Id.create(1, Person.class);
+		Id<Person> id2 = Id.create(2, Person.class);
+		Id<Person> id3 = Id.create(3, Person.class);
+
+		Assert.assertTrue(map.isEmpty());
+		Assert.assertEquals(0, map.put(id1, 5));
+		Assert.assertEquals(0, map.put(id2, 0));
+		Assert.assertEquals(2, map.size());
+		Assert.assertTrue("a value of 0 must be a valid entry.", map.containsKey(id2));
+		Assert.assertFalse(map.containsKey(id3));
+
+		Assert.assertEquals(5, map.put(id1, 6));
+		Assert.assertEquals(2, map.size());
+		Assert.assertEquals(6, map.get(id1));
+		Assert.assertEquals(0, map.get(id3));
+		Assert.assertEquals(-1, map.getOrDefault(id3, -1));
+		Assert.assertEquals(0, map.getOrDefault(id2, -1));
+
+		Assert.assertEquals(6, map.remove(id1));
+		Assert.assertEquals(0, map.remove(id1));
+		Assert.assertEquals(1, map.size());
+		Assert.assertFalse(map.containsKey(id1));
+
+		map.clear();
+		Assert.assertTrue(map.isEmpty());
+		Assert.assertFalse(map.containsKey(id2));
+	}
+
+	@Test
+	public void testAddAndIncrement() {
+		IdIntMap<Person> map = new IdIntMap<>(Person.class, 2);
+		Id<Person> id1 = Id.create(1, Person.class);
+		Id<Person> idFar = Id.create("far", Person.class);
+
+		Assert.assertEquals(1, map.increment(id1));
+		Assert.assertEquals(2, map.increment(id1));
+		Assert.assertEquals(-3, map.add(idFar, -3));
+		Assert.assertEquals(2, map.size());
+		Assert.assertEquals(7, map.add(idFar, 10));
+	}
+
+	@Test
+	public void testAddAll() {
+		Id<Person> id1 = Id.create(1, Person.class);
+		Id<Person> id2 = Id.create(2, Person.class);
+		Id<Person> id3 = Id.create(3, Person.class);
+
+		IdIntMap<Person> map1 = new IdIntMap<>(Person.class);
+		map1.put(id1, 1);
+		map1.put(id2, 2);
+		IdIntMap<Person> map2 = new IdIntMap<>(Person.class);
+		map2.put(id2, 20);
+		map2.put(id3, 30);
+
+		map1.addAll(map2);
+		Assert.assertEquals(3, map1.size());
+		Assert.assertEquals(1, map1.get(id1));
+		Assert.assertEquals(22, map1.get(id2));
+		Assert.assertEquals(30, map1.get(id3));
+	}
+
+	@Test
+	public void testForEachAndEquals() {
+		Id<Person> id1 = Id.create(1, Person.class);
+		Id<Person> id2 = Id.create(2, Person.class);
+
+		IdIntMap<Person> map1 = new IdIntMap<>(Person.class, 2);
+		map1.put(id2, 2);
+		map1.put(id1, 1);
+
+		List<Id<Person>> keys = new ArrayList<>();
+		int[] sum = new int[1];
+		map1.forEach((id, value) -> {
+			keys.add(id);
+			sum[0] += value;
+		});
+		Assert.assertEquals(2, keys.size());
+		Assert.assertEquals(3, sum[0]);
+
+		IdIntMap<Person> map2 = new IdIntMap<>(Person.class, 1000);
+		map2.put(id1, 1);
+		Assert.assertNotEquals(map1, map2);
+		map2.put(id2, 2);
+		Assert.assertEquals(map1, map2);
+		Assert.assertEquals(map1.hashCode(), map2.hashCode());
+	}
+}
@@ -0,0 +1,29 @@
+package org.matsim.api.core.v01;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.matsim.api.core.v01.network.Link;
+
+public class IdLongMapTest {
+
+	@Test
+	public void testAccumulate() {
+		IdLongMap<Link> map = new IdLongMap<>(Link.class, 1);
+		Id<Link> id1 = Id.create(1, Link.class);
+		Id<Link> id2 = Id.create(2, Link.class);
+
+		Assert.assertEquals(1L, map.increment(id1));
+		Assert.assertEquals(1L + Integer.MAX_VALUE, map.add(id1, Integer.MAX_VALUE));
+		Assert.assertEquals(0L, map.put(id2, 7L));
+		Assert.assertEquals(2, map.size());
+
+		IdLongMap<Link> other = new IdLongMap<>(Link.class);
+		other.put(id2, 3L);
+		map.addAll(other);
+		Assert.assertEquals(10L, map.get(id2));
+
+		long[] sum = new long[1];
+		map.forEach((id, value) -> sum[0] += value);
+		Assert.assertEquals(11L + Integer.MAX_VALUE, sum[0]);
+	}
+}
@@ -0,0 +1,84 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * OutputWriterServiceTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2022 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.core.controler.corelisteners;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class OutputWriterServiceTest {
+
+	@Test
+	public void testSynchronous() {
+		OutputWriterService service = new OutputWriterService(0);
+		Thread caller = Thread.currentThread();
+		AtomicInteger counter = new AtomicInteger();
+		service.submit("test", () -> {
+			Assert.assertSame(caller, Thread.currentThread());
+			counter.incrementAndGet();
+		});
+		Assert.assertEquals(1, counter.get());
+		service.awaitAll();
+	}
+
+	@Test
+	public void testAsynchronous_awaitAll() throws InterruptedException {
+		OutputWriterService service = new OutputWriterService(2);
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicInteger counter = new AtomicInteger();
+		for (int i = 0; i < 2; i++) {
+			service.submit("test " + i, () -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					throw new RuntimeException(e);
+				}
+				counter.incrementAndGet();
+			});
+		}
+		Assert.assertEquals("tasks must not block the caller", 0, counter.get());
+		start.countDown();
+		// the third task has to wait for a free slot
+		service.submit("test 2", counter::incrementAndGet);
+		service.awaitAll();
+		Assert.assertEquals(3, counter.get());
+	}
+
+	@Test
+	public void testAsynchronous_failure() {
+		OutputWriterService service = new OutputWriterService(1);
+		service.submit("failing", () -> {
+			throw new IllegalStateException("expected");
+		});
+		try {
+			service.awaitAll();
+			Assert.fail("exception expected");
+		} catch (RuntimeException e) {
+			Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+		}
+		// the failure is only reported once
+		service.awaitAll();
+	}
+
+}
@@ -0,0 +1,199 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * RingBufferEventsManagerTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2022 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.events;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.events.handler.BasicEventHandler;
+
+public class RingBufferEventsManagerTest {
+
+	@Test
+	public void forgetInit() {
+		EventsManager m = new RingBufferEventsManager(false, 16);
+		EventsManagerImplTest.CountingMyEventHandler handler = new EventsManagerImplTest.CountingMyEventHandler();
+		m.addHandler(handler);
+
+		assertThrows(IllegalStateException.class, () -> m.processEvent(new EventsManagerImplTest.MyEvent(5)));
+
+		m.initProcessing();
+		m.processEvent(new EventsManagerImplTest.MyEvent(5));
+		m.finishProcessing();
+
+		assertEquals(1, handler.counter);
+		assertThrows(IllegalStateException.class, () -> m.processEvent(new EventsManagerImplTest.MyEvent(5)));
+	}
+
+	@Test
+	public void lateHandler() {
+		EventsManager m = new RingBufferEventsManager(false, 16);
+		m.initProcessing();
+		assertThrows(IllegalStateException.class, () -> m.addHandler(new EventsManagerImplTest.CountingMyEventHandler()));
+		m.finishProcessing();
+	}
+
+	@Test
+	public void testManyProducers_oneThreadPerHandler() throws InterruptedException {
+		testManyProducers(new RingBufferEventsManager(false, 1000), 3);
+	}
+
+	@Test
+	public void testManyProducers_threadGroups() throws InterruptedException {
+		testManyProducers(new RingBufferEventsManager(false, 2, 1000), 5);
+	}
+
+	/**
+	 * Every handler must see every event, and the events of each producer in the order they were published,
+	 * even though the ring is much smaller than the number of events.
+	 */
+	private static void testManyProducers(EventsManager m, int numberOfHandlers) throws InterruptedException {
+		int numberOfProducers = 4;
+		int eventsPerProducer = 50000;
+		List<OrderCheckingHandler> handlers = new ArrayList<>();
+		for (int i = 0; i < numberOfHandlers; i++) {
+			OrderCheckingHandler handler = new OrderCheckingHandler(numberOfProducers);
+			handlers.add(handler);
+			m.addHandler(handler);
+		}
+
+		for (int iteration = 0; iteration < 2; iteration++) {
+			m.initProcessing();
+			Thread[] producers = new Thread[numberOfProducers];
+			for (int p = 0; p < numberOfProducers; p++) {
+				final int producer = p;
+				producers[p] = new Thread(() -> {
+					for (int i = 0; i < eventsPerProducer; i++) {
+						if (i % 100 == 0) {
+							// a batch as created by the mobsims, larger than the ring
+							EventArray array = new EventArray(1500);
+							for (int j = 0; j < 1500; j++) {
+								array.add(new ProducerEvent(producer, i));
+							}
+							m.processEvents(array);
+						}
+						m.processEvent(new ProducerEvent(producer, i));
+					}
+				});
+				producers[p].start();
+			}
+			for (Thread producer : producers) {
+				producer.join();
+			}
+			m.finishProcessing();
+
+			for (OrderCheckingHandler handler : handlers) {
+				assertEquals(iteration, handler.iteration);
+				assertEquals(numberOfProducers * (eventsPerProducer + eventsPerProducer / 100 * 1500), handler.counter);
+				assertTrue("events of a producer were not in order", handler.inOrder);
+			}
+		}
+	}
+
+	@Test
+	public void testSyncOnTimeSteps() {
+		EventsManager m = new RingBufferEventsManager(true, 64);
+		EventsManagerImplTest.CountingMyEventHandler handler = new EventsManagerImplTest.CountingMyEventHandler();
+		m.addHandler(handler);
+		m.initProcessing();
+		for (int time = 0; time < 100; time++) {
+			for (int i = 0; i < 10; i++) {
+				m.processEvent(new EventsManagerImplTest.MyEvent(time));
+			}
+			m.afterSimStep(time);
+			assertEquals("not all events of the time step were processed", (time + 1) * 10, handler.counter);
+		}
+		m.finishProcessing();
+	}
+
+	@Test
+	public void testExceptionInHandler() {
+		EventsManager m = new RingBufferEventsManager(false, 16);
+		m.addHandler(new EventsManagerImplTest.CrashingMyEventHandler());
+		m.initProcessing();
+		// more events than the ring holds, the producer must not wait for the crashed handler forever
+		assertThrows(RuntimeException.class, () -> {
+			for (int i = 0; i < 1000; i++) {
+				m.processEvent(new EventsManagerImplTest.MyEvent(i));
+			}
+			m.finishProcessing();
+		});
+	}
+
+	@Test
+	public void testCreatedFromConfig() {
+		Config config = ConfigUtils.createConfig();
+		config.parallelEventHandling().setUseRingBuffer(true);
+		EventsManager m = EventsUtils.createEventsManager(config);
+		assertTrue(m instanceof RingBufferEventsManager);
+	}
+
+	private static class ProducerEvent extends Event {
+		private final int producer;
+		private final int index;
+
+		ProducerEvent(int producer, int index) {
+			super(index);
+			this.producer = producer;
+			this.index = index;
+		}
+
+		@Override
+		public String getEventType() {
+			return "producer";
+		}
+	}
+
+	private static class OrderCheckingHandler implements BasicEventHandler {
+		private final int[] lastIndex;
+		private int counter = 0;
+		private int iteration = -1;
+		private boolean inOrder = true;
+
+		OrderCheckingHandler(int numberOfProducers) {
+			this.lastIndex = new int[numberOfProducers];
+		}
+
+		@Override
+		public void reset(int iteration) {
+			this.iteration = iteration;
+			this.counter = 0;
+			java.util.Arrays.fill(this.lastIndex, 0);
+		}
+
+		@Override
+		public void handleEvent(Event event) {
+			ProducerEvent e = (ProducerEvent) event;
+			this.inOrder &= e.index >= this.lastIndex[e.producer];
+			this.lastIndex[e.producer] = e.index;
+			this.counter++;
+		}
+	}
+}
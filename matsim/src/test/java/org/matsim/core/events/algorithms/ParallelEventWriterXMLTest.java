@@ -0,0 +1,138 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * ParallelEventWriterXMLTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2022 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.core.events.algorithms;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.events.MatsimEventsReader;
+import org.matsim.core.events.handler.BasicEventHandler;
+import org.matsim.core.utils.io.IOUtils;
+import org.matsim.testcases.MatsimTestUtils;
+import org.matsim.testcases.utils.EventsCollector;
+import org.matsim.vehicles.Vehicle;
+
+public class ParallelEventWriterXMLTest {
+
+	@Rule public MatsimTestUtils utils = new MatsimTestUtils();
+
+	private static final int NUMBER_OF_EVENTS = 25001;
+
+	@Test
+	public void testUncompressed() throws IOException {
+		assertSameContent("events.xml");
+	}
+
+	@Test
+	public void testGzip() throws IOException {
+		assertSameContent("events.xml.gz");
+	}
+
+	@Test
+	public void testZstd() throws IOException {
+		assertSameContent("events.xml.zst");
+	}
+
+	@Test
+	public void testLz4() throws IOException {
+		assertSameContent("events.xml.lz4");
+	}
+
+	@Test
+	public void testNoEvents() throws IOException {
+		String expectedFile = this.utils.getOutputDirectory() + "expected.xml.gz";
+		String actualFile = this.utils.getOutputDirectory() + "actual.xml.gz";
+		new EventWriterXML(expectedFile).closeFile();
+		new ParallelEventWriterXML(actualFile, 2).closeFile();
+		Assert.assertEquals(readContent(expectedFile), readContent(actualFile));
+	}
+
+	@Test
+	public void testSpecialCharacters() {
+		String filename = this.utils.getOutputDirectory() + "testEvents.xml.gz";
+		ParallelEventWriterXML writer = new ParallelEventWriterXML(filename, 2);
+		writer.handleEvent(new LinkLeaveEvent(3600.0, Id.create("vehicle>3", Vehicle.class), Id.create("link<2", Link.class)));
+		writer.handleEvent(new LinkLeaveEvent(3601.0, Id.create("vehicle\"4", Vehicle.class), Id.create("link'3&", Link.class)));
+		writer.closeFile();
+
+		EventsManager events = EventsUtils.createEventsManager();
+		EventsCollector collector = new EventsCollector();
+		events.addHandler(collector);
+		events.initProcessing();
+		new MatsimEventsReader(events).readFile(filename);
+		events.finishProcessing();
+
+		Assert.assertEquals("there must be 2 events.", 2, collector.getEvents().size());
+		LinkLeaveEvent event1 = (LinkLeaveEvent) collector.getEvents().get(0);
+		LinkLeaveEvent event2 = (LinkLeaveEvent) collector.getEvents().get(1);
+		Assert.assertEquals("link<2", event1.getLinkId().toString());
+		Assert.assertEquals("vehicle>3", event1.getVehicleId().toString());
+		Assert.assertEquals("link'3&", event2.getLinkId().toString());
+		Assert.assertEquals("vehicle\"4", event2.getVehicleId().toString());
+	}
+
+	private void assertSameContent(String filename) throws IOException {
+		String expectedFile = this.utils.getOutputDirectory() + "expected_" + filename;
+		String actualFile = this.utils.getOutputDirectory() + "actual_" + filename;
+
+		EventWriterXML expectedWriter = new EventWriterXML(expectedFile);
+		ParallelEventWriterXML actualWriter = new ParallelEventWriterXML(actualFile, 3);
+		for (int i = 0; i < NUMBER_OF_EVENTS; i++) {
+			LinkLeaveEvent event = new LinkLeaveEvent(i, Id.create("veh" + (i % 100), Vehicle.class), Id.create("link" + (i % 37), Link.class));
+			expectedWriter.handleEvent(event);
+			actualWriter.handleEvent(event);
+		}
+		expectedWriter.closeFile();
+		actualWriter.closeFile();
+
+		Assert.assertEquals(readContent(expectedFile), readContent(actualFile));
+
+		EventsManager events = EventsUtils.createEventsManager();
+		int[] count = new int[1];
+		events.addHandler((BasicEventHandler) event -> count[0]++);
+		events.initProcessing();
+		new MatsimEventsReader(events).readFile(actualFile);
+		events.finishProcessing();
+		Assert.assertEquals(NUMBER_OF_EVENTS, count[0]);
+	}
+
+	private static String readContent(String filename) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (InputStream in = IOUtils.getInputStream(IOUtils.getFileUrl(filename))) {
+			byte[] buffer = new byte[8192];
+			int read;
+			while ((read = in.read(buffer)) >= 0) {
+				bytes.write(buffer, 0, read);
+			}
+		}
+		return bytes.toString("UTF-8");
+	}
+}
@@ -944,6 +944,48 @@ public class HermesTest {
 		// besides this, the important thing is that no (Runtime)Exception is thrown during this test
 	}
 
+	/**
+	 * Tests that passing events to the events manager during the simulation, in chunks of
+	 * different sizes, does not change the events.
+	 */
+	@Test
+	public void testEventsFlushInterval() {
+		List<String> expected = null;
+		for (int interval : new int[] { 0, 1, 60, 3600 }) {
+			prepareTest();
+			Fixture f = new Fixture();
+			f.config.hermes().setEventsFlushInterval(interval);
+			for (int i = 0; i < 100; i++) {
+				Person person = PopulationUtils.getFactory().createPerson(Id.create(i, Person.class));
+				Plan plan = PersonUtils.createAndAddPlan(person, true);
+				Activity a1 = PopulationUtils.createAndAddActivityFromLinkId(plan, "h", f.link1.getId());
+				a1.setEndTime(6 * 3600 + i * 7);
+				Leg leg = PopulationUtils.createAndAddLeg( plan, TransportMode.car );
+				TripStructureUtils.setRoutingMode( leg, TransportMode.car );
+				NetworkRoute route = f.scenario.getPopulation().getFactory().getRouteFactories().createRoute(NetworkRoute.class, f.link1.getId(), f.link3.getId());
+				route.setLinkIds(f.link1.getId(), f.linkIds2, f.link3.getId());
+				leg.setRoute(route);
+				PopulationUtils.createAndAddActivityFromLinkId(plan, "w", f.link3.getId());
+				f.plans.addPerson(person);
+			}
+
+			EventsManager events = EventsUtils.createEventsManager();
+			EventsCollector collector = new EventsCollector();
+			events.addHandler(collector);
+			createHermes(f, events).run();
+
+			List<String> actual = new ArrayList<>();
+			for (Event event : collector.getEvents()) {
+				actual.add(event.toString());
+			}
+			if (expected == null) {
+				expected = actual;
+			} else {
+				Assert.assertEquals("events differ for flush interval " + interval, expected, actual);
+			}
+		}
+	}
+
 	/*package*/ final static class FirstLastEventCollector implements BasicEventHandler {
 		public Event firstEvent = null;
 		public Event lastEvent = null;
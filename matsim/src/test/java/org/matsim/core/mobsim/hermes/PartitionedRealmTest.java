@@ -0,0 +1,193 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2014 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.mobsim.hermes;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.TransportMode;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.PersonArrivalEvent;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Activity;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Plan;
+import org.matsim.api.core.v01.population.PopulationFactory;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.population.routes.NetworkRoute;
+import org.matsim.core.population.routes.RouteUtils;
+import org.matsim.core.router.TripStructureUtils;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.testcases.utils.EventsCollector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Tests running Hermes with the network partitioned among several realms.
+ */
+public class PartitionedRealmTest {
+
+	private static final int GRID_SIZE = 8;
+
+	@Before
+	public void prepareTest() {
+		Id.resetCaches();
+		ScenarioImporter.flush();
+		HermesConfigGroup.SIM_STEPS = 30 * 60 * 60;
+	}
+
+	@Test
+	public void testPartitionIsSpatialAndComplete() {
+		Scenario scenario = createScenario(1, 4);
+		int[] linkRegions = RealmPartitioner.partition(scenario.getNetwork(), 4);
+
+		int[] linksPerRegion = new int[4];
+		for (Link link : scenario.getNetwork().getLinks().values()) {
+			linksPerRegion[linkRegions[link.getId().index()]]++;
+		}
+		int links = scenario.getNetwork().getLinks().size();
+		for (int region = 0; region < 4; region++) {
+			Assert.assertEquals("unbalanced region " + region, links / 4.0, linksPerRegion[region], links * 0.1);
+		}
+		// links into the same node are always in the same region
+		for (Node node : scenario.getNetwork().getNodes().values()) {
+			int region = -1;
+			for (Link link : node.getInLinks().values()) {
+				int linkRegion = linkRegions[link.getId().index()];
+				Assert.assertTrue(region == -1 || region == linkRegion);
+				region = linkRegion;
+			}
+		}
+	}
+
+	/**
+	 * Without congestion, hand-overs must not change any event. Only the order of events at the same
+	 * time step may differ from the single realm.
+	 */
+	@Test
+	public void testUncongestedSameAsSingleRealm() {
+		List<String> single = run(createScenario(1, 1));
+		prepareTest();
+		List<String> partitioned = run(createScenario(1, 4));
+
+		Assert.assertFalse(single.isEmpty());
+		Collections.sort(single);
+		Collections.sort(partitioned);
+		Assert.assertEquals(single, partitioned);
+	}
+
+	@Test
+	public void testCongestedRunIsDeterministic() {
+		Scenario scenario = createScenario(50, 4);
+		List<Event> events = collect(scenario);
+		prepareTest();
+		List<String> again = run(createScenario(50, 4));
+
+		Assert.assertEquals(events.stream().map(Event::toString).collect(Collectors.toList()), again);
+
+		long arrivals = events.stream().filter(e -> e instanceof PersonArrivalEvent).count();
+		Assert.assertEquals("all agents must arrive", scenario.getPopulation().getPersons().size(), arrivals);
+
+		double time = Double.NEGATIVE_INFINITY;
+		for (Event event : events) {
+			Assert.assertTrue("events must be sorted by time", event.getTime() >= time);
+			time = event.getTime();
+		}
+	}
+
+	private static List<String> run(Scenario scenario) {
+		return collect(scenario).stream().map(Event::toString).collect(Collectors.toList());
+	}
+
+	private static List<Event> collect(Scenario scenario) {
+		EventsManager events = EventsUtils.createEventsManager();
+		EventsCollector collector = new EventsCollector();
+		events.addHandler(collector);
+		HermesTest.createHermes(scenario, events).run();
+		return new ArrayList<>(collector.getEvents());
+	}
+
+	/**
+	 * Creates a grid network where agents drive along every row from west to east and along every
+	 * column from south to north, crossing all region boundaries.
+	 */
+	private static Scenario createScenario(int agentsPerRoute, int realms) {
+		Scenario scenario = ScenarioUtils.createScenario(ConfigUtils.createConfig());
+		scenario.getConfig().hermes().setRealms(realms);
+		Network network = scenario.getNetwork();
+
+		Node[][] nodes = new Node[GRID_SIZE][GRID_SIZE];
+		for (int x = 0; x < GRID_SIZE; x++) {
+			for (int y = 0; y < GRID_SIZE; y++) {
+				nodes[x][y] = NetworkUtils.createAndAddNode(network, Id.createNodeId(x + "_" + y), new Coord(x * 1000, y * 1000));
+			}
+		}
+		List<List<Id<Link>>> routes = new ArrayList<>();
+		for (int i = 0; i < GRID_SIZE; i++) {
+			List<Id<Link>> row = new ArrayList<>();
+			List<Id<Link>> column = new ArrayList<>();
+			for (int j = 0; j + 1 < GRID_SIZE; j++) {
+				row.add(addLinks(network, nodes[j][i], nodes[j + 1][i]));
+				column.add(addLinks(network, nodes[i][j], nodes[i][j + 1]));
+			}
+			routes.add(row);
+			routes.add(column);
+		}
+
+		PopulationFactory pf = scenario.getPopulation().getFactory();
+		int personId = 0;
+		for (List<Id<Link>> links : routes) {
+			for (int i = 0; i < agentsPerRoute; i++) {
+				Person person = pf.createPerson(Id.createPersonId(personId++));
+				Plan plan = pf.createPlan();
+				Activity home = pf.createActivityFromLinkId("h", links.get(0));
+				home.setEndTime(6 * 3600 + i);
+				plan.addActivity(home);
+				Leg leg = pf.createLeg(TransportMode.car);
+				TripStructureUtils.setRoutingMode(leg, TransportMode.car);
+				NetworkRoute route = RouteUtils.createLinkNetworkRouteImpl(links.get(0), links.subList(1, links.size() - 1), links.get(links.size() - 1));
+				leg.setRoute(route);
+				plan.addLeg(leg);
+				plan.addActivity(pf.createActivityFromLinkId("w", links.get(links.size() - 1)));
+				person.addPlan(plan);
+				scenario.getPopulation().addPerson(person);
+			}
+		}
+		return scenario;
+	}
+
+	private static Id<Link> addLinks(Network network, Node from, Node to) {
+		Id<Link> forward = Id.createLinkId(from.getId() + "-" + to.getId());
+		NetworkUtils.createAndAddLink(network, forward, from, to, 1000, 10, 600, 1);
+		NetworkUtils.createAndAddLink(network, Id.createLinkId(to.getId() + "-" + from.getId()), to, from, 1000, 10, 600, 1);
+		return forward;
+	}
+}
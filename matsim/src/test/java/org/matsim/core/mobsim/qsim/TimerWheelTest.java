@@ -0,0 +1,181 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * TimerWheelTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2022 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.core.mobsim.qsim;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TimerWheelTest {
+
+	private static final Comparator<String> TIE_BREAKER = Comparator.reverseOrder();
+
+	private static final class Scheduled {
+		final String item;
+		final double time;
+
+		Scheduled(String item, double time) {
+			this.item = item;
+			this.time = time;
+		}
+	}
+
+	private static final Comparator<Scheduled> ORDER = (s0, s1) -> {
+		int cmp = Double.compare(s0.time, s1.time);
+		return cmp != 0 ? cmp : TIE_BREAKER.compare(s0.item, s1.item);
+	};
+
+	@Test
+	public void testOrderAndTies() {
+		TimerWheel<String> wheel = new TimerWheel<>(TIE_BREAKER);
+		wheel.add("a", 10);
+		wheel.add("c", 5.5);
+		wheel.add("b", 10);
+		wheel.add("d", 3);
+
+		Assert.assertNull(wheel.pollDue(2));
+		Assert.assertEquals("d", wheel.pollDue(5));
+		Assert.assertNull(wheel.pollDue(5));
+		Assert.assertEquals("c", wheel.pollDue(6));
+		// added while polling, due immediately
+		wheel.add("e", 6);
+		Assert.assertEquals("e", wheel.pollDue(6));
+		Assert.assertNull(wheel.pollDue(9.5));
+		Assert.assertEquals("b", wheel.pollDue(10));
+		Assert.assertEquals("a", wheel.pollDue(10));
+		Assert.assertNull(wheel.pollDue(10));
+		Assert.assertEquals(0, wheel.size());
+	}
+
+	@Test
+	public void testRemove() {
+		TimerWheel<String> wheel = new TimerWheel<>(TIE_BREAKER);
+		wheel.add("a", 10);
+		wheel.add("b", 20);
+		wheel.add("c", 10_000_000);
+		Assert.assertEquals(10, wheel.remove("a").getTime(), 0);
+		Assert.assertNull(wheel.remove("a"));
+		Assert.assertEquals(2, wheel.size());
+
+		Assert.assertNull(wheel.pollDue(15));
+		wheel.add("a", 12);
+		wheel.add("d", 14);
+		// "d" is already due, removing it must still work
+		Assert.assertNotNull(wheel.remove("d"));
+		Assert.assertEquals("a", wheel.pollDue(15));
+		Assert.assertNull(wheel.pollDue(15));
+
+		Assert.assertEquals("b", wheel.pollDue(100_000));
+		Assert.assertNull(wheel.pollDue(100_000));
+		Assert.assertEquals("c", wheel.pollDue(10_000_000));
+		Assert.assertEquals(0, wheel.size());
+	}
+
+	@Test
+	public void testRemoveAll() {
+		TimerWheel<String> wheel = new TimerWheel<>(TIE_BREAKER);
+		wheel.add("a", 100_000_000);
+		wheel.add("b", Double.POSITIVE_INFINITY);
+		wheel.add("c", 1);
+		wheel.add("d", 50_000);
+		Assert.assertEquals("c", wheel.pollDue(2));
+		wheel.add("e", 2);
+
+		List<TimerWheel.Entry<String>> remaining = wheel.removeAll();
+		Assert.assertEquals(4, remaining.size());
+		Assert.assertEquals("e", remaining.get(0).getItem());
+		Assert.assertEquals("d", remaining.get(1).getItem());
+		Assert.assertEquals("a", remaining.get(2).getItem());
+		Assert.assertEquals("b", remaining.get(3).getItem());
+		Assert.assertEquals(0, wheel.size());
+		Assert.assertNull(wheel.pollDue(Double.MAX_VALUE));
+	}
+
+	/**
+	 * Compares the timer wheel with a priority queue, including items that are added while polling
+	 * and times spanning all levels of the wheel.
+	 */
+	@Test
+	public void testSameOrderAsPriorityQueue() {
+		Random r = new Random(20221017);
+		TimerWheel<String> wheel = new TimerWheel<>(TIE_BREAKER);
+		PriorityQueue<Scheduled> queue = new PriorityQueue<>(ORDER);
+		List<String> scheduled = new ArrayList<>();
+		int counter = 0;
+
+		// scheduled before the start, in random order
+		for (int i = 0; i < 5000; i++) {
+			String item = "agent_" + counter++;
+			double time = randomTime(r, 0);
+			wheel.add(item, time);
+			queue.add(new Scheduled(item, time));
+			scheduled.add(item);
+		}
+
+		for (double now = 1000; now < 200_000; now += (r.nextInt(10) == 0 ? 1500 : 1)) {
+			// remove a few
+			for (int i = 0; i < 3 && !scheduled.isEmpty(); i++) {
+				String item = scheduled.remove(r.nextInt(scheduled.size()));
+				TimerWheel.Entry<String> removed = wheel.remove(item);
+				if (removed != null) {
+					Assert.assertTrue(queue.removeIf(s -> s.item.equals(item)));
+				}
+			}
+			String expected;
+			while ((expected = peekDue(queue, now)) != null) {
+				queue.poll();
+				Assert.assertEquals("at time " + now, expected, wheel.pollDue(now));
+				if (r.nextInt(4) == 0) {
+					// re-schedule, possibly at the current time
+					String item = "agent_" + counter++;
+					double time = r.nextBoolean() ? now : randomTime(r, now);
+					wheel.add(item, time);
+					queue.add(new Scheduled(item, time));
+					scheduled.add(item);
+				}
+			}
+			Assert.assertNull(wheel.pollDue(now));
+			Assert.assertEquals(queue.size(), wheel.size());
+		}
+	}
+
+	private static String peekDue(PriorityQueue<Scheduled> queue, double now) {
+		Scheduled s = queue.peek();
+		return s != null && s.time <= now ? s.item : null;
+	}
+
+	private static double randomTime(Random r, double now) {
+		switch (r.nextInt(5)) {
+			case 0: return now + r.nextInt(100);
+			case 1: return now + r.nextInt(100) + 0.5;
+			case 2: return now + r.nextInt(30_000);
+			case 3: return now + r.nextDouble() * 20_000_000;
+			default: return Math.floor(now + r.nextInt(5000) / 100.0) * 10;
+		}
+	}
+
+}
@@ -0,0 +1,223 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * HilbertCurveQNodePartitionerTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2022 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.qsim.qnetsimengine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.TransportMode;
+import org.matsim.api.core.v01.events.PersonArrivalEvent;
+import org.matsim.api.core.v01.events.handler.PersonArrivalEventHandler;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.NetworkFactory;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Activity;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Plan;
+import org.matsim.api.core.v01.population.PopulationFactory;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.config.groups.QSimConfigGroup.NodePartitioning;
+import org.matsim.core.controler.PrepareForSimUtils;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.mobsim.qsim.QSimBuilder;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.population.routes.NetworkRoute;
+import org.matsim.core.population.routes.RouteUtils;
+import org.matsim.core.router.TripStructureUtils;
+import org.matsim.core.scenario.ScenarioUtils;
+
+public class HilbertCurveQNodePartitionerTest {
+
+	@Test
+	public void testCurvePosition() {
+		// an aligned square of 4x4 cells is a contiguous piece of the curve, where each cell is next to the one before
+		int[][] cells = new int[16][];
+		for (int x = 0; x < 4; x++) {
+			for (int y = 0; y < 4; y++) {
+				long d = HilbertCurveQNodePartitioner.curvePosition(x, y);
+				Assert.assertTrue(d >= 0 && d < 16);
+				Assert.assertNull("cell visited twice", cells[(int) d]);
+				cells[(int) d] = new int[] {x, y};
+			}
+		}
+		for (int d = 1; d < 16; d++) {
+			int distance = Math.abs(cells[d][0] - cells[d - 1][0]) + Math.abs(cells[d][1] - cells[d - 1][1]);
+			Assert.assertEquals(1, distance);
+		}
+	}
+
+	@Test
+	public void testPartitionIsBalanced() {
+		Network network = createGrid(10);
+		List<Node> nodes = new ArrayList<>(network.getNodes().values());
+		double[] weights = new double[nodes.size()];
+		Arrays.fill(weights, 1.0);
+
+		int[] runners = new HilbertCurveQNodePartitioner().partition(nodes, weights, 4);
+		int[] nodesPerRunner = new int[4];
+		for (int runner : runners) {
+			nodesPerRunner[runner]++;
+		}
+		Assert.assertArrayEquals(new int[] {25, 25, 25, 25}, nodesPerRunner);
+
+		// nodes in the same runner are close to each other, so most links stay within one runner
+		int cutLinks = 0;
+		for (Link link : network.getLinks().values()) {
+			if (runners[nodes.indexOf(link.getFromNode())] != runners[nodes.indexOf(link.getToNode())]) {
+				cutLinks++;
+			}
+		}
+		Assert.assertTrue("too many links between runners: " + cutLinks, cutLinks <= 2 * 2 * 10);
+	}
+
+	@Test
+	public void testPartitionFollowsWeights() {
+		Network network = createGrid(10);
+		List<Node> nodes = new ArrayList<>(network.getNodes().values());
+		double[] weights = new double[nodes.size()];
+		for (int i = 0; i < nodes.size(); i++) {
+			// all the work is in the left half of the grid
+			weights[i] = nodes.get(i).getCoord().getX() < 500 ? 10.0 : 0.0;
+		}
+
+		int[] runners = new HilbertCurveQNodePartitioner().partition(nodes, weights, 2);
+		double[] weightPerRunner = new double[2];
+		for (int i = 0; i < nodes.size(); i++) {
+			weightPerRunner[runners[i]] += weights[i];
+		}
+		Assert.assertEquals(weightPerRunner[0], weightPerRunner[1], 10.0);
+	}
+
+	@Test
+	public void testLoadStatisticsRebalanceInterval() {
+		QNetsimEngineLoadStatistics statistics = new QNetsimEngineLoadStatistics();
+		Assert.assertNull(statistics.getPartitionWeights(1));
+
+		statistics.finishMobsimRun(new long[] {0, 5}, new long[] {10, 20}, new long[] {10, 0});
+		Assert.assertNull("no rebalancing if disabled", statistics.getPartitionWeights(0));
+		Assert.assertNull("no rebalancing before the interval is over", statistics.getPartitionWeights(2));
+		Assert.assertArrayEquals(new double[] {1, 6}, statistics.getPartitionWeights(1), 0.0);
+
+		statistics.finishMobsimRun(new long[] {3, 3}, new long[] {15, 15}, new long[] {0, 0});
+		Assert.assertArrayEquals("keeps the weights until the next rebalancing", new double[] {1, 6}, statistics.getPartitionWeights(3), 0.0);
+		Assert.assertArrayEquals(new double[] {4, 4}, statistics.getPartitionWeights(2), 0.0);
+		Assert.assertArrayEquals(new long[] {15, 15}, statistics.getRunnerBusyNanos());
+	}
+
+	@Test
+	public void testQSimWithHilbertCurvePartitioning() {
+		Assert.assertEquals(50, runQSim(NodePartitioning.roundRobin));
+		Assert.assertEquals(50, runQSim(NodePartitioning.hilbertCurve));
+	}
+
+	private static int runQSim(NodePartitioning partitioning) {
+		Config config = ConfigUtils.createConfig();
+		config.qsim().setNumberOfThreads(3);
+		config.qsim().setNodePartitioning(partitioning);
+		config.qsim().setEndTime(24 * 3600);
+		Scenario scenario = ScenarioUtils.createScenario(config);
+		createGrid(scenario.getNetwork(), 5);
+
+		// everybody drives along the bottom row and then up the right column
+		List<Id<Link>> routeLinks = new ArrayList<>();
+		for (int x = 1; x < 4; x++) {
+			routeLinks.add(Id.createLinkId(x + "_0-" + (x + 1) + "_0"));
+		}
+		for (int y = 0; y < 4; y++) {
+			routeLinks.add(Id.createLinkId("4_" + y + "-4_" + (y + 1)));
+		}
+		Id<Link> startLink = Id.createLinkId("0_0-1_0");
+		Id<Link> endLink = Id.createLinkId("4_4-3_4");
+
+		PopulationFactory pf = scenario.getPopulation().getFactory();
+		for (int i = 0; i < 50; i++) {
+			Person person = pf.createPerson(Id.createPersonId(i));
+			Plan plan = pf.createPlan();
+			Activity home = pf.createActivityFromLinkId("h", startLink);
+			home.setEndTime(6 * 3600 + i * 10);
+			plan.addActivity(home);
+			Leg leg = pf.createLeg(TransportMode.car);
+			TripStructureUtils.setRoutingMode(leg, TransportMode.car);
+			NetworkRoute route = RouteUtils.createLinkNetworkRouteImpl(startLink, routeLinks, endLink);
+			leg.setRoute(route);
+			plan.addLeg(leg);
+			plan.addActivity(pf.createActivityFromLinkId("w", endLink));
+			person.addPlan(plan);
+			scenario.getPopulation().addPerson(person);
+		}
+
+		int[] arrivals = new int[1];
+		EventsManager events = EventsUtils.createEventsManager();
+		events.addHandler((PersonArrivalEventHandler) (PersonArrivalEvent event) -> arrivals[0]++);
+
+		PrepareForSimUtils.createDefaultPrepareForSim(scenario).run();
+		new QSimBuilder(config).useDefaults().build(scenario, events).run();
+		return arrivals[0];
+	}
+
+	private static Network createGrid(int size) {
+		Network network = NetworkUtils.createNetwork();
+		createGrid(network, size);
+		return network;
+	}
+
+	private static void createGrid(Network network, int size) {
+		NetworkFactory nf = network.getFactory();
+		Node[][] nodes = new Node[size][size];
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				nodes[x][y] = nf.createNode(Id.createNodeId(x + "_" + y), new Coord(x * 100, y * 100));
+				network.addNode(nodes[x][y]);
+			}
+		}
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				if (x + 1 < size) {
+					addLink(network, nodes[x][y], nodes[x + 1][y]);
+					addLink(network, nodes[x + 1][y], nodes[x][y]);
+				}
+				if (y + 1 < size) {
+					addLink(network, nodes[x][y], nodes[x][y + 1]);
+					addLink(network, nodes[x][y + 1], nodes[x][y]);
+				}
+			}
+		}
+	}
+
+	private static void addLink(Network network, Node from, Node to) {
+		Link link = network.getFactory().createLink(Id.createLinkId(from.getId() + "-" + to.getId()), from, to);
+		link.setLength(100);
+		link.setFreespeed(10);
+		link.setCapacity(1800);
+		link.setNumberOfLanes(1);
+		network.addLink(link);
+	}
+}
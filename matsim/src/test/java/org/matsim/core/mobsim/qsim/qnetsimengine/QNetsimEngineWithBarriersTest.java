@@ -0,0 +1,155 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * QNetsimEngineWithBarriersTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2022 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.qsim.qnetsimengine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.TransportMode;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.PersonArrivalEvent;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.NetworkFactory;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Activity;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Plan;
+import org.matsim.api.core.v01.population.PopulationFactory;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.config.groups.QSimConfigGroup.NetsimEngineThreading;
+import org.matsim.core.controler.PrepareForSimUtils;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.events.handler.BasicEventHandler;
+import org.matsim.core.gbl.MatsimRandom;
+import org.matsim.core.mobsim.qsim.QSimBuilder;
+import org.matsim.core.population.routes.RouteUtils;
+import org.matsim.core.router.TripStructureUtils;
+import org.matsim.core.scenario.ScenarioUtils;
+
+public class QNetsimEngineWithBarriersTest {
+
+	@Test
+	public void testSameEventsAsThreadpool_singleThread() {
+		List<String> expected = runQSim(NetsimEngineThreading.threadpool, 1);
+		Assert.assertEquals(expected, runQSim(NetsimEngineThreading.barriers, 1));
+	}
+
+	@Test
+	public void testSameEventsAsThreadpool_multipleThreads() {
+		List<String> expected = runQSim(NetsimEngineThreading.threadpool, 3);
+		// the order of the events within a time step depends on the threads, so compare them sorted
+		Collections.sort(expected);
+		for (int i = 0; i < 3; i++) {
+			List<String> actual = runQSim(NetsimEngineThreading.barriers, 3);
+			Collections.sort(actual);
+			Assert.assertEquals(expected, actual);
+		}
+		Assert.assertEquals(100, expected.stream().filter(e -> e.contains("type=\"" + PersonArrivalEvent.EVENT_TYPE + "\"")).count());
+	}
+
+	private static List<String> runQSim(NetsimEngineThreading threading, int numberOfThreads) {
+		MatsimRandom.reset();
+		Config config = ConfigUtils.createConfig();
+		config.qsim().setNumberOfThreads(numberOfThreads);
+		config.qsim().setNetsimEngineThreading(threading);
+		config.qsim().setEndTime(24 * 3600);
+		Scenario scenario = ScenarioUtils.createScenario(config);
+		createGrid(scenario.getNetwork(), 6);
+
+		// half of the agents drive right and up, the other half up and right, so they cross at several nodes
+		PopulationFactory pf = scenario.getPopulation().getFactory();
+		for (int i = 0; i < 100; i++) {
+			boolean rightFirst = i % 2 == 0;
+			List<Id<Link>> routeLinks = new ArrayList<>();
+			for (int j = 1; j < 5; j++) {
+				routeLinks.add(rightFirst ? Id.createLinkId(j + "_0-" + (j + 1) + "_0") : Id.createLinkId("0_" + j + "-0_" + (j + 1)));
+			}
+			for (int j = 0; j < 5; j++) {
+				routeLinks.add(rightFirst ? Id.createLinkId("5_" + j + "-5_" + (j + 1)) : Id.createLinkId(j + "_5-" + (j + 1) + "_5"));
+			}
+			Id<Link> startLink = rightFirst ? Id.createLinkId("0_0-1_0") : Id.createLinkId("0_0-0_1");
+			Id<Link> endLink = rightFirst ? Id.createLinkId("5_5-4_5") : Id.createLinkId("5_5-5_4");
+
+			Person person = pf.createPerson(Id.createPersonId(i));
+			Plan plan = pf.createPlan();
+			Activity home = pf.createActivityFromLinkId("h", startLink);
+			home.setEndTime(6 * 3600 + (i / 2) * 5);
+			plan.addActivity(home);
+			Leg leg = pf.createLeg(TransportMode.car);
+			TripStructureUtils.setRoutingMode(leg, TransportMode.car);
+			leg.setRoute(RouteUtils.createLinkNetworkRouteImpl(startLink, routeLinks, endLink));
+			plan.addLeg(leg);
+			plan.addActivity(pf.createActivityFromLinkId("w", endLink));
+			person.addPlan(plan);
+			scenario.getPopulation().addPerson(person);
+		}
+
+		List<String> eventStrings = new ArrayList<>();
+		EventsManager events = EventsUtils.createEventsManager();
+		events.addHandler((BasicEventHandler) (Event event) -> eventStrings.add(event.toString()));
+
+		PrepareForSimUtils.createDefaultPrepareForSim(scenario).run();
+		new QSimBuilder(config).useDefaults().build(scenario, events).run();
+		return eventStrings;
+	}
+
+	private static void createGrid(Network network, int size) {
+		NetworkFactory nf = network.getFactory();
+		Node[][] nodes = new Node[size][size];
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				nodes[x][y] = nf.createNode(Id.createNodeId(x + "_" + y), new Coord(x * 100, y * 100));
+				network.addNode(nodes[x][y]);
+			}
+		}
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				if (x + 1 < size) {
+					addLink(network, nodes[x][y], nodes[x + 1][y]);
+					addLink(network, nodes[x + 1][y], nodes[x][y]);
+				}
+				if (y + 1 < size) {
+					addLink(network, nodes[x][y], nodes[x][y + 1]);
+					addLink(network, nodes[x][y + 1], nodes[x][y]);
+				}
+			}
+		}
+	}
+
+	private static void addLink(Network network, Node from, Node to) {
+		Link link = network.getFactory().createLink(Id.createLinkId(from.getId() + "-" + to.getId()), from, to);
+		link.setLength(100);
+		link.setFreespeed(10);
+		link.setCapacity(600);
+		link.setNumberOfLanes(1);
+		network.addLink(link);
+	}
+}
@@ -0,0 +1,192 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * CompactPopulationTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2022 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.core.population;
+
+import java.net.URL;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.population.Activity;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Plan;
+import org.matsim.api.core.v01.population.PlanElement;
+import org.matsim.api.core.v01.population.PopulationFactory;
+import org.matsim.api.core.v01.population.PopulationWriter;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.config.groups.PlansConfigGroup;
+import org.matsim.core.population.routes.NetworkRoute;
+import org.matsim.core.router.TripStructureUtils;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.core.utils.io.IOUtils;
+import org.matsim.examples.ExamplesUtils;
+import org.matsim.testcases.MatsimTestUtils;
+
+public class CompactPopulationTest {
+
+	@Rule
+	public MatsimTestUtils utils = new MatsimTestUtils();
+
+	@Test
+	public void testReadWrite_sameAsStandard() {
+		Scenario standard = loadEquil(PlansConfigGroup.PopulationBackend.standard);
+		Scenario compact = loadEquil(PlansConfigGroup.PopulationBackend.compact);
+
+		Plan plan = compact.getPopulation().getPersons().values().iterator().next().getSelectedPlan();
+		Assert.assertTrue(plan instanceof CompactPlanImpl);
+		Assert.assertTrue(plan.getPlanElements().get(0) instanceof CompactActivityImpl);
+		Assert.assertTrue(plan.getPlanElements().get(1) instanceof CompactLegImpl);
+		Assert.assertEquals("IndexedNetworkRouteImpl",
+				((Leg)plan.getPlanElements().get(1)).getRoute().getClass().getSimpleName());
+
+		Assert.assertTrue(PopulationUtils.equalPopulation(standard.getPopulation(), compact.getPopulation()));
+
+		String standardFile = utils.getOutputDirectory() + "standard_plans.xml";
+		String compactFile = utils.getOutputDirectory() + "compact_plans.xml";
+		new PopulationWriter(standard.getPopulation(), standard.getNetwork()).write(standardFile);
+		new PopulationWriter(compact.getPopulation(), compact.getNetwork()).write(compactFile);
+		MatsimTestUtils.compareFilesBasedOnCRC(standardFile, compactFile);
+	}
+
+	@Test
+	public void testTimesAndAttributes() {
+		Config config = ConfigUtils.createConfig();
+		config.plans().setPopulationBackend(PlansConfigGroup.PopulationBackend.compact);
+		PopulationFactory factory = PopulationUtils.createPopulation(config).getFactory();
+
+		Activity act = factory.createActivityFromCoord("home", new Coord(0, 0));
+		Assert.assertTrue(act.getEndTime().isUndefined());
+		act.setEndTime(0);
+		Assert.assertEquals(0, act.getEndTime().seconds(), 0);
+		act.setEndTime(7 * 3600);
+		Assert.assertEquals(7 * 3600, act.getEndTime().seconds(), 0);
+		act.setEndTimeUndefined();
+		Assert.assertTrue(act.getEndTime().isUndefined());
+		act.setMaximumDuration(600);
+		Assert.assertEquals(600, act.getMaximumDuration().seconds(), 0);
+		Assert.assertTrue(act.getStartTime().isUndefined());
+
+		try {
+			act.setStartTime(Double.NaN);
+			Assert.fail("NaN time must be rejected");
+		} catch (IllegalArgumentException expected) {
+		}
+
+		Leg leg = factory.createLeg("car");
+		Assert.assertTrue(leg.getDepartureTime().isUndefined());
+		leg.setDepartureTime(100);
+		leg.setTravelTime(50);
+		Assert.assertEquals(100, leg.getDepartureTime().seconds(), 0);
+		Assert.assertEquals(50, leg.getTravelTime().seconds(), 0);
+
+		leg.getAttributes().putAttribute("routingMode", "car");
+		leg.setMode("walk");
+		Assert.assertNull("routing mode must be reset", leg.getAttributes().getAttribute("routingMode"));
+	}
+
+	@Test
+	public void testCreateAndAddPlanElements_keepsCompactRepresentation() {
+		Config config = ConfigUtils.createConfig();
+		config.plans().setPopulationBackend(PlansConfigGroup.PopulationBackend.compact);
+		PopulationFactory factory = PopulationUtils.createPopulation(config).getFactory();
+
+		Person person = factory.createPerson(Id.createPersonId("1"));
+		Plan plan = factory.createPlan();
+		person.addPlan(plan);
+		PopulationUtils.createAndAddActivity(plan, "home");
+		PopulationUtils.createAndAddLeg(plan, "car");
+		PopulationUtils.createAndAddActivity(plan, "work");
+
+		for (PlanElement pe : plan.getPlanElements()) {
+			Assert.assertTrue(pe instanceof CompactActivityImpl || pe instanceof CompactLegImpl);
+		}
+
+		NetworkRoute route = factory.getRouteFactories()
+				.createRoute(NetworkRoute.class, Id.createLinkId("1"), Id.createLinkId("3"));
+		Assert.assertEquals("links", route.getRouteType());
+	}
+
+	@Test
+	public void testCopyOfSelectedPlan_keepsCompactRepresentation() {
+		Scenario compact = loadEquil(PlansConfigGroup.PopulationBackend.compact);
+		Person person = compact.getPopulation().getPersons().values().iterator().next();
+		Plan original = person.getSelectedPlan();
+
+		Plan copy = person.createCopyOfSelectedPlanAndMakeSelected();
+		Assert.assertNotSame(original, copy);
+		Assert.assertSame(person, copy.getPerson());
+		Assert.assertTrue(copy instanceof CompactPlanImpl);
+		Assert.assertEquals(original.getPlanElements().size(), copy.getPlanElements().size());
+		for (PlanElement pe : copy.getPlanElements()) {
+			Assert.assertTrue(pe instanceof CompactActivityImpl || pe instanceof CompactLegImpl);
+		}
+		Assert.assertEquals("IndexedNetworkRouteImpl",
+				((Leg)copy.getPlanElements().get(1)).getRoute().getClass().getSimpleName());
+		Assert.assertEquals(((Leg)original.getPlanElements().get(1)).getRoute().getRouteDescription(),
+				((Leg)copy.getPlanElements().get(1)).getRoute().getRouteDescription());
+
+		Assert.assertTrue(PopulationUtils.createActivity((Activity) original.getPlanElements().get(0)) instanceof CompactActivityImpl);
+		Assert.assertTrue(PopulationUtils.createLeg((Leg) original.getPlanElements().get(1)) instanceof CompactLegImpl);
+	}
+
+	@Test
+	public void testWriteAndGetRoutingMode_doNotCreateAttributes() {
+		Scenario compact = loadEquil(PlansConfigGroup.PopulationBackend.compact);
+		new PopulationWriter(compact.getPopulation(), compact.getNetwork()).write(
+				utils.getOutputDirectory() + "compact_plans.xml");
+
+		for (Person person : compact.getPopulation().getPersons().values()) {
+			for (Plan plan : person.getPlans()) {
+				Assert.assertNull(((CompactPlanImpl)plan).getAttributesIfCreated());
+				for (PlanElement pe : plan.getPlanElements()) {
+					if (pe instanceof Leg) {
+						Assert.assertNull(TripStructureUtils.getRoutingMode((Leg)pe));
+						Assert.assertNull(((CompactLegImpl)pe).getAttributesIfCreated());
+					} else {
+						Assert.assertNull(((CompactActivityImpl)pe).getAttributesIfCreated());
+					}
+				}
+			}
+		}
+
+		Leg leg = (Leg)compact.getPopulation().getPersons().values().iterator().next().getSelectedPlan()
+				.getPlanElements().get(1);
+		Assert.assertFalse(PopulationUtils.hasAttributes(leg));
+		TripStructureUtils.setRoutingMode(leg, "car");
+		Assert.assertTrue(PopulationUtils.hasAttributes(leg));
+		Assert.assertEquals("car", TripStructureUtils.getRoutingMode(leg));
+	}
+
+	private Scenario loadEquil(PlansConfigGroup.PopulationBackend backend) {
+		URL equil = ExamplesUtils.getTestScenarioURL("equil");
+		Config config = ConfigUtils.createConfig();
+		config.network().setInputFile(IOUtils.extendUrl(equil, "network.xml").toString());
+		config.plans().setInputFile(IOUtils.extendUrl(equil, "plans100.xml").toString());
+		config.plans().setPopulationBackend(backend);
+		return ScenarioUtils.loadScenario(config);
+	}
+}
@@ -0,0 +1,138 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * ParallelPopulationReaderMatsimV6Test.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2022 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.core.population.io;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.population.Activity;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Plan;
+import org.matsim.api.core.v01.population.PlanElement;
+import org.matsim.api.core.v01.population.PopulationWriter;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.network.io.MatsimNetworkReader;
+import org.matsim.core.population.PopulationUtils;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.testcases.MatsimTestUtils;
+
+public class ParallelPopulationReaderMatsimV6Test {
+
+	@Rule
+	public final MatsimTestUtils utils = new MatsimTestUtils();
+
+	@Test
+	public void testSamePopulationAsSequentialReader() throws IOException {
+		String inputFile = createPopulationFile();
+
+		Scenario sequential = readPopulation(inputFile, 1);
+		Scenario parallel = readPopulation(inputFile, 4);
+
+		Assert.assertEquals(2000, parallel.getPopulation().getPersons().size());
+		Assert.assertTrue(PopulationUtils.equalPopulation(sequential.getPopulation(), parallel.getPopulation()));
+		Assert.assertEquals("persons must keep their order.",
+				sequential.getPopulation().getPersons().keySet().toString(),
+				parallel.getPopulation().getPersons().keySet().toString());
+
+		String sequentialFile = this.utils.getOutputDirectory() + "sequential.xml";
+		String parallelFile = this.utils.getOutputDirectory() + "parallel.xml";
+		new PopulationWriter(sequential.getPopulation()).writeV6(sequentialFile);
+		new PopulationWriter(parallel.getPopulation()).writeV6(parallelFile);
+		Assert.assertArrayEquals(Files.readAllBytes(Paths.get(sequentialFile)), Files.readAllBytes(Paths.get(parallelFile)));
+	}
+
+	@Test
+	public void testExceptionInWorkerIsPropagated() throws IOException {
+		String file = this.utils.getOutputDirectory() + "invalid.xml";
+		String person = "\t<person id=\"%d\">\n\t\t<plan selected=\"yes\">\n\t\t\t<activity type=\"h\" x=\"0.0\" y=\"0.0\" />\n\t\t</plan>\n\t</person>\n";
+		StringBuilder xml = new StringBuilder();
+		xml.append("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n");
+		xml.append("<!DOCTYPE population SYSTEM \"http://www.matsim.org/files/dtd/population_v6.dtd\">\n");
+		xml.append("<population>\n");
+		for (int i = 0; i < 3 * ParallelPopulationReaderMatsimV6.PERSONS_PER_CHUNK; i++) {
+			xml.append(String.format(person, i));
+		}
+		// an activity without location passes the dtd, but is rejected by the reader
+		xml.append("\t<person id=\"invalid\">\n\t\t<plan selected=\"yes\">\n\t\t\t<activity type=\"h\" />\n\t\t</plan>\n\t</person>\n");
+		for (int i = 0; i < 3 * ParallelPopulationReaderMatsimV6.PERSONS_PER_CHUNK; i++) {
+			xml.append(String.format(person, 1000 + i));
+		}
+		xml.append("</population>\n");
+		Files.write(Paths.get(file), xml.toString().getBytes("UTF-8"));
+
+		try {
+			readPopulation(file, 4);
+			Assert.fail("expected exception.");
+		} catch (RuntimeException e) {
+			Throwable cause = e;
+			while (cause.getCause() != null && !(cause instanceof IllegalArgumentException)) {
+				cause = cause.getCause();
+			}
+			Assert.assertTrue("unexpected exception: " + e, cause instanceof IllegalArgumentException);
+		}
+	}
+
+	private String createPopulationFile() {
+		Config config = ConfigUtils.createConfig();
+		Scenario scenario = ScenarioUtils.createScenario(config);
+		new MatsimNetworkReader(scenario.getNetwork()).readFile("test/scenarios/equil/network.xml");
+		new PopulationReader(scenario).readFile("test/scenarios/equil/plans2000.xml.gz");
+
+		// add some attributes on all levels
+		scenario.getPopulation().getAttributes().putAttribute("source", "equil");
+		int i = 0;
+		for (Person person : scenario.getPopulation().getPersons().values()) {
+			person.getAttributes().putAttribute("index", i++);
+			for (Plan plan : person.getPlans()) {
+				plan.getAttributes().putAttribute("planAttribute", 1.5 * i);
+				for (PlanElement pe : plan.getPlanElements()) {
+					if (pe instanceof Activity) {
+						pe.getAttributes().putAttribute("actAttribute", ((Activity) pe).getType());
+					} else {
+						pe.getAttributes().putAttribute("legAttribute", ((Leg) pe).getMode().length());
+					}
+				}
+			}
+		}
+
+		String file = this.utils.getOutputDirectory() + "population.xml.gz";
+		new PopulationWriter(scenario.getPopulation()).writeV6(file);
+		return file;
+	}
+
+	private static Scenario readPopulation(String file, int numberOfThreads) {
+		Config config = ConfigUtils.createConfig();
+		config.global().setNumberOfThreads(numberOfThreads);
+		Scenario scenario = ScenarioUtils.createScenario(config);
+		new MatsimNetworkReader(scenario.getNetwork()).readFile("test/scenarios/equil/network.xml");
+		new PopulationReader(scenario).readFile(file);
+		return scenario;
+	}
+
+}
@@ -26,8 +26,17 @@ import org.junit.Test;
 import org.matsim.api.core.v01.population.Plan;
 import org.matsim.core.config.Config;
 import org.matsim.core.config.groups.GlobalConfigGroup;
+import org.matsim.core.config.groups.GlobalConfigGroup.PlanDispatching;
+import org.matsim.core.population.PopulationUtils;
 import org.matsim.core.population.algorithms.PlanAlgorithm;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * @author mrieser
  */
@@ -60,6 +69,83 @@ public class AbstractMultithreadedModuleTest {
 
 	}
 
+	@Test
+	public void testDynamicPlanDispatching() {
+		List<Plan> plans = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			plans.add(PopulationUtils.createPlan());
+		}
+		Map<Plan, AtomicInteger> handled = new ConcurrentHashMap<>();
+		Set<String> threadNames = ConcurrentHashMap.newKeySet();
+		CountingModule testee = new CountingModule(3, PlanDispatching.dynamic, handled, threadNames);
+
+		for (int iteration = 0; iteration < 3; iteration++) {
+			handled.clear();
+			testee.prepareReplanning(null);
+			for (Plan plan : plans) {
+				testee.handlePlan(plan);
+			}
+			testee.finishReplanning();
+
+			Assert.assertEquals(plans.size(), handled.size());
+			for (AtomicInteger count : handled.values()) {
+				Assert.assertEquals("every plan must be handled exactly once", 1, count.get());
+			}
+		}
+		// the threads are reused in the following iterations
+		Assert.assertTrue(threadNames.size() <= 3);
+	}
+
+	@Test
+	public void testDynamicPlanDispatching_slowPlans() {
+		// the first plans are much slower than all others; with round robin, one thread would handle all the slow ones
+		List<Plan> plans = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			Plan plan = PopulationUtils.createPlan();
+			plan.setScore(i % 2 == 0 && i < 40 ? 1.0 : 0.0);
+			plans.add(plan);
+		}
+		Map<String, AtomicInteger> slowPlansPerThread = new ConcurrentHashMap<>();
+		AbstractMultithreadedModule testee = new AbstractMultithreadedModule(2, PlanDispatching.dynamic) {
+			@Override
+			public PlanAlgorithm getPlanAlgoInstance() {
+				return plan -> {
+					if (plan.getScore() > 0) {
+						slowPlansPerThread.computeIfAbsent(Thread.currentThread().getName(), k -> new AtomicInteger()).incrementAndGet();
+						try {
+							Thread.sleep(10);
+						} catch (InterruptedException e) {
+							throw new RuntimeException(e);
+						}
+					}
+				};
+			}
+		};
+		testee.prepareReplanning(null);
+		for (Plan plan : plans) {
+			testee.handlePlan(plan);
+		}
+		testee.finishReplanning();
+		Assert.assertEquals("both threads should get some of the slow plans", 2, slowPlansPerThread.size());
+	}
+
+	private static class CountingModule extends AbstractMultithreadedModule {
+		private final Map<Plan, AtomicInteger> handled;
+		private final Set<String> threadNames;
+		public CountingModule(int nOfThreads, PlanDispatching planDispatching, Map<Plan, AtomicInteger> handled, Set<String> threadNames) {
+			super(nOfThreads, planDispatching);
+			this.handled = handled;
+			this.threadNames = threadNames;
+		}
+		@Override
+		public PlanAlgorithm getPlanAlgoInstance() {
+			return plan -> {
+				this.threadNames.add(Thread.currentThread().getName());
+				this.handled.computeIfAbsent(plan, k -> new AtomicInteger()).incrementAndGet();
+			};
+		}
+	}
+
 	private static class DummyAbstractMultithreadedModule extends AbstractMultithreadedModule {
 		public DummyAbstractMultithreadedModule(GlobalConfigGroup globalConfigGroup) {
 			super(globalConfigGroup);
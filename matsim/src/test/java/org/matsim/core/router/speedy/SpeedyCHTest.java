@@ -0,0 +1,227 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * SpeedyCHTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2022 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.core.router.speedy;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.TransportMode;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.api.core.v01.population.PlanElement;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.config.groups.ControlerConfigGroup;
+import org.matsim.core.config.groups.PlanCalcScoreConfigGroup;
+import org.matsim.core.controler.AbstractModule;
+import org.matsim.core.controler.Injector;
+import org.matsim.core.population.PopulationUtils;
+import org.matsim.core.population.routes.NetworkRoute;
+import org.matsim.core.router.AbstractLeastCostPathCalculatorTest;
+import org.matsim.core.router.TripRouter;
+import org.matsim.core.router.TripRouterModule;
+import org.matsim.core.router.costcalculators.FreespeedTravelTimeAndDisutility;
+import org.matsim.core.router.costcalculators.RandomizingTimeDistanceTravelDisutilityFactory;
+import org.matsim.core.router.costcalculators.TravelDisutilityModule;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.LeastCostPathCalculator.Path;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.scenario.ScenarioByInstanceModule;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.core.utils.timing.TimeInterpretationModule;
+import org.matsim.facilities.FacilitiesUtils;
+import org.matsim.utils.objectattributes.attributable.Attributes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class SpeedyCHTest extends AbstractLeastCostPathCalculatorTest {
+
+	@Override
+	protected LeastCostPathCalculator getLeastCostPathCalculator(final Network network) {
+		FreespeedTravelTimeAndDisutility travelTimeCostCalculator = new FreespeedTravelTimeAndDisutility(new PlanCalcScoreConfigGroup());
+		SpeedyGraph g = new SpeedyGraph(network);
+		SpeedyCHData chData = new SpeedyCHData(g, 1);
+		return new SpeedyCH(chData, travelTimeCostCalculator, travelTimeCostCalculator);
+	}
+
+	@Test
+	public void testSameCostsAsDijkstra() {
+		Network network = SpeedyTestNetworks.createRandomGrid(40, 40, 4711);
+		FreespeedTravelTimeAndDisutility tc = new FreespeedTravelTimeAndDisutility(new PlanCalcScoreConfigGroup());
+		SpeedyGraph graph = new SpeedyGraph(network);
+		SpeedyDijkstra dijkstra = new SpeedyDijkstra(graph, tc, tc);
+		LeastCostPathCalculator ch = new SpeedyCHFactory(4, 3600).createPathCalculator(network, tc, tc);
+
+		Node[] nodes = network.getNodes().values().toArray(new Node[0]);
+		Random r = new Random(42);
+		for (int i = 0; i < 500; i++) {
+			Node from = nodes[r.nextInt(nodes.length)];
+			Node to = nodes[r.nextInt(nodes.length)];
+			Path expected = dijkstra.calcLeastCostPath(from, to, 8 * 3600, null, null);
+			Path actual = ch.calcLeastCostPath(from, to, 8 * 3600, null, null);
+			if (expected == null) {
+				Assert.assertNull(actual);
+				continue;
+			}
+			Assert.assertNotNull("no path from " + from.getId() + " to " + to.getId(), actual);
+			Assert.assertEquals(expected.travelCost, actual.travelCost, 1e-6);
+			Assert.assertEquals(expected.travelTime, actual.travelTime, 1e-6);
+			Assert.assertEquals(from, actual.nodes.get(0));
+			Assert.assertEquals(to, actual.nodes.get(actual.nodes.size() - 1));
+			Assert.assertEquals(actual.links.size() + 1, actual.nodes.size());
+			for (int l = 0; l < actual.links.size(); l++) {
+				Link link = actual.links.get(l);
+				Assert.assertEquals(actual.nodes.get(l), link.getFromNode());
+				Assert.assertEquals(actual.nodes.get(l + 1), link.getToNode());
+			}
+		}
+	}
+
+	@Test
+	public void testCustomizationUpdates() {
+		Network network = SpeedyTestNetworks.createRandomGrid(5, 5, 1);
+		FreespeedTravelTimeAndDisutility tc = new FreespeedTravelTimeAndDisutility(new PlanCalcScoreConfigGroup());
+		SpeedyCHFactory factory = new SpeedyCHFactory(1, 3600);
+		Node from = network.getNodes().get(Id.createNodeId("0_0"));
+		Node to = network.getNodes().get(Id.createNodeId("4_4"));
+
+		Path path1 = factory.createPathCalculator(network, tc, tc).calcLeastCostPath(from, to, 0, null, null);
+		Link usedLink = path1.links.get(path1.links.size() / 2);
+		usedLink.setFreespeed(usedLink.getFreespeed() / 1000);
+
+		// still the old customization
+		Path path2 = factory.createPathCalculator(network, tc, tc).calcLeastCostPath(from, to, 0, null, null);
+		Assert.assertEquals(path1.links, path2.links);
+
+		factory.resetCustomizations();
+		Path path3 = factory.createPathCalculator(network, tc, tc).calcLeastCostPath(from, to, 0, null, null);
+		Path expected = new SpeedyDijkstra(new SpeedyGraph(network), tc, tc).calcLeastCostPath(from, to, 0, null, null);
+		Assert.assertEquals(expected.travelCost, path3.travelCost, 1e-6);
+		Assert.assertTrue(path3.travelCost < path2.travelCost);
+	}
+
+	@Test
+	public void testCustomizationPerRoutingMode() {
+		Network network = SpeedyTestNetworks.createRandomGrid(5, 5, 1);
+		FreespeedTravelTimeAndDisutility tt = new FreespeedTravelTimeAndDisutility(new PlanCalcScoreConfigGroup());
+		SpeedyCHFactory factory = new SpeedyCHFactory(1, 3600);
+		Node from = network.getNodes().get(Id.createNodeId("0_0"));
+		Node to = network.getNodes().get(Id.createNodeId("4_4"));
+
+		// each router of a routing mode gets its own travel disutility instance
+		TravelDisutility td1 = new FreespeedTravelTimeAndDisutility(new PlanCalcScoreConfigGroup());
+		Path path1 = factory.createPathCalculator(network, td1, tt, TransportMode.car).calcLeastCostPath(from, to, 0, null, null);
+		Link usedLink = path1.links.get(path1.links.size() / 2);
+		usedLink.setFreespeed(usedLink.getFreespeed() / 1000);
+
+		// the customization of the first router is re-used
+		TravelDisutility td2 = new FreespeedTravelTimeAndDisutility(new PlanCalcScoreConfigGroup());
+		Path path2 = factory.createPathCalculator(network, td2, tt, TransportMode.car).calcLeastCostPath(from, to, 0, null, null);
+		Assert.assertEquals(path1.links, path2.links);
+
+		// but not by other routing modes
+		Path path3 = factory.createPathCalculator(network, td2, tt, TransportMode.truck).calcLeastCostPath(from, to, 0, null, null);
+		Path expected = new SpeedyDijkstra(new SpeedyGraph(network), tt, td2).calcLeastCostPath(from, to, 0, null, null);
+		Assert.assertEquals(expected.travelCost, path3.travelCost, 1e-6);
+		Assert.assertTrue(path3.travelCost < path2.travelCost);
+		factory.shutdown();
+	}
+
+	@Test
+	public void testCustomizationPerTravelDisutility() {
+		Network network = SpeedyTestNetworks.createRandomGrid(10, 10, 4711);
+		FreespeedTravelTimeAndDisutility tt = new FreespeedTravelTimeAndDisutility(new PlanCalcScoreConfigGroup());
+		Config timeConfig = ConfigUtils.createConfig();
+		timeConfig.plansCalcRoute().setRoutingRandomness(0);
+		Config distanceConfig = ConfigUtils.createConfig();
+		distanceConfig.plansCalcRoute().setRoutingRandomness(0);
+		distanceConfig.planCalcScore().getModes().get(TransportMode.car).setMarginalUtilityOfDistance(-1.0);
+		// same class, but different parameters
+		TravelDisutility timeDisutility = new RandomizingTimeDistanceTravelDisutilityFactory(TransportMode.car, timeConfig).createTravelDisutility(tt);
+		TravelDisutility distanceDisutility = new RandomizingTimeDistanceTravelDisutilityFactory(TransportMode.car, distanceConfig).createTravelDisutility(tt);
+
+		SpeedyCHFactory factory = new SpeedyCHFactory(1, 3600);
+		Node from = network.getNodes().get(Id.createNodeId("0_0"));
+		Node to = network.getNodes().get(Id.createNodeId("9_9"));
+		SpeedyGraph graph = new SpeedyGraph(network);
+		for (TravelDisutility td : new TravelDisutility[] { timeDisutility, distanceDisutility }) {
+			Path actual = factory.createPathCalculator(network, td, tt).calcLeastCostPath(from, to, 0, null, null);
+			Path expected = new SpeedyDijkstra(graph, tt, td).calcLeastCostPath(from, to, 0, null, null);
+			Assert.assertEquals(expected.travelCost, actual.travelCost, 1e-6);
+		}
+	}
+
+	/**
+	 * The default travel disutility is randomized per person, which cannot be considered by the customization.
+	 */
+	@Test
+	public void testWithInjectedDefaultTravelDisutility() {
+		Config config = ConfigUtils.createConfig();
+		config.controler().setRoutingAlgorithmType(ControlerConfigGroup.RoutingAlgorithmType.SpeedyCH);
+		Assert.assertTrue(config.plansCalcRoute().getRoutingRandomness() > 0);
+		Network network = SpeedyTestNetworks.createRandomGrid(10, 10, 4711);
+		Scenario scenario = new ScenarioUtils.ScenarioBuilder(config).setNetwork(network).build();
+		FreespeedTravelTimeAndDisutility freespeed = new FreespeedTravelTimeAndDisutility(config.planCalcScore());
+
+		com.google.inject.Injector injector = Injector.createInjector(config, new AbstractModule() {
+			@Override
+			public void install() {
+				install(new ScenarioByInstanceModule(scenario));
+				install(new TimeInterpretationModule());
+				install(new TripRouterModule());
+				install(new TravelDisutilityModule());
+				addTravelTimeBinding(TransportMode.car).toInstance(freespeed);
+			}
+		});
+		TripRouter router = injector.getInstance(TripRouter.class);
+
+		Link fromLink = network.getLinks().get(Id.createLinkId(0));
+		Link toLink = network.getLinks().get(Id.createLinkId(network.getLinks().size() - 1));
+		List<? extends PlanElement> trip = router.calcRoute(TransportMode.car, FacilitiesUtils.wrapLink(fromLink), FacilitiesUtils.wrapLink(toLink),
+				7 * 3600, PopulationUtils.getFactory().createPerson(Id.createPersonId(1)), new Attributes());
+
+		NetworkRoute route = null;
+		for (PlanElement pe : trip) {
+			if (pe instanceof Leg && ((Leg) pe).getMode().equals(TransportMode.car)) {
+				route = (NetworkRoute) ((Leg) pe).getRoute();
+			}
+		}
+		Assert.assertNotNull(route);
+
+		TravelDisutility expectedDisutility = RandomizingTimeDistanceTravelDisutilityFactory.withoutRandomness(
+				new RandomizingTimeDistanceTravelDisutilityFactory(TransportMode.car, config).createTravelDisutility(freespeed));
+		Path expected = new SpeedyDijkstra(new SpeedyGraph(network), freespeed, expectedDisutility)
+				.calcLeastCostPath(fromLink.getToNode(), toLink.getFromNode(), 7 * 3600, null, null);
+		List<Id<Link>> expectedLinkIds = new ArrayList<>();
+		for (Link link : expected.links) {
+			expectedLinkIds.add(link.getId());
+		}
+		Assert.assertFalse(expectedLinkIds.isEmpty());
+		Assert.assertEquals(expectedLinkIds, route.getLinkIds());
+	}
+
+}
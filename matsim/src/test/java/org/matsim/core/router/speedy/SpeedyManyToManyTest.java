@@ -0,0 +1,123 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * SpeedyManyToManyTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2022 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.core.router.speedy;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.core.config.groups.PlanCalcScoreConfigGroup;
+import org.matsim.core.router.costcalculators.FreespeedTravelTimeAndDisutility;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SpeedyManyToManyTest {
+
+	@Test
+	public void testSameAsLeastCostPathTree() {
+		Network network = SpeedyTestNetworks.createRandomGrid(20, 20, 4711);
+		FreespeedTravelTimeAndDisutility tc = new FreespeedTravelTimeAndDisutility(new PlanCalcScoreConfigGroup());
+		SpeedyGraph graph = new SpeedyGraph(network);
+		int[] fromNodes = {0, 5, 17, 123, 250, 399, 5};
+		int[] toNodes = {1, 42, 77, 200, 300, 399, 0};
+		double departureTime = 8 * 3600;
+
+		SpeedyManyToMany manyToMany = new SpeedyManyToMany(graph, tc, tc, 4);
+		SpeedyManyToMany.Matrices matrices = manyToMany.calculateMatrices(fromNodes, toNodes, departureTime, null, null, null);
+		Assert.assertEquals(fromNodes.length, matrices.getRowCount());
+		Assert.assertEquals(toNodes.length, matrices.getColumnCount());
+
+		LeastCostPathTree tree = new LeastCostPathTree(graph, tc, tc);
+		for (int row = 0; row < fromNodes.length; row++) {
+			tree.calculate(fromNodes[row], departureTime, null, null);
+			for (int col = 0; col < toNodes.length; col++) {
+				int node = toNodes[col];
+				if (tree.isFinal(node)) {
+					Assert.assertEquals((float) (tree.getTime(node).seconds() - departureTime), matrices.getTravelTime(row, col), 0.0f);
+					Assert.assertEquals((float) tree.getDistance(node), matrices.getDistance(row, col), 0.0f);
+					Assert.assertEquals((float) tree.getCost(node), matrices.getCost(row, col), 0.0f);
+				} else {
+					Assert.assertEquals(Float.POSITIVE_INFINITY, matrices.getTravelTime(row, col), 0.0f);
+				}
+			}
+		}
+		Assert.assertEquals(0.0f, matrices.getTravelTime(5, 5), 0.0f);
+	}
+
+	@Test
+	public void testStopCriterion() {
+		Network network = SpeedyTestNetworks.createRandomGrid(20, 20, 4711);
+		FreespeedTravelTimeAndDisutility tc = new FreespeedTravelTimeAndDisutility(new PlanCalcScoreConfigGroup());
+		SpeedyGraph graph = new SpeedyGraph(network);
+		int[] allNodes = new int[graph.nodeCount];
+		for (int i = 0; i < allNodes.length; i++) {
+			allNodes[i] = i;
+		}
+		SpeedyManyToMany manyToMany = new SpeedyManyToMany(graph, tc, tc, 2);
+		SpeedyManyToMany.Matrices full = manyToMany.calculateMatrices(allNodes, allNodes, 0, null, null, null);
+		double limit = 120;
+		SpeedyManyToMany.Matrices limited = manyToMany.calculateMatrices(allNodes, allNodes, 0, null, null, new LeastCostPathTree.TravelTimeStopCriterion(limit));
+
+		int reached = 0;
+		int notReached = 0;
+		for (int row = 0; row < allNodes.length; row++) {
+			for (int col = 0; col < allNodes.length; col++) {
+				float value = limited.getTravelTime(row, col);
+				if (value == Float.POSITIVE_INFINITY) {
+					notReached++;
+				} else {
+					// values which are reported must be the final ones, not tentative values of an interrupted search
+					Assert.assertEquals(full.getTravelTime(row, col), value, 0.0f);
+					Assert.assertEquals(full.getCost(row, col), limited.getCost(row, col), 0.0f);
+					reached++;
+				}
+			}
+		}
+		Assert.assertTrue(reached > 0);
+		Assert.assertTrue(notReached > 0);
+	}
+
+	@Test
+	public void testForEachOrigin() {
+		Network network = SpeedyTestNetworks.createRandomGrid(5, 5, 1);
+		FreespeedTravelTimeAndDisutility tc = new FreespeedTravelTimeAndDisutility(new PlanCalcScoreConfigGroup());
+		SpeedyManyToMany manyToMany = new SpeedyManyToMany(new SpeedyGraph(network), tc, tc, 3);
+		int[] calls = new int[1000];
+		AtomicInteger total = new AtomicInteger();
+		manyToMany.forEachOrigin(calls.length, (originIndex, tree) -> {
+			calls[originIndex]++;
+			total.incrementAndGet();
+		});
+		Assert.assertEquals(calls.length, total.get());
+		for (int count : calls) {
+			Assert.assertEquals(1, count);
+		}
+
+		try {
+			manyToMany.forEachOrigin(10, (originIndex, tree) -> {
+				throw new IllegalStateException("failed " + originIndex);
+			});
+			Assert.fail("exception expected");
+		} catch (IllegalStateException expected) {
+		}
+	}
+
+}
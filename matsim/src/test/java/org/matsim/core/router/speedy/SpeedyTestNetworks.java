@@ -0,0 +1,94 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * SpeedyTestNetworks.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2022 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.core.router.speedy;
+
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.NetworkFactory;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.network.NetworkUtils;
+
+import java.util.Random;
+
+/**
+ * Networks shared by the tests of the speedy routers.
+ */
+final class SpeedyTestNetworks {
+
+	private SpeedyTestNetworks() {
+	}
+
+	/**
+	 * Creates a grid with links in both directions, some one-way links, some parallel links and
+	 * random lengths and speeds.
+	 */
+	static Network createRandomGrid(int width, int height, long seed) {
+		Random r = new Random(seed);
+		Network network = NetworkUtils.createNetwork();
+		NetworkFactory nf = network.getFactory();
+		Node[][] nodes = new Node[width][height];
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < height; y++) {
+				nodes[x][y] = nf.createNode(Id.createNodeId(x + "_" + y), new Coord(x * 100, y * 100));
+				network.addNode(nodes[x][y]);
+			}
+		}
+		int linkCount = 0;
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < height; y++) {
+				if (x + 1 < width) {
+					linkCount = addLinks(network, nodes[x][y], nodes[x + 1][y], linkCount, r);
+				}
+				if (y + 1 < height) {
+					linkCount = addLinks(network, nodes[x][y], nodes[x][y + 1], linkCount, r);
+				}
+			}
+		}
+		return network;
+	}
+
+	private static int addLinks(Network network, Node a, Node b, int linkCount, Random r) {
+		double type = r.nextDouble();
+		if (type < 0.9) {
+			linkCount = addLink(network, a, b, linkCount, r);
+		}
+		if (type > 0.1) {
+			linkCount = addLink(network, b, a, linkCount, r);
+		}
+		if (type > 0.95) {
+			linkCount = addLink(network, b, a, linkCount, r);
+		}
+		return linkCount;
+	}
+
+	private static int addLink(Network network, Node from, Node to, int linkCount, Random r) {
+		Link link = network.getFactory().createLink(Id.createLinkId(linkCount), from, to);
+		link.setLength(100 + r.nextInt(200));
+		link.setFreespeed(5 + r.nextInt(25));
+		link.setCapacity(1000);
+		link.setNumberOfLanes(1);
+		network.addLink(link);
+		return linkCount + 1;
+	}
+}
@@ -27,16 +27,21 @@ import org.matsim.api.core.v01.Coord;
 import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.Scenario;
 import org.matsim.api.core.v01.TransportMode;
+import org.matsim.api.core.v01.events.ActivityEndEvent;
 import org.matsim.api.core.v01.events.ActivityStartEvent;
 import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.PersonArrivalEvent;
+import org.matsim.api.core.v01.events.PersonDepartureEvent;
 import org.matsim.api.core.v01.events.PersonMoneyEvent;
 import org.matsim.api.core.v01.events.PersonScoreEvent;
+import org.matsim.api.core.v01.network.Link;
 import org.matsim.api.core.v01.population.Activity;
 import org.matsim.api.core.v01.population.Leg;
 import org.matsim.api.core.v01.population.Person;
 import org.matsim.api.core.v01.population.Population;
 import org.matsim.api.core.v01.population.PopulationFactory;
 import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.api.experimental.events.TeleportationArrivalEvent;
 import org.matsim.core.config.ConfigUtils;
 import org.matsim.core.controler.ControlerListenerManagerImpl;
 import org.matsim.core.events.EventsUtils;
@@ -135,6 +140,114 @@ public class ScoringFunctionsForPopulationTest {
 		Assert.assertEquals(1.234+2.345, rsf.separateScoreSum, 1e-7);
 	}
 
+	@Test
+	public void testPartitionedScoringMatchesSequentialScoring() {
+		double[] expected = runScoring(1);
+		double[] actual = runScoring(4);
+		Assert.assertEquals(expected.length, actual.length);
+		for (int i = 0; i < expected.length; i++) {
+			Assert.assertEquals("person " + i, Double.doubleToLongBits(expected[i]), Double.doubleToLongBits(actual[i]));
+		}
+	}
+
+	private static double[] runScoring(int numberOfThreads) {
+		Scenario scenario = ScenarioUtils.createScenario(ConfigUtils.createConfig());
+		Population population = scenario.getPopulation();
+		PopulationFactory pf = population.getFactory();
+		int personCount = 5000;
+		for (int i = 0; i < personCount; i++) {
+			population.addPerson(pf.createPerson(Id.create(i, Person.class)));
+		}
+
+		ControlerListenerManagerImpl controlerListenerManager = new ControlerListenerManagerImpl();
+		EventsManager eventsManager = EventsUtils.createEventsManager();
+		EventsToActivities eventsToActivities = new EventsToActivities();
+		EventsToLegs eventsToLegs = new EventsToLegs(scenario);
+		ScoringFunctionFactory scoringFunctionFactory = agentId -> new OrderSensitiveScoringFunction();
+		ScoringFunctionsForPopulation sf = new ScoringFunctionsForPopulation(controlerListenerManager, eventsManager, eventsToActivities, eventsToLegs, population, scoringFunctionFactory, numberOfThreads);
+
+		double[] scores = new double[personCount];
+		Id<Link> linkId = Id.create("1", Link.class);
+		for (int iteration = 0; iteration < 2; iteration++) {
+			controlerListenerManager.fireControlerIterationStartsEvent(iteration, false);
+			// interleave the events of all persons, as during a simulation
+			for (int trip = 0; trip < 3; trip++) {
+				for (int i = 0; i < personCount; i++) {
+					Id<Person> personId = Id.create(i, Person.class);
+					double time = trip * 3600 + i * 0.1 + iteration;
+					sf.handleEvent(new ActivityEndEvent(time, personId, linkId, null, trip == 0 ? "home" : "work", null));
+					sf.handleEvent(new PersonDepartureEvent(time, personId, linkId, TransportMode.walk, TransportMode.walk));
+					sf.handleEvent(new TeleportationArrivalEvent(time + 600 + i, personId, 100 + i, TransportMode.walk));
+					sf.handleEvent(new PersonArrivalEvent(time + 600 + i, personId, linkId, TransportMode.walk));
+					sf.handleEvent(new ActivityStartEvent(time + 600 + i, personId, linkId, null, "work", null));
+					sf.handleEvent(new PersonMoneyEvent(time + 600 + i, personId, -0.1 * i, "fare", null));
+				}
+			}
+			sf.finishScoringFunctions();
+			for (int i = 0; i < personCount; i++) {
+				scores[i] += sf.getScoringFunctionForAgent(Id.create(i, Person.class)).getScore();
+			}
+		}
+		return scores;
+	}
+
+	/**
+	 * Mixes every call into the score in a way that depends on the order of the calls.
+	 */
+	private static class OrderSensitiveScoringFunction implements ScoringFunction {
+
+		private double score = 0;
+
+		private void mix(double value) {
+			this.score = this.score * 1.0001 + value;
+		}
+
+		@Override
+		public void handleActivity(Activity activity) {
+			mix(activity.getEndTime().orElse(-1));
+		}
+
+		@Override
+		public void handleLeg(Leg leg) {
+			mix(leg.getTravelTime().seconds() + leg.getRoute().getDistance() / 7);
+		}
+
+		@Override
+		public void handleTrip(TripStructureUtils.Trip trip) {
+			mix(trip.getTripElements().size());
+		}
+
+		@Override
+		public void agentStuck(double time) {
+			mix(-time);
+		}
+
+		@Override
+		public void addMoney(double amount) {
+			mix(amount);
+		}
+
+		@Override
+		public void addScore(double amount) {
+			mix(amount);
+		}
+
+		@Override
+		public void finish() {
+			mix(1.0 / 3);
+		}
+
+		@Override
+		public double getScore() {
+			return this.score;
+		}
+
+		@Override
+		public void handleEvent(Event event) {
+			mix(event.getTime() / 11);
+		}
+	}
+
 	private static class RecordingScoringFunction implements ScoringFunction {
 
 		int tripCounter = 0;
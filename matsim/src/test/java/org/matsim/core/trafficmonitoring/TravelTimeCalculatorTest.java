@@ -323,6 +323,57 @@ public class TravelTimeCalculatorTest extends MatsimTestCase {
 		assertEquals(linkTravelTime2, ttcalc.getLinkTravelTimes().getLinkTravelTime(link1, firstTimeBinStart + 2.5*timeBinSize, null, null), EPSILON);
 	}
 
+	/**
+	 * Tests that the travel time snapshot returns exactly the same travel times as the regular calculation,
+	 * and that it is discarded as soon as new travel times are observed.
+	 */
+	public void testTravelTimeSnapshot() {
+		for (String getterType : new String[] { "average", "linearinterpolation" }) {
+			Config config = ConfigUtils.createConfig();
+			config.travelTimeCalculator().setTravelTimeGetterType(getterType);
+			int timeBinSize = 15*60;
+			config.travelTimeCalculator().setTraveltimeBinSize(timeBinSize);
+			config.travelTimeCalculator().setMaxTime(12*3600);
+
+			Scenario scenario = ScenarioUtils.createScenario(config);
+			Network network = scenario.getNetwork();
+			final Node node1 = NetworkUtils.createAndAddNode(network, Id.create("1", Node.class), new Coord(0, 0));
+			final Node node2 = NetworkUtils.createAndAddNode(network, Id.create("2", Node.class), new Coord(1000, 0));
+			final Node node3 = NetworkUtils.createAndAddNode(network, Id.create("3", Node.class), new Coord(2000, 0));
+			Link link1 = NetworkUtils.createAndAddLink(network, Id.create("1", Link.class), node1, node2, 1000.0, 10.0, 3600.0, 1.0 );
+			Link link2 = NetworkUtils.createAndAddLink(network, Id.create("2", Link.class), node2, node3, 1000.0, 10.0, 3600.0, 1.0 );
+			Id<Vehicle> vehId = Id.create("1", Vehicle.class);
+
+			TravelTimeCalculator ttcalc = TravelTimeCalculator.create(network, config.travelTimeCalculator());
+			double[] enterTimes = { 7.0*3600, 7.0*3600 + 120, 7.5*3600 + 17, 8.0*3600 + 3, 11.9*3600 };
+			double[] travelTimes = { 50.0*60, 33.333, 400.5, 100.0, 7200.0 };
+			for (int i = 0; i < enterTimes.length; i++) {
+				ttcalc.handleEvent(new LinkEnterEvent(enterTimes[i], vehId, link1.getId()));
+				ttcalc.handleEvent(new LinkLeaveEvent(enterTimes[i] + travelTimes[i], vehId, link1.getId()));
+			}
+
+			TravelTimeCalculator reference = TravelTimeCalculator.create(network, config.travelTimeCalculator());
+			for (int i = 0; i < enterTimes.length; i++) {
+				reference.handleEvent(new LinkEnterEvent(enterTimes[i], vehId, link1.getId()));
+				reference.handleEvent(new LinkLeaveEvent(enterTimes[i] + travelTimes[i], vehId, link1.getId()));
+			}
+
+			ttcalc.createTravelTimeSnapshot();
+			for (double time = 0; time < 14*3600; time += 37) {
+				for (Link link : new Link[] { link1, link2 }) {
+					assertEquals(reference.getLinkTravelTimes().getLinkTravelTime(link, time, null, null), ttcalc.getLinkTravelTimes().getLinkTravelTime(link, time, null, null), 0.0);
+				}
+			}
+
+			// new events must not be hidden by the snapshot
+			ttcalc.handleEvent(new LinkEnterEvent(7.0*3600, vehId, link1.getId()));
+			ttcalc.handleEvent(new LinkLeaveEvent(7.0*3600 + 1000, vehId, link1.getId()));
+			reference.handleEvent(new LinkEnterEvent(7.0*3600, vehId, link1.getId()));
+			reference.handleEvent(new LinkLeaveEvent(7.0*3600 + 1000, vehId, link1.getId()));
+			assertEquals(reference.getLinkTravelTimes().getLinkTravelTime(link1, 7.0*3600, null, null), ttcalc.getLinkTravelTimes().getLinkTravelTime(link1, 7.0*3600, null, null), 0.0);
+		}
+	}
+
 	/**
 	 * Tests that calculating LinkTravelTimes works also without reading in a complete scenario including population.
 	 *
@@ -0,0 +1,140 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * KDTreeTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2022 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.core.utils.collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.matsim.core.utils.collections.QuadTree.Rect;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Test for {@link KDTree}, mostly by comparing it to {@link QuadTree}.
+ */
+public class KDTreeTest {
+
+	@Test
+	public void testSimpleQueries() {
+		KDTree<String> tree = new KDTree.Builder<String>()
+				.put(10.0, 10.0, "10.0, 10.0")
+				.put(15.0, 15.0, "15.0, 15.0")
+				.put(-15.0, 0.0, "-15.0, 0.0")
+				.put(20.0, 10.0, "20.0, 10.0")
+				.put(100.0, 0.0, "100.0, 0.0")
+				.put(15.0, 15.0, "15.0, 15.0 B")
+				.build();
+
+		Assert.assertEquals(6, tree.size());
+		Assert.assertEquals(-15.0, tree.getMinEasting(), 0.0);
+		Assert.assertEquals(100.0, tree.getMaxEasting(), 0.0);
+		Assert.assertEquals(0.0, tree.getMinNorthing(), 0.0);
+		Assert.assertEquals(15.0, tree.getMaxNorthing(), 0.0);
+
+		Assert.assertEquals("10.0, 10.0", tree.getClosest(0.0, 0.0));
+		// the value added first wins if two values have the same distance
+		Assert.assertEquals("15.0, 15.0", tree.getClosest(16.0, 16.0));
+		Assert.assertEquals("100.0, 0.0", tree.getClosest(1000.0, 0.0));
+
+		Assert.assertEquals(2, tree.getDisk(15.0, 15.0, 5.0).size());
+		Collection<String> values = tree.getDisk(15.0, 15.0, 7.5);
+		Assert.assertEquals(4, values.size());
+		Assert.assertTrue(values.contains("15.0, 15.0 B"));
+		Assert.assertTrue(values.contains("20.0, 10.0"));
+
+		Assert.assertEquals(3, tree.getRectangle(10.0, 10.0, 15.0, 15.0, new ArrayList<>()).size());
+		// execute() does not include the maximum border, like QuadTree
+		Assert.assertEquals(1, tree.execute(new Rect(10.0, 10.0, 15.0, 15.0), (x, y, value) -> {}));
+		Assert.assertEquals(6, tree.execute(null, (x, y, value) -> {}));
+		Assert.assertEquals(6, tree.values().size());
+	}
+
+	@Test
+	public void testEmpty() {
+		KDTree<String> tree = new KDTree.Builder<String>().build();
+		Assert.assertEquals(0, tree.size());
+		Assert.assertNull(tree.getClosest(0.0, 0.0));
+		Assert.assertTrue(tree.getDisk(0.0, 0.0, 100.0).isEmpty());
+	}
+
+	@Test
+	public void testCompareWithQuadTree() {
+		Random r = new Random(20221017);
+		QuadTree<Integer> quadTree = new QuadTree<>(0, 0, 10000, 10000);
+		KDTree.Builder<Integer> builder = new KDTree.Builder<>();
+		for (int i = 0; i < 5000; i++) {
+			// use a coarse grid so there are many points with the same coordinates
+			double x = r.nextInt(200) * 50.0;
+			double y = r.nextInt(100) * 100.0;
+			quadTree.put(x, y, i);
+			builder.put(x, y, i);
+		}
+		KDTree<Integer> tree = builder.build();
+		KDTree<Integer> copy = KDTree.of(quadTree);
+		Assert.assertEquals(quadTree.size(), tree.size());
+		Assert.assertEquals(quadTree.size(), copy.size());
+
+		for (int i = 0; i < 500; i++) {
+			double x = r.nextDouble() * 11000 - 500;
+			double y = r.nextDouble() * 11000 - 500;
+			double radius = r.nextDouble() * 1000;
+
+			Integer closest = tree.getClosest(x, y);
+			Integer expected = quadTree.getClosest(x, y);
+			Assert.assertEquals(distance(expected, x, y), distance(closest, x, y), 1e-9);
+
+			Assert.assertEquals(asSet(quadTree.getDisk(x, y, radius)), asSet(tree.getDisk(x, y, radius)));
+			Assert.assertEquals(asSet(quadTree.getDisk(x, y, radius)), asSet(copy.getDisk(x, y, radius)));
+			Assert.assertEquals(asSet(quadTree.getRing(x, y, radius / 2, radius)), asSet(tree.getRing(x, y, radius / 2, radius)));
+			Assert.assertEquals(asSet(quadTree.getElliptical(x, y, x + radius / 2, y, radius)), asSet(tree.getElliptical(x, y, x + radius / 2, y, radius)));
+
+			Rect rect = new Rect(x, y, x + radius, y + radius / 2);
+			Assert.assertEquals(asSet(quadTree.getRectangle(rect, new ArrayList<>())), asSet(tree.getRectangle(rect, new ArrayList<>())));
+			List<Integer> expectedExecuted = new ArrayList<>();
+			List<Integer> executed = new ArrayList<>();
+			Assert.assertEquals(quadTree.execute(rect, (px, py, value) -> expectedExecuted.add(value)), tree.execute(rect, (px, py, value) -> executed.add(value)));
+			Assert.assertEquals(asSet(expectedExecuted), asSet(executed));
+		}
+	}
+
+	private static double distance(Integer value, double x, double y) {
+		Random r = new Random(20221017);
+		double px = 0;
+		double py = 0;
+		for (int i = 0; i <= value; i++) {
+			px = r.nextInt(200) * 50.0;
+			py = r.nextInt(100) * 100.0;
+		}
+		return Math.sqrt((px - x) * (px - x) + (py - y) * (py - y));
+	}
+
+	private static Set<Integer> asSet(Collection<Integer> values) {
+		Set<Integer> set = new HashSet<>(values);
+		Assert.assertEquals("duplicate values", values.size(), set.size());
+		return set;
+	}
+
+}